@@ -0,0 +1,122 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.Batch;
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.Source;
+import org.g_node.nix.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>BatchBenchmark</h1>
+ * Creation of many entities one by one and with {@link Block#batch()}.
+ * <p>
+ * Every invocation creates <tt>count</tt> entities in a new block, the creation rate
+ * is <tt>count</tt> divided by the reported time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final NDSize SHAPE = new NDSize(new int[]{16});
+    private static final double[] POSITION = {0.5};
+
+    @Param({"100", "1000"})
+    public int count;
+
+    private File file;
+    private Block block;
+    private int blocks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        file = Generators.createFile("bench_batch_");
+    }
+
+    @Setup(Level.Invocation)
+    public void newBlock() {
+        block = file.createBlock("block_" + blocks++, "bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(file);
+    }
+
+    @Benchmark
+    public List<DataArray> dataArrays() {
+        List<DataArray> arrays = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            arrays.add(block.createDataArray("array_" + i, "bench", DataType.Double, SHAPE));
+        }
+        return arrays;
+    }
+
+    @Benchmark
+    public List<DataArray> dataArraysBatch() {
+        Batch batch = block.batch();
+        for (int i = 0; i < count; i++) {
+            batch.dataArray("array_" + i, "bench", DataType.Double, SHAPE);
+        }
+        return batch.commit().getDataArrays();
+    }
+
+    @Benchmark
+    public List<Tag> tags() {
+        List<Tag> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add(block.createTag("tag_" + i, "bench", POSITION));
+        }
+        return tags;
+    }
+
+    @Benchmark
+    public List<Tag> tagsBatch() {
+        Batch batch = block.batch();
+        for (int i = 0; i < count; i++) {
+            batch.tag("tag_" + i, "bench", POSITION);
+        }
+        return batch.commit().getTags();
+    }
+
+    @Benchmark
+    public List<Source> sources() {
+        List<Source> sources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sources.add(block.createSource("source_" + i, "bench"));
+        }
+        return sources;
+    }
+
+    @Benchmark
+    public List<Source> sourcesBatch() {
+        Batch batch = block.batch();
+        for (int i = 0; i < count; i++) {
+            batch.source("source_" + i, "bench");
+        }
+        return batch.commit().getSources();
+    }
+}
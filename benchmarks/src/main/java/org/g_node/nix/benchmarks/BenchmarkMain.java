@@ -0,0 +1,39 @@
+package org.g_node.nix.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>BenchmarkMain</h1>
+ * Entry point of <tt>benchmarks.jar</tt>.
+ * <p>
+ * Runs the JMH benchmarks like {@link org.openjdk.jmh.Main} but writes the results as JSON to
+ * <tt>jmh-result.json</tt> unless another format or file is given, so runs can be compared.
+ * <pre><code>
+ *     $ java -jar target/benchmarks.jar DataIOBenchmark -rff before.json
+ * </code></pre>
+ */
+public final class BenchmarkMain {
+
+    /**
+     * Default file for the results.
+     */
+    public static final String RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        if (!options.contains("-rff")) {
+            options.add("-rff");
+            options.add(RESULT_FILE);
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[options.size()]));
+    }
+}
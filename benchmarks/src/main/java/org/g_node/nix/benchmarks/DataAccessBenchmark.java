@@ -0,0 +1,87 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.DataView;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.SampledDimension;
+import org.g_node.nix.Tag;
+import org.g_node.nix.util.DataAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>DataAccessBenchmark</h1>
+ * {@link DataAccess#retrieveData(Tag, long)} and the position conversions it is built on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataAccessBenchmark {
+
+    private static final int SAMPLES = 1 << 20;
+    private static final double INTERVAL = 0.001;
+
+    @Param({"1000", "100000"})
+    public int extent;
+
+    private File file;
+    private Tag tag;
+    private SampledDimension dimension;
+    private double[] positions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        file = Generators.createFile("bench_data_access_");
+        Block block = file.createBlock("block", "benchmark");
+
+        DataArray array = block.createDataArray("signal", "benchmark", DataType.Double, new NDSize(new int[]{SAMPLES}));
+        array.setData(generators.doubles(SAMPLES), new NDSize(new int[]{SAMPLES}), new NDSize(new int[]{0}));
+        dimension = array.appendSampledDimension(INTERVAL);
+        dimension.setUnit("s");
+
+        tag = block.createTag("tag", "benchmark", new double[]{1.0});
+        tag.setExtent(new double[]{extent * INTERVAL});
+        tag.addReference(array);
+
+        positions = new double[1000];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i * SAMPLES * INTERVAL / positions.length;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(file);
+    }
+
+    @Benchmark
+    public NDSize retrieveData() {
+        DataView view = DataAccess.retrieveData(tag, 0);
+        return view.getDataExtent();
+    }
+
+    @Benchmark
+    public long[] positionToIndex() {
+        return DataAccess.positionToIndex(positions, "s", dimension);
+    }
+}
@@ -0,0 +1,120 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>DataIOBenchmark</h1>
+ * {@link DataArray#getData} and {@link DataArray#setData} of whole one dimensional arrays per
+ * data type and size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataIOBenchmark {
+
+    @Param({"Double", "Float", "Int32", "Int64"})
+    public String dataType;
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    private File file;
+    private DataArray array;
+    private NDSize count;
+    private NDSize offset;
+
+    private double[] doubles;
+    private float[] floats;
+    private int[] ints;
+    private long[] longs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        file = Generators.createFile("bench_data_io_");
+        Block block = file.createBlock("block", "benchmark");
+        count = new NDSize(new int[]{size});
+        offset = new NDSize(new int[]{0});
+
+        switch (dataType) {
+            case "Double":
+                array = block.createDataArray("data", "benchmark", DataType.Double, count);
+                doubles = generators.doubles(size);
+                array.setData(doubles, count, offset);
+                break;
+            case "Float":
+                array = block.createDataArray("data", "benchmark", DataType.Float, count);
+                floats = generators.floats(size);
+                array.setData(floats, count, offset);
+                break;
+            case "Int32":
+                array = block.createDataArray("data", "benchmark", DataType.Int32, count);
+                ints = generators.ints(size);
+                array.setData(ints, count, offset);
+                break;
+            case "Int64":
+                array = block.createDataArray("data", "benchmark", DataType.Int64, count);
+                longs = generators.longs(size);
+                array.setData(longs, count, offset);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type " + dataType);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(file);
+    }
+
+    @Benchmark
+    public Object getData() {
+        if (doubles != null) {
+            array.getData(doubles, count, offset);
+            return doubles;
+        } else if (floats != null) {
+            array.getData(floats, count, offset);
+            return floats;
+        } else if (ints != null) {
+            array.getData(ints, count, offset);
+            return ints;
+        }
+        array.getData(longs, count, offset);
+        return longs;
+    }
+
+    @Benchmark
+    public void setData() {
+        if (doubles != null) {
+            array.setData(doubles, count, offset);
+        } else if (floats != null) {
+            array.setData(floats, count, offset);
+        } else if (ints != null) {
+            array.setData(ints, count, offset);
+        } else {
+            array.setData(longs, count, offset);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.File;
+import org.g_node.nix.FileMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>FileBenchmark</h1>
+ * {@link File#open(String, int)} and {@link File#close()} of existing and new files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileBenchmark {
+
+    @Param({"0", "1000"})
+    public int sections;
+
+    private String existing;
+    private String created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        File file = Generators.createFile("bench_file_");
+        for (int i = 0; i < sections; i++) {
+            file.createSection("section_" + i, generators.type());
+        }
+        existing = file.getLocation();
+        file.close();
+        created = Generators.tempLocation("bench_file_new_");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(existing);
+        Generators.deleteFile(created);
+    }
+
+    @Benchmark
+    public void openReadOnly() {
+        File.open(existing, FileMode.ReadOnly).close();
+    }
+
+    @Benchmark
+    public void openReadWrite() {
+        File.open(existing, FileMode.ReadWrite).close();
+    }
+
+    @Benchmark
+    public void create() {
+        File.open(created, FileMode.Overwrite).close();
+    }
+}
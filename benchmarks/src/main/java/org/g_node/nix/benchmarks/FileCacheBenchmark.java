@@ -0,0 +1,109 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.File;
+import org.g_node.nix.FileMode;
+import org.g_node.nix.FileOptions;
+import org.g_node.nix.NDSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>FileCacheBenchmark</h1>
+ * Random reads of small blocks from a 64 MiB chunked data array with different {@link FileOptions}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileCacheBenchmark {
+
+    private static final int ROWS = 8192;
+    private static final int COLUMNS = 1024;
+    private static final int BLOCK = 32;
+    private static final int READS = 4096;
+
+    /**
+     * Chunk cache size in MiB, 0 for the HDF5 default.
+     */
+    @Param({"0", "16", "128"})
+    public int chunkCache;
+
+    /**
+     * Preemption policy of the chunk cache.
+     */
+    @Param({"0.75", "0.0"})
+    public double w0;
+
+    private String location;
+    private File file;
+    private DataArray array;
+    private int[][] offsets;
+    private double[] buffer;
+    private NDSize count;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        File created = Generators.createFile("bench_file_cache_");
+        location = created.getLocation();
+        Block block = created.createBlock("block", "benchmark");
+        DataArray matrix = block.createDataArray("matrix", "benchmark", DataType.Double,
+                new NDSize(new int[]{ROWS, COLUMNS}));
+        int rows = 256;
+        for (int r = 0; r < ROWS; r += rows) {
+            matrix.setData(generators.doubles(rows * COLUMNS), new NDSize(new int[]{rows, COLUMNS}),
+                    new NDSize(new int[]{r, 0}));
+        }
+        created.close();
+
+        FileOptions options = new FileOptions().setChunkCacheW0(w0);
+        if (chunkCache > 0) {
+            // a prime about a hundred times the number of cached 64 KiB chunks
+            options.setChunkCacheSize((long) chunkCache << 20).setChunkCacheSlots(chunkCache * 1601L);
+        }
+        file = File.open(location, FileMode.ReadOnly, options);
+        array = file.getBlock("block").getDataArray("matrix");
+
+        // reads concentrate on a working set of a quarter of the array
+        Random random = new Random(Generators.SEED);
+        offsets = new int[READS][];
+        for (int i = 0; i < READS; i++) {
+            offsets[i] = new int[]{random.nextInt(ROWS / 4 - BLOCK), random.nextInt(COLUMNS - BLOCK)};
+        }
+        buffer = new double[BLOCK * BLOCK];
+        count = new NDSize(new int[]{BLOCK, BLOCK});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(file);
+    }
+
+    @Benchmark
+    public double[] randomRead() {
+        int[] offset = offsets[next];
+        next = (next + 1) % READS;
+        array.getData(buffer, count, new NDSize(offset));
+        return buffer;
+    }
+}
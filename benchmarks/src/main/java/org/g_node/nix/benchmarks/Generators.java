@@ -0,0 +1,241 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.File;
+import org.g_node.nix.FileMode;
+import org.g_node.nix.Section;
+import org.g_node.nix.Source;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * <h1>Generators</h1>
+ * Reproducible synthetic data and files for the benchmarks.
+ * <p>
+ * All values are drawn from a {@link Random} with a fixed seed, so every run of a benchmark
+ * works on identical data. Entity names are derived from their position in the tree and
+ * their types are drawn from {@link Generators#TYPES}.
+ */
+public final class Generators {
+
+    /**
+     * Seed used by all benchmarks.
+     */
+    public static final long SEED = 0x6e6978L;
+
+    /**
+     * Types assigned to generated entities.
+     */
+    public static final String[] TYPES = {"type.a", "type.b", "type.c", "type.d"};
+
+    private final Random random;
+
+    /**
+     * Creates a generator with the default seed.
+     */
+    public Generators() {
+        this(SEED);
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed The seed.
+     */
+    public Generators(long seed) {
+        this.random = new Random(seed);
+    }
+
+    //--------------------------------------------------
+    // Data
+    //--------------------------------------------------
+
+    /**
+     * Draws normally distributed doubles.
+     *
+     * @param n The number of values.
+     * @return The values.
+     */
+    public double[] doubles(int n) {
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = random.nextGaussian();
+        }
+        return data;
+    }
+
+    /**
+     * Draws normally distributed floats.
+     *
+     * @param n The number of values.
+     * @return The values.
+     */
+    public float[] floats(int n) {
+        float[] data = new float[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = (float) random.nextGaussian();
+        }
+        return data;
+    }
+
+    /**
+     * Draws uniformly distributed ints.
+     *
+     * @param n The number of values.
+     * @return The values.
+     */
+    public int[] ints(int n) {
+        int[] data = new int[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = random.nextInt();
+        }
+        return data;
+    }
+
+    /**
+     * Draws uniformly distributed longs.
+     *
+     * @param n The number of values.
+     * @return The values.
+     */
+    public long[] longs(int n) {
+        long[] data = new long[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = random.nextLong();
+        }
+        return data;
+    }
+
+    /**
+     * Draws one of the generated types.
+     *
+     * @return The type.
+     */
+    public String type() {
+        return TYPES[random.nextInt(TYPES.length)];
+    }
+
+    /**
+     * Draws one of the given elements.
+     *
+     * @param elements The elements.
+     * @param <T>      The type of the elements.
+     * @return The element.
+     */
+    public <T> T pick(T[] elements) {
+        return elements[random.nextInt(elements.length)];
+    }
+
+    //--------------------------------------------------
+    // Trees
+    //--------------------------------------------------
+
+    /**
+     * Creates a section tree with <tt>fanout</tt> children per section.
+     *
+     * @param file   The file.
+     * @param depth  The number of levels.
+     * @param fanout The number of sections per parent.
+     * @return The number of created sections.
+     */
+    public int sectionTree(File file, int depth, int fanout) {
+        int count = 0;
+        for (int i = 0; i < fanout; i++) {
+            count += sectionTree(file.createSection("s_" + i, type()), "s_" + i, depth - 1, fanout);
+        }
+        return count;
+    }
+
+    private int sectionTree(Section parent, String name, int depth, int fanout) {
+        int count = 1;
+        for (int i = 0; depth > 0 && i < fanout; i++) {
+            String child = name + "_" + i;
+            count += sectionTree(parent.createSection(child, type()), child, depth - 1, fanout);
+        }
+        return count;
+    }
+
+    /**
+     * Creates a source tree with <tt>fanout</tt> children per source.
+     *
+     * @param block  The block.
+     * @param depth  The number of levels.
+     * @param fanout The number of sources per parent.
+     * @return The number of created sources.
+     */
+    public int sourceTree(Block block, int depth, int fanout) {
+        int count = 0;
+        for (int i = 0; i < fanout; i++) {
+            count += sourceTree(block.createSource("s_" + i, type()), "s_" + i, depth - 1, fanout);
+        }
+        return count;
+    }
+
+    private int sourceTree(Source parent, String name, int depth, int fanout) {
+        int count = 1;
+        for (int i = 0; depth > 0 && i < fanout; i++) {
+            String child = name + "_" + i;
+            count += sourceTree(parent.createSource(child, type()), child, depth - 1, fanout);
+        }
+        return count;
+    }
+
+    //--------------------------------------------------
+    // Files
+    //--------------------------------------------------
+
+    /**
+     * Get an unused path in the temporary directory.
+     *
+     * @param prefix The prefix of the file name.
+     * @return The path.
+     */
+    public static String tempLocation(String prefix) {
+        try {
+            Path path = Files.createTempFile(prefix, ".h5");
+            Files.delete(path);
+            return path.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a new file in the temporary directory.
+     *
+     * @param prefix The prefix of the file name.
+     * @return The file.
+     */
+    public static File createFile(String prefix) {
+        return File.open(tempLocation(prefix), FileMode.Overwrite);
+    }
+
+    /**
+     * Closes and deletes a file.
+     *
+     * @param file The file.
+     */
+    public static void deleteFile(File file) {
+        String location = file.getLocation();
+        file.close();
+        deleteFile(location);
+    }
+
+    /**
+     * Deletes a file.
+     *
+     * @param location The path of the file.
+     */
+    public static void deleteFile(String location) {
+        try {
+            Files.deleteIfExists(Paths.get(location));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
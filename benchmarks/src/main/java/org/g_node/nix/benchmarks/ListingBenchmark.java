@@ -0,0 +1,90 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.Section;
+import org.g_node.nix.Source;
+import org.g_node.nix.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>ListingBenchmark</h1>
+ * Listing of the entities of a block and a file, which goes through the vectors of
+ * {@link org.g_node.nix.internal.VectorUtils}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int count;
+
+    private File file;
+    private Block block;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        file = Generators.createFile("bench_listing_");
+        block = file.createBlock("block", "benchmark");
+        NDSize extent = new NDSize(new int[]{1});
+        for (int i = 0; i < count; i++) {
+            block.createDataArray("array_" + i, generators.type(), DataType.Double, extent);
+            block.createTag("tag_" + i, generators.type(), new double[]{i});
+            block.createSource("source_" + i, generators.type());
+            file.createSection("section_" + i, generators.type());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(file);
+    }
+
+    @Benchmark
+    public List<DataArray> getDataArrays() {
+        return block.getDataArrays();
+    }
+
+    @Benchmark
+    public List<Tag> getTags() {
+        return block.getTags();
+    }
+
+    @Benchmark
+    public List<Source> getSources() {
+        return block.getSources();
+    }
+
+    @Benchmark
+    public List<Section> getSections() {
+        return file.getSections();
+    }
+
+    @Benchmark
+    public List<DataArray> getDataArraysFiltered() {
+        return block.getDataArrays(array -> Generators.TYPES[0].equals(array.getType()));
+    }
+}
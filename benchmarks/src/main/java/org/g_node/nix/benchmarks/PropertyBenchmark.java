@@ -0,0 +1,94 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.File;
+import org.g_node.nix.Property;
+import org.g_node.nix.Section;
+import org.g_node.nix.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>PropertyBenchmark</h1>
+ * Access to the properties of a section and to their values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyBenchmark {
+
+    @Param({"10", "100"})
+    public int properties;
+
+    @Param({"1", "100"})
+    public int values;
+
+    private File file;
+    private Section section;
+    private Property property;
+    private Value value;
+    private String lastName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        file = Generators.createFile("bench_property_");
+        section = file.createSection("section", "benchmark");
+        for (int i = 0; i < properties; i++) {
+            List<Value> list = new ArrayList<>();
+            for (double d : generators.doubles(values)) {
+                list.add(new Value(d));
+            }
+            property = section.createProperty("property_" + i, list);
+        }
+        lastName = "property_" + (properties - 1);
+        value = property.getValues().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(file);
+    }
+
+    @Benchmark
+    public Property getProperty() {
+        return section.getProperty(lastName);
+    }
+
+    @Benchmark
+    public List<Property> getProperties() {
+        return section.getProperties();
+    }
+
+    @Benchmark
+    public List<Value> getValues() {
+        return property.getValues();
+    }
+
+    @Benchmark
+    public double getDouble() {
+        return value.getDouble();
+    }
+
+    @Benchmark
+    public Value createValue() {
+        return new Value(1.5);
+    }
+}
@@ -0,0 +1,74 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.File;
+import org.g_node.nix.FileMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>StartupBenchmark</h1>
+ * Cost of the first {@link File#open(String, int)} in a fresh JVM, including class
+ * initialization and loading of the native libraries.
+ * <p>
+ * Every measurement runs in its own fork. The file is created by a separate process
+ * beforehand, so nothing of the bindings is loaded before the measurement. Running
+ * {@link StartupBenchmark#main(String[])} directly prints the time from JVM start to the
+ * first opened file instead.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private String location;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        location = Generators.tempLocation("bench_startup_");
+        Process process = new ProcessBuilder(System.getProperty("java.home") + "/bin/java",
+                "-cp", System.getProperty("java.class.path"), StartupBenchmark.class.getName(), location)
+                .inheritIO()
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Could not create " + location);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(location);
+    }
+
+    @Benchmark
+    public void firstOpen() {
+        File.open(location, FileMode.ReadOnly).close();
+    }
+
+    /**
+     * Opens a file and prints the milliseconds since the start of the JVM.
+     *
+     * @param args The path of the file, created if it does not exist.
+     */
+    public static void main(String[] args) {
+        File file = File.open(args[0], new java.io.File(args[0]).exists() ? FileMode.ReadOnly : FileMode.Overwrite);
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        file.close();
+        System.out.println("JVM start to first File.open: " + uptime + " ms");
+    }
+}
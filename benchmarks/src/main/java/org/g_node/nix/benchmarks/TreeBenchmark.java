@@ -0,0 +1,90 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.File;
+import org.g_node.nix.Section;
+import org.g_node.nix.Source;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>TreeBenchmark</h1>
+ * <tt>findSections</tt> and <tt>findSources</tt> on synthetic trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TreeBenchmark {
+
+    @Param({"3", "5"})
+    public int depth;
+
+    @Param({"2", "4"})
+    public int fanout;
+
+    private File file;
+    private Block block;
+    private Section root;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        file = Generators.createFile("bench_tree_");
+        block = file.createBlock("block", "benchmark");
+        generators.sectionTree(file, depth, fanout);
+        generators.sourceTree(block, depth, fanout);
+        root = file.getSections().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Generators.deleteFile(file);
+    }
+
+    @Benchmark
+    public List<Section> findSectionsInFile() {
+        return file.findSections(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Section> findSectionsFiltered() {
+        return file.findSections(section -> Generators.TYPES[0].equals(section.getType()), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Section> findSectionsInSection() {
+        return root.findSections();
+    }
+
+    @Benchmark
+    public List<Source> findSources() {
+        return block.findSources();
+    }
+
+    @Benchmark
+    public List<Source> findSourcesFiltered() {
+        return block.findSources(source -> Generators.TYPES[0].equals(source.getType()));
+    }
+
+    @Benchmark
+    public long streamSections() {
+        return file.streamSections().count();
+    }
+}
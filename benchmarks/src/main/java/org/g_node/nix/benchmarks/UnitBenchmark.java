@@ -0,0 +1,63 @@
+package org.g_node.nix.benchmarks;
+
+import org.g_node.nix.util.UnitCache;
+import org.g_node.nix.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>UnitBenchmark</h1>
+ * Per-tag unit conversion with the native {@link Util} functions and with {@link UnitCache}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnitBenchmark {
+
+    private static final int TAGS = 1000;
+    private static final String[] UNITS = {"s", "ms", "us", "ns", "ks", "ps"};
+
+    private String[] tagUnits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Generators generators = new Generators();
+        tagUnits = new String[TAGS];
+        for (int i = 0; i < TAGS; i++) {
+            tagUnits[i] = generators.pick(UNITS);
+        }
+        UnitCache.clear();
+    }
+
+    @Benchmark
+    public double nativeScaling() {
+        double sum = 0;
+        for (String unit : tagUnits) {
+            sum += Util.getSIScaling(unit, "s");
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double cachedScaling() {
+        double sum = 0;
+        for (String unit : tagUnits) {
+            sum += UnitCache.getSIScaling(unit, "s");
+        }
+        return sum;
+    }
+}
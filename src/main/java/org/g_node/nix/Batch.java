@@ -0,0 +1,292 @@
+package org.g_node.nix;
+
+import org.bytedeco.javacpp.annotation.*;
+import org.bytedeco.javacpp.annotation.Properties;
+import org.g_node.nix.internal.*;
+
+import java.util.*;
+
+/**
+ * <h1>Batch</h1>
+ * Creates many sources, data arrays and tags of a block in one native call per entity kind.
+ * <p>
+ * The specifications are collected in Java, names must be unique per entity kind within the batch.
+ * On {@link Batch#commit()} sources are created first, then data arrays, then tags. If a creation
+ * fails, e.g. because a name already exists in the block, the entities of the batch that were
+ * already created are deleted again, so a batch is created either completely or not at all.
+ * <pre><code>
+ *      Block b = ...;
+ *      Batch.Entities created = b.batch()
+ *              .source("cell 1", "nix.cell")
+ *              .dataArray("trace 1", "nix.sampled", DataType.Double, new NDSize(new int[]{1000}))
+ *              .tag("stimulus 1", "nix.event", new double[]{0.5})
+ *              .commit();
+ *      DataArray trace = created.getDataArrays().get(0);
+ * </code></pre>
+ *
+ * @see Block#batch()
+ */
+@Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
+        @Platform(include = {"<nix/Block.hpp>", "batchhelper.hpp"}),
+        @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
+        @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
+        @Platform(value = "windows",
+                link = BuildLibs.NIX,
+                preload = {BuildLibs.HDF5, BuildLibs.MSVCP120, BuildLibs.MSVCR120, BuildLibs.SZIP, BuildLibs.ZLIB})})
+public class Batch {
+
+    static {
+        NativeLibrary.load();
+    }
+
+    private final Block block;
+    private boolean committed;
+
+    private final List<String> sourceNames = new ArrayList<>();
+    private final List<String> sourceTypes = new ArrayList<>();
+
+    private final List<String> arrayNames = new ArrayList<>();
+    private final List<String> arrayTypes = new ArrayList<>();
+    private final List<Integer> arrayDataTypes = new ArrayList<>();
+    private final List<int[]> arrayShapes = new ArrayList<>();
+
+    private final List<String> tagNames = new ArrayList<>();
+    private final List<String> tagTypes = new ArrayList<>();
+    private final List<double[]> tagPositions = new ArrayList<>();
+
+    // names per entity kind, for the uniqueness check
+    private final Set<String> sourceSet = new HashSet<>();
+    private final Set<String> arraySet = new HashSet<>();
+    private final Set<String> tagSet = new HashSet<>();
+
+    /**
+     * The entities created by a batch, in the order in which they were added.
+     */
+    public static class Entities {
+        private final List<Source> sources;
+        private final List<DataArray> dataArrays;
+        private final List<Tag> tags;
+
+        Entities(List<Source> sources, List<DataArray> dataArrays, List<Tag> tags) {
+            this.sources = sources;
+            this.dataArrays = dataArrays;
+            this.tags = tags;
+        }
+
+        /**
+         * Get the created sources.
+         *
+         * @return The sources.
+         */
+        public List<Source> getSources() {
+            return sources;
+        }
+
+        /**
+         * Get the created data arrays.
+         *
+         * @return The data arrays.
+         */
+        public List<DataArray> getDataArrays() {
+            return dataArrays;
+        }
+
+        /**
+         * Get the created tags.
+         *
+         * @return The tags.
+         */
+        public List<Tag> getTags() {
+            return tags;
+        }
+    }
+
+    Batch(Block block) {
+        this.block = block;
+    }
+
+    @Namespace("::nix_java")
+    private static native
+    @ByVal
+    VectorUtils.SourceVector create_sources(@ByRef Block block,
+                                            @Const @ByRef VectorUtils.StringVector names,
+                                            @Const @ByRef VectorUtils.StringVector types);
+
+    @Namespace("::nix_java")
+    private static native
+    @ByVal
+    VectorUtils.DataArrayVector create_data_arrays(@ByRef Block block,
+                                                   @Const @ByRef VectorUtils.StringVector names,
+                                                   @Const @ByRef VectorUtils.StringVector types,
+                                                   @StdVector int[] dtypes,
+                                                   @StdVector int[] ranks,
+                                                   @StdVector int[] extents);
+
+    @Namespace("::nix_java")
+    private static native
+    @ByVal
+    VectorUtils.TagVector create_tags(@ByRef Block block,
+                                      @Const @ByRef VectorUtils.StringVector names,
+                                      @Const @ByRef VectorUtils.StringVector types,
+                                      @StdVector int[] ranks,
+                                      @StdVector double[] positions);
+
+    /**
+     * Adds a root source to the batch.
+     *
+     * @param name The name of the source.
+     * @param type The type of the source.
+     * @return The batch.
+     * @see Block#createSource(String, String)
+     */
+    public Batch source(String name, String type) {
+        checkOpen();
+        checkName(name, sourceSet, "Source");
+        sourceNames.add(name);
+        sourceTypes.add(type);
+        return this;
+    }
+
+    /**
+     * Adds a data array to the batch.
+     *
+     * @param name     The name of the data array.
+     * @param type     The type of the data array.
+     * @param dataType A {@link DataType} indicating the format to store values.
+     * @param shape    The extent of the data array.
+     * @return The batch.
+     * @see Block#createDataArray(String, String, int, NDSize)
+     */
+    public Batch dataArray(String name, String type, int dataType, NDSize shape) {
+        checkOpen();
+        checkName(name, arraySet, "DataArray");
+        arrayNames.add(name);
+        arrayTypes.add(type);
+        arrayDataTypes.add(dataType);
+        arrayShapes.add(shape.getData());
+        return this;
+    }
+
+    /**
+     * Adds a tag to the batch.
+     *
+     * @param name     The name of the tag.
+     * @param type     The type of the tag.
+     * @param position The position of the tag.
+     * @return The batch.
+     * @see Block#createTag(String, String, double[])
+     */
+    public Batch tag(String name, String type, double[] position) {
+        checkOpen();
+        if (position == null) {
+            throw new IllegalArgumentException("Position must not be null");
+        }
+        checkName(name, tagSet, "Tag");
+        tagNames.add(name);
+        tagTypes.add(type);
+        tagPositions.add(position.clone());
+        return this;
+    }
+
+    /**
+     * Get the number of entities in the batch.
+     *
+     * @return The number of entities.
+     */
+    public int size() {
+        return sourceNames.size() + arrayNames.size() + tagNames.size();
+    }
+
+    /**
+     * Creates all entities of the batch. A batch can only be committed once.
+     *
+     * @return The created entities.
+     */
+    public Entities commit() {
+        checkOpen();
+        committed = true;
+        ChangeTracker.changed(block);
+
+        List<Source> sources = Collections.emptyList();
+        List<DataArray> arrays = Collections.emptyList();
+        List<Tag> tags = Collections.emptyList();
+        synchronized (NativeLock.LOCK) {
+            try {
+                if (!sourceNames.isEmpty()) {
+                    sources = create_sources(block, new VectorUtils.StringVector(sourceNames),
+                            new VectorUtils.StringVector(sourceTypes)).getSources();
+                }
+                if (!arrayNames.isEmpty()) {
+                    arrays = createDataArrays();
+                }
+                if (!tagNames.isEmpty()) {
+                    tags = createTags();
+                }
+            } catch (RuntimeException e) {
+                // the failing call has removed its own entities, remove those of the earlier calls
+                for (DataArray array : arrays) {
+                    block.deleteDataArray(array);
+                }
+                for (Source source : sources) {
+                    block.deleteSource(source);
+                }
+                throw e;
+            }
+        }
+        return new Entities(sources, arrays, tags);
+    }
+
+    private List<DataArray> createDataArrays() {
+        int n = arrayNames.size();
+        int[] dtypes = new int[n];
+        int[] ranks = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            dtypes[i] = arrayDataTypes.get(i);
+            ranks[i] = arrayShapes.get(i).length;
+            total += ranks[i];
+        }
+        int[] extents = new int[total];
+        int next = 0;
+        for (int[] shape : arrayShapes) {
+            System.arraycopy(shape, 0, extents, next, shape.length);
+            next += shape.length;
+        }
+        return create_data_arrays(block, new VectorUtils.StringVector(arrayNames),
+                new VectorUtils.StringVector(arrayTypes), dtypes, ranks, extents).getDataArrays();
+    }
+
+    private List<Tag> createTags() {
+        int n = tagNames.size();
+        int[] ranks = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            ranks[i] = tagPositions.get(i).length;
+            total += ranks[i];
+        }
+        double[] positions = new double[total];
+        int next = 0;
+        for (double[] position : tagPositions) {
+            System.arraycopy(position, 0, positions, next, position.length);
+            next += position.length;
+        }
+        return create_tags(block, new VectorUtils.StringVector(tagNames),
+                new VectorUtils.StringVector(tagTypes), ranks, positions).getTags();
+    }
+
+    private void checkOpen() {
+        if (committed) {
+            throw new IllegalStateException("Batch was already committed");
+        }
+    }
+
+    private static void checkName(String name, Set<String> names, String kind) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException(kind + " name must not be empty");
+        }
+        if (!names.add(name)) {
+            throw new IllegalArgumentException(kind + " with name " + name + " is already in the batch");
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.bytedeco.javacpp.annotation.Properties;
 import org.g_node.nix.internal.*;
@@ -8,6 +7,8 @@ import org.g_node.nix.base.EntityWithMetadata;
 
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <h1>Block</h1>
@@ -59,6 +60,7 @@ import java.util.function.Predicate;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Block.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -69,7 +71,7 @@ import java.util.function.Predicate;
 public class Block extends EntityWithMetadata {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     /**
@@ -132,10 +134,16 @@ public class Block extends EntityWithMetadata {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -153,34 +161,45 @@ public class Block extends EntityWithMetadata {
         forceCreatedAt(DateUtils.convertDateToSeconds(date));
     }
 
+    @Name("type")
+    private native void type(@StdString String type);
+
     /**
      * Setter for the type of the block.
      *
      * @param type The type of the block.
      */
-    public native
+    public void setType(String type) {
+        ChangeTracker.changed(this);
+        type(type);
+        updateAttribute(Attribute.TYPE, type);
+    }
+
     @Name("type")
-    void setType(@StdString String type);
+    @StdString
+    private native String type();
 
     /**
      * Getter for the type of the block.
      *
      * @return The type of the block.
      */
-    public native
-    @Name("type")
+    public String getType() {
+        return cachedAttribute(Attribute.TYPE, this::type);
+    }
+
+    @Name("name")
     @StdString
-    String getType();
+    private native String name();
 
     /**
      * Getter for the name of the block.
      *
      * @return The name of the block.
      */
-    public native
-    @Name("name")
-    @StdString
-    String getName();
+    public String getName() {
+        return cachedAttribute(Attribute.NAME, this::name);
+    }
 
     private native void definition(@Const @ByVal None t);
 
@@ -192,11 +211,13 @@ public class Block extends EntityWithMetadata {
      * @param definition The definition of block.
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        updateAttribute(Attribute.DEFINITION, definition);
     }
 
     private native
@@ -209,11 +230,13 @@ public class Block extends EntityWithMetadata {
      * @return The definition of the block.
      */
     public String getDefinition() {
-        OptionalUtils.OptionalString defintion = definition();
-        if (defintion.isPresent()) {
-            return defintion.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.DEFINITION, () -> {
+            OptionalUtils.OptionalString defintion = definition();
+            if (defintion.isPresent()) {
+                return defintion.getString();
+            }
+            return null;
+        });
     }
 
     private native
@@ -236,6 +259,10 @@ public class Block extends EntityWithMetadata {
         return section;
     }
 
+    private native
+    @Name("metadata")
+    void metadata(@Const @ByRef Section metadata);
+
     /**
      * Associate the entity with some metadata.
      * <p>
@@ -245,9 +272,14 @@ public class Block extends EntityWithMetadata {
      *                 with this entity.
      * @see Section
      */
-    public native
+    public void setMetadata(Section metadata) {
+        ChangeTracker.changed(this);
+        metadata(metadata);
+    }
+
+    private native
     @Name("metadata")
-    void setMetadata(@Const @ByRef Section metadata);
+    void metadata(@StdString String id);
 
     /**
      * Associate the entity with some metadata.
@@ -258,9 +290,10 @@ public class Block extends EntityWithMetadata {
      *           with this entity.
      * @see Section
      */
-    public native
-    @Name("metadata")
-    void setMetadata(@StdString String id);
+    public void setMetadata(String id) {
+        ChangeTracker.changed(this);
+        metadata(id);
+    }
 
     private native void metadata(@Const @ByVal None t);
 
@@ -270,6 +303,7 @@ public class Block extends EntityWithMetadata {
      * @see Section
      */
     public void removeMetadata() {
+        ChangeTracker.changed(this);
         metadata(new None());
     }
 
@@ -459,6 +493,35 @@ public class Block extends EntityWithMetadata {
         return findSources((Source s) -> true, Integer.MAX_VALUE);
     }
 
+    /**
+     * Get a stream over all sources in this block recursively.
+     * <p>
+     * The stream traverses the trees of all root sources of the block lazily
+     * via breadth first and can be limited in depth.
+     * Child sources are fetched only when needed, so short-circuiting operations like
+     * <tt>findFirst</tt> or <tt>anyMatch</tt> stop the traversal early and no result list is built.
+     * Use <tt>parallel()</tt> to evaluate predicates in parallel, in that case the order of the
+     * sources is not defined. The attributes of the streamed sources are cached (see
+     * {@link Source#cacheAttributes()}), predicates on name, type and definition need no native calls.
+     *
+     * @param maxDepth The maximum depth of traversal.
+     * @return A stream of the sources.
+     * @see Source
+     */
+    public Stream<Source> streamSources(int maxDepth) {
+        return StreamSupport.stream(new TreeSpliterator<>(getSources(), Source::getSources, maxDepth), false);
+    }
+
+    /**
+     * Get a stream over all sources in this block recursively, at all depths.
+     *
+     * @return A stream of the sources.
+     * @see Source
+     */
+    public Stream<Source> streamSources() {
+        return streamSources(Integer.MAX_VALUE);
+    }
+
     private native
     @Name("createSource")
     @ByVal
@@ -473,6 +536,7 @@ public class Block extends EntityWithMetadata {
      * @see Source
      */
     public Source createSource(String name, String type) {
+        ChangeTracker.changed(this);
         Source source = makeSource(name, type);
         if (source.isNone()) {
             source = null;
@@ -480,6 +544,11 @@ public class Block extends EntityWithMetadata {
         return source;
     }
 
+    private native
+    @Name("deleteSource")
+    @Cast("bool")
+    boolean eraseSource(@StdString String nameOrId);
+
     /**
      * Deletes a root source.
      * <p>
@@ -490,9 +559,15 @@ public class Block extends EntityWithMetadata {
      * @return True if the source was deleted, false otherwise.
      * @see Source
      */
-    public native
+    public boolean deleteSource(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseSource(nameOrId);
+    }
+
+    private native
+    @Name("deleteSource")
     @Cast("bool")
-    boolean deleteSource(@StdString String nameOrId);
+    boolean eraseSource(@Const @ByRef Source source);
 
     /**
      * Deletes a root source.
@@ -504,9 +579,10 @@ public class Block extends EntityWithMetadata {
      * @return True if the source was deleted, false otherwise.
      * @see Source
      */
-    public native
-    @Cast("bool")
-    boolean deleteSource(@Const @ByRef Source source);
+    public boolean deleteSource(Source source) {
+        ChangeTracker.changed(this);
+        return eraseSource(source);
+    }
 
     //--------------------------------------------------
     // Methods concerning groups
@@ -587,6 +663,7 @@ public class Block extends EntityWithMetadata {
      * @return The newly created group.
      */
     public Group createGroup(String name, String type) {
+        ChangeTracker.changed(this);
         Group g = makeGroup(name, type);
         if (g.isNone())
             return null;
@@ -614,6 +691,11 @@ public class Block extends EntityWithMetadata {
         return ListBuilder.build(this::getGroupCount, this::getGroup);
     }
 
+    private native
+    @Name("deleteGroup")
+    @Cast("bool")
+    boolean eraseGroup(@StdString String nameOrId);
+
     /**
      * Deletes a Group from the block.
      * Deletes a group from the block and the file. The deletion can't be undone.
@@ -622,8 +704,15 @@ public class Block extends EntityWithMetadata {
      *
      * @return True if the group was removed, false otherwise.
      */
+    public boolean deleteGroup(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseGroup(nameOrId);
+    }
+
+    private native
+    @Name("deleteGroup")
     @Cast("bool")
-    public native boolean deleteGroup(@StdString String nameOrId);
+    boolean eraseGroup(@Const @ByRef Group group);
 
     /**
      * Deletes a group from the block.
@@ -633,8 +722,10 @@ public class Block extends EntityWithMetadata {
      *
      * @return True if the group was removed, false otherwise.
      */
-    @Cast("bool")
-    public native boolean deleteGroup(@Const @ByRef Group group);
+    public boolean deleteGroup(Group group) {
+        ChangeTracker.changed(this);
+        return eraseGroup(group);
+    }
 
 
     //--------------------------------------------------
@@ -767,6 +858,7 @@ public class Block extends EntityWithMetadata {
      * @see DataArray
      */
     public DataArray createDataArray(String name, String type, int dataType, NDSize shape) {
+        ChangeTracker.changed(this);
         DataArray da = makeDataArray(name, type, dataType, shape);
         if (da.isNone()) {
             da = null;
@@ -774,6 +866,11 @@ public class Block extends EntityWithMetadata {
         return da;
     }
 
+    private native
+    @Name("deleteDataArray")
+    @Cast("bool")
+    boolean eraseDataArray(@StdString String nameOrId);
+
     /**
      * Deletes a data array from this block.
      * <p>
@@ -784,9 +881,15 @@ public class Block extends EntityWithMetadata {
      * @return True if the data array was deleted, false otherwise.
      * @see DataArray
      */
-    public native
+    public boolean deleteDataArray(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseDataArray(nameOrId);
+    }
+
+    private native
+    @Name("deleteDataArray")
     @Cast("bool")
-    boolean deleteDataArray(@StdString String nameOrId);
+    boolean eraseDataArray(@Const @ByRef DataArray dataArray);
 
     /**
      * Deletes a data array from this block.
@@ -798,9 +901,10 @@ public class Block extends EntityWithMetadata {
      * @return True if the data array was deleted, false otherwise.
      * @see DataArray
      */
-    public native
-    @Cast("bool")
-    boolean deleteDataArray(@Const @ByRef DataArray dataArray);
+    public boolean deleteDataArray(DataArray dataArray) {
+        ChangeTracker.changed(this);
+        return eraseDataArray(dataArray);
+    }
 
 
     //--------------------------------------------------
@@ -929,6 +1033,7 @@ public class Block extends EntityWithMetadata {
      * @see Tag
      */
     public Tag createTag(String name, String type, double[] position) {
+        ChangeTracker.changed(this);
         Tag tag = makeTag(name, type, position);
         if (tag.isNone()) {
             tag = null;
@@ -936,6 +1041,11 @@ public class Block extends EntityWithMetadata {
         return tag;
     }
 
+    private native
+    @Name("deleteTag")
+    @Cast("bool")
+    boolean eraseTag(@StdString String nameOrId);
+
     /**
      * Deletes a tag from the block.
      * <p>
@@ -946,9 +1056,15 @@ public class Block extends EntityWithMetadata {
      * @return True if the tag was removed, false otherwise.
      * @see Tag
      */
-    public native
+    public boolean deleteTag(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseTag(nameOrId);
+    }
+
+    private native
+    @Name("deleteTag")
     @Cast("bool")
-    boolean deleteTag(@StdString String nameOrId);
+    boolean eraseTag(@Const @ByRef Tag tag);
 
     /**
      * Deletes a tag from the block.
@@ -960,9 +1076,10 @@ public class Block extends EntityWithMetadata {
      * @return True if the tag was removed, false otherwise.
      * @see Tag
      */
-    public native
-    @Cast("bool")
-    boolean deleteTag(@Const @ByRef Tag tag);
+    public boolean deleteTag(Tag tag) {
+        ChangeTracker.changed(this);
+        return eraseTag(tag);
+    }
 
 
     //--------------------------------------------------
@@ -1091,6 +1208,7 @@ public class Block extends EntityWithMetadata {
      * @see MultiTag
      */
     public MultiTag createMultiTag(String name, String type, DataArray positions) {
+        ChangeTracker.changed(this);
         MultiTag multiTag = makeMultiTag(name, type, positions);
         if (multiTag.isNone()) {
             multiTag = null;
@@ -1098,6 +1216,11 @@ public class Block extends EntityWithMetadata {
         return multiTag;
     }
 
+    private native
+    @Name("deleteMultiTag")
+    @Cast("bool")
+    boolean eraseMultiTag(@StdString String nameOrId);
+
     /**
      * Deletes a multi tag from the block.
      * <p>
@@ -1108,9 +1231,15 @@ public class Block extends EntityWithMetadata {
      * @return True if the tag was removed, false otherwise.
      * @see MultiTag
      */
-    public native
+    public boolean deleteMultiTag(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseMultiTag(nameOrId);
+    }
+
+    private native
+    @Name("deleteMultiTag")
     @Cast("bool")
-    boolean deleteMultiTag(@StdString String nameOrId);
+    boolean eraseMultiTag(@Const @ByRef MultiTag multiTag);
 
     /**
      * Deletes a multi tag from the block.
@@ -1122,9 +1251,32 @@ public class Block extends EntityWithMetadata {
      * @return True if the tag was removed, false otherwise.
      * @see MultiTag
      */
-    public native
-    @Cast("bool")
-    boolean deleteMultiTag(@Const @ByRef MultiTag multiTag);
+    public boolean deleteMultiTag(MultiTag multiTag) {
+        ChangeTracker.changed(this);
+        return eraseMultiTag(multiTag);
+    }
+
+    //--------------------------------------------------
+    // Batch creation
+    //--------------------------------------------------
+
+    /**
+     * Start a batch for creating many sources, data arrays and tags at once.
+     * <pre><code>
+     *      Block b = ...;
+     *      Batch batch = b.batch();
+     *      for (int i = 0; i &lt; 1000; i++) {
+     *          batch.dataArray("trial " + i, "nix.sampled", DataType.Double, new NDSize(new int[]{100}));
+     *      }
+     *      List&lt;DataArray&gt; trials = batch.commit().getDataArrays();
+     * </code></pre>
+     *
+     * @return The empty batch.
+     * @see Batch
+     */
+    public Batch batch() {
+        return new Batch(this);
+    }
 
 
     //--------------------------------------------------
@@ -0,0 +1,182 @@
+package org.g_node.nix;
+
+/**
+ * <h1>CopyOptions</h1>
+ * Options for copying a {@link DataArray} with {@link DataArray#copyTo(Block, CopyOptions)}.
+ * <p>
+ * By default the copy has the name, type and data type of the original, is linked to the
+ * metadata section of the original if its file has it and to sources with the same names, and the data
+ * is streamed in chunks of {@link CopyOptions#DEFAULT_CHUNK_BYTES}.
+ * <pre><code>
+ *     CopyOptions options = new CopyOptions()
+ *             .setName("session_2")
+ *             .setDataType(DataType.Float)
+ *             .setMetadata(archive.getSection("recording"));
+ *     DataArray copy = array.copyTo(archive.getBlock("sessions"), options);
+ * </code></pre>
+ *
+ * @see DataArray#copyTo(Block, CopyOptions)
+ */
+public class CopyOptions {
+
+    /**
+     * Default size of the chunks in bytes.
+     */
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+
+    private String name;
+    private int dataType;
+    private int chunkBytes;
+    private boolean linkMetadata;
+    private Section metadata;
+    private boolean linkSources;
+
+    /**
+     * Creates options with the defaults.
+     */
+    public CopyOptions() {
+        this.dataType = DataType.Nothing;
+        this.chunkBytes = DEFAULT_CHUNK_BYTES;
+        this.linkMetadata = true;
+        this.linkSources = true;
+    }
+
+    /**
+     * Sets the name of the copy. Defaults to the name of the original, which must be
+     * changed when copying into the block of the original.
+     *
+     * @param name The name or <tt>null</tt> for the name of the original.
+     * @return The options.
+     */
+    public CopyOptions setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Get the name of the copy.
+     *
+     * @return The name or <tt>null</tt> if the name of the original is used.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the data type of the copy. The data is converted while it is read.
+     *
+     * @param dataType A numeric {@link DataType} or {@link DataType#Nothing} for the data type of the original.
+     * @return The options.
+     */
+    public CopyOptions setDataType(int dataType) {
+        if (dataType != DataType.Nothing) {
+            DataType.sizeOf(dataType);
+        }
+        this.dataType = dataType;
+        return this;
+    }
+
+    /**
+     * Get the data type of the copy.
+     *
+     * @return The data type or {@link DataType#Nothing} if the data type of the original is used.
+     */
+    public int getDataType() {
+        return dataType;
+    }
+
+    /**
+     * Sets the size of the chunks in which the data is copied. Chunks consist of whole rows
+     * along the first dimension, a chunk holds at least one row.
+     *
+     * @param chunkBytes The chunk size in bytes.
+     * @return The options.
+     */
+    public CopyOptions setChunkBytes(int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkBytes = chunkBytes;
+        return this;
+    }
+
+    /**
+     * Get the size of the chunks in which the data is copied.
+     *
+     * @return The chunk size in bytes.
+     */
+    public int getChunkBytes() {
+        return chunkBytes;
+    }
+
+    /**
+     * Sets whether the copy is linked to metadata. Enabled by default.
+     * <p>
+     * Without a section set by {@link CopyOptions#setMetadata(Section)} the copy is linked to
+     * the section of the original. NIX looks the section up by its id in the file of the copy,
+     * links are never made across files. If that file has no section with the id, e.g. when
+     * copying into another file, the copy is not linked; the section is neither copied nor
+     * looked up by name. A file that shares ids with the file of the original, e.g. a copy of
+     * it, links its own section with the id. Set the section explicitly when copying across files.
+     *
+     * @param linkMetadata True to link metadata.
+     * @return The options.
+     */
+    public CopyOptions setLinkMetadata(boolean linkMetadata) {
+        this.linkMetadata = linkMetadata;
+        return this;
+    }
+
+    /**
+     * Checks whether the copy is linked to metadata.
+     *
+     * @return True if metadata is linked.
+     */
+    public boolean isLinkMetadata() {
+        return linkMetadata;
+    }
+
+    /**
+     * Sets the section the copy is linked to instead of the section of the original.
+     * The section must be in the file of the copy.
+     *
+     * @param metadata The section or <tt>null</tt> for the section of the original.
+     * @return The options.
+     */
+    public CopyOptions setMetadata(Section metadata) {
+        this.metadata = metadata;
+        return this;
+    }
+
+    /**
+     * Get the section the copy is linked to.
+     *
+     * @return The section or <tt>null</tt> if the section of the original is used.
+     */
+    public Section getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Sets whether the copy is linked to sources. Enabled by default.
+     * <p>
+     * Every source of the original is looked up by name in the target block and its
+     * descendants. Missing sources are created as root sources of the target block.
+     *
+     * @param linkSources True to link sources.
+     * @return The options.
+     */
+    public CopyOptions setLinkSources(boolean linkSources) {
+        this.linkSources = linkSources;
+        return this;
+    }
+
+    /**
+     * Checks whether the copy is linked to sources.
+     *
+     * @return True if sources are linked.
+     */
+    public boolean isLinkSources() {
+        return linkSources;
+    }
+}
@@ -1,15 +1,19 @@
 package org.g_node.nix;
 
 import org.bytedeco.javacpp.DoublePointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.base.EntityWithSources;
 import org.g_node.nix.internal.*;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * <h1>DataArray</h1>
@@ -55,6 +59,7 @@ import java.util.function.Predicate;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/DataArray.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -64,9 +69,12 @@ import java.util.function.Predicate;
 @Namespace("nix")
 public class DataArray extends EntityWithSources {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
+    // set after the first write of data through this object
+    private boolean written;
+
     //--------------------------------------------------
     // Constructors
     //--------------------------------------------------
@@ -120,6 +128,8 @@ public class DataArray extends EntityWithSources {
 
     /**
      * Get the date of the last update.
+     * <p>
+     * Writing data or changing the extent updates the date as well, once per DataArray object.
      *
      * @return The date of the last update.
      */
@@ -132,10 +142,16 @@ public class DataArray extends EntityWithSources {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -153,34 +169,45 @@ public class DataArray extends EntityWithSources {
         forceCreatedAt(DateUtils.convertDateToSeconds(date));
     }
 
+    @Name("type")
+    private native void type(@StdString String type);
+
     /**
      * Setter for the type of the data array.
      *
      * @param type The type of the data array.
      */
-    public native
+    public void setType(String type) {
+        ChangeTracker.changed(this);
+        type(type);
+        updateAttribute(Attribute.TYPE, type);
+    }
+
     @Name("type")
-    void setType(@StdString String type);
+    @StdString
+    private native String type();
 
     /**
      * Getter for the type of the data array
      *
      * @return The type of the data array
      */
-    public native
-    @Name("type")
+    public String getType() {
+        return cachedAttribute(Attribute.TYPE, this::type);
+    }
+
+    @Name("name")
     @StdString
-    String getType();
+    private native String name();
 
     /**
      * Getter for the name of the data array.
      *
      * @return The name of the data array.
      */
-    public native
-    @Name("name")
-    @StdString
-    String getName();
+    public String getName() {
+        return cachedAttribute(Attribute.NAME, this::name);
+    }
 
     private native void definition(@Const @ByVal None t);
 
@@ -192,11 +219,13 @@ public class DataArray extends EntityWithSources {
      * @param definition definition of data array
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        updateAttribute(Attribute.DEFINITION, definition);
     }
 
     private native
@@ -209,11 +238,13 @@ public class DataArray extends EntityWithSources {
      * @return The definition of the data array.
      */
     public String getDefinition() {
-        OptionalUtils.OptionalString defintion = definition();
-        if (defintion.isPresent()) {
-            return defintion.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.DEFINITION, () -> {
+            OptionalUtils.OptionalString defintion = definition();
+            if (defintion.isPresent()) {
+                return defintion.getString();
+            }
+            return null;
+        });
     }
 
     private native
@@ -237,6 +268,10 @@ public class DataArray extends EntityWithSources {
         }
     }
 
+    private native
+    @Name("metadata")
+    void metadata(@Const @ByRef Section metadata);
+
     /**
      * Associate the entity with some metadata.
      * <p>
@@ -246,9 +281,14 @@ public class DataArray extends EntityWithSources {
      *                 with this entity.
      * @see Section
      */
-    public native
+    public void setMetadata(Section metadata) {
+        ChangeTracker.changed(this);
+        metadata(metadata);
+    }
+
+    private native
     @Name("metadata")
-    void setMetadata(@Const @ByRef Section metadata);
+    void metadata(@StdString String id);
 
     /**
      * Associate the entity with some metadata.
@@ -259,9 +299,10 @@ public class DataArray extends EntityWithSources {
      *           with this entity.
      * @see Section
      */
-    public native
-    @Name("metadata")
-    void setMetadata(@StdString String id);
+    public void setMetadata(String id) {
+        ChangeTracker.changed(this);
+        metadata(id);
+    }
 
     private native void metadata(@Const @ByVal None t);
 
@@ -271,6 +312,7 @@ public class DataArray extends EntityWithSources {
      * @see Section
      */
     public void removeMetadata() {
+        ChangeTracker.changed(this);
         metadata(new None());
     }
 
@@ -371,9 +413,14 @@ public class DataArray extends EntityWithSources {
      * @see Source
      */
     public void setSources(List<Source> sources) {
+        ChangeTracker.changed(this);
         sources(new VectorUtils.SourceVector(sources));
     }
 
+    private native
+    @Name("addSource")
+    void attachSource(@StdString String id);
+
     /**
      * Associate a new source with the entity.
      * <p>
@@ -383,7 +430,14 @@ public class DataArray extends EntityWithSources {
      * @param id The id of the source.
      * @see Source
      */
-    public native void addSource(@StdString String id);
+    public void addSource(String id) {
+        ChangeTracker.changed(this);
+        attachSource(id);
+    }
+
+    private native
+    @Name("addSource")
+    void attachSource(@Const @ByRef Source source);
 
     /**
      * Associate a new source with the entity.
@@ -393,7 +447,15 @@ public class DataArray extends EntityWithSources {
      * @param source The source to add.
      * @see Source
      */
-    public native void addSource(@Const @ByRef Source source);
+    public void addSource(Source source) {
+        ChangeTracker.changed(this);
+        attachSource(source);
+    }
+
+    private native
+    @Name("removeSource")
+    @Cast("bool")
+    boolean detachSource(@StdString String id);
 
     /**
      * Remove a source from the list of associated sources.
@@ -405,9 +467,15 @@ public class DataArray extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
-    public native
+    public boolean removeSource(String id) {
+        ChangeTracker.changed(this);
+        return detachSource(id);
+    }
+
+    private native
+    @Name("removeSource")
     @Cast("bool")
-    boolean removeSource(@StdString String id);
+    boolean detachSource(@Const @ByRef Source source);
 
     /**
      * Remove a source from the list of associated sources.
@@ -419,9 +487,10 @@ public class DataArray extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
-    public native
-    @Cast("bool")
-    boolean removeSource(@Const @ByRef Source source);
+    public boolean removeSource(Source source) {
+        ChangeTracker.changed(this);
+        return detachSource(source);
+    }
 
 
     //--------------------------------------------------
@@ -438,11 +507,13 @@ public class DataArray extends EntityWithSources {
      * @return The label of the data array. Returns <tt>null</tt> if not present.
      */
     public String getLabel() {
-        OptionalUtils.OptionalString label = label();
-        if (label.isPresent()) {
-            return label.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.LABEL, () -> {
+            OptionalUtils.OptionalString label = label();
+            if (label.isPresent()) {
+                return label.getString();
+            }
+            return null;
+        });
     }
 
     private native void label(@StdString String label);
@@ -455,11 +526,13 @@ public class DataArray extends EntityWithSources {
      * @param label The label of the data array.
      */
     public void setLabel(String label) {
+        ChangeTracker.changed(this);
         if (label != null) {
             label(label);
         } else {
             label(new None());
         }
+        updateAttribute(Attribute.LABEL, label);
     }
 
     private native
@@ -472,11 +545,13 @@ public class DataArray extends EntityWithSources {
      * @return The unit of the data array. <tt>null</tt> if not present.
      */
     public String getUnit() {
-        OptionalUtils.OptionalString unit = unit();
-        if (unit.isPresent()) {
-            return unit.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.UNIT, () -> {
+            OptionalUtils.OptionalString unit = unit();
+            if (unit.isPresent()) {
+                return unit.getString();
+            }
+            return null;
+        });
     }
 
     private native void unit(@StdString String unit);
@@ -489,11 +564,24 @@ public class DataArray extends EntityWithSources {
      * @param unit The unit of the data array.
      */
     public void setUnit(String unit) {
+        ChangeTracker.changed(this);
         if (unit != null) {
             unit(unit);
         } else {
             unit(new None());
         }
+        // NIX sanitizes units before storing them, e.g. "µV" becomes "uV"
+        dropAttribute(Attribute.UNIT);
+    }
+
+    /**
+     * Enables the attribute cache and reads all attributes, including label and unit, into it.
+     */
+    @Override
+    public void cacheAttributes() {
+        super.cacheAttributes();
+        getLabel();
+        getUnit();
     }
 
     private native
@@ -515,14 +603,19 @@ public class DataArray extends EntityWithSources {
         return 0.0;
     }
 
+    private native
+    @Name("expansionOrigin")
+    void expansionOrigin(double expansionOrigin);
+
     /**
      * Set the expansion origin for the calibration.
      *
      * @param expansionOrigin The expansion origin for the calibration.
      */
-    public native
-    @Name("expansionOrigin")
-    void setExpansionOrigin(double expansionOrigin);
+    public void setExpansionOrigin(double expansionOrigin) {
+        ChangeTracker.changed(this);
+        expansionOrigin(expansionOrigin);
+    }
 
     private native void polynomCoefficients(@StdVector double[] polynomCoefficients);
 
@@ -538,6 +631,7 @@ public class DataArray extends EntityWithSources {
      *                            If <tt>null</tt>, deletes for the `polynomCoefficients` attribute.
      */
     public void setPolynomCoefficients(double[] polynomCoefficients) {
+        ChangeTracker.changed(this);
         if (polynomCoefficients != null) {
             polynomCoefficients(polynomCoefficients);
         } else {
@@ -574,7 +668,14 @@ public class DataArray extends EntityWithSources {
      * @see Dimension
      */
     public List<Dimension> getDimensions() {
-        return dimensions().getDimensions();
+        List<Dimension> dimensions = dimensions().getDimensions();
+        if (ChangeTracker.isTracking()) {
+            String id = getId();
+            for (Dimension dimension : dimensions) {
+                dimension.owner(id);
+            }
+        }
+        return dimensions;
     }
 
     /**
@@ -625,20 +726,39 @@ public class DataArray extends EntityWithSources {
     public Dimension getDimension(long id) {
         Dimension dimension = fetchDimension(id);
         if (dimension.isInitialized()) {
+            if (ChangeTracker.isTracking()) {
+                dimension.owner(getId());
+            }
             return dimension;
         }
         return null;
     }
 
+    // the owner is only needed to report changes of a dimension, getting the id is a native call
+    private String ownerId() {
+        return ChangeTracker.isTracking() ? getId() : null;
+    }
+
+    private native
+    @Name("appendSetDimension")
+    @ByVal
+    SetDimension pushSetDimension();
+
     /**
      * Append a new SetDimension to the list of existing dimension descriptors.
      *
      * @return The newly created SetDimension.
      * @see SetDimension
      */
-    public native
+    public SetDimension appendSetDimension() {
+        ChangeTracker.changed(this);
+        return pushSetDimension().owner(ownerId());
+    }
+
+    private native
+    @Name("appendRangeDimension")
     @ByVal
-    SetDimension appendSetDimension();
+    RangeDimension pushRangeDimension(@StdVector double[] ticks);
 
     /**
      * Append a new RangeDimension to the list of existing dimension descriptors.
@@ -647,9 +767,15 @@ public class DataArray extends EntityWithSources {
      * @return The newly created RangeDimension
      * @see RangeDimension
      */
-    public native
+    public RangeDimension appendRangeDimension(double[] ticks) {
+        ChangeTracker.changed(this);
+        return pushRangeDimension(ticks).owner(ownerId());
+    }
+
+    private native
+    @Name("appendAliasRangeDimension")
     @ByVal
-    RangeDimension appendRangeDimension(@StdVector double[] ticks);
+    RangeDimension pushAliasRangeDimension();
 
     /**
      * Append a new RangeDimension that uses the data stored in this DataArray as ticks.
@@ -658,9 +784,15 @@ public class DataArray extends EntityWithSources {
      * @return The created RangeDimension
      * @see RangeDimension
      */
-    public native
+    public RangeDimension appendAliasRangeDimension() {
+        ChangeTracker.changed(this);
+        return pushAliasRangeDimension().owner(ownerId());
+    }
+
+    private native
+    @Name("appendSampledDimension")
     @ByVal
-    RangeDimension appendAliasRangeDimension();
+    SampledDimension pushSampledDimension(double samplingInterval);
 
     /**
      * Append a new SampledDimension to the list of existing dimension descriptors.
@@ -669,9 +801,15 @@ public class DataArray extends EntityWithSources {
      * @return The newly created SampledDimension.
      * @see SampledDimension
      */
-    public native
+    public SampledDimension appendSampledDimension(double samplingInterval) {
+        ChangeTracker.changed(this);
+        return pushSampledDimension(samplingInterval).owner(ownerId());
+    }
+
+    private native
+    @Name("createSetDimension")
     @ByVal
-    SampledDimension appendSampledDimension(double samplingInterval);
+    SetDimension makeSetDimension(@Cast("size_t") long id);
 
     /**
      * Create a new SetDimension at a specified dimension index.
@@ -684,9 +822,16 @@ public class DataArray extends EntityWithSources {
      * @return The created dimension descriptor.
      * @see SetDimension
      */
-    @Deprecated public native
+    @Deprecated
+    public SetDimension createSetDimension(long id) {
+        ChangeTracker.changed(this);
+        return makeSetDimension(id).owner(ownerId());
+    }
+
+    private native
+    @Name("createRangeDimension")
     @ByVal
-    SetDimension createSetDimension(@Cast("size_t") long id);
+    RangeDimension makeRangeDimension(@Cast("size_t") long id, @StdVector double[] ticks);
 
     /**
      * Create a new RangeDimension at a specified dimension index.
@@ -700,9 +845,16 @@ public class DataArray extends EntityWithSources {
      * @return The created dimension descriptor.
      * @see RangeDimension
      */
-    @Deprecated public native
+    @Deprecated
+    public RangeDimension createRangeDimension(long id, double[] ticks) {
+        ChangeTracker.changed(this);
+        return makeRangeDimension(id, ticks).owner(ownerId());
+    }
+
+    private native
+    @Name("createAliasRangeDimension")
     @ByVal
-    RangeDimension createRangeDimension(@Cast("size_t") long id, @StdVector double[] ticks);
+    RangeDimension makeAliasRangeDimension();
 
     /**
      * Create a new RangeDimension that uses the data stored in this DataArray as ticks.
@@ -710,9 +862,15 @@ public class DataArray extends EntityWithSources {
      * @return The created dimension descriptor.
      * @see RangeDimension
      */
-    public native
+    public RangeDimension createAliasRangeDimension() {
+        ChangeTracker.changed(this);
+        return makeAliasRangeDimension().owner(ownerId());
+    }
+
+    private native
+    @Name("createSampledDimension")
     @ByVal
-    RangeDimension createAliasRangeDimension();
+    SampledDimension makeSampledDimension(@Cast("size_t") long id, double samplingInterval);
 
     /**
      * Create a new SampledDimension at a specified dimension index.
@@ -726,18 +884,26 @@ public class DataArray extends EntityWithSources {
      * @return The created dimension descriptor.
      * @see SampledDimension
      */
-    @Deprecated public native
-    @ByVal
-    SampledDimension createSampledDimension(@Cast("size_t") long id, double samplingInterval);
+    @Deprecated
+    public SampledDimension createSampledDimension(long id, double samplingInterval) {
+        ChangeTracker.changed(this);
+        return makeSampledDimension(id, samplingInterval).owner(ownerId());
+    }
+
+    private native
+    @Name("deleteDimensions")
+    @Cast("bool")
+    boolean eraseDimensions();
 
     /**
      * Remove all dimension descriptors.
      *
      * @see Dimension
      */
-    public native
-    @Cast("bool")
-    boolean deleteDimensions();
+    public boolean deleteDimensions() {
+        ChangeTracker.changed(this);
+        return eraseDimensions();
+    }
 
     //--------------------------------------------------
     // Methods concerning data access.
@@ -760,9 +926,12 @@ public class DataArray extends EntityWithSources {
      * @param extent The extent of the data.
      * @see NDSize
      */
-    public native
-    @Name("dataExtent")
-    void setDataExtent(@Const @ByRef NDSize extent);
+    public void setDataExtent(NDSize extent) {
+        dataExtent(extent);
+        dataChanged(null, null);
+    }
+
+    private native void dataExtent(@Const @ByRef NDSize extent);
 
     /**
      * Get the data type of the data stored in the DataArray entity.
@@ -836,6 +1005,16 @@ public class DataArray extends EntityWithSources {
                                       @Const @ByRef NDSize count,
                                       @Const @ByRef NDSize offset);
 
+    private native void getDataDirect(@Cast("nix::DataType") int dtype,
+                                      @Cast("void*") ByteBuffer data,
+                                      @Const @ByRef NDSize count,
+                                      @Const @ByRef NDSize offset);
+
+    private native void setDataDirect(@Cast("nix::DataType") int dtype,
+                                      @Cast("const void*") ByteBuffer data,
+                                      @Const @ByRef NDSize count,
+                                      @Const @ByRef NDSize offset);
+
     //--------------------------------------------------
     // public getData methods
     //--------------------------------------------------
@@ -848,7 +1027,12 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void getData(byte[] data, NDSize count, NDSize offset) {
-        getDataDirect(DataType.Int8, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.READ, this, DataType.Int8, count,
+                    () -> getDataDirect(DataType.Int8, data, count, offset));
+        } else {
+            getDataDirect(DataType.Int8, data, count, offset);
+        }
     }
 
     /**
@@ -859,7 +1043,12 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void getData(short[] data, NDSize count, NDSize offset) {
-        getDataDirect(DataType.Int16, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.READ, this, DataType.Int16, count,
+                    () -> getDataDirect(DataType.Int16, data, count, offset));
+        } else {
+            getDataDirect(DataType.Int16, data, count, offset);
+        }
     }
 
     /**
@@ -870,7 +1059,12 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void getData(int[] data, NDSize count, NDSize offset) {
-        getDataDirect(DataType.Int32, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.READ, this, DataType.Int32, count,
+                    () -> getDataDirect(DataType.Int32, data, count, offset));
+        } else {
+            getDataDirect(DataType.Int32, data, count, offset);
+        }
     }
 
     /**
@@ -881,7 +1075,12 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void getData(long[] data, NDSize count, NDSize offset) {
-        getDataDirect(DataType.Int64, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.READ, this, DataType.Int64, count,
+                    () -> getDataDirect(DataType.Int64, data, count, offset));
+        } else {
+            getDataDirect(DataType.Int64, data, count, offset);
+        }
     }
 
     /**
@@ -892,7 +1091,12 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void getData(float[] data, NDSize count, NDSize offset) {
-        getDataDirect(DataType.Float, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.READ, this, DataType.Float, count,
+                    () -> getDataDirect(DataType.Float, data, count, offset));
+        } else {
+            getDataDirect(DataType.Float, data, count, offset);
+        }
     }
 
     /**
@@ -903,7 +1107,70 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void getData(double[] data, NDSize count, NDSize offset) {
-        getDataDirect(DataType.Double, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.READ, this, DataType.Double, count,
+                    () -> getDataDirect(DataType.Double, data, count, offset));
+        } else {
+            getDataDirect(DataType.Double, data, count, offset);
+        }
+    }
+
+    /**
+     * Get stored data into a direct buffer, without copying through the Java heap.
+     * <p>
+     * The data is written in native byte order starting at the current position of the buffer,
+     * the position is not changed.
+     *
+     * @param data     direct buffer with enough remaining bytes
+     * @param dataType {@link DataType} of the elements in the buffer
+     * @param count    dimensions
+     * @param offset   offset
+     */
+    public void getData(ByteBuffer data, int dataType, NDSize count, NDSize offset) {
+        checkBuffer(data, dataType, count);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.READ, this, dataType, count,
+                    () -> getDataDirect(dataType, data.slice(), count, offset));
+        } else {
+            getDataDirect(dataType, data.slice(), count, offset);
+        }
+    }
+
+    //--------------------------------------------------
+    // Streams
+    //--------------------------------------------------
+
+    /**
+     * Get a stream over all elements of the data in row-major order.
+     * <p>
+     * The data is read in chunks along the first dimension, each with a single bulk read.
+     * For parallel streams the reads are serialized while the computation runs concurrently
+     * on the common fork-join pool.
+     *
+     * @return The stream of the data converted to double.
+     */
+    public DoubleStream doubleStream() {
+        return StreamSupport.doubleStream(new DataArraySpliterator.OfDouble(this), false);
+    }
+
+    /**
+     * Get a stream over all elements of the data in row-major order.
+     *
+     * @return The stream of the data converted to int.
+     * @see DataArray#doubleStream()
+     */
+    public IntStream intStream() {
+        return StreamSupport.intStream(new DataArraySpliterator.OfInt(this), false);
+    }
+
+    /**
+     * Get a stream over all elements of the data in row-major order.
+     *
+     * @return The stream of the data converted to long.
+     * @see DataArray#doubleStream()
+     */
+    public LongStream longStream() {
+        return StreamSupport.longStream(new DataArraySpliterator.OfLong(this), false);
     }
 
     //--------------------------------------------------
@@ -918,7 +1185,13 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void setData(byte[] data, NDSize count, NDSize offset) {
-        setDataDirect(DataType.Int8, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.WRITE, this, DataType.Int8, count,
+                    () -> setDataDirect(DataType.Int8, data, count, offset));
+        } else {
+            setDataDirect(DataType.Int8, data, count, offset);
+        }
+        dataChanged(count, offset);
     }
 
     /**
@@ -929,7 +1202,13 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void setData(short[] data, NDSize count, NDSize offset) {
-        setDataDirect(DataType.Int16, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.WRITE, this, DataType.Int16, count,
+                    () -> setDataDirect(DataType.Int16, data, count, offset));
+        } else {
+            setDataDirect(DataType.Int16, data, count, offset);
+        }
+        dataChanged(count, offset);
     }
 
     /**
@@ -940,7 +1219,13 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void setData(int[] data, NDSize count, NDSize offset) {
-        setDataDirect(DataType.Int32, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.WRITE, this, DataType.Int32, count,
+                    () -> setDataDirect(DataType.Int32, data, count, offset));
+        } else {
+            setDataDirect(DataType.Int32, data, count, offset);
+        }
+        dataChanged(count, offset);
     }
 
     /**
@@ -951,7 +1236,13 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void setData(long[] data, NDSize count, NDSize offset) {
-        setDataDirect(DataType.Int64, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.WRITE, this, DataType.Int64, count,
+                    () -> setDataDirect(DataType.Int64, data, count, offset));
+        } else {
+            setDataDirect(DataType.Int64, data, count, offset);
+        }
+        dataChanged(count, offset);
     }
 
     /**
@@ -962,7 +1253,13 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void setData(float[] data, NDSize count, NDSize offset) {
-        setDataDirect(DataType.Float, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.WRITE, this, DataType.Float, count,
+                    () -> setDataDirect(DataType.Float, data, count, offset));
+        } else {
+            setDataDirect(DataType.Float, data, count, offset);
+        }
+        dataChanged(count, offset);
     }
 
     /**
@@ -973,7 +1270,97 @@ public class DataArray extends EntityWithSources {
      * @param offset offset
      */
     public void setData(double[] data, NDSize count, NDSize offset) {
-        setDataDirect(DataType.Double, data, count, offset);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.WRITE, this, DataType.Double, count,
+                    () -> setDataDirect(DataType.Double, data, count, offset));
+        } else {
+            setDataDirect(DataType.Double, data, count, offset);
+        }
+        dataChanged(count, offset);
+    }
+
+    /**
+     * Set data from a direct buffer, without copying through the Java heap.
+     * <p>
+     * The data is read in native byte order starting at the current position of the buffer,
+     * the position is not changed.
+     *
+     * @param data     direct buffer with enough remaining bytes
+     * @param dataType {@link DataType} of the elements in the buffer
+     * @param count    dimensions
+     * @param offset   offset
+     */
+    public void setData(ByteBuffer data, int dataType, NDSize count, NDSize offset) {
+        checkBuffer(data, dataType, count);
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.data(NativeEvents.WRITE, this, dataType, count,
+                    () -> setDataDirect(dataType, data.slice(), count, offset));
+        } else {
+            setDataDirect(dataType, data.slice(), count, offset);
+        }
+        dataChanged(count, offset);
+    }
+
+    private static void checkBuffer(ByteBuffer data, int dataType, NDSize count) {
+        if (!data.isDirect()) {
+            throw new IllegalArgumentException("Buffer must be direct");
+        }
+        if (data.remaining() < count.getElementsProduct() * DataType.sizeOf(dataType)) {
+            throw new IllegalArgumentException("Buffer is too small");
+        }
+    }
+
+    private void dataChanged(NDSize count, NDSize offset) {
+        ChangeTracker.changed(this);
+        // the first write through this object marks the data as updated in the file,
+        // stored results derived from the data compare against it
+        if (!written) {
+            written = true;
+            updatedAtNow();
+        }
+        if (count == null) {
+            DataChanges.dataChanged(this, 0, Long.MAX_VALUE);
+        } else {
+            int[] off = offset.getData();
+            int[] cnt = count.getData();
+            if (off.length > 0 && cnt.length > 0) {
+                DataChanges.dataChanged(this, off[0], cnt[0]);
+            } else {
+                DataChanges.dataChanged(this, 0, Long.MAX_VALUE);
+            }
+        }
+    }
+
+    //--------------------------------------------------
+    // Copying
+    //--------------------------------------------------
+
+    /**
+     * Copies the DataArray into a block, which may belong to another file.
+     * <p>
+     * The copy gets the definition, label, unit, calibration and dimensions of this DataArray
+     * and is linked to its metadata and sources as set in the options. The data is streamed
+     * in chunks along the first dimension, the next chunk is read while the current one is
+     * written, so the memory used does not depend on the size of the data.
+     *
+     * @param target  The block in which the copy is created.
+     * @param options The options of the copy.
+     * @return The copy.
+     * @see CopyOptions
+     */
+    public DataArray copyTo(Block target, CopyOptions options) {
+        return DataArrayCopy.copy(this, target, options);
+    }
+
+    /**
+     * Copies the DataArray into a block with the default {@link CopyOptions}.
+     *
+     * @param target The block in which the copy is created.
+     * @return The copy.
+     * @see DataArray#copyTo(Block, CopyOptions)
+     */
+    public DataArray copyTo(Block target) {
+        return copyTo(target, new CopyOptions());
     }
 
     //--------------------------------------------------
@@ -28,4 +28,33 @@ public class DataType {
     public static final int Opaque = 13;
 
     public static final int Nothing = -1;
+
+    /**
+     * Get the size of a single element of a numeric data type.
+     *
+     * @param dataType The data type.
+     * @return The size in bytes.
+     */
+    public static int sizeOf(int dataType) {
+        switch (dataType) {
+            case Bool:
+            case Char:
+            case Int8:
+            case UInt8:
+                return 1;
+            case Int16:
+            case UInt16:
+                return 2;
+            case Float:
+            case Int32:
+            case UInt32:
+                return 4;
+            case Double:
+            case Int64:
+            case UInt64:
+                return 8;
+            default:
+                throw new IllegalArgumentException("Data type has no fixed element size");
+        }
+    }
 }
@@ -1,15 +1,16 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeLibrary;
 
 /**
  * <h1>DataView</h1>
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/DataView.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -20,7 +21,7 @@ import org.g_node.nix.internal.BuildLibs;
 public class DataView extends Pointer {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     /**
@@ -1,9 +1,9 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.base.ImplContainer;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeLibrary;
 
 /**
  * <h1>Dimension</h1>
@@ -18,6 +18,7 @@ import org.g_node.nix.internal.BuildLibs;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Dimensions.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -27,9 +28,12 @@ import org.g_node.nix.internal.BuildLibs;
 @Namespace("nix")
 public class Dimension<T extends Dimension> extends ImplContainer implements Comparable<T> {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
+    // id of the data array the dimension was obtained from, for change tracking
+    String owner;
+
     //--------------------------------------------------
     // Constructors
     //--------------------------------------------------
@@ -88,32 +92,52 @@ public class Dimension<T extends Dimension> extends ImplContainer implements Com
     @Cast("nix::DimensionType")
     int getDimensionType();
 
+    private native
+    @Name("asSetDimension")
+    @ByVal
+    SetDimension castSetDimension();
+
     /**
      * Returns as {@link SetDimension}.
      *
      * @return SetDimension object
      */
-    public native
+    public SetDimension asSetDimension() {
+        return castSetDimension().owner(owner);
+    }
+
+    private native
+    @Name("asSampledDimension")
     @ByVal
-    SetDimension asSetDimension();
+    SampledDimension castSampledDimension();
 
     /**
      * Returns as {@link SampledDimension}.
      *
      * @return SampledDimension object
      */
-    public native
+    public SampledDimension asSampledDimension() {
+        return castSampledDimension().owner(owner);
+    }
+
+    private native
+    @Name("asRangeDimension")
     @ByVal
-    SampledDimension asSampledDimension();
+    RangeDimension castRangeDimension();
 
     /**
      * Returns as {@link RangeDimension}.
      *
      * @return RangeDimension object
      */
-    public native
-    @ByVal
-    RangeDimension asRangeDimension();
+    public RangeDimension asRangeDimension() {
+        return castRangeDimension().owner(owner);
+    }
+
+    Dimension<T> owner(String id) {
+        owner = id;
+        return this;
+    }
 
     //--------------------------------------------------
     // Overrides
@@ -1,10 +1,11 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.DateUtils;
 import org.g_node.nix.base.Entity;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.ChangeTracker;
+import org.g_node.nix.internal.NativeLibrary;
 
 import java.util.Date;
 
@@ -37,6 +38,7 @@ import java.util.Date;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Feature.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -46,7 +48,7 @@ import java.util.Date;
 @Namespace("nix")
 public class Feature extends Entity {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -138,15 +140,20 @@ public class Feature extends Entity {
     // Methods concerning Feature
     //--------------------------------------------------
 
+    private native
+    @Name("linkType")
+    void linkType(@Cast("nix::LinkType") int type);
+
     /**
      * Setter for the link type.
      *
      * @param type The link type to set.
      * @see LinkType
      */
-    public native
-    @Name("linkType")
-    void setLinkType(@Cast("nix::LinkType") int type);
+    public void setLinkType(int type) {
+        ChangeTracker.changed(this);
+        linkType(type);
+    }
 
     /**
      * Getter for the link type.
@@ -160,14 +167,23 @@ public class Feature extends Entity {
     @Cast("nix::LinkType")
     int getLinkType();
 
+    private native
+    @Name("data")
+    void data(@StdString String nameOrId);
+
     /**
      * Sets the data array associated with this feature.
      *
      * @param nameOrId Name or id of the data array to set.
      */
-    public native
+    public void setData(String nameOrId) {
+        ChangeTracker.changed(this);
+        data(nameOrId);
+    }
+
+    private native
     @Name("data")
-    void setData(@StdString String nameOrId);
+    void data(@Const @ByRef DataArray data);
 
     /**
      * Sets the data array associated with this feature.
@@ -175,9 +191,10 @@ public class Feature extends Entity {
      * @param data The data array to set.
      * @see DataArray
      */
-    public native
-    @Name("data")
-    void setData(@Const @ByRef DataArray data);
+    public void setData(DataArray data) {
+        ChangeTracker.changed(this);
+        data(data);
+    }
 
     /**
      * Gets the data array associated with this feature.
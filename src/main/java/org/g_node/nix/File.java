@@ -1,18 +1,30 @@
 package org.g_node.nix;
 
 import org.bytedeco.javacpp.IntPointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.base.ImplContainer;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.DataChanges;
 import org.g_node.nix.internal.DateUtils;
+import org.g_node.nix.internal.MemoryFiles;
+import org.g_node.nix.internal.NativeEvents;
+import org.g_node.nix.internal.NativeLibrary;
+import org.g_node.nix.internal.TreeSpliterator;
 import org.g_node.nix.internal.VectorUtils;
 import org.g_node.nix.valid.Result;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <h1>File</h1>
@@ -23,18 +35,19 @@ import java.util.function.Predicate;
  */
 
 @Properties(value = {
-        @Platform(include = {"<nix/File.hpp>"}),
-        @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
-        @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
-        @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
+        @Platform(library = BuildLibs.JNI_NIX),
+        @Platform(include = {"<nix/File.hpp>", "fileoptionshelper.hpp"}),
+        @Platform(value = "linux", link = {BuildLibs.NIX_1, BuildLibs.HDF5_7}, preload = BuildLibs.HDF5_7),
+        @Platform(value = "macosx", link = {BuildLibs.NIX, BuildLibs.HDF5}, preload = BuildLibs.HDF5),
+        @Platform(value = "macosx", link = {BuildLibs.NIX, BuildLibs.HDF5}, preload = BuildLibs.HDF5),
         @Platform(value = "windows",
-                link = BuildLibs.NIX,
+                link = {BuildLibs.NIX, BuildLibs.HDF5},
                 preload = {BuildLibs.HDF5, BuildLibs.MSVCP120, BuildLibs.MSVCR120, BuildLibs.SZIP, BuildLibs.ZLIB})})
 @Namespace("nix")
 public class File extends ImplContainer implements Comparable<File> {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -60,6 +73,12 @@ public class File extends ImplContainer implements Comparable<File> {
     @Cast("bool")
     boolean isNone();
 
+    private static native
+    @Name("open")
+    @ByVal
+    File openFile(@StdString String name, @Cast("nix::FileMode") int mode,
+                  @StdString String impl);
+
     /**
      * Opens a file.
      *
@@ -69,10 +88,64 @@ public class File extends ImplContainer implements Comparable<File> {
      * @return The opened file.
      * @see FileMode
      */
-    public static native
+    public static File open(String name, int mode, String impl) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.file("open", name, mode, () -> openFile(name, mode, impl));
+        }
+        return openFile(name, mode, impl);
+    }
+
+    @Namespace("::nix_java")
+    private static native
+    @Name("open_file")
     @ByVal
-    File open(@StdString String name, @Cast("nix::FileMode") int mode,
-              @StdString String impl);
+    File openFile(@StdString String name, int mode, @StdString String impl,
+                  long chunkCacheBytes, long chunkCacheSlots, double chunkCacheW0,
+                  long metadataCacheInitial, long metadataCacheMin, long metadataCacheMax,
+                  long pageBufferBytes);
+
+    /**
+     * Opens a file with HDF5 cache settings. The settings of a file that is open already cannot
+     * be changed, opening it with other settings throws a {@link RuntimeException}.
+     *
+     * @param name    The name/path of the file.
+     * @param mode    The open mode. Check {@link FileMode} for options.
+     * @param impl    The back-end implementation the should be used to open the file.
+     * @param options The cache settings.
+     * @return The opened file.
+     * @see FileMode
+     * @see FileOptions
+     */
+    public static File open(String name, int mode, String impl, FileOptions options) {
+        if (options.isDefault()) {
+            return open(name, mode, impl);
+        }
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.file("open", name, mode, () -> openFile(name, mode, impl, options));
+        }
+        return openFile(name, mode, impl, options);
+    }
+
+    /**
+     * Opens a file with back-end implementation in hdf5 and HDF5 cache settings.
+     *
+     * @param name    The name/path of the file.
+     * @param mode    The open mode. Check {@link FileMode} for options.
+     * @param options The cache settings.
+     * @return The opened file.
+     * @see FileMode
+     * @see FileOptions
+     */
+    public static File open(String name, int mode, FileOptions options) {
+        return open(name, mode, "hdf5", options);
+    }
+
+    private static File openFile(String name, int mode, String impl, FileOptions options) {
+        return openFile(name, mode, impl,
+                options.getChunkCacheSize(), options.getChunkCacheSlots(), options.getChunkCacheW0(),
+                options.getMetadataCacheInitial(), options.getMetadataCacheMin(), options.getMetadataCacheMax(),
+                options.getPageBufferSize());
+    }
 
     /**
      * Opens a file with back-end implementation in hdf5.
@@ -92,9 +165,132 @@ public class File extends ImplContainer implements Comparable<File> {
      * @param name The name/path of the file.
      * @return The opened file.
      */
-    public static native
-    @ByVal
-    File open(@StdString String name);
+    public static File open(String name) {
+        return open(name, FileMode.ReadWrite, "hdf5");
+    }
+
+    /**
+     * Creates a new in-memory file, which is dropped when it is closed.
+     * <p>
+     * On Linux the file is backed by the memory file system <tt>/dev/shm</tt>, so reads and
+     * writes never touch the disk. Its size is limited, containers often default it to 64 MB,
+     * and writes beyond it fail. Elsewhere the file lives in <tt>java.io.tmpdir</tt>, which is
+     * usually on disk. The system property <tt>nix.memory.dir</tt> selects another directory.
+     *
+     * @return The opened file.
+     * @see File#toImage()
+     */
+    public static File openInMemory() {
+        return openInMemory(null);
+    }
+
+    /**
+     * Creates a new in-memory file, which is written to <tt>persist</tt> when it is closed.
+     *
+     * @param persist The path the file is written to on close or <tt>null</tt> to drop it.
+     * @return The opened file.
+     */
+    public static File openInMemory(Path persist) {
+        return openMemoryFile(MemoryFiles.create(persist), FileMode.Overwrite);
+    }
+
+    /**
+     * Opens an in-memory copy of a file image, e.g. the contents of a file or the result of
+     * {@link File#toImage()}. The copy is dropped when it is closed.
+     *
+     * @param image The image.
+     * @param mode  The open mode, {@link FileMode#ReadOnly} or {@link FileMode#ReadWrite}.
+     * @return The opened file.
+     */
+    public static File openImage(byte[] image, int mode) {
+        return openImage(ByteBuffer.wrap(image), mode);
+    }
+
+    /**
+     * Opens an in-memory copy of a file image. The copy is dropped when it is closed.
+     *
+     * @param image The image, from its position to its limit.
+     * @param mode  The open mode, {@link FileMode#ReadOnly} or {@link FileMode#ReadWrite}.
+     * @return The opened file.
+     */
+    public static File openImage(ByteBuffer image, int mode) {
+        if (mode == FileMode.Overwrite) {
+            throw new IllegalArgumentException("A file image cannot be opened with FileMode.Overwrite");
+        }
+        return openMemoryFile(MemoryFiles.create(image), mode);
+    }
+
+    private static File openMemoryFile(String location, int mode) {
+        try {
+            return open(location, mode);
+        } catch (RuntimeException e) {
+            MemoryFiles.discard(location);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether the file is an in-memory file.
+     *
+     * @return True if the file was opened with {@link File#openInMemory()} or {@link File#openImage(byte[], int)}.
+     */
+    public boolean isInMemory() {
+        return MemoryFiles.isMemoryFile(getLocation());
+    }
+
+    @Namespace("::nix_java")
+    private static native
+    @Name("get_options")
+    void getOptions(@StdString String name, double[] values);
+
+    /**
+     * Get the HDF5 cache settings of the file. Settings that were not changed when the file was
+     * opened are returned with their HDF5 defaults.
+     *
+     * @return The cache settings.
+     * @see FileOptions
+     */
+    public FileOptions getOptions() {
+        double[] values = new double[7];
+        getOptions(getLocation(), values);
+
+        long min = (long) values[4];
+        long max = (long) values[5];
+        long initial = Math.min(Math.max((long) values[3], min), max);
+        return new FileOptions()
+                .setChunkCacheSize((long) values[0])
+                .setChunkCacheSlots((long) values[1])
+                .setChunkCacheW0(values[2])
+                .setMetadataCache(initial, min, max)
+                .setPageBufferSize((long) values[6]);
+    }
+
+    @Namespace("::nix_java")
+    private static native
+    @Name("flush_file")
+    void flushFile(@StdString String name);
+
+    /**
+     * Writes all buffered data of the file to its storage.
+     */
+    public void flush() {
+        flushFile(getLocation());
+    }
+
+    /**
+     * Get an image of the file, which can be opened again with {@link File#openImage(byte[], int)}.
+     * The file is flushed first and stays open.
+     *
+     * @return The file image.
+     */
+    public byte[] toImage() {
+        flush();
+        try {
+            return Files.readAllBytes(Paths.get(getLocation()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
     //--------------------------------------------------
     // Methods concerning Block
@@ -396,6 +592,35 @@ public class File extends ImplContainer implements Comparable<File> {
         return findSections((Section s) -> true, maxDepth);
     }
 
+    /**
+     * Get a stream over all sections in this file recursively.
+     * <p>
+     * The stream traverses the trees of all root sections of the file lazily
+     * via breadth first and can be limited in depth.
+     * Child sections are fetched only when needed, so short-circuiting operations like
+     * <tt>findFirst</tt> or <tt>anyMatch</tt> stop the traversal early and no result list is built.
+     * Use <tt>parallel()</tt> to evaluate predicates in parallel, in that case the order of the
+     * sections is not defined. The attributes of the streamed sections are cached (see
+     * {@link Section#cacheAttributes()}), predicates on name, type and definition need no native calls.
+     *
+     * @param maxDepth The maximum depth of traversal.
+     * @return A stream of the sections.
+     * @see Section
+     */
+    public Stream<Section> streamSections(int maxDepth) {
+        return StreamSupport.stream(new TreeSpliterator<>(getSections(), Section::getSections, maxDepth), false);
+    }
+
+    /**
+     * Get a stream over all sections in this file recursively, at all depths.
+     *
+     * @return A stream of the sections.
+     * @see Section
+     */
+    public Stream<Section> streamSections() {
+        return streamSections(Integer.MAX_VALUE);
+    }
+
     private native
     @Name("createSection")
     @ByVal
@@ -535,25 +760,53 @@ public class File extends ImplContainer implements Comparable<File> {
     // Validator
     //------------------------------------------------------
 
+    private native
+    @Name("validate")
+    @ByVal
+    Result validateFile();
+
     /**
      * Validator.
+     * <p>
+     * Validates the whole file on every call, use {@link org.g_node.nix.valid.IncrementalValidator}
+     * to validate a file repeatedly while it is changed.
      *
      * @return result
      * @see Result
      */
-    public native
-    @ByVal
-    Result validate();
+    public Result validate() {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("File", this::validateFile);
+        }
+        return validateFile();
+    }
 
 
     //------------------------------------------------------
     // Other functions
     //------------------------------------------------------
 
+    @Name("close")
+    private native void closeFile();
+
     /**
      * Close the file.
      */
-    public native void close();
+    public void close() {
+        String location = isOpen() ? getLocation() : null;
+        if (NativeEvents.isEnabled()) {
+            NativeEvents.file("close", location, -1, () -> {
+                closeFile();
+                return null;
+            });
+        } else {
+            closeFile();
+        }
+        if (location != null) {
+            DataChanges.fileClosed(location);
+            MemoryFiles.closed(location);
+        }
+    }
 
     /**
      * Check if the file is currently open.
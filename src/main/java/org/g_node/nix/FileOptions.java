@@ -0,0 +1,195 @@
+package org.g_node.nix;
+
+/**
+ * <h1>FileOptions</h1>
+ * HDF5 cache settings for opening a file with {@link File#open(String, int, FileOptions)}.
+ * <p>
+ * Settings that are not set keep the HDF5 defaults, e.g. a raw data chunk cache of 1 MiB with 521
+ * slots. The chunk cache is used for every chunked data array of the file, a read or write of a
+ * chunk that does not fit into the cache goes to the disk every time. For random access to large
+ * chunked arrays the cache should hold the chunks of the working set, and the number of slots
+ * should be a prime about a hundred times the number of chunks that fit into the cache.
+ * <pre><code>
+ *     FileOptions options = new FileOptions()
+ *             .setChunkCacheSize(64 &lt;&lt; 20)
+ *             .setChunkCacheSlots(12421)
+ *             .setMetadataCache(2 &lt;&lt; 20, 1 &lt;&lt; 20, 32 &lt;&lt; 20);
+ *     File file = File.open("recording.h5", FileMode.ReadOnly, options);
+ * </code></pre>
+ * The settings are shared by all handles of a file, so they can only be applied if the file is
+ * not open already, opening an open file with other settings fails. {@link File#getOptions()}
+ * returns the settings of an open file.
+ *
+ * @see File#open(String, int, String, FileOptions)
+ */
+public class FileOptions {
+
+    private long chunkCacheSize;
+    private long chunkCacheSlots;
+    private double chunkCacheW0;
+    private long metadataCacheInitial;
+    private long metadataCacheMin;
+    private long metadataCacheMax;
+    private long pageBufferSize;
+
+    /**
+     * Creates options with the HDF5 defaults.
+     */
+    public FileOptions() {
+        this.chunkCacheSize = -1;
+        this.chunkCacheW0 = -1;
+    }
+
+    /**
+     * Sets the size of the raw data chunk cache.
+     *
+     * @param bytes The cache size in bytes, 0 disables the cache.
+     * @return The options.
+     */
+    public FileOptions setChunkCacheSize(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Chunk cache size must not be negative");
+        }
+        this.chunkCacheSize = bytes;
+        return this;
+    }
+
+    /**
+     * Get the size of the raw data chunk cache.
+     *
+     * @return The cache size in bytes or -1 for the HDF5 default.
+     */
+    public long getChunkCacheSize() {
+        return chunkCacheSize;
+    }
+
+    /**
+     * Sets the number of hash table slots of the chunk cache. Chunks that map to the same slot
+     * evict each other, so the number should be a prime well above the number of cached chunks.
+     *
+     * @param slots The number of slots.
+     * @return The options.
+     */
+    public FileOptions setChunkCacheSlots(long slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Number of chunk cache slots must be positive");
+        }
+        this.chunkCacheSlots = slots;
+        return this;
+    }
+
+    /**
+     * Get the number of hash table slots of the chunk cache.
+     *
+     * @return The number of slots or 0 for the HDF5 default.
+     */
+    public long getChunkCacheSlots() {
+        return chunkCacheSlots;
+    }
+
+    /**
+     * Sets the preemption policy of the chunk cache. Chunks that were read or written completely
+     * are evicted first with 1, least recently used chunks first with 0. Arrays that are read
+     * only once should use 1, arrays that are read repeatedly in parts a lower value.
+     *
+     * @param w0 The policy between 0 and 1.
+     * @return The options.
+     */
+    public FileOptions setChunkCacheW0(double w0) {
+        if (!(w0 >= 0 && w0 <= 1)) {
+            throw new IllegalArgumentException("Chunk cache w0 must be between 0 and 1");
+        }
+        this.chunkCacheW0 = w0;
+        return this;
+    }
+
+    /**
+     * Get the preemption policy of the chunk cache.
+     *
+     * @return The policy or -1 for the HDF5 default.
+     */
+    public double getChunkCacheW0() {
+        return chunkCacheW0;
+    }
+
+    /**
+     * Sets the sizes of the metadata cache, which holds object headers, B-trees and heaps.
+     * HDF5 resizes the cache between the minimum and maximum size, files with many entities
+     * profit from a larger initial size. HDF5 limits the maximum size to 128 MiB.
+     *
+     * @param initial The initial size in bytes.
+     * @param min     The minimum size in bytes.
+     * @param max     The maximum size in bytes.
+     * @return The options.
+     */
+    public FileOptions setMetadataCache(long initial, long min, long max) {
+        if (min <= 0 || initial < min || max < initial) {
+            throw new IllegalArgumentException("Metadata cache sizes must satisfy 0 < min <= initial <= max");
+        }
+        this.metadataCacheInitial = initial;
+        this.metadataCacheMin = min;
+        this.metadataCacheMax = max;
+        return this;
+    }
+
+    /**
+     * Get the initial size of the metadata cache.
+     *
+     * @return The size in bytes or 0 for the HDF5 default.
+     */
+    public long getMetadataCacheInitial() {
+        return metadataCacheInitial;
+    }
+
+    /**
+     * Get the minimum size of the metadata cache.
+     *
+     * @return The size in bytes or 0 for the HDF5 default.
+     */
+    public long getMetadataCacheMin() {
+        return metadataCacheMin;
+    }
+
+    /**
+     * Get the maximum size of the metadata cache.
+     *
+     * @return The size in bytes or 0 for the HDF5 default.
+     */
+    public long getMetadataCacheMax() {
+        return metadataCacheMax;
+    }
+
+    /**
+     * Sets the size of the page buffer. Page buffering requires HDF5 1.10.1 or newer and a file
+     * that was created with paged file space aggregation, opening other files fails.
+     *
+     * @param bytes The buffer size in bytes, 0 disables page buffering.
+     * @return The options.
+     */
+    public FileOptions setPageBufferSize(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Page buffer size must not be negative");
+        }
+        this.pageBufferSize = bytes;
+        return this;
+    }
+
+    /**
+     * Get the size of the page buffer.
+     *
+     * @return The buffer size in bytes or 0 if page buffering is disabled.
+     */
+    public long getPageBufferSize() {
+        return pageBufferSize;
+    }
+
+    /**
+     * Checks whether all settings are the HDF5 defaults.
+     *
+     * @return True if no setting was changed.
+     */
+    public boolean isDefault() {
+        return chunkCacheSize < 0 && chunkCacheSlots == 0 && chunkCacheW0 < 0
+                && metadataCacheMax == 0 && pageBufferSize == 0;
+    }
+}
@@ -3,7 +3,6 @@ package org.g_node.nix;
 import java.util.*;
 import java.util.function.Predicate;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.bytedeco.javacpp.annotation.Properties;
 import org.g_node.nix.base.*;
@@ -14,6 +13,7 @@ import org.g_node.nix.internal.OptionalUtils.OptionalString;
  * An additional grouping element within Block.
  */
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Group.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -24,7 +24,7 @@ import org.g_node.nix.internal.OptionalUtils.OptionalString;
 public class Group extends EntityWithSources {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     private native void allocate();
@@ -69,10 +69,16 @@ public class Group extends EntityWithSources {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -90,29 +96,45 @@ public class Group extends EntityWithSources {
         forceCreatedAt(DateUtils.convertDateToSeconds(date));
     }
 
+    @Name("type")
+    private native void type(@StdString String type);
+
     /**
      * Setter for the type of the group.
      *
      * @param type The type of the group.
      */
+    public void setType(String type) {
+        ChangeTracker.changed(this);
+        type(type);
+        updateAttribute(Attribute.TYPE, type);
+    }
+
     @Name("type")
-    public native void setType(@StdString String type);
+    @StdString
+    private native String type();
 
     /**
      * Getter for the type of the group.
      *
      * @return The type of the group.
      */
-    @Name("type") @StdString
-    public native String getType();
+    public String getType() {
+        return cachedAttribute(Attribute.TYPE, this::type);
+    }
+
+    @Name("name")
+    @StdString
+    private native String name();
 
     /**
      * Getter for the name of the group.
      *
      * @return The name of the group.
      */
-    @Name("name") @StdString
-    public native String getName();
+    public String getName() {
+        return cachedAttribute(Attribute.NAME, this::name);
+    }
 
     private native void definition(@Const @ByVal None none);
 
@@ -124,11 +146,13 @@ public class Group extends EntityWithSources {
      * @param definition definition of the group.
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        updateAttribute(Attribute.DEFINITION, definition);
     }
 
     @ByVal
@@ -140,10 +164,12 @@ public class Group extends EntityWithSources {
      * @return The definition of the group.
      */
     public String getDefinition() {
-        OptionalString definition = definition();
-        if (! definition.isPresent())
-            return null;
-        return definition.getString();
+        return cachedAttribute(Attribute.DEFINITION, () -> {
+            OptionalString definition = definition();
+            if (! definition.isPresent())
+                return null;
+            return definition.getString();
+        });
     }
 
     //--------------------------------------------------
@@ -169,6 +195,9 @@ public class Group extends EntityWithSources {
         return section;
     }
 
+    @Name("metadata")
+    private native void metadata(@Const @ByRef Section metadata);
+
     /**
      * Associate the entity with some metadata.
      * Calling this method will replace an existing association.
@@ -177,8 +206,13 @@ public class Group extends EntityWithSources {
      *                 with this entity.
      * @see Section
      */
+    public void setMetadata(Section metadata) {
+        ChangeTracker.changed(this);
+        metadata(metadata);
+    }
+
     @Name("metadata")
-    public native void setMetadata(@Const @ByRef Section metadata);
+    private native void metadata(@StdString String id);
 
     /**
      * Associate the entity with some metadata.
@@ -188,8 +222,10 @@ public class Group extends EntityWithSources {
      *           with this entity.
      * @see Section
      */
-    @Name("metadata")
-    public native void setMetadata(@StdString String id);
+    public void setMetadata(String id) {
+        ChangeTracker.changed(this);
+        metadata(id);
+    }
 
     /**
      * Removes metadata associated with the entity.
@@ -197,6 +233,7 @@ public class Group extends EntityWithSources {
      * @see Section
      */
     public void removeMetadata() {
+        ChangeTracker.changed(this);
         metadata(new None());
     }
 
@@ -295,6 +332,7 @@ public class Group extends EntityWithSources {
      * @see Source
      */
     public void setSources(List<Source> sources) {
+        ChangeTracker.changed(this);
         // remove if not in sources
         getSources(s -> !sources.contains(s))
                 .forEach(this::removeSource);
@@ -304,6 +342,10 @@ public class Group extends EntityWithSources {
                 .forEach(this::addSource);
     }
 
+    private native
+    @Name("addSource")
+    void attachSource(@StdString String id);
+
     /**
      * Associate a new source with the entity.
      * If a source with the given id already is associated with the
@@ -312,7 +354,14 @@ public class Group extends EntityWithSources {
      * @param id The id of the source.
      * @see Source
      */
-    public native void addSource(@StdString String id);
+    public void addSource(String id) {
+        ChangeTracker.changed(this);
+        attachSource(id);
+    }
+
+    private native
+    @Name("addSource")
+    void attachSource(@Const @ByRef Source source);
 
     /**
      * Associate a new source with the entity.
@@ -321,7 +370,15 @@ public class Group extends EntityWithSources {
      * @param source The source to add.
      * @see Source
      */
-    public native void addSource(@Const @ByRef Source source);
+    public void addSource(Source source) {
+        ChangeTracker.changed(this);
+        attachSource(source);
+    }
+
+    private native
+    @Name("removeSource")
+    @Cast("bool")
+    boolean detachSource(@StdString String id);
 
     /**
      * Remove a source from the list of associated sources.
@@ -332,8 +389,15 @@ public class Group extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
+    public boolean removeSource(String id) {
+        ChangeTracker.changed(this);
+        return detachSource(id);
+    }
+
+    private native
+    @Name("removeSource")
     @Cast("bool")
-    public native boolean removeSource(@StdString String id);
+    boolean detachSource(@Const @ByRef Source source);
 
     /**
      * Remove a source from the list of associated sources.
@@ -344,8 +408,10 @@ public class Group extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
-    @Cast("bool")
-    public native boolean removeSource(@Const @ByRef Source source);
+    public boolean removeSource(Source source) {
+        ChangeTracker.changed(this);
+        return detachSource(source);
+    }
 
     //--------------------------------------------------
     // Methods concerning data arrays
@@ -450,6 +516,7 @@ public class Group extends EntityWithSources {
      * @see DataArray
      */
     public void setDataArrays(List<DataArray> dataArrays) {
+        ChangeTracker.changed(this);
         // remove if not in dataArrays
         getDataArrays(da -> !dataArrays.contains(da))
                 .forEach(this::removeDataArray);
@@ -459,19 +526,38 @@ public class Group extends EntityWithSources {
                 .forEach(this::addDataArray);
     }
 
+    private native
+    @Name("addDataArray")
+    void attachDataArray(@StdString String nameOrId);
+
     /**
      * Add a DataArray to the list of referenced data of the group.
      *
      * @param nameOrId      The id of the DataArray to add.
      */
-    public native void addDataArray(@StdString String nameOrId);
+    public void addDataArray(String nameOrId) {
+        ChangeTracker.changed(this);
+        attachDataArray(nameOrId);
+    }
+
+    private native
+    @Name("addDataArray")
+    void attachDataArray(@Const @ByRef DataArray dataArray);
 
     /**
      * Add a DataArray to the list of referenced data of the group.
      *
      * @param dataArray     The DataArray to add.
      */
-    public native void addDataArray(@Const @ByRef DataArray dataArray);
+    public void addDataArray(DataArray dataArray) {
+        ChangeTracker.changed(this);
+        attachDataArray(dataArray);
+    }
+
+    private native
+    @Name("removeDataArray")
+    @Cast("bool")
+    boolean detachDataArray(@StdString String nameOrId);
 
     /**
      * Remove a DataArray from the list of referenced data of the group.
@@ -483,8 +569,15 @@ public class Group extends EntityWithSources {
      *
      * @return True if the DataArray was removed, false otherwise.
      */
+    public boolean removeDataArray(String nameOrId) {
+        ChangeTracker.changed(this);
+        return detachDataArray(nameOrId);
+    }
+
+    private native
+    @Name("removeDataArray")
     @Cast("bool")
-    public native boolean removeDataArray(@StdString String nameOrId);
+    boolean detachDataArray(@Const @ByRef DataArray dataArray);
 
     /**
      * Remove a DataArray from the list of referenced data of the group.
@@ -496,8 +589,10 @@ public class Group extends EntityWithSources {
      *
      * @return True if the DataArray was removed, false otherwise.
      */
-    @Cast("bool")
-    public native boolean removeDataArray(@Const @ByRef DataArray dataArray);
+    public boolean removeDataArray(DataArray dataArray) {
+        ChangeTracker.changed(this);
+        return detachDataArray(dataArray);
+    }
 
 
     //--------------------------------------------------
@@ -602,6 +697,7 @@ public class Group extends EntityWithSources {
      * @see Tag
      */
     public void setTags(List<Tag> tags) {
+        ChangeTracker.changed(this);
         // remove if not in dataArrays
         getTags(tag -> !tags.contains(tag))
                 .forEach(this::removeTag);
@@ -611,19 +707,38 @@ public class Group extends EntityWithSources {
                 .forEach(this::addTag);
     }
 
+    private native
+    @Name("addTag")
+    void attachTag(@StdString String nameOrId);
+
     /**
      * Add a Tag to the list of referenced tags of the group.
      *
      * @param nameOrId      The id of the Tag to add.
      */
-    public native void addTag(@StdString String nameOrId);
+    public void addTag(String nameOrId) {
+        ChangeTracker.changed(this);
+        attachTag(nameOrId);
+    }
+
+    private native
+    @Name("addTag")
+    void attachTag(@Const @ByRef Tag tag);
 
     /**
      * Add a Tag to the list of referenced tags of the group.
      *
      * @param tag           The Tag to add.
      */
-    public native void addTag(@Const @ByRef Tag tag);
+    public void addTag(Tag tag) {
+        ChangeTracker.changed(this);
+        attachTag(tag);
+    }
+
+    private native
+    @Name("removeTag")
+    @Cast("bool")
+    boolean detachTag(@StdString String nameOrId);
 
     /**
      * Remove a Tag from the list of referenced tags of the group.
@@ -635,8 +750,15 @@ public class Group extends EntityWithSources {
      *
      * @return True if the Tag was removed, false otherwise.
      */
+    public boolean removeTag(String nameOrId) {
+        ChangeTracker.changed(this);
+        return detachTag(nameOrId);
+    }
+
+    private native
+    @Name("removeTag")
     @Cast("bool")
-    public native boolean removeTag(@StdString String nameOrId);
+    boolean detachTag(@Const @ByRef Tag tag);
 
     /**
      * Remove a Tag from the list of referenced data of the group.
@@ -648,8 +770,10 @@ public class Group extends EntityWithSources {
      *
      * @return True if the Tag was removed, false otherwise.
      */
-    @Cast("bool")
-    public native boolean removeTag(@Const @ByRef Tag tag);
+    public boolean removeTag(Tag tag) {
+        ChangeTracker.changed(this);
+        return detachTag(tag);
+    }
 
     //--------------------------------------------------
     // Methods concerning multi tags
@@ -753,6 +877,7 @@ public class Group extends EntityWithSources {
      * @see MultiTag
      */
     public void setMultiTags(List<MultiTag> tags) {
+        ChangeTracker.changed(this);
         // remove if not in dataArrays
         getMultiTags(tag -> !tags.contains(tag))
                 .forEach(this::removeMultiTag);
@@ -762,19 +887,38 @@ public class Group extends EntityWithSources {
                 .forEach(this::addMultiTag);
     }
 
+    private native
+    @Name("addMultiTag")
+    void attachMultiTag(@StdString String nameOrId);
+
     /**
      * Add a MultiTag to the list of referenced tags of the group.
      *
      * @param nameOrId      The id of the MultiTag to add.
      */
-    public native void addMultiTag(@StdString String nameOrId);
+    public void addMultiTag(String nameOrId) {
+        ChangeTracker.changed(this);
+        attachMultiTag(nameOrId);
+    }
+
+    private native
+    @Name("addMultiTag")
+    void attachMultiTag(@Const @ByRef MultiTag tag);
 
     /**
      * Add a MultiTag to the list of referenced tags of the group.
      *
      * @param tag           The MultiTag to add.
      */
-    public native void addMultiTag(@Const @ByRef MultiTag tag);
+    public void addMultiTag(MultiTag tag) {
+        ChangeTracker.changed(this);
+        attachMultiTag(tag);
+    }
+
+    private native
+    @Name("removeMultiTag")
+    @Cast("bool")
+    boolean detachMultiTag(@StdString String nameOrId);
 
     /**
      * Remove a MultiTag from the list of referenced tags of the group.
@@ -786,8 +930,15 @@ public class Group extends EntityWithSources {
      *
      * @return True if the MultiTag was removed, false otherwise.
      */
+    public boolean removeMultiTag(String nameOrId) {
+        ChangeTracker.changed(this);
+        return detachMultiTag(nameOrId);
+    }
+
+    private native
+    @Name("removeMultiTag")
     @Cast("bool")
-    public native boolean removeMultiTag(@StdString String nameOrId);
+    boolean detachMultiTag(@Const @ByRef MultiTag tag);
 
     /**
      * Remove a MultiTag from the list of referenced data of the group.
@@ -799,6 +950,8 @@ public class Group extends EntityWithSources {
      *
      * @return True if the MultiTag was removed, false otherwise.
      */
-    @Cast("bool")
-    public native boolean removeMultiTag(@Const @ByRef MultiTag tag);
+    public boolean removeMultiTag(MultiTag tag) {
+        ChangeTracker.changed(this);
+        return detachMultiTag(tag);
+    }
 }
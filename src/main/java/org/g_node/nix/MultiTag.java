@@ -1,6 +1,5 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.*;
 import org.g_node.nix.base.EntityWithSources;
@@ -36,6 +35,7 @@ import java.util.function.Predicate;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/MultiTag.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -45,7 +45,7 @@ import java.util.function.Predicate;
 @Namespace("nix")
 public class MultiTag extends EntityWithSources {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -113,10 +113,16 @@ public class MultiTag extends EntityWithSources {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -134,34 +140,45 @@ public class MultiTag extends EntityWithSources {
         forceCreatedAt(DateUtils.convertDateToSeconds(date));
     }
 
+    @Name("type")
+    private native void type(@StdString String type);
+
     /**
      * Setter for the type of the multitag.
      *
      * @param type The type of the multitag.
      */
-    public native
+    public void setType(String type) {
+        ChangeTracker.changed(this);
+        type(type);
+        updateAttribute(Attribute.TYPE, type);
+    }
+
     @Name("type")
-    void setType(@StdString String type);
+    @StdString
+    private native String type();
 
     /**
      * Getter for the type of the multitag.
      *
      * @return The type of the multitag.
      */
-    public native
-    @Name("type")
+    public String getType() {
+        return cachedAttribute(Attribute.TYPE, this::type);
+    }
+
+    @Name("name")
     @StdString
-    String getType();
+    private native String name();
 
     /**
      * Getter for the name of the multitag.
      *
      * @return The name of the multitag.
      */
-    public native
-    @Name("name")
-    @StdString
-    String getName();
+    public String getName() {
+        return cachedAttribute(Attribute.NAME, this::name);
+    }
 
     private native void definition(@Const @ByVal None t);
 
@@ -173,11 +190,13 @@ public class MultiTag extends EntityWithSources {
      * @param definition definition of multitag.
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        updateAttribute(Attribute.DEFINITION, definition);
     }
 
     private native
@@ -190,11 +209,13 @@ public class MultiTag extends EntityWithSources {
      * @return The definition of the multitag.
      */
     public String getDefinition() {
-        OptionalUtils.OptionalString defintion = definition();
-        if (defintion.isPresent()) {
-            return defintion.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.DEFINITION, () -> {
+            OptionalUtils.OptionalString defintion = definition();
+            if (defintion.isPresent()) {
+                return defintion.getString();
+            }
+            return null;
+        });
     }
 
     private native
@@ -217,6 +238,10 @@ public class MultiTag extends EntityWithSources {
         return section;
     }
 
+    private native
+    @Name("metadata")
+    void metadata(@Const @ByRef Section metadata);
+
     /**
      * Associate the entity with some metadata.
      * <p>
@@ -226,9 +251,14 @@ public class MultiTag extends EntityWithSources {
      *                 with this entity.
      * @see Section
      */
-    public native
+    public void setMetadata(Section metadata) {
+        ChangeTracker.changed(this);
+        metadata(metadata);
+    }
+
+    private native
     @Name("metadata")
-    void setMetadata(@Const @ByRef Section metadata);
+    void metadata(@StdString String id);
 
     /**
      * Associate the entity with some metadata.
@@ -239,9 +269,10 @@ public class MultiTag extends EntityWithSources {
      *           with this entity.
      * @see Section
      */
-    public native
-    @Name("metadata")
-    void setMetadata(@StdString String id);
+    public void setMetadata(String id) {
+        ChangeTracker.changed(this);
+        metadata(id);
+    }
 
     private native void metadata(@Const @ByVal None t);
 
@@ -251,6 +282,7 @@ public class MultiTag extends EntityWithSources {
      * @see Section
      */
     public void removeMetadata() {
+        ChangeTracker.changed(this);
         metadata(new None());
     }
 
@@ -351,9 +383,14 @@ public class MultiTag extends EntityWithSources {
      * @see Source
      */
     public void setSources(List<Source> sources) {
+        ChangeTracker.changed(this);
         sources(new VectorUtils.SourceVector(sources));
     }
 
+    private native
+    @Name("addSource")
+    void attachSource(@StdString String id);
+
     /**
      * Associate a new source with the entity.
      * <p>
@@ -363,7 +400,14 @@ public class MultiTag extends EntityWithSources {
      * @param id The id of the source.
      * @see Source
      */
-    public native void addSource(@StdString String id);
+    public void addSource(String id) {
+        ChangeTracker.changed(this);
+        attachSource(id);
+    }
+
+    private native
+    @Name("addSource")
+    void attachSource(@Const @ByRef Source source);
 
     /**
      * Associate a new source with the entity.
@@ -373,7 +417,15 @@ public class MultiTag extends EntityWithSources {
      * @param source The source to add.
      * @see Source
      */
-    public native void addSource(@Const @ByRef Source source);
+    public void addSource(Source source) {
+        ChangeTracker.changed(this);
+        attachSource(source);
+    }
+
+    private native
+    @Name("removeSource")
+    @Cast("bool")
+    boolean detachSource(@StdString String id);
 
     /**
      * Remove a source from the list of associated sources.
@@ -385,9 +437,15 @@ public class MultiTag extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
-    public native
+    public boolean removeSource(String id) {
+        ChangeTracker.changed(this);
+        return detachSource(id);
+    }
+
+    private native
+    @Name("removeSource")
     @Cast("bool")
-    boolean removeSource(@StdString String id);
+    boolean detachSource(@Const @ByRef Source source);
 
     /**
      * Remove a source from the list of associated sources.
@@ -399,9 +457,10 @@ public class MultiTag extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
-    public native
-    @Cast("bool")
-    boolean removeSource(@Const @ByRef Source source);
+    public boolean removeSource(Source source) {
+        ChangeTracker.changed(this);
+        return detachSource(source);
+    }
 
 
     //--------------------------------------------------
@@ -430,15 +489,24 @@ public class MultiTag extends EntityWithSources {
         return da;
     }
 
+    private native
+    @Name("positions")
+    void positions(@StdString String nameOrId);
+
     /**
      * Setter for the positions of the tag.
      *
      * @param nameOrId Name or id of the DataArray that defines the positions for this tag.
      * @see DataArray
      */
-    public native
+    public void setPositions(String nameOrId) {
+        ChangeTracker.changed(this);
+        positions(nameOrId);
+    }
+
+    private native
     @Name("positions")
-    void setPositions(@StdString String nameOrId);
+    void positions(@Const @ByRef DataArray positions);
 
     /**
      * Setter for the positions of the tag.
@@ -446,9 +514,10 @@ public class MultiTag extends EntityWithSources {
      * @param positions The DataArray containing the positions of the tag.
      * @see DataArray
      */
-    public native
-    @Name("positions")
-    void setPositions(@Const @ByRef DataArray positions);
+    public void setPositions(DataArray positions) {
+        ChangeTracker.changed(this);
+        positions(positions);
+    }
 
     /**
      * Determine whether this DataArray contains positions.
@@ -480,15 +549,24 @@ public class MultiTag extends EntityWithSources {
         return da;
     }
 
+    private native
+    @Name("extents")
+    void extents(@Const @ByRef DataArray extents);
+
     /**
      * Sets the extents DataArray of the tag.
      *
      * @param extents The DataArray containing the extents of the tag.
      * @see DataArray
      */
-    public native
+    public void setExtents(DataArray extents) {
+        ChangeTracker.changed(this);
+        extents(extents);
+    }
+
+    private native
     @Name("extents")
-    void setExtents(@Const @ByRef DataArray extents);
+    void extents(@StdString String nameOrId);
 
     /**
      * Setter for the positions of the tag.
@@ -496,9 +574,10 @@ public class MultiTag extends EntityWithSources {
      * @param nameOrId Name or id of the DataArray that defines the extents of the tag.
      * @see DataArray
      */
-    public native
-    @Name("extents")
-    void setExtents(@StdString String nameOrId);
+    public void setExtents(String nameOrId) {
+        ChangeTracker.changed(this);
+        extents(nameOrId);
+    }
 
     private native void extents(@Const @ByVal None t);
 
@@ -511,6 +590,7 @@ public class MultiTag extends EntityWithSources {
      * @see DataArray
      */
     public void removeExtents() {
+        ChangeTracker.changed(this);
         extents(new None());
     }
 
@@ -543,6 +623,7 @@ public class MultiTag extends EntityWithSources {
      * @param units All units as a list. If <tt>null</tt> removes the units.
      */
     public void setUnits(List<String> units) {
+        ChangeTracker.changed(this);
         if (units != null) {
             units(new VectorUtils.StringVector(units));
         } else {
@@ -626,13 +707,24 @@ public class MultiTag extends EntityWithSources {
         return da;
     }
 
+    private native
+    @Name("addReference")
+    void attachReference(@StdString String nameOrId);
+
     /**
      * Add a new DataArray to the list of referenced data.
      *
      * @param nameOrId Name or id of the data array.
      * @see DataArray
      */
-    public native void addReference(@StdString String nameOrId);
+    public void addReference(String nameOrId) {
+        ChangeTracker.changed(this);
+        attachReference(nameOrId);
+    }
+
+    private native
+    @Name("addReference")
+    void attachReference(@Const @ByRef DataArray reference);
 
     /**
      * Adds a new DataArray to the list of referenced data.
@@ -640,7 +732,15 @@ public class MultiTag extends EntityWithSources {
      * @param reference The DataArray that should be referenced.
      * @see DataArray
      */
-    public native void addReference(@Const @ByRef DataArray reference);
+    public void addReference(DataArray reference) {
+        ChangeTracker.changed(this);
+        attachReference(reference);
+    }
+
+    private native
+    @Name("removeReference")
+    @Cast("bool")
+    boolean detachReference(@StdString String nameOrId);
 
     /**
      * Remove a DataArray from the list of referenced data.
@@ -652,9 +752,15 @@ public class MultiTag extends EntityWithSources {
      * @return True if the data array was removed, false otherwise.
      * @see DataArray
      */
-    public native
+    public boolean removeReference(String nameOrId) {
+        ChangeTracker.changed(this);
+        return detachReference(nameOrId);
+    }
+
+    private native
+    @Name("removeReference")
     @Cast("bool")
-    boolean removeReference(@StdString String nameOrId);
+    boolean detachReference(@Const @ByRef DataArray reference);
 
     /**
      * Remove a DataArray from the list of referenced data.
@@ -666,9 +772,10 @@ public class MultiTag extends EntityWithSources {
      * @return True if the data array was removed, false otherwise.
      * @see DataArray
      */
-    public native
-    @Cast("bool")
-    boolean removeReference(@Const @ByRef DataArray reference);
+    public boolean removeReference(DataArray reference) {
+        ChangeTracker.changed(this);
+        return detachReference(reference);
+    }
 
     private native
     @ByVal
@@ -718,6 +825,7 @@ public class MultiTag extends EntityWithSources {
      * @see DataArray
      */
     public void setReferences(List<DataArray> references) {
+        ChangeTracker.changed(this);
         references(new VectorUtils.DataArrayVector(references));
     }
 
@@ -859,6 +967,7 @@ public class MultiTag extends EntityWithSources {
      * @see Feature
      */
     public Feature createFeature(DataArray data, int linkType) {
+        ChangeTracker.changed(this);
         Feature feature = makeFeature(data, linkType);
         if (feature.isNone()) {
             feature = null;
@@ -880,6 +989,7 @@ public class MultiTag extends EntityWithSources {
      * @see Feature
      */
     public Feature createFeature(String dataArrayId, int linkType) {
+        ChangeTracker.changed(this);
         Feature feature = makeFeature(dataArrayId, linkType);
         if (feature.isNone()) {
             feature = null;
@@ -887,6 +997,11 @@ public class MultiTag extends EntityWithSources {
         return feature;
     }
 
+    private native
+    @Name("deleteFeature")
+    @Cast("bool")
+    boolean eraseFeature(@StdString String nameOrId);
+
     /**
      * Delete a feature from the tag.
      *
@@ -894,9 +1009,15 @@ public class MultiTag extends EntityWithSources {
      * @return True if the feature was removed, false otherwise.
      * @see Feature
      */
-    public native
+    public boolean deleteFeature(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseFeature(nameOrId);
+    }
+
+    private native
+    @Name("deleteFeature")
     @Cast("bool")
-    boolean deleteFeature(@StdString String nameOrId);
+    boolean eraseFeature(@Const @ByRef Feature feature);
 
     /**
      * Delete a feature from the tag.
@@ -905,9 +1026,10 @@ public class MultiTag extends EntityWithSources {
      * @return True if the feature was removed, false otherwise.
      * @see Feature
      */
-    public native
-    @Cast("bool")
-    boolean deleteFeature(@Const @ByRef Feature feature);
+    public boolean deleteFeature(Feature feature) {
+        ChangeTracker.changed(this);
+        return eraseFeature(feature);
+    }
 
     /**
      * Retrieves the data stored in a feature related to a certain
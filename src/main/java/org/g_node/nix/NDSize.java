@@ -1,10 +1,10 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.LongPointer;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeLibrary;
 
 /**
  * <h1>NDSize</h1>
@@ -12,6 +12,7 @@ import org.g_node.nix.internal.BuildLibs;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/NDSize.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -22,7 +23,7 @@ import org.g_node.nix.internal.BuildLibs;
 @Name("NDSizeBase<nix::ndsize_t>")
 public class NDSize extends Pointer {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -1,12 +1,12 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.*;
 import org.g_node.nix.base.Entity;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * <h1>Property</h1>
@@ -20,12 +20,17 @@ import java.util.List;
  * The {@link Property#setUnit(String)} is the unit of the stored values. Similar
  * to the {@link Section} entity, mapping information can be provided
  * using the {@link Property#setMapping(String)} field.
+ * <p>
+ * Like named entities, a property can cache its name, definition, unit and mapping, see
+ * {@link Property#setAttributeCaching(boolean)}. This avoids native calls when the same
+ * properties are read repeatedly, e.g. for tables of properties.
  *
  * @see DataType
  * @see Section
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Property.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -35,9 +40,18 @@ import java.util.List;
 @Namespace("nix")
 public class Property extends Entity implements Comparable<Property> {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
+    // slots of the attribute cache
+    private static final int NAME = 0;
+    private static final int DEFINITION = 1;
+    private static final int UNIT = 2;
+    private static final int MAPPING = 3;
+
+    // null while caching is disabled
+    private AttributeCache attributes;
+
     //--------------------------------------------------
     // Constructors
     //--------------------------------------------------
@@ -102,10 +116,16 @@ public class Property extends Entity implements Comparable<Property> {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -137,10 +157,13 @@ public class Property extends Entity implements Comparable<Property> {
      *
      * @return string The name of the property.
      */
-    public native
+    public String getName() {
+        return cached(NAME, this::name);
+    }
+
     @Name("name")
     @StdString
-    String getName();
+    private native String name();
 
     private native void definition(@Const @ByVal None t);
 
@@ -152,11 +175,15 @@ public class Property extends Entity implements Comparable<Property> {
      * @param definition definition of property. If <tt>null</tt> is passed definition is removed.
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        if (attributes != null) {
+            attributes.set(DEFINITION, definition);
+        }
     }
 
     private native
@@ -172,11 +199,13 @@ public class Property extends Entity implements Comparable<Property> {
      * @return The definition of the property. Returns <tt>null</tt> if not present.
      */
     public String getDefinition() {
-        OptionalUtils.OptionalString defintion = definition();
-        if (defintion.isPresent()) {
-            return defintion.getString();
-        }
-        return null;
+        return cached(DEFINITION, () -> {
+            OptionalUtils.OptionalString defintion = definition();
+            if (defintion.isPresent()) {
+                return defintion.getString();
+            }
+            return null;
+        });
     }
 
 
@@ -190,11 +219,13 @@ public class Property extends Entity implements Comparable<Property> {
      * @return The mapping for the Property. Returns <tt>null</tt> if not present.
      */
     public String getMapping() {
-        OptionalUtils.OptionalString mapping = mapping();
-        if (mapping.isPresent()) {
-            return mapping.getString();
-        }
-        return null;
+        return cached(MAPPING, () -> {
+            OptionalUtils.OptionalString mapping = mapping();
+            if (mapping.isPresent()) {
+                return mapping.getString();
+            }
+            return null;
+        });
     }
 
     private native void mapping(@Const @ByVal None t);
@@ -211,11 +242,15 @@ public class Property extends Entity implements Comparable<Property> {
      * @param mapping The mapping information. If <tt>null</tt> is passed the unit is removed.
      */
     public void setMapping(String mapping) {
+        ChangeTracker.changed(this);
         if (mapping != null) {
             mapping(mapping);
         } else {
             mapping(new None());
         }
+        if (attributes != null) {
+            attributes.set(MAPPING, mapping);
+        }
     }
 
     /**
@@ -240,11 +275,13 @@ public class Property extends Entity implements Comparable<Property> {
      * @return The unit for all values. Returns <tt>null</tt> if not present.
      */
     public String getUnit() {
-        OptionalUtils.OptionalString unit = unit();
-        if (unit.isPresent()) {
-            return unit.getString();
-        }
-        return null;
+        return cached(UNIT, () -> {
+            OptionalUtils.OptionalString unit = unit();
+            if (unit.isPresent()) {
+                return unit.getString();
+            }
+            return null;
+        });
     }
 
     private native void unit(@StdString String unit);
@@ -257,23 +294,93 @@ public class Property extends Entity implements Comparable<Property> {
      * @param unit The unit for all values. If <tt>null</tt> is passed the unit is removed.
      */
     public void setUnit(String unit) {
+        ChangeTracker.changed(this);
         if (unit != null) {
             unit(unit);
         } else {
             unit(new None());
         }
+        // NIX sanitizes units before storing them, the stored unit is read on the next access
+        if (attributes != null) {
+            attributes.drop(UNIT);
+        }
+    }
+
+    //--------------------------------------------------
+    // Attribute cache
+    //--------------------------------------------------
+
+    /**
+     * Enables or disables caching of name, definition, unit and mapping of this property.
+     * Disabled by default.
+     * <p>
+     * Setters write through to the cache and {@link Property#forceUpdatedAt()} drops it.
+     * Changes made through another object for the same property are not seen until
+     * {@link Property#dropAttributeCache()} is called.
+     *
+     * @param enabled True to enable the cache.
+     */
+    public void setAttributeCaching(boolean enabled) {
+        if (!enabled) {
+            attributes = null;
+        } else if (attributes == null) {
+            attributes = new AttributeCache(4);
+        }
+    }
+
+    /**
+     * Checks whether the attributes of this property are cached.
+     *
+     * @return True if the cache is enabled.
+     */
+    public boolean isAttributeCaching() {
+        return attributes != null;
+    }
+
+    /**
+     * Enables the attribute cache and reads all attributes into it.
+     */
+    public void cacheAttributes() {
+        setAttributeCaching(true);
+        getName();
+        getDefinition();
+        getUnit();
+        getMapping();
+    }
+
+    /**
+     * Drops all cached attributes. The cache stays enabled and is refilled on the next access.
+     */
+    public void dropAttributeCache() {
+        if (attributes != null) {
+            attributes.clear();
+        }
+    }
+
+    private String cached(int slot, Supplier<String> loader) {
+        if (attributes == null) {
+            return loader.get();
+        }
+        return attributes.get(slot, loader);
     }
 
     //--------------------------------------------------
     // Methods for Value access
     //--------------------------------------------------
 
+    private native
+    @Name("deleteValues")
+    void eraseValues();
+
     /**
      * Deletes all values from the property.
      *
      * @see Value
      */
-    public native void deleteValues();
+    public void deleteValues() {
+        ChangeTracker.changed(this);
+        eraseValues();
+    }
 
     /**
      * Get the number of values of the property.
@@ -294,6 +401,7 @@ public class Property extends Entity implements Comparable<Property> {
      * @see Value
      */
     public void setValues(List<Value> values) {
+        ChangeTracker.changed(this);
         values(new VectorUtils.ValueVector(values));
     }
 
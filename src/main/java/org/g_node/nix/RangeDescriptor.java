@@ -0,0 +1,229 @@
+package org.g_node.nix;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * <h1>RangeDescriptor</h1>
+ * Immutable, on-heap copy of a {@link RangeDimension}.
+ * <p>
+ * The descriptor is loaded once from the native dimension and holds the ticks, unit and
+ * label. Index lookups are done by binary search over the ticks in Java without crossing
+ * into native code.
+ * <pre><code>
+ *     RangeDimension rd = ...;
+ *     RangeDescriptor desc = rd.getDescriptor();
+ *     long index = desc.getIndexOf(4.2);
+ * </code></pre>
+ * Changes to the native dimension are not reflected by an existing descriptor.
+ *
+ * @see RangeDimension
+ * @see SampledDescriptor
+ */
+public final class RangeDescriptor {
+
+    private final double[] ticks;
+    private final String unit;
+    private final String label;
+
+    /**
+     * Creates a descriptor from explicit values.
+     *
+     * @param ticks The ticks in ascending order. The array is copied.
+     * @param unit  The unit, may be <tt>null</tt>.
+     * @param label The label, may be <tt>null</tt>.
+     */
+    public RangeDescriptor(double[] ticks, String unit, String label) {
+        if (ticks.length == 0) {
+            throw new IllegalArgumentException("RangeDimension has no ticks");
+        }
+        this.ticks = ticks.clone();
+        this.unit = unit;
+        this.label = label;
+    }
+
+    /**
+     * Loads a descriptor from a native dimension.
+     *
+     * @param dimension The dimension.
+     * @return The descriptor.
+     */
+    public static RangeDescriptor of(RangeDimension dimension) {
+        return new RangeDescriptor(dimension.getTicks(), dimension.getUnit(), dimension.getLabel());
+    }
+
+    //--------------------------------------------------
+    // Getters
+    //--------------------------------------------------
+
+    /**
+     * Gets a copy of the ticks.
+     *
+     * @return The ticks.
+     */
+    public double[] getTicks() {
+        return ticks.clone();
+    }
+
+    /**
+     * Gets the number of ticks.
+     *
+     * @return The number of ticks.
+     */
+    public int getTickCount() {
+        return ticks.length;
+    }
+
+    /**
+     * Gets the unit.
+     *
+     * @return The unit or <tt>null</tt> if not present.
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Gets the label.
+     *
+     * @return The label or <tt>null</tt> if not present.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    //--------------------------------------------------
+    // Index and position math
+    //--------------------------------------------------
+
+    /**
+     * Returns the tick at a given index.
+     *
+     * @param index The index.
+     * @return The tick.
+     * @see RangeDimension#getTickAt(long)
+     */
+    public double getTickAt(long index) {
+        if (index < 0 || index >= ticks.length) {
+            throw new IndexOutOfBoundsException("Index is out of bounds of this dimension!");
+        }
+        return ticks[(int) index];
+    }
+
+    /**
+     * Returns the index of the first tick that is equal or larger than the position.
+     * Positions beyond the last tick map to the last index.
+     *
+     * @param position The position in the unit of the dimension.
+     * @return The respective index.
+     * @see RangeDimension#getIndexOf(double)
+     */
+    public long getIndexOf(double position) {
+        int low = 0;
+        int high = ticks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ticks[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.min(low, ticks.length - 1);
+    }
+
+    /**
+     * Converts all remaining positions to indices.
+     * <p>
+     * The position of both buffers is advanced.
+     *
+     * @param positions The positions in the unit of the dimension.
+     * @param indices   The buffer receiving the indices.
+     */
+    public void getIndexOf(DoubleBuffer positions, LongBuffer indices) {
+        positionToIndex(positions, "none", indices);
+    }
+
+    /**
+     * Converts a position given in a unit to an index.
+     *
+     * @param position The position.
+     * @param unit     The unit of the position, may be "none".
+     * @return The respective index.
+     * @see org.g_node.nix.util.DataAccess#positionToIndex(double, String, RangeDimension)
+     */
+    public long positionToIndex(double position, String unit) {
+        return getIndexOf(position * Units.scaling(unit, this.unit));
+    }
+
+    /**
+     * Converts all remaining positions given in a unit to indices.
+     * <p>
+     * The scaling between the units is resolved once. The position of both buffers is advanced.
+     *
+     * @param positions The positions.
+     * @param unit      The unit of the positions, may be "none".
+     * @param indices   The buffer receiving the indices.
+     */
+    public void positionToIndex(DoubleBuffer positions, String unit, LongBuffer indices) {
+        double scaling = Units.scaling(unit, this.unit);
+        while (positions.hasRemaining()) {
+            indices.put(getIndexOf(positions.get() * scaling));
+        }
+    }
+
+    /**
+     * Copies ticks starting at a given index into an array.
+     *
+     * @param startIndex The start index.
+     * @param axis       The array receiving the ticks.
+     * @param axisOffset The first element of the array to write to.
+     * @param count      The number of ticks.
+     */
+    public void getAxis(long startIndex, double[] axis, int axisOffset, int count) {
+        checkRange(startIndex, count);
+        System.arraycopy(ticks, (int) startIndex, axis, axisOffset, count);
+    }
+
+    /**
+     * Fills all remaining elements of a buffer with ticks starting at a given index.
+     *
+     * @param startIndex The start index.
+     * @param axis       The buffer receiving the ticks.
+     */
+    public void getAxis(long startIndex, DoubleBuffer axis) {
+        int count = axis.remaining();
+        checkRange(startIndex, count);
+        axis.put(ticks, (int) startIndex, count);
+    }
+
+    /**
+     * Returns a number of ticks starting at a given index.
+     *
+     * @param count      The number of ticks.
+     * @param startIndex The start index.
+     * @return The ticks.
+     * @see RangeDimension#getAxis(long, long)
+     */
+    public double[] getAxis(int count, long startIndex) {
+        checkRange(startIndex, count);
+        return Arrays.copyOfRange(ticks, (int) startIndex, (int) startIndex + count);
+    }
+
+    private void checkRange(long startIndex, int count) {
+        if (startIndex < 0 || count < 0 || startIndex + count > ticks.length) {
+            throw new IndexOutOfBoundsException("StartIndex and count are out of bounds of this dimension!");
+        }
+    }
+
+    //--------------------------------------------------
+    // Overrides
+    //--------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "RangeDescriptor: {ticks = " + ticks.length
+                + ", unit = " + unit + "}";
+    }
+}
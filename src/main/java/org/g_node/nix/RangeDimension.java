@@ -1,14 +1,20 @@
 package org.g_node.nix;
 
 import org.bytedeco.javacpp.DoublePointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.None;
 import org.g_node.nix.internal.VectorUtils;
 import org.g_node.nix.base.ImplContainer;
+import org.g_node.nix.internal.AttributeCache;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.ChangeTracker;
+import org.g_node.nix.internal.NativeLibrary;
 import org.g_node.nix.internal.OptionalUtils;
 
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.function.Supplier;
+
 /**
  * <h1>RangeDimension</h1>
  * Dimension descriptor for a dimension that is irregularly sampled.
@@ -25,6 +31,7 @@ import org.g_node.nix.internal.OptionalUtils;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Dimensions.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -34,9 +41,19 @@ import org.g_node.nix.internal.OptionalUtils;
 @Namespace("nix")
 public class RangeDimension<T extends RangeDimension> extends ImplContainer implements Comparable<T> {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
+    // id of the data array the dimension was obtained from, for change tracking
+    String owner;
+
+    // slots of the attribute cache
+    private static final int LABEL = 0;
+    private static final int UNIT = 1;
+
+    // null while caching is disabled
+    private AttributeCache attributes;
+
     //--------------------------------------------------
     // Constructors
     //--------------------------------------------------
@@ -114,11 +131,13 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
      * @return The label of the dimension. Returns <tt>null</tt> if not present.
      */
     public String getLabel() {
-        OptionalUtils.OptionalString label = label();
-        if (label.isPresent()) {
-            return label.getString();
-        }
-        return null;
+        return cached(LABEL, () -> {
+            OptionalUtils.OptionalString label = label();
+            if (label.isPresent()) {
+                return label.getString();
+            }
+            return null;
+        });
     }
 
     private native void label(@StdString String label);
@@ -131,11 +150,15 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
      * @param label The label of the dimension.
      */
     public void setLabel(String label) {
+        ChangeTracker.changed(owner);
         if (label != null) {
             label(label);
         } else {
             label(new None());
         }
+        if (attributes != null) {
+            attributes.set(LABEL, label);
+        }
     }
 
     private native
@@ -151,11 +174,13 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
      * @return The unit of the dimension.
      */
     public String getUnit() {
-        OptionalUtils.OptionalString unit = unit();
-        if (unit.isPresent()) {
-            return unit.getString();
-        }
-        return null;
+        return cached(UNIT, () -> {
+            OptionalUtils.OptionalString unit = unit();
+            if (unit.isPresent()) {
+                return unit.getString();
+            }
+            return null;
+        });
     }
 
     private native void unit(@StdString String unit);
@@ -168,11 +193,16 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
      * @param unit The unit to set.
      */
     public void setUnit(String unit) {
+        ChangeTracker.changed(owner);
         if (unit != null) {
             unit(unit);
         } else {
             unit(new None());
         }
+        // NIX may sanitize the unit, the stored unit is read on the next access
+        if (attributes != null) {
+            attributes.drop(UNIT);
+        }
     }
 
     private native
@@ -192,6 +222,10 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
         return VectorUtils.convertPointerToArray(ticks());
     }
 
+    private native
+    @Name("ticks")
+    void ticks(@StdVector double[] ticks);
+
     /**
      * Set the ticks array for the dimension.
      * <p>
@@ -199,9 +233,10 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
      *
      * @param ticks The new ticks for the dimension provided as an array.
      */
-    public native
-    @Name("ticks")
-    void setTicks(@StdVector double[] ticks);
+    public void setTicks(double[] ticks) {
+        ChangeTracker.changed(owner);
+        ticks(ticks);
+    }
 
     /**
      * Returns the entry of the range dimension at a given index.
@@ -226,6 +261,22 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
     @Cast("size_t")
     long getIndexOf(double position);
 
+    /**
+     * Returns the indices of the given positions.
+     * <p>
+     * Same as {@link RangeDimension#getIndexOf(double)} but converts all positions
+     * at once. The ticks are read only once per call.
+     *
+     * @param positions The positions.
+     * @return The respective indices.
+     * @see RangeDescriptor
+     */
+    public long[] getIndexOf(double[] positions) {
+        long[] indices = new long[positions.length];
+        getDescriptor().getIndexOf(DoubleBuffer.wrap(positions), LongBuffer.wrap(indices));
+        return indices;
+    }
+
     private native
     @StdVector
     DoublePointer axis(@Cast("const size_t") long count, @Cast("const size_t") long startIndex);
@@ -261,6 +312,79 @@ public class RangeDimension<T extends RangeDimension> extends ImplContainer impl
         return VectorUtils.convertPointerToArray(axis(count));
     }
 
+    /**
+     * Loads an immutable, on-heap copy of the dimension including all ticks.
+     * <p>
+     * Use the descriptor when many positions, indices or axis values have to be computed,
+     * it does all calculations without calling into native code.
+     *
+     * @return The descriptor of the dimension.
+     * @see RangeDescriptor
+     */
+    public RangeDescriptor getDescriptor() {
+        return RangeDescriptor.of(this);
+    }
+
+    //--------------------------------------------------
+    // Attribute cache
+    //--------------------------------------------------
+
+    /**
+     * Enables or disables caching of label and unit of this dimension. Disabled by default.
+     * <p>
+     * Setters write through to the cache. Every call of {@link DataArray#getDimension(long)}
+     * returns a new object with its own cache, changes made through another object are not
+     * seen until {@link RangeDimension#dropAttributeCache()} is called.
+     *
+     * @param enabled True to enable the cache.
+     */
+    public void setAttributeCaching(boolean enabled) {
+        if (!enabled) {
+            attributes = null;
+        } else if (attributes == null) {
+            attributes = new AttributeCache(2);
+        }
+    }
+
+    /**
+     * Checks whether label and unit of this dimension are cached.
+     *
+     * @return True if the cache is enabled.
+     */
+    public boolean isAttributeCaching() {
+        return attributes != null;
+    }
+
+    /**
+     * Enables the attribute cache and reads label and unit into it.
+     */
+    public void cacheAttributes() {
+        setAttributeCaching(true);
+        getLabel();
+        getUnit();
+    }
+
+    /**
+     * Drops the cached label and unit. The cache stays enabled and is refilled on the next access.
+     */
+    public void dropAttributeCache() {
+        if (attributes != null) {
+            attributes.clear();
+        }
+    }
+
+    private String cached(int slot, Supplier<String> loader) {
+        if (attributes == null) {
+            return loader.get();
+        }
+        return attributes.get(slot, loader);
+    }
+
+    RangeDimension<T> owner(String id) {
+        owner = id;
+        return this;
+    }
+
     //--------------------------------------------------
     // Overrides
     //--------------------------------------------------
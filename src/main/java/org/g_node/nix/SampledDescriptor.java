@@ -0,0 +1,240 @@
+package org.g_node.nix;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * <h1>SampledDescriptor</h1>
+ * Immutable, on-heap copy of a {@link SampledDimension}.
+ * <p>
+ * The descriptor is loaded once from the native dimension and holds the sampling interval,
+ * offset, unit and label. All index and position calculations are then done in Java
+ * without crossing into native code.
+ * <pre><code>
+ *     SampledDimension sd = ...;
+ *     SampledDescriptor desc = sd.getDescriptor();
+ *     double[] axis = new double[1000];
+ *     desc.getAxis(0, axis, 0, axis.length);
+ * </code></pre>
+ * Changes to the native dimension are not reflected by an existing descriptor.
+ *
+ * @see SampledDimension
+ * @see RangeDescriptor
+ */
+public final class SampledDescriptor {
+
+    private final double samplingInterval;
+    private final double offset;
+    private final String unit;
+    private final String label;
+
+    /**
+     * Creates a descriptor from explicit values.
+     *
+     * @param samplingInterval The sampling interval.
+     * @param offset           The offset.
+     * @param unit             The unit, may be <tt>null</tt>.
+     * @param label            The label, may be <tt>null</tt>.
+     */
+    public SampledDescriptor(double samplingInterval, double offset, String unit, String label) {
+        if (!(samplingInterval > 0)) {
+            throw new IllegalArgumentException("Sampling interval must be positive");
+        }
+        this.samplingInterval = samplingInterval;
+        this.offset = offset;
+        this.unit = unit;
+        this.label = label;
+    }
+
+    /**
+     * Loads a descriptor from a native dimension.
+     *
+     * @param dimension The dimension.
+     * @return The descriptor.
+     */
+    public static SampledDescriptor of(SampledDimension dimension) {
+        return new SampledDescriptor(dimension.getSamplingInterval(),
+                dimension.getOffset(),
+                dimension.getUnit(),
+                dimension.getLabel());
+    }
+
+    //--------------------------------------------------
+    // Getters
+    //--------------------------------------------------
+
+    /**
+     * Gets the sampling interval.
+     *
+     * @return The sampling interval.
+     */
+    public double getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * Gets the offset.
+     *
+     * @return The offset.
+     */
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the unit.
+     *
+     * @return The unit or <tt>null</tt> if not present.
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Gets the label.
+     *
+     * @return The label or <tt>null</tt> if not present.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    //--------------------------------------------------
+    // Index and position math
+    //--------------------------------------------------
+
+    /**
+     * Returns the index of the given position.
+     *
+     * @param position The position in the unit of the dimension.
+     * @return The respective index.
+     * @see SampledDimension#getIndexOf(double)
+     */
+    public long getIndexOf(double position) {
+        double index = Units.round((position - offset) / samplingInterval);
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Position is out of bounds of this dimension!");
+        }
+        return (long) index;
+    }
+
+    /**
+     * Converts all remaining positions to indices.
+     * <p>
+     * The position of both buffers is advanced.
+     *
+     * @param positions The positions in the unit of the dimension.
+     * @param indices   The buffer receiving the indices.
+     */
+    public void getIndexOf(DoubleBuffer positions, LongBuffer indices) {
+        positionToIndex(positions, "none", indices);
+    }
+
+    /**
+     * Converts a position given in a unit to an index.
+     *
+     * @param position The position.
+     * @param unit     The unit of the position, may be "none".
+     * @return The respective index.
+     * @see org.g_node.nix.util.DataAccess#positionToIndex(double, String, SampledDimension)
+     */
+    public long positionToIndex(double position, String unit) {
+        return getIndexOf(position * scaling(unit));
+    }
+
+    /**
+     * Converts all remaining positions given in a unit to indices.
+     * <p>
+     * The scaling between the units is resolved once. The position of both buffers is advanced.
+     *
+     * @param positions The positions.
+     * @param unit      The unit of the positions, may be "none".
+     * @param indices   The buffer receiving the indices.
+     */
+    public void positionToIndex(DoubleBuffer positions, String unit, LongBuffer indices) {
+        double scaling = scaling(unit);
+        while (positions.hasRemaining()) {
+            indices.put(getIndexOf(positions.get() * scaling));
+        }
+    }
+
+    /**
+     * Returns the position at a given index.
+     *
+     * @param index The index.
+     * @return The respective position.
+     * @see SampledDimension#getPositionAt(long)
+     */
+    public double getPositionAt(long index) {
+        return offset + index * samplingInterval;
+    }
+
+    /**
+     * Fills a buffer with the positions starting at a given index.
+     *
+     * @param startIndex The start index.
+     * @param axis       The array receiving the positions.
+     * @param axisOffset The first element of the array to write to.
+     * @param count      The number of positions.
+     */
+    public void getAxis(long startIndex, double[] axis, int axisOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            axis[axisOffset + i] = offset + (startIndex + i) * samplingInterval;
+        }
+    }
+
+    /**
+     * Fills all remaining elements of a buffer with the positions starting at a given index.
+     *
+     * @param startIndex The start index.
+     * @param axis       The buffer receiving the positions.
+     */
+    public void getAxis(long startIndex, DoubleBuffer axis) {
+        long index = startIndex;
+        while (axis.hasRemaining()) {
+            axis.put(offset + index++ * samplingInterval);
+        }
+    }
+
+    /**
+     * Returns the positions starting at a given index.
+     *
+     * @param count      The number of positions.
+     * @param startIndex The start index.
+     * @return The positions.
+     * @see SampledDimension#getAxis(long, long)
+     */
+    public double[] getAxis(int count, long startIndex) {
+        double[] axis = new double[count];
+        getAxis(startIndex, axis, 0, count);
+        return axis;
+    }
+
+    /**
+     * Get the factor that converts positions given in a unit into the unit of the dimension.
+     *
+     * @param positionUnit The unit of the positions, may be "none".
+     * @return The scaling factor.
+     */
+    public double getScaling(String positionUnit) {
+        return scaling(positionUnit);
+    }
+
+    private double scaling(String positionUnit) {
+        if (unit == null && positionUnit != null && !positionUnit.equals("none")) {
+            throw new IllegalArgumentException("Units of position and SampledDimension must both be given!");
+        }
+        return Units.scaling(positionUnit, unit);
+    }
+
+    //--------------------------------------------------
+    // Overrides
+    //--------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "SampledDescriptor: {samplingInterval = " + samplingInterval
+                + ", offset = " + offset
+                + ", unit = " + unit + "}";
+    }
+}
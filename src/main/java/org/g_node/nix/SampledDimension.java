@@ -1,14 +1,20 @@
 package org.g_node.nix;
 
 import org.bytedeco.javacpp.DoublePointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.base.ImplContainer;
+import org.g_node.nix.internal.AttributeCache;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.ChangeTracker;
+import org.g_node.nix.internal.NativeLibrary;
 import org.g_node.nix.internal.None;
 import org.g_node.nix.internal.OptionalUtils;
 import org.g_node.nix.internal.VectorUtils;
 
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.function.Supplier;
+
 /**
  * <h1>SampledDimension</h1>
  * Dimension descriptor for regularly sampled dimensions.
@@ -36,6 +42,7 @@ import org.g_node.nix.internal.VectorUtils;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Dimensions.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -45,9 +52,19 @@ import org.g_node.nix.internal.VectorUtils;
 @Namespace("nix")
 public class SampledDimension<T extends SampledDimension> extends ImplContainer implements Comparable<T> {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
+    // id of the data array the dimension was obtained from, for change tracking
+    String owner;
+
+    // slots of the attribute cache
+    private static final int LABEL = 0;
+    private static final int UNIT = 1;
+
+    // null while caching is disabled
+    private AttributeCache attributes;
+
     //--------------------------------------------------
     // Constructors
     //--------------------------------------------------
@@ -116,11 +133,13 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
      * @return The label of the dimension. Returns <tt>null</tt> if not present.
      */
     public String getLabel() {
-        OptionalUtils.OptionalString label = label();
-        if (label.isPresent()) {
-            return label.getString();
-        }
-        return null;
+        return cached(LABEL, () -> {
+            OptionalUtils.OptionalString label = label();
+            if (label.isPresent()) {
+                return label.getString();
+            }
+            return null;
+        });
     }
 
     private native void label(@StdString String label);
@@ -133,11 +152,15 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
      * @param label The label of the dimension.
      */
     public void setLabel(String label) {
+        ChangeTracker.changed(owner);
         if (label != null) {
             label(label);
         } else {
             label(new None());
         }
+        if (attributes != null) {
+            attributes.set(LABEL, label);
+        }
     }
 
     private native
@@ -153,11 +176,13 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
      * @return The unit of the dimension.
      */
     public String getUnit() {
-        OptionalUtils.OptionalString unit = unit();
-        if (unit.isPresent()) {
-            return unit.getString();
-        }
-        return null;
+        return cached(UNIT, () -> {
+            OptionalUtils.OptionalString unit = unit();
+            if (unit.isPresent()) {
+                return unit.getString();
+            }
+            return null;
+        });
     }
 
     private native void unit(@StdString String unit);
@@ -170,11 +195,16 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
      * @param unit The unit to set.
      */
     public void setUnit(String unit) {
+        ChangeTracker.changed(owner);
         if (unit != null) {
             unit(unit);
         } else {
             unit(new None());
         }
+        // NIX may sanitize the unit, the stored unit is read on the next access
+        if (attributes != null) {
+            attributes.drop(UNIT);
+        }
     }
 
     /**
@@ -186,14 +216,19 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
     @Name("samplingInterval")
     double getSamplingInterval();
 
+    private native
+    @Name("samplingInterval")
+    void samplingInterval(double interval);
+
     /**
      * Sets the sampling interval of the dimension.
      *
      * @param interval The sampling interval to set.
      */
-    public native
-    @Name("samplingInterval")
-    void setSamplingInterval(double interval);
+    public void setSamplingInterval(double interval) {
+        ChangeTracker.changed(owner);
+        samplingInterval(interval);
+    }
 
     private native
     @ByVal
@@ -217,14 +252,19 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
         return 0.0;
     }
 
+    private native
+    @Name("offset")
+    void offset(double offset);
+
     /**
      * Sets the offset of the dimension.
      *
      * @param offset The offset of the dimension.
      */
-    public native
-    @Name("offset")
-    void setOffset(double offset);
+    public void setOffset(double offset) {
+        ChangeTracker.changed(owner);
+        offset(offset);
+    }
 
     /**
      * Returns the index of the given position.
@@ -242,6 +282,22 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
     @Cast("size_t")
     long getIndexOf(double position);
 
+    /**
+     * Returns the indices of the given positions.
+     * <p>
+     * Same as {@link SampledDimension#getIndexOf(double)} but converts all positions
+     * at once. The sampling interval and offset are read only once per call.
+     *
+     * @param positions The positions.
+     * @return The respective indices.
+     * @see SampledDescriptor
+     */
+    public long[] getIndexOf(double[] positions) {
+        long[] indices = new long[positions.length];
+        getDescriptor().getIndexOf(DoubleBuffer.wrap(positions), LongBuffer.wrap(indices));
+        return indices;
+    }
+
     /**
      * Returns the position of this dimension at a given index.
      * <p>
@@ -287,6 +343,79 @@ public class SampledDimension<T extends SampledDimension> extends ImplContainer
         return VectorUtils.convertPointerToArray(axis(count));
     }
 
+    /**
+     * Loads an immutable, on-heap copy of the dimension.
+     * <p>
+     * Use the descriptor when many positions, indices or axis values have to be computed,
+     * it does all calculations without calling into native code.
+     *
+     * @return The descriptor of the dimension.
+     * @see SampledDescriptor
+     */
+    public SampledDescriptor getDescriptor() {
+        return SampledDescriptor.of(this);
+    }
+
+    //--------------------------------------------------
+    // Attribute cache
+    //--------------------------------------------------
+
+    /**
+     * Enables or disables caching of label and unit of this dimension. Disabled by default.
+     * <p>
+     * Setters write through to the cache. Every call of {@link DataArray#getDimension(long)}
+     * returns a new object with its own cache, changes made through another object are not
+     * seen until {@link SampledDimension#dropAttributeCache()} is called.
+     *
+     * @param enabled True to enable the cache.
+     */
+    public void setAttributeCaching(boolean enabled) {
+        if (!enabled) {
+            attributes = null;
+        } else if (attributes == null) {
+            attributes = new AttributeCache(2);
+        }
+    }
+
+    /**
+     * Checks whether label and unit of this dimension are cached.
+     *
+     * @return True if the cache is enabled.
+     */
+    public boolean isAttributeCaching() {
+        return attributes != null;
+    }
+
+    /**
+     * Enables the attribute cache and reads label and unit into it.
+     */
+    public void cacheAttributes() {
+        setAttributeCaching(true);
+        getLabel();
+        getUnit();
+    }
+
+    /**
+     * Drops the cached label and unit. The cache stays enabled and is refilled on the next access.
+     */
+    public void dropAttributeCache() {
+        if (attributes != null) {
+            attributes.clear();
+        }
+    }
+
+    private String cached(int slot, Supplier<String> loader) {
+        if (attributes == null) {
+            return loader.get();
+        }
+        return attributes.get(slot, loader);
+    }
+
+    SampledDimension<T> owner(String id) {
+        owner = id;
+        return this;
+    }
+
     //--------------------------------------------------
     // Overrides
     //--------------------------------------------------
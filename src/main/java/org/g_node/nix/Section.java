@@ -1,6 +1,5 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.bytedeco.javacpp.annotation.Properties;
 import org.g_node.nix.internal.*;
@@ -8,6 +7,8 @@ import org.g_node.nix.base.NamedEntity;
 
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <h1>Section</h1>
@@ -15,6 +16,7 @@ import java.util.function.Predicate;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Section.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -25,7 +27,7 @@ import java.util.function.Predicate;
 public class Section extends NamedEntity {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -92,10 +94,16 @@ public class Section extends NamedEntity {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -113,34 +121,45 @@ public class Section extends NamedEntity {
         forceCreatedAt(DateUtils.convertDateToSeconds(date));
     }
 
+    @Name("type")
+    private native void type(@StdString String type);
+
     /**
      * Setter for the type of the section.
      *
      * @param type The type of the section.
      */
-    public native
+    public void setType(String type) {
+        ChangeTracker.changed(this);
+        type(type);
+        updateAttribute(Attribute.TYPE, type);
+    }
+
     @Name("type")
-    void setType(@StdString String type);
+    @StdString
+    private native String type();
 
     /**
      * Getter for the type of the section.
      *
      * @return The type of the section.
      */
-    public native
-    @Name("type")
+    public String getType() {
+        return cachedAttribute(Attribute.TYPE, this::type);
+    }
+
+    @Name("name")
     @StdString
-    String getType();
+    private native String name();
 
     /**
      * Getter for the name of the section.
      *
      * @return The name of the section.
      */
-    public native
-    @Name("name")
-    @StdString
-    String getName();
+    public String getName() {
+        return cachedAttribute(Attribute.NAME, this::name);
+    }
 
     private native void definition(@Const @ByVal None t);
 
@@ -152,11 +171,13 @@ public class Section extends NamedEntity {
      * @param definition definition of section. If <tt>null</tt> is passed definition is removed.
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        updateAttribute(Attribute.DEFINITION, definition);
     }
 
     private native
@@ -169,11 +190,13 @@ public class Section extends NamedEntity {
      * @return The definition of the section. Returns <tt>null</tt> if not present.
      */
     public String getDefinition() {
-        OptionalUtils.OptionalString defintion = definition();
-        if (defintion.isPresent()) {
-            return defintion.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.DEFINITION, () -> {
+            OptionalUtils.OptionalString defintion = definition();
+            if (defintion.isPresent()) {
+                return defintion.getString();
+            }
+            return null;
+        });
     }
 
     //--------------------------------------------------
@@ -193,6 +216,7 @@ public class Section extends NamedEntity {
      */
 
     public void setRepository(String repository) {
+        ChangeTracker.changed(this);
         if (repository != null) {
             repository(repository);
         } else {
@@ -217,6 +241,10 @@ public class Section extends NamedEntity {
         return null;
     }
 
+    private native
+    @Name("link")
+    void link(@StdString String id);
+
     /**
      * Establish a link to another section.
      * <p>
@@ -226,9 +254,14 @@ public class Section extends NamedEntity {
      * @param id The id of the section that should be linked.
      * @see Section
      */
-    public native
+    public void setLink(String id) {
+        ChangeTracker.changed(this);
+        link(id);
+    }
+
+    private native
     @Name("link")
-    void setLink(@StdString String id);
+    void link(@Const @ByRef Section link);
 
     /**
      * Establish a link to another section.
@@ -239,9 +272,10 @@ public class Section extends NamedEntity {
      * @param link The section to link with.
      * @see Section
      */
-    public native
-    @Name("link")
-    void setLink(@Const @ByRef Section link);
+    public void setLink(Section link) {
+        ChangeTracker.changed(this);
+        link(link);
+    }
 
     private native
     @ByVal
@@ -271,6 +305,7 @@ public class Section extends NamedEntity {
      * the linked section from the file.
      */
     public void removeLink() {
+        ChangeTracker.changed(this);
         link(new None());
     }
 
@@ -286,6 +321,7 @@ public class Section extends NamedEntity {
      * @param mapping The mapping information to this section.  If <tt>null</tt> is passed mapping is removed.
      */
     public void setMapping(String mapping) {
+        ChangeTracker.changed(this);
         if (mapping != null) {
             mapping(mapping);
         } else {
@@ -542,6 +578,35 @@ public class Section extends NamedEntity {
         return findSections((Section s) -> true, Integer.MAX_VALUE);
     }
 
+    /**
+     * Get a stream over all sections of the section including the section itself recursively.
+     * <p>
+     * The stream traverses the sub-tree of the section lazily
+     * via breadth first and can be limited in depth.
+     * Child sections are fetched only when needed, so short-circuiting operations like
+     * <tt>findFirst</tt> or <tt>anyMatch</tt> stop the traversal early and no result list is built.
+     * Use <tt>parallel()</tt> to evaluate predicates in parallel, in that case the order of the
+     * sections is not defined. The attributes of the streamed sections are cached (see
+     * {@link Section#cacheAttributes()}), predicates on name, type and definition need no native calls.
+     *
+     * @param maxDepth The maximum depth of traversal.
+     * @return A stream of the sections.
+     * @see Section
+     */
+    public Stream<Section> streamSections(int maxDepth) {
+        return StreamSupport.stream(new TreeSpliterator<>(Collections.singletonList(this), Section::getSections, maxDepth), false);
+    }
+
+    /**
+     * Get a stream over all sections of the section including the section itself recursively, at all depths.
+     *
+     * @return A stream of the sections.
+     * @see Section
+     */
+    public Stream<Section> streamSections() {
+        return streamSections(Integer.MAX_VALUE);
+    }
+
     /**
      * Find all related sections of the section.
      *
@@ -596,6 +661,7 @@ public class Section extends NamedEntity {
      * @see Section
      */
     public Section createSection(String name, String type) {
+        ChangeTracker.changed(this);
         Section section = makeSection(name, type);
         if (section.isNone()) {
             section = null;
@@ -603,6 +669,11 @@ public class Section extends NamedEntity {
         return section;
     }
 
+    private native
+    @Name("deleteSection")
+    @Cast("bool")
+    boolean eraseSection(@StdString String nameOrId);
+
     /**
      * Deletes a section from the section.
      *
@@ -610,9 +681,15 @@ public class Section extends NamedEntity {
      * @return True if the section was deleted, false otherwise.
      * @see Section
      */
-    public native
+    public boolean deleteSection(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseSection(nameOrId);
+    }
+
+    private native
+    @Name("deleteSection")
     @Cast("bool")
-    boolean deleteSection(@StdString String nameOrId);
+    boolean eraseSection(@Const @ByRef Section section);
 
     /**
      * Deletes a subsection from this Section.
@@ -621,9 +698,10 @@ public class Section extends NamedEntity {
      * @return True if the section was deleted, false otherwise.
      * @see Section
      */
-    public native
-    @Cast("bool")
-    boolean deleteSection(@Const @ByRef Section section);
+    public boolean deleteSection(Section section) {
+        ChangeTracker.changed(this);
+        return eraseSection(section);
+    }
 
     //--------------------------------------------------
     // Methods for property access
@@ -744,6 +822,7 @@ public class Section extends NamedEntity {
      * @see Property
      */
     public Property createProperty(String name, int dtype) {
+        ChangeTracker.changed(this);
         Property property = makeProperty(name, dtype);
         if (property.isNone()) {
             property = null;
@@ -765,6 +844,7 @@ public class Section extends NamedEntity {
      * @see Property
      */
     public Property createProperty(String name, Value value) {
+        ChangeTracker.changed(this);
         Property property = makeProperty(name, value);
         if (property.isNone()) {
             property = null;
@@ -786,6 +866,7 @@ public class Section extends NamedEntity {
      * @see Property
      */
     public Property createProperty(String name, List<Value> values) {
+        ChangeTracker.changed(this);
         Property property = makeProperty(name, new VectorUtils.ValueVector(values));
         if (property.isNone()) {
             property = null;
@@ -793,6 +874,90 @@ public class Section extends NamedEntity {
         return property;
     }
 
+    private Property createdProperty(String name, VectorUtils.ValueVector values) {
+        Property property = makeProperty(name, values);
+        if (property.isNone()) {
+            property = null;
+        }
+        return property;
+    }
+
+    /**
+     * Add a new Property with double values to the Section.
+     * <p>
+     * The values are allocated at once and set in place, which is cheaper than
+     * creating a {@link Value} per element.
+     *
+     * @param name   The name of the property.
+     * @param values The values of the created property.
+     * @return The newly created property.
+     * @see Property
+     */
+    public Property createProperty(String name, double[] values) {
+        ChangeTracker.changed(this);
+        VectorUtils.ValueVector vector = new VectorUtils.ValueVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            vector.at(i).setDouble(values[i]);
+        }
+        return createdProperty(name, vector);
+    }
+
+    /**
+     * Add a new Property with 64 bit integer values to the Section.
+     *
+     * @param name   The name of the property.
+     * @param values The values of the created property.
+     * @return The newly created property.
+     * @see Section#createProperty(String, double[])
+     */
+    public Property createProperty(String name, long[] values) {
+        ChangeTracker.changed(this);
+        VectorUtils.ValueVector vector = new VectorUtils.ValueVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            vector.at(i).setLong(values[i]);
+        }
+        return createdProperty(name, vector);
+    }
+
+    /**
+     * Add a new Property with boolean values to the Section.
+     *
+     * @param name   The name of the property.
+     * @param values The values of the created property.
+     * @return The newly created property.
+     * @see Section#createProperty(String, double[])
+     */
+    public Property createProperty(String name, boolean[] values) {
+        ChangeTracker.changed(this);
+        VectorUtils.ValueVector vector = new VectorUtils.ValueVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            vector.at(i).setBoolean(values[i]);
+        }
+        return createdProperty(name, vector);
+    }
+
+    /**
+     * Add a new Property with string values to the Section.
+     *
+     * @param name   The name of the property.
+     * @param values The values of the created property.
+     * @return The newly created property.
+     * @see Section#createProperty(String, double[])
+     */
+    public Property createProperty(String name, String[] values) {
+        ChangeTracker.changed(this);
+        VectorUtils.ValueVector vector = new VectorUtils.ValueVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            vector.at(i).setString(values[i]);
+        }
+        return createdProperty(name, vector);
+    }
+
+    private native
+    @Name("deleteProperty")
+    @Cast("bool")
+    boolean eraseProperty(@StdString String nameOrId);
+
     /**
      * Delete the Property identified by its name or id.
      *
@@ -800,9 +965,15 @@ public class Section extends NamedEntity {
      * @return True if the property was deleted, false otherwise.
      * @see Property
      */
-    public native
+    public boolean deleteProperty(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseProperty(nameOrId);
+    }
+
+    private native
+    @Name("deleteProperty")
     @Cast("bool")
-    boolean deleteProperty(@StdString String nameOrId);
+    boolean eraseProperty(@Const @ByRef Property property);
 
     /**
      * Deletes the Property from this section.
@@ -811,9 +982,10 @@ public class Section extends NamedEntity {
      * @return True if the property was deleted, false otherwise.
      * @see Property
      */
-    public native
-    @Cast("bool")
-    boolean deleteProperty(@Const @ByRef Property property);
+    public boolean deleteProperty(Property property) {
+        ChangeTracker.changed(this);
+        return eraseProperty(property);
+    }
 
     //------------------------------------------------------
     // Other functions
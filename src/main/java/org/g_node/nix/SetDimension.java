@@ -1,11 +1,12 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.None;
 import org.g_node.nix.internal.VectorUtils;
 import org.g_node.nix.base.ImplContainer;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.ChangeTracker;
+import org.g_node.nix.internal.NativeLibrary;
 
 import java.util.List;
 
@@ -23,6 +24,7 @@ import java.util.List;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Dimensions.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -32,9 +34,12 @@ import java.util.List;
 @Namespace("nix")
 public class SetDimension<T extends SetDimension> extends ImplContainer implements Comparable<T> {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
+    // id of the data array the dimension was obtained from, for change tracking
+    String owner;
+
     //--------------------------------------------------
     // Constructors
     //--------------------------------------------------
@@ -116,6 +121,7 @@ public class SetDimension<T extends SetDimension> extends ImplContainer implemen
      * @param labels A list containing all new labels. If <tt>null</tt> removes the labels from the dimension.
      */
     public void setLabels(List<String> labels) {
+        ChangeTracker.changed(owner);
         if (labels != null) {
             labels(new VectorUtils.StringVector(labels));
         } else {
@@ -123,6 +129,11 @@ public class SetDimension<T extends SetDimension> extends ImplContainer implemen
         }
     }
 
+    SetDimension<T> owner(String id) {
+        owner = id;
+        return this;
+    }
+
     //--------------------------------------------------
     // Overrides
     //--------------------------------------------------
@@ -1,6 +1,5 @@
 package org.g_node.nix;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.bytedeco.javacpp.annotation.Properties;
 import org.g_node.nix.base.EntityWithMetadata;
@@ -8,6 +7,8 @@ import org.g_node.nix.internal.*;
 
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <h1>Source</h1>
@@ -22,6 +23,7 @@ import java.util.function.Predicate;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Source.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -32,7 +34,7 @@ import java.util.function.Predicate;
 public class Source extends EntityWithMetadata {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     /**
@@ -95,10 +97,16 @@ public class Source extends EntityWithMetadata {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -116,34 +124,45 @@ public class Source extends EntityWithMetadata {
         forceCreatedAt(DateUtils.convertDateToSeconds(date));
     }
 
+    @Name("type")
+    private native void type(@StdString String type);
+
     /**
      * Setter for the type of the source.
      *
      * @param type The type of the source.
      */
-    public native
+    public void setType(String type) {
+        ChangeTracker.changed(this);
+        type(type);
+        updateAttribute(Attribute.TYPE, type);
+    }
+
     @Name("type")
-    void setType(@StdString String type);
+    @StdString
+    private native String type();
 
     /**
      * Getter for the type of the source.
      *
      * @return The type of the source.
      */
-    public native
-    @Name("type")
+    public String getType() {
+        return cachedAttribute(Attribute.TYPE, this::type);
+    }
+
+    @Name("name")
     @StdString
-    String getType();
+    private native String name();
 
     /**
      * Getter for the name of the source.
      *
      * @return The name of the source.
      */
-    public native
-    @Name("name")
-    @StdString
-    String getName();
+    public String getName() {
+        return cachedAttribute(Attribute.NAME, this::name);
+    }
 
     private native void definition(@Const @ByVal None t);
 
@@ -155,11 +174,13 @@ public class Source extends EntityWithMetadata {
      * @param definition definition of source
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        updateAttribute(Attribute.DEFINITION, definition);
     }
 
     private native
@@ -172,11 +193,13 @@ public class Source extends EntityWithMetadata {
      * @return The definition of the source.
      */
     public String getDefinition() {
-        OptionalUtils.OptionalString defintion = definition();
-        if (defintion.isPresent()) {
-            return defintion.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.DEFINITION, () -> {
+            OptionalUtils.OptionalString defintion = definition();
+            if (defintion.isPresent()) {
+                return defintion.getString();
+            }
+            return null;
+        });
     }
 
     private native
@@ -199,6 +222,10 @@ public class Source extends EntityWithMetadata {
         return section;
     }
 
+    private native
+    @Name("metadata")
+    void metadata(@Const @ByRef Section metadata);
+
     /**
      * Associate the entity with some metadata.
      * <p>
@@ -208,9 +235,14 @@ public class Source extends EntityWithMetadata {
      *                 with this entity.
      * @see Section
      */
-    public native
+    public void setMetadata(Section metadata) {
+        ChangeTracker.changed(this);
+        metadata(metadata);
+    }
+
+    private native
     @Name("metadata")
-    void setMetadata(@Const @ByRef Section metadata);
+    void metadata(@StdString String id);
 
     /**
      * Associate the entity with some metadata.
@@ -221,9 +253,10 @@ public class Source extends EntityWithMetadata {
      *           with this entity.
      * @see Section
      */
-    public native
-    @Name("metadata")
-    void setMetadata(@StdString String id);
+    public void setMetadata(String id) {
+        ChangeTracker.changed(this);
+        metadata(id);
+    }
 
     private native void metadata(@Const @ByVal None t);
 
@@ -233,6 +266,7 @@ public class Source extends EntityWithMetadata {
      * @see Section
      */
     public void removeMetadata() {
+        ChangeTracker.changed(this);
         metadata(new None());
     }
 
@@ -436,6 +470,35 @@ public class Source extends EntityWithMetadata {
         return findSources((Source s) -> true, Integer.MAX_VALUE);
     }
 
+    /**
+     * Get a stream over all sources of the source including the source itself recursively.
+     * <p>
+     * The stream traverses the sub-tree of the source lazily
+     * via breadth first and can be limited in depth.
+     * Child sources are fetched only when needed, so short-circuiting operations like
+     * <tt>findFirst</tt> or <tt>anyMatch</tt> stop the traversal early and no result list is built.
+     * Use <tt>parallel()</tt> to evaluate predicates in parallel, in that case the order of the
+     * sources is not defined. The attributes of the streamed sources are cached (see
+     * {@link Source#cacheAttributes()}), predicates on name, type and definition need no native calls.
+     *
+     * @param maxDepth The maximum depth of traversal.
+     * @return A stream of the sources.
+     * @see Source
+     */
+    public Stream<Source> streamSources(int maxDepth) {
+        return StreamSupport.stream(new TreeSpliterator<>(Collections.singletonList(this), Source::getSources, maxDepth), false);
+    }
+
+    /**
+     * Get a stream over all sources of the source including the source itself recursively, at all depths.
+     *
+     * @return A stream of the sources.
+     * @see Source
+     */
+    public Stream<Source> streamSources() {
+        return streamSources(Integer.MAX_VALUE);
+    }
+
     private native
     @Name("createSource")
     @ByVal
@@ -449,6 +512,7 @@ public class Source extends EntityWithMetadata {
      * @return The created source object.
      */
     public Source createSource(String name, String type) {
+        ChangeTracker.changed(this);
         Source source = makeSource(name, type);
         if (source.isNone()) {
             source = null;
@@ -456,6 +520,11 @@ public class Source extends EntityWithMetadata {
         return source;
     }
 
+    private native
+    @Name("deleteSource")
+    @Cast("bool")
+    boolean eraseSource(@StdString String nameOrId);
+
     /**
      * Delete a root source and all its child sources from
      * the source.
@@ -463,9 +532,15 @@ public class Source extends EntityWithMetadata {
      * @param nameOrId The name or id of the source to remove.
      * @return True if the source was deleted, false otherwise.
      */
-    public native
+    public boolean deleteSource(String nameOrId) {
+        ChangeTracker.changed(this);
+        return eraseSource(nameOrId);
+    }
+
+    private native
+    @Name("deleteSource")
     @Cast("bool")
-    boolean deleteSource(@StdString String nameOrId);
+    boolean eraseSource(@Const @ByRef Source source);
 
     /**
      * Delete a root source and all its child sources from
@@ -474,9 +549,10 @@ public class Source extends EntityWithMetadata {
      * @param source The Source to delete.
      * @return True if the source was deleted, false otherwise.
      */
-    public native
-    @Cast("bool")
-    boolean deleteSource(@Const @ByRef Source source);
+    public boolean deleteSource(Source source) {
+        ChangeTracker.changed(this);
+        return eraseSource(source);
+    }
 
     //--------------------------------------------------
     // Overrides
@@ -1,7 +1,6 @@
 package org.g_node.nix;
 
 import org.bytedeco.javacpp.DoublePointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.*;
 import org.g_node.nix.base.EntityWithSources;
@@ -41,6 +40,7 @@ import java.util.function.Predicate;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Tag.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -50,7 +50,7 @@ import java.util.function.Predicate;
 @Namespace("nix")
 public class Tag extends EntityWithSources {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -118,10 +118,16 @@ public class Tag extends EntityWithSources {
      */
     public native void setUpdatedAt();
 
+    @Name("forceUpdatedAt")
+    private native void updatedAtNow();
+
     /**
      * Sets the time of the last update to the current time.
      */
-    public native void forceUpdatedAt();
+    public void forceUpdatedAt() {
+        updatedAtNow();
+        dropAttributeCache();
+    }
 
     /**
      * Sets the creation time to the current time if the field is not set.
@@ -139,34 +145,45 @@ public class Tag extends EntityWithSources {
         forceCreatedAt(DateUtils.convertDateToSeconds(date));
     }
 
+    @Name("type")
+    private native void type(@StdString String type);
+
     /**
      * Setter for the type of the tag.
      *
      * @param type The type of the tag.
      */
-    public native
+    public void setType(String type) {
+        ChangeTracker.changed(this);
+        type(type);
+        updateAttribute(Attribute.TYPE, type);
+    }
+
     @Name("type")
-    void setType(@StdString String type);
+    @StdString
+    private native String type();
 
     /**
      * Getter for the type of the tag.
      *
      * @return The type of the tag.
      */
-    public native
-    @Name("type")
+    public String getType() {
+        return cachedAttribute(Attribute.TYPE, this::type);
+    }
+
+    @Name("name")
     @StdString
-    String getType();
+    private native String name();
 
     /**
      * Getter for the name of the tag.
      *
      * @return The name of the tag.
      */
-    public native
-    @Name("name")
-    @StdString
-    String getName();
+    public String getName() {
+        return cachedAttribute(Attribute.NAME, this::name);
+    }
 
     private native void definition(@Const @ByVal None t);
 
@@ -178,11 +195,13 @@ public class Tag extends EntityWithSources {
      * @param definition definition of tag.
      */
     public void setDefinition(String definition) {
+        ChangeTracker.changed(this);
         if (definition != null) {
             definition(definition);
         } else {
             definition(new None());
         }
+        updateAttribute(Attribute.DEFINITION, definition);
     }
 
     private native
@@ -195,11 +214,13 @@ public class Tag extends EntityWithSources {
      * @return The definition of the tag.
      */
     public String getDefinition() {
-        OptionalUtils.OptionalString defintion = definition();
-        if (defintion.isPresent()) {
-            return defintion.getString();
-        }
-        return null;
+        return cachedAttribute(Attribute.DEFINITION, () -> {
+            OptionalUtils.OptionalString defintion = definition();
+            if (defintion.isPresent()) {
+                return defintion.getString();
+            }
+            return null;
+        });
     }
 
     private native
@@ -222,6 +243,10 @@ public class Tag extends EntityWithSources {
         return section;
     }
 
+    private native
+    @Name("metadata")
+    void metadata(@Const @ByRef Section metadata);
+
     /**
      * Associate the entity with some metadata.
      * <p>
@@ -231,9 +256,14 @@ public class Tag extends EntityWithSources {
      *                 with this entity.
      * @see Section
      */
-    public native
+    public void setMetadata(Section metadata) {
+        ChangeTracker.changed(this);
+        metadata(metadata);
+    }
+
+    private native
     @Name("metadata")
-    void setMetadata(@Const @ByRef Section metadata);
+    void metadata(@StdString String id);
 
     /**
      * Associate the entity with some metadata.
@@ -244,9 +274,10 @@ public class Tag extends EntityWithSources {
      *           with this entity.
      * @see Section
      */
-    public native
-    @Name("metadata")
-    void setMetadata(@StdString String id);
+    public void setMetadata(String id) {
+        ChangeTracker.changed(this);
+        metadata(id);
+    }
 
     private native void metadata(@Const @ByVal None t);
 
@@ -256,6 +287,7 @@ public class Tag extends EntityWithSources {
      * @see Section
      */
     public void removeMetadata() {
+        ChangeTracker.changed(this);
         metadata(new None());
     }
 
@@ -356,9 +388,14 @@ public class Tag extends EntityWithSources {
      * @see Source
      */
     public void setSources(List<Source> sources) {
+        ChangeTracker.changed(this);
         sources(new VectorUtils.SourceVector(sources));
     }
 
+    private native
+    @Name("addSource")
+    void attachSource(@StdString String id);
+
     /**
      * Associate a new source with the entity.
      * <p>
@@ -368,7 +405,14 @@ public class Tag extends EntityWithSources {
      * @param id The id of the source.
      * @see Source
      */
-    public native void addSource(@StdString String id);
+    public void addSource(String id) {
+        ChangeTracker.changed(this);
+        attachSource(id);
+    }
+
+    private native
+    @Name("addSource")
+    void attachSource(@Const @ByRef Source source);
 
     /**
      * Associate a new source with the entity.
@@ -378,7 +422,15 @@ public class Tag extends EntityWithSources {
      * @param source The source to add.
      * @see Source
      */
-    public native void addSource(@Const @ByRef Source source);
+    public void addSource(Source source) {
+        ChangeTracker.changed(this);
+        attachSource(source);
+    }
+
+    private native
+    @Name("removeSource")
+    @Cast("bool")
+    boolean detachSource(@StdString String id);
 
     /**
      * Remove a source from the list of associated sources.
@@ -390,9 +442,15 @@ public class Tag extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
-    public native
+    public boolean removeSource(String id) {
+        ChangeTracker.changed(this);
+        return detachSource(id);
+    }
+
+    private native
+    @Name("removeSource")
     @Cast("bool")
-    boolean removeSource(@StdString String id);
+    boolean detachSource(@Const @ByRef Source source);
 
     /**
      * Remove a source from the list of associated sources.
@@ -404,9 +462,10 @@ public class Tag extends EntityWithSources {
      * @return True if the source was removed, false otherwise.
      * @see Source
      */
-    public native
-    @Cast("bool")
-    boolean removeSource(@Const @ByRef Source source);
+    public boolean removeSource(Source source) {
+        ChangeTracker.changed(this);
+        return detachSource(source);
+    }
 
 
     //--------------------------------------------------
@@ -439,6 +498,7 @@ public class Tag extends EntityWithSources {
      * @param units All units as a list. If <tt>null</tt> removes the units.
      */
     public void setUnits(List<String> units) {
+        ChangeTracker.changed(this);
         if (units != null) {
             units(new VectorUtils.StringVector(units));
         } else {
@@ -462,14 +522,19 @@ public class Tag extends EntityWithSources {
         return VectorUtils.convertPointerToArray(fetchPosition());
     }
 
+    private native
+    @Name("position")
+    void position(@StdVector double[] position);
+
     /**
      * Sets the position of a tag.
      *
      * @param position The position vector list.
      */
-    public native
-    @Name("position")
-    void setPosition(@StdVector double[] position);
+    public void setPosition(double[] position) {
+        ChangeTracker.changed(this);
+        position(position);
+    }
 
     private native
     @StdVector
@@ -497,6 +562,7 @@ public class Tag extends EntityWithSources {
      * @param extent The extent vector list.
      */
     public void setExtent(double[] extent) {
+        ChangeTracker.changed(this);
         if (extent != null) {
             extent(extent);
         } else {
@@ -580,13 +646,24 @@ public class Tag extends EntityWithSources {
         return da;
     }
 
+    private native
+    @Name("addReference")
+    void attachReference(@Const @ByRef DataArray reference);
+
     /**
      * Add a DataArray to the list of referenced data of the tag.
      *
      * @param reference The DataArray to add.
      * @see DataArray
      */
-    public native void addReference(@Const @ByRef DataArray reference);
+    public void addReference(DataArray reference) {
+        ChangeTracker.changed(this);
+        attachReference(reference);
+    }
+
+    private native
+    @Name("addReference")
+    void attachReference(@StdString String id);
 
     /**
      * Add a DataArray to the list of referenced data of the tag.
@@ -594,7 +671,15 @@ public class Tag extends EntityWithSources {
      * @param id The id of the DataArray to add.
      * @see DataArray
      */
-    public native void addReference(@StdString String id);
+    public void addReference(String id) {
+        ChangeTracker.changed(this);
+        attachReference(id);
+    }
+
+    private native
+    @Name("removeReference")
+    @Cast("bool")
+    boolean detachReference(@Const @ByRef DataArray reference);
 
     /**
      * Remove a DataArray from the list of referenced data of the tag.
@@ -606,9 +691,15 @@ public class Tag extends EntityWithSources {
      * @return True if the DataArray was removed, false otherwise.
      * @see DataArray
      */
-    public native
+    public boolean removeReference(DataArray reference) {
+        ChangeTracker.changed(this);
+        return detachReference(reference);
+    }
+
+    private native
+    @Name("removeReference")
     @Cast("bool")
-    boolean removeReference(@Const @ByRef DataArray reference);
+    boolean detachReference(@StdString String id);
 
     /**
      * Remove a DataArray from the list of referenced data of the tag.
@@ -620,9 +711,10 @@ public class Tag extends EntityWithSources {
      * @return True if the DataArray was removed, false otherwise.
      * @see DataArray
      */
-    public native
-    @Cast("bool")
-    boolean removeReference(@StdString String id);
+    public boolean removeReference(String id) {
+        ChangeTracker.changed(this);
+        return detachReference(id);
+    }
 
     private native
     @ByVal
@@ -672,6 +764,7 @@ public class Tag extends EntityWithSources {
      * @see DataArray
      */
     public void setReferences(List<DataArray> references) {
+        ChangeTracker.changed(this);
         references(new VectorUtils.DataArrayVector(references));
     }
 
@@ -800,6 +893,7 @@ public class Tag extends EntityWithSources {
      * @see Feature
      */
     public Feature createFeature(DataArray data, int linkType) {
+        ChangeTracker.changed(this);
         Feature feature = makeFeature(data, linkType);
         if (feature.isNone()) {
             feature = null;
@@ -821,6 +915,7 @@ public class Tag extends EntityWithSources {
      * @see Feature
      */
     public Feature createFeature(String dataArrayId, int linkType) {
+        ChangeTracker.changed(this);
         Feature feature = makeFeature(dataArrayId, linkType);
         if (feature.isNone()) {
             feature = null;
@@ -828,6 +923,11 @@ public class Tag extends EntityWithSources {
         return feature;
     }
 
+    private native
+    @Name("deleteFeature")
+    @Cast("bool")
+    boolean eraseFeature(@StdString String id);
+
     /**
      * Deletes a feature from the tag.
      *
@@ -835,9 +935,15 @@ public class Tag extends EntityWithSources {
      * @return True if the feature was removed, false otherwise.
      * @see Feature
      */
-    public native
+    public boolean deleteFeature(String id) {
+        ChangeTracker.changed(this);
+        return eraseFeature(id);
+    }
+
+    private native
+    @Name("deleteFeature")
     @Cast("bool")
-    boolean deleteFeature(@StdString String id);
+    boolean eraseFeature(@Const @ByRef Feature feature);
 
     /**
      * Deletes a feature from the tag.
@@ -846,9 +952,10 @@ public class Tag extends EntityWithSources {
      * @return True if the feature was removed, false otherwise.
      * @see Feature
      */
-    public native
-    @Cast("bool")
-    boolean deleteFeature(@Const @ByRef Feature feature);
+    public boolean deleteFeature(Feature feature) {
+        ChangeTracker.changed(this);
+        return eraseFeature(feature);
+    }
 
     //--------------------------------------------------
     // Methods for data retrieval
@@ -0,0 +1,43 @@
+package org.g_node.nix;
+
+import org.g_node.nix.util.UnitCache;
+
+/**
+ * Unit helpers shared by the dimension descriptors.
+ */
+final class Units {
+
+    private Units() {
+    }
+
+    /**
+     * Returns the factor that converts values given in unit into the unit of a dimension.
+     *
+     * @param unit          The unit of the values, may be "none".
+     * @param dimensionUnit The unit of the dimension, may be <tt>null</tt>.
+     * @return The scaling factor.
+     */
+    static double scaling(String unit, String dimensionUnit) {
+        if (unit == null || unit.equals("none")) {
+            return 1.0;
+        }
+        if (dimensionUnit == null) {
+            throw new IllegalArgumentException("Units of position and dimension must both be given!");
+        }
+        try {
+            return UnitCache.getSIScaling(unit, dimensionUnit);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Provided units are not scalable!", e);
+        }
+    }
+
+    /**
+     * Rounds like C's round(), i.e. half way cases are rounded away from zero.
+     *
+     * @param value The value to round.
+     * @return The rounded value.
+     */
+    static double round(double value) {
+        return value < 0 ? -Math.floor(-value + 0.5) : Math.floor(value + 0.5);
+    }
+}
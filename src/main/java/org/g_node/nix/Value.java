@@ -2,10 +2,10 @@ package org.g_node.nix;
 
 import org.bytedeco.javacpp.BoolPointer;
 import org.bytedeco.javacpp.BytePointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeLibrary;
 
 /**
  * <h1>Value</h1>
@@ -13,6 +13,7 @@ import org.g_node.nix.internal.BuildLibs;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/Value.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -24,7 +25,7 @@ import org.g_node.nix.internal.BuildLibs;
 public class Value extends Pointer {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
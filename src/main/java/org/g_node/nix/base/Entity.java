@@ -2,6 +2,7 @@ package org.g_node.nix.base;
 
 import org.bytedeco.javacpp.annotation.Platform;
 import org.bytedeco.javacpp.annotation.Properties;
+import org.g_node.nix.internal.BuildLibs;
 
 import java.util.Date;
 
@@ -11,6 +12,7 @@ import java.util.Date;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(value = "linux"),
         @Platform(value = "windows")})
 public abstract class Entity extends ImplContainer {
@@ -3,6 +3,7 @@ package org.g_node.nix.base;
 import org.bytedeco.javacpp.annotation.Platform;
 import org.bytedeco.javacpp.annotation.Properties;
 import org.g_node.nix.Section;
+import org.g_node.nix.internal.BuildLibs;
 
 /**
  * <h1>EntityWithMetadata</h1>
@@ -10,6 +11,7 @@ import org.g_node.nix.Section;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(value = "linux"),
         @Platform(value = "windows")})
 public abstract class EntityWithMetadata extends NamedEntity {
@@ -3,6 +3,7 @@ package org.g_node.nix.base;
 import org.bytedeco.javacpp.annotation.Platform;
 import org.bytedeco.javacpp.annotation.Properties;
 import org.g_node.nix.Source;
+import org.g_node.nix.internal.BuildLibs;
 
 import java.util.List;
 
@@ -12,6 +13,7 @@ import java.util.List;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(value = "linux"),
         @Platform(value = "windows")})
 public abstract class EntityWithSources extends EntityWithMetadata {
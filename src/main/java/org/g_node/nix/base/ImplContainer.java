@@ -3,12 +3,14 @@ package org.g_node.nix.base;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.Platform;
 import org.bytedeco.javacpp.annotation.Properties;
+import org.g_node.nix.internal.BuildLibs;
 
 /**
  * <h1>ImplContainer</h1>
  * An abstract class for all entities.
  */
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(value = "linux"),
         @Platform(value = "windows")})
 public abstract class ImplContainer extends Pointer {
@@ -3,18 +3,49 @@ package org.g_node.nix.base;
 import org.bytedeco.javacpp.annotation.Platform;
 import org.bytedeco.javacpp.annotation.Properties;
 import org.g_node.nix.Block;
+import org.g_node.nix.internal.AttributeCache;
+import org.g_node.nix.internal.BuildLibs;
+
+import java.util.function.Supplier;
 
 /**
  * <h1>NamedEntity</h1>
  * An abstract class for entities with a {@link NamedEntity#getName()}, {@link NamedEntity#getType()}
  * and {@link NamedEntity#getDefinition()}.
+ * <p>
+ * Each of these getters is a native call. An entity can opt in to caching its attributes with
+ * {@link NamedEntity#setAttributeCaching(boolean)}, the attributes are then read once and served
+ * from the cache afterwards. {@link NamedEntity#cacheAttributes()} fills the cache in bulk.
+ * Setters of the entity write through to the cache and {@link NamedEntity#forceUpdatedAt()}
+ * drops it. Changes made through another object for the same entity are not seen until
+ * {@link NamedEntity#dropAttributeCache()} is called.
+ * <pre><code>
+ *     for (DataArray array : block.getDataArrays()) {
+ *         array.cacheAttributes();
+ *     }
+ * </code></pre>
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(value = "linux"),
         @Platform(value = "windows")})
 public abstract class NamedEntity<T extends NamedEntity> extends Entity implements Comparable<T> {
 
+    /**
+     * Attributes held by the attribute cache.
+     */
+    protected enum Attribute {
+        NAME,
+        TYPE,
+        DEFINITION,
+        UNIT,
+        LABEL
+    }
+
+    // null while caching is disabled
+    private AttributeCache attributes;
+
     /**
      * Setter for the type of the entity.
      *
@@ -61,6 +92,90 @@ public abstract class NamedEntity<T extends NamedEntity> extends Entity implemen
      */
     abstract public String getDefinition();
 
+    //--------------------------------------------------
+    // Attribute cache
+    //--------------------------------------------------
+
+    /**
+     * Enables or disables caching of the attributes of this entity. Disabled by default.
+     *
+     * @param enabled True to enable the cache.
+     */
+    public void setAttributeCaching(boolean enabled) {
+        if (!enabled) {
+            attributes = null;
+        } else if (attributes == null) {
+            attributes = new AttributeCache(Attribute.values().length);
+        }
+    }
+
+    /**
+     * Checks whether the attributes of this entity are cached.
+     *
+     * @return True if the cache is enabled.
+     */
+    public boolean isAttributeCaching() {
+        return attributes != null;
+    }
+
+    /**
+     * Enables the attribute cache and reads all attributes into it.
+     */
+    public void cacheAttributes() {
+        setAttributeCaching(true);
+        getName();
+        getType();
+        getDefinition();
+    }
+
+    /**
+     * Drops all cached attributes, e.g. after the entity was changed through another object.
+     * The cache stays enabled and is refilled on the next access.
+     */
+    public void dropAttributeCache() {
+        if (attributes != null) {
+            attributes.clear();
+        }
+    }
+
+    /**
+     * Returns a cached attribute, reading it if it is not cached.
+     *
+     * @param attribute The attribute.
+     * @param loader    Reads the attribute from the file.
+     * @return The value of the attribute.
+     */
+    protected final String cachedAttribute(Attribute attribute, Supplier<String> loader) {
+        if (attributes == null) {
+            return loader.get();
+        }
+        return attributes.get(attribute.ordinal(), loader);
+    }
+
+    /**
+     * Updates a cached attribute after it was written.
+     *
+     * @param attribute The attribute.
+     * @param value     The new value.
+     */
+    protected final void updateAttribute(Attribute attribute, String value) {
+        if (attributes != null) {
+            attributes.set(attribute.ordinal(), value);
+        }
+    }
+
+    /**
+     * Drops a cached attribute after it was written, for attributes that are changed when they
+     * are stored, so that the stored value is read on the next access.
+     *
+     * @param attribute The attribute.
+     */
+    protected final void dropAttribute(Attribute attribute) {
+        if (attributes != null) {
+            attributes.drop(attribute.ordinal());
+        }
+    }
+
     @Override
     public int compareTo(T obj) {
         if (this == obj) {
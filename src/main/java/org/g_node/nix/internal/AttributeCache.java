@@ -0,0 +1,72 @@
+package org.g_node.nix.internal;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * <h1>AttributeCache</h1>
+ * Cached string attributes of an entity or dimension object.
+ * <p>
+ * Each attribute has a slot, values are read once and served from the slot until it is
+ * dropped. <tt>null</tt> is a valid value of optional attributes. Like the objects it
+ * belongs to, the cache is not thread safe.
+ */
+public final class AttributeCache {
+
+    // marks attributes that were not read yet
+    private static final Object UNSET = new Object();
+
+    private final Object[] values;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param size The number of attributes.
+     */
+    public AttributeCache(int size) {
+        values = new Object[size];
+        Arrays.fill(values, UNSET);
+    }
+
+    /**
+     * Returns a cached attribute, reading it if it is not cached.
+     *
+     * @param slot   The slot of the attribute.
+     * @param loader Reads the attribute from the file.
+     * @return The value of the attribute.
+     */
+    public String get(int slot, Supplier<String> loader) {
+        Object value = values[slot];
+        if (value == UNSET) {
+            value = loader.get();
+            values[slot] = value;
+        }
+        return (String) value;
+    }
+
+    /**
+     * Sets a cached attribute after it was written.
+     *
+     * @param slot  The slot of the attribute.
+     * @param value The new value.
+     */
+    public void set(int slot, String value) {
+        values[slot] = value;
+    }
+
+    /**
+     * Drops a cached attribute, it is read on the next access.
+     *
+     * @param slot The slot of the attribute.
+     */
+    public void drop(int slot) {
+        values[slot] = UNSET;
+    }
+
+    /**
+     * Drops all cached attributes.
+     */
+    public void clear() {
+        Arrays.fill(values, UNSET);
+    }
+}
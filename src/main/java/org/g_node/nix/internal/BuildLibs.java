@@ -5,6 +5,11 @@ package org.g_node.nix.internal;
  */
 public class BuildLibs {
 
+    /**
+     * The single JNI library all classes of the bindings are compiled into.
+     */
+    public static final String JNI_NIX = "jninix";
+
     /**
      * nix library
      */
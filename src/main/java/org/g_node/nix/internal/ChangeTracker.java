@@ -0,0 +1,122 @@
+package org.g_node.nix.internal;
+
+import org.g_node.nix.base.Entity;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <h1>ChangeTracker</h1>
+ * Records which entities were changed through the bindings.
+ * <p>
+ * Setters, create, delete, add and remove methods of the entities report the entity they were
+ * called on, i.e. creating or deleting an entity reports its parent. The changes are passed on
+ * to the registered listeners, e.g. {@link org.g_node.nix.valid.IncrementalValidator}. Without
+ * listeners reporting a change is a single volatile read.
+ */
+public final class ChangeTracker {
+
+    /**
+     * Receives the changes.
+     */
+    public interface Listener {
+
+        /**
+         * Called when an entity was changed.
+         *
+         * @param id The id of the entity.
+         */
+        void changed(String id);
+
+        /**
+         * Called when an entity was changed that can not be identified, e.g. a dimension
+         * that was not obtained from its data array.
+         */
+        void changedUnknown();
+    }
+
+    // listeners are held weakly, so that an unused listener does not keep tracking enabled
+    private static final List<WeakReference<Listener>> LISTENERS = new ArrayList<>();
+
+    private static volatile boolean tracking;
+
+    private ChangeTracker() {
+    }
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener The listener.
+     */
+    public static void register(Listener listener) {
+        synchronized (LISTENERS) {
+            LISTENERS.add(new WeakReference<>(listener));
+            tracking = true;
+        }
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener.
+     */
+    public static void unregister(Listener listener) {
+        synchronized (LISTENERS) {
+            Iterator<WeakReference<Listener>> it = LISTENERS.iterator();
+            while (it.hasNext()) {
+                Listener l = it.next().get();
+                if (l == null || l == listener) {
+                    it.remove();
+                }
+            }
+            tracking = !LISTENERS.isEmpty();
+        }
+    }
+
+    /**
+     * Checks whether changes are tracked.
+     *
+     * @return True if at least one listener is registered.
+     */
+    public static boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * Reports a change of an entity.
+     *
+     * @param entity The entity.
+     */
+    public static void changed(Entity entity) {
+        if (tracking) {
+            changed(entity.getId());
+        }
+    }
+
+    /**
+     * Reports a change of an entity.
+     *
+     * @param id The id of the entity or <tt>null</tt> if it is not known.
+     */
+    public static void changed(String id) {
+        if (!tracking) {
+            return;
+        }
+        synchronized (LISTENERS) {
+            Iterator<WeakReference<Listener>> it = LISTENERS.iterator();
+            while (it.hasNext()) {
+                Listener l = it.next().get();
+                if (l == null) {
+                    it.remove();
+                } else if (id == null) {
+                    l.changedUnknown();
+                } else {
+                    l.changed(id);
+                }
+            }
+            tracking = !LISTENERS.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.g_node.nix.internal;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.CopyOptions;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.Dimension;
+import org.g_node.nix.DimensionType;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.RangeDimension;
+import org.g_node.nix.SampledDimension;
+import org.g_node.nix.Section;
+import org.g_node.nix.SetDimension;
+import org.g_node.nix.Source;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h1>DataArrayCopy</h1>
+ * Copies a DataArray into a block, possibly of another file.
+ * <p>
+ * The data is copied along the first dimension in chunks of whole rows through two direct
+ * buffers. While a chunk is written, the next one is read on a background thread. Both
+ * calls hold the {@link NativeLock}.
+ */
+public final class DataArrayCopy {
+
+    private DataArrayCopy() {
+    }
+
+    /**
+     * Copies a DataArray.
+     *
+     * @param source  The DataArray to copy.
+     * @param target  The block in which the copy is created.
+     * @param options The options.
+     * @return The copy.
+     */
+    public static DataArray copy(DataArray source, Block target, CopyOptions options) {
+        int dataType = options.getDataType() != DataType.Nothing ? options.getDataType() : source.getDataType();
+        int elementSize = DataType.sizeOf(dataType);
+        String name = options.getName() != null ? options.getName() : source.getName();
+        NDSize extent = source.getDataExtent();
+        // fail before the copy is created
+        rowBytes(extent.getData(), elementSize);
+
+        DataArray copy = target.createDataArray(name, source.getType(), dataType, extent);
+        if (copy == null) {
+            throw new IllegalArgumentException("Could not create DataArray " + name);
+        }
+
+        copy.setDefinition(source.getDefinition());
+        copy.setLabel(source.getLabel());
+        copy.setUnit(source.getUnit());
+        double[] coefficients = source.getPolynomCoefficients();
+        if (coefficients.length > 0) {
+            copy.setPolynomCoefficients(coefficients);
+        }
+        double origin = source.getExpansionOrigin();
+        if (origin != 0.0) {
+            copy.setExpansionOrigin(origin);
+        }
+
+        copyDimensions(source, copy);
+        if (options.isLinkSources()) {
+            linkSources(source, target, copy);
+        }
+        if (options.isLinkMetadata()) {
+            Section metadata = options.getMetadata();
+            if (metadata != null) {
+                copy.setMetadata(metadata);
+            } else {
+                linkOriginalMetadata(source, copy);
+            }
+        }
+
+        copyData(source, copy, dataType, elementSize, extent.getData(), options.getChunkBytes());
+        return copy;
+    }
+
+    private static void copyDimensions(DataArray source, DataArray copy) {
+        for (Dimension dimension : source.getDimensions()) {
+            switch (dimension.getDimensionType()) {
+                case DimensionType.Sample: {
+                    SampledDimension from = dimension.asSampledDimension();
+                    SampledDimension to = copy.appendSampledDimension(from.getSamplingInterval());
+                    to.setLabel(from.getLabel());
+                    to.setUnit(from.getUnit());
+                    if (from.getOffset() != 0.0) {
+                        to.setOffset(from.getOffset());
+                    }
+                    break;
+                }
+                case DimensionType.Range: {
+                    RangeDimension from = dimension.asRangeDimension();
+                    if (from.isAlias()) {
+                        copy.appendAliasRangeDimension();
+                    } else {
+                        RangeDimension to = copy.appendRangeDimension(from.getTicks());
+                        to.setLabel(from.getLabel());
+                        to.setUnit(from.getUnit());
+                    }
+                    break;
+                }
+                case DimensionType.Set: {
+                    SetDimension from = dimension.asSetDimension();
+                    SetDimension to = copy.appendSetDimension();
+                    List<String> labels = from.getLabels();
+                    if (!labels.isEmpty()) {
+                        to.setLabels(labels);
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown dimension type " + dimension.getDimensionType());
+            }
+        }
+    }
+
+    private static void linkOriginalMetadata(DataArray source, DataArray copy) {
+        Section metadata = source.getMetadata();
+        if (metadata == null) {
+            return;
+        }
+        try {
+            // NIX looks the id up in the file of the copy and rejects ids it does not contain
+            copy.setMetadata(metadata.getId());
+        } catch (RuntimeException e) {
+            // the copy is in another file, which has no section to link
+        }
+    }
+
+    private static void linkSources(DataArray source, Block target, DataArray copy) {
+        List<Source> sources = new ArrayList<>();
+        for (Source original : source.getSources()) {
+            List<Source> found = target.findSources((Source s) -> s.getName().equals(original.getName()));
+            Source linked = found.isEmpty() ? null : found.get(0);
+            if (linked == null) {
+                linked = target.createSource(original.getName(), original.getType());
+                linked.setDefinition(original.getDefinition());
+            }
+            sources.add(linked);
+        }
+        if (!sources.isEmpty()) {
+            copy.setSources(sources);
+        }
+    }
+
+    private static void copyData(DataArray source, DataArray copy, int dataType, int elementSize,
+                                 int[] extent, int chunkBytes) {
+        if (extent.length == 0 || extent[0] == 0) {
+            return;
+        }
+        long rowBytes = rowBytes(extent, elementSize);
+        if (rowBytes == 0) {
+            return;
+        }
+        int rows = extent[0];
+        int chunkRows = (int) Math.max(1, Math.min(rows, chunkBytes / rowBytes));
+
+        ByteBuffer[] buffers = new ByteBuffer[2];
+        buffers[0] = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE, chunkRows * rowBytes));
+        buffers[1] = rows > chunkRows ? ByteBuffer.allocateDirect(buffers[0].capacity()) : null;
+
+        ExecutorService reader = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "nix-copy-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<?> pending = reader.submit(() -> transfer(source, buffers[0], dataType, extent, 0, chunkRows, true));
+            int chunk = 0;
+            for (int row = 0; row < rows; row += chunkRows, chunk++) {
+                int count = Math.min(chunkRows, rows - row);
+                ByteBuffer current = buffers[chunk % 2];
+                await(pending);
+
+                int next = row + count;
+                if (next < rows) {
+                    ByteBuffer other = buffers[(chunk + 1) % 2];
+                    int nextCount = Math.min(chunkRows, rows - next);
+                    pending = reader.submit(() -> transfer(source, other, dataType, extent, next, nextCount, true));
+                }
+                transfer(copy, current, dataType, extent, row, count, false);
+            }
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    private static long rowBytes(int[] extent, int elementSize) {
+        long rowElements = 1;
+        for (int i = 1; i < extent.length; i++) {
+            rowElements *= extent[i];
+        }
+        long rowBytes = rowElements * elementSize;
+        if (rowBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rows of the DataArray are too large");
+        }
+        return rowBytes;
+    }
+
+    private static void transfer(DataArray array, ByteBuffer buffer, int dataType, int[] extent,
+                                 int row, int rows, boolean read) {
+        int[] count = extent.clone();
+        int[] offset = new int[extent.length];
+        count[0] = rows;
+        offset[0] = row;
+        synchronized (NativeLock.LOCK) {
+            if (read) {
+                array.getData(buffer, dataType, new NDSize(count), new NDSize(offset));
+            } else {
+                array.setData(buffer, dataType, new NDSize(count), new NDSize(offset));
+            }
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Copy was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.g_node.nix.internal;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.NDSize;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * <h1>DataArraySpliterator</h1>
+ * Spliterators over the elements of a DataArray in row-major order.
+ * <p>
+ * The data is split along the first dimension on chunk boundaries, a chunk consists of
+ * as many rows as fit into {@link DataArraySpliterator#CHUNK_ELEMENTS}. Every chunk is read
+ * with a single bulk call while holding the {@link NativeLock}, so parallel streams serialize
+ * the reads and only the computation runs concurrently. The extent is read when the spliterator
+ * is created, writes during the traversal are seen by the chunks read afterwards.
+ */
+public abstract class DataArraySpliterator {
+
+    /**
+     * Number of elements read per chunk.
+     */
+    public static final int CHUNK_ELEMENTS = 1 << 16;
+
+    // not IMMUTABLE, the DataArray can be written while it is traversed
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED
+            | Spliterator.SUBSIZED | Spliterator.NONNULL;
+
+    protected final DataArray array;
+    protected final int[] count;
+    protected final int[] offset;
+    protected final int rowElements;
+    protected final int chunkRows;
+
+    // next row to read and end of the range
+    protected long row;
+    protected long endRow;
+
+    // position in the current chunk
+    protected int index;
+    protected int length;
+
+    protected DataArraySpliterator(DataArray array) {
+        int[] extent = array.getDataExtent().getData();
+        long elements = 1;
+        for (int i = 1; i < extent.length; i++) {
+            elements *= extent[i];
+        }
+        if (elements > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rows of the DataArray are too large");
+        }
+
+        this.array = array;
+        this.count = extent.clone();
+        this.offset = new int[extent.length];
+        this.rowElements = (int) elements;
+        this.chunkRows = (int) Math.max(1, CHUNK_ELEMENTS / Math.max(1, elements));
+        this.row = 0;
+        this.endRow = extent.length == 0 || elements == 0 ? 0 : extent[0];
+    }
+
+    protected DataArraySpliterator(DataArraySpliterator parent, long fromRow, long toRow) {
+        this.array = parent.array;
+        this.count = parent.count.clone();
+        this.offset = new int[parent.offset.length];
+        this.rowElements = parent.rowElements;
+        this.chunkRows = parent.chunkRows;
+        this.row = fromRow;
+        this.endRow = toRow;
+    }
+
+    /**
+     * Returns the row at which the remaining rows can be split on a chunk boundary.
+     *
+     * @return The row or -1 if the range should not be split.
+     */
+    protected long splitRow() {
+        long rows = endRow - row;
+        if (index < length || rows < 2L * chunkRows) {
+            return -1;
+        }
+        return row + (rows / 2) / chunkRows * chunkRows;
+    }
+
+    /**
+     * Reads the next chunk.
+     *
+     * @return False if there are no more rows.
+     */
+    protected boolean load() {
+        if (row >= endRow) {
+            return false;
+        }
+        int rows = (int) Math.min(chunkRows, endRow - row);
+        count[0] = rows;
+        offset[0] = (int) row;
+        synchronized (NativeLock.LOCK) {
+            read(new NDSize(count), new NDSize(offset));
+        }
+        row += rows;
+        index = 0;
+        length = rows * rowElements;
+        return true;
+    }
+
+    protected abstract void read(NDSize count, NDSize offset);
+
+    public long estimateSize() {
+        return (endRow - row) * rowElements + (length - index);
+    }
+
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    /**
+     * Spliterator over the elements of a DataArray as doubles.
+     */
+    public static final class OfDouble extends DataArraySpliterator implements Spliterator.OfDouble {
+        private double[] buffer;
+
+        public OfDouble(DataArray array) {
+            super(array);
+        }
+
+        private OfDouble(DataArraySpliterator.OfDouble parent, long fromRow, long toRow) {
+            super(parent, fromRow, toRow);
+        }
+
+        @Override
+        protected void read(NDSize count, NDSize offset) {
+            if (buffer == null) {
+                buffer = new double[chunkRows * rowElements];
+            }
+            array.getData(buffer, count, offset);
+        }
+
+        @Override
+        public DataArraySpliterator.OfDouble trySplit() {
+            long mid = splitRow();
+            if (mid < 0) {
+                return null;
+            }
+            DataArraySpliterator.OfDouble prefix = new DataArraySpliterator.OfDouble(this, row, mid);
+            row = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (index >= length && !load()) {
+                return false;
+            }
+            action.accept(buffer[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            do {
+                while (index < length) {
+                    action.accept(buffer[index++]);
+                }
+            } while (load());
+        }
+    }
+
+    /**
+     * Spliterator over the elements of a DataArray as ints.
+     */
+    public static final class OfInt extends DataArraySpliterator implements Spliterator.OfInt {
+        private int[] buffer;
+
+        public OfInt(DataArray array) {
+            super(array);
+        }
+
+        private OfInt(DataArraySpliterator.OfInt parent, long fromRow, long toRow) {
+            super(parent, fromRow, toRow);
+        }
+
+        @Override
+        protected void read(NDSize count, NDSize offset) {
+            if (buffer == null) {
+                buffer = new int[chunkRows * rowElements];
+            }
+            array.getData(buffer, count, offset);
+        }
+
+        @Override
+        public DataArraySpliterator.OfInt trySplit() {
+            long mid = splitRow();
+            if (mid < 0) {
+                return null;
+            }
+            DataArraySpliterator.OfInt prefix = new DataArraySpliterator.OfInt(this, row, mid);
+            row = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= length && !load()) {
+                return false;
+            }
+            action.accept(buffer[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            do {
+                while (index < length) {
+                    action.accept(buffer[index++]);
+                }
+            } while (load());
+        }
+    }
+
+    /**
+     * Spliterator over the elements of a DataArray as longs.
+     */
+    public static final class OfLong extends DataArraySpliterator implements Spliterator.OfLong {
+        private long[] buffer;
+
+        public OfLong(DataArray array) {
+            super(array);
+        }
+
+        private OfLong(DataArraySpliterator.OfLong parent, long fromRow, long toRow) {
+            super(parent, fromRow, toRow);
+        }
+
+        @Override
+        protected void read(NDSize count, NDSize offset) {
+            if (buffer == null) {
+                buffer = new long[chunkRows * rowElements];
+            }
+            array.getData(buffer, count, offset);
+        }
+
+        @Override
+        public DataArraySpliterator.OfLong trySplit() {
+            long mid = splitRow();
+            if (mid < 0) {
+                return null;
+            }
+            DataArraySpliterator.OfLong prefix = new DataArraySpliterator.OfLong(this, row, mid);
+            row = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index >= length && !load()) {
+                return false;
+            }
+            action.accept(buffer[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            do {
+                while (index < length) {
+                    action.accept(buffer[index++]);
+                }
+            } while (load());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.g_node.nix.internal;
+
+import org.g_node.nix.DataArray;
+
+/**
+ * <h1>DataChanges</h1>
+ * Notifies caches of data, e.g. {@link org.g_node.nix.util.BlockCache} and
+ * {@link org.g_node.nix.util.Statistics}, about writes to DataArrays and closed files.
+ * <p>
+ * The caches register a listener when their class is initialized. Without listeners
+ * reporting a write is a single volatile read.
+ */
+public final class DataChanges {
+
+    /**
+     * Receives the changes.
+     */
+    public interface Listener {
+
+        /**
+         * Called after the data of a DataArray was written or its extent was changed.
+         *
+         * @param array    The DataArray.
+         * @param firstRow The first row that changed.
+         * @param rowCount The number of rows that changed, {@link Long#MAX_VALUE} for all following rows.
+         */
+        void dataChanged(DataArray array, long firstRow, long rowCount);
+
+        /**
+         * Called after a file was closed.
+         *
+         * @param location The location of the file.
+         */
+        default void fileClosed(String location) {
+        }
+    }
+
+    private static volatile Listener[] listeners = new Listener[0];
+
+    private DataChanges() {
+    }
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener The listener.
+     */
+    public static synchronized void register(Listener listener) {
+        Listener[] current = listeners;
+        Listener[] next = new Listener[current.length + 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        next[current.length] = listener;
+        listeners = next;
+    }
+
+    /**
+     * Reports a write to a DataArray.
+     *
+     * @param array    The DataArray.
+     * @param firstRow The first row that changed.
+     * @param rowCount The number of rows that changed, {@link Long#MAX_VALUE} for all following rows.
+     */
+    public static void dataChanged(DataArray array, long firstRow, long rowCount) {
+        for (Listener listener : listeners) {
+            listener.dataChanged(array, firstRow, rowCount);
+        }
+    }
+
+    /**
+     * Reports a closed file.
+     *
+     * @param location The location of the file.
+     */
+    public static void fileClosed(String location) {
+        for (Listener listener : listeners) {
+            listener.fileClosed(location);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.g_node.nix.internal;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.valid.Result;
+
+import java.util.function.Supplier;
+
+/**
+ * <h1>EventRecorder</h1>
+ * Records the calls instrumented by {@link NativeEvents} as events.
+ * <p>
+ * The implementation using JFR is compiled only with JDK 11 or newer and loaded reflectively,
+ * see <tt>src/main/jfr</tt>.
+ */
+interface EventRecorder {
+
+    <T> T file(String operation, String path, int mode, Supplier<T> call);
+
+    void data(String operation, DataArray array, int dataType, NDSize count, Runnable call);
+
+    <T> T retrieveData(String tagId, long positionIndex, long referenceIndex, Supplier<T> call);
+
+    Result validate(String entity, Supplier<Result> call);
+}
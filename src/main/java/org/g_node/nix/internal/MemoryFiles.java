@@ -0,0 +1,153 @@
+package org.g_node.nix.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>MemoryFiles</h1>
+ * Backing files of in-memory NIX files.
+ * <p>
+ * NIX opens HDF5 files with the default file driver, so in-memory files are regular files in a
+ * memory backed file system: <tt>/dev/shm</tt> if it exists, otherwise the temporary directory,
+ * which can be changed with the system property <tt>nix.memory.dir</tt>. Off Linux there is no
+ * <tt>/dev/shm</tt> and the temporary directory is usually on disk. The size of <tt>/dev/shm</tt>
+ * is limited, containers often default it to 64 MB, and writes beyond it fail.
+ * <p>
+ * The backing file is deleted when the NIX file is closed, or moved to its persist location if
+ * it has one. Backing files of files that are still open are deleted on JVM exit.
+ */
+public final class MemoryFiles {
+
+    private static final Path DIRECTORY = directory();
+
+    // backing file location -> persist location, Optional.empty() if the file is dropped on close
+    private static final Map<String, Optional<Path>> FILES = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(MemoryFiles::deleteAll, "nix-memory-files"));
+    }
+
+    private MemoryFiles() {
+    }
+
+    private static Path directory() {
+        String configured = System.getProperty("nix.memory.dir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        Path shm = Paths.get("/dev/shm");
+        if (Files.isDirectory(shm) && Files.isWritable(shm)) {
+            return shm;
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Creates a location for a new backing file, the file itself does not exist.
+     *
+     * @param persist The persist location or <tt>null</tt>.
+     * @return The location.
+     */
+    public static String create(Path persist) {
+        try {
+            Path path = Files.createTempFile(DIRECTORY, "nix-", ".h5");
+            Files.delete(path);
+            return register(path, persist);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a backing file with the contents of a file image.
+     *
+     * @param image The image, from its position to its limit. The position is not changed.
+     * @return The location.
+     */
+    public static String create(ByteBuffer image) {
+        try {
+            Path path = Files.createTempFile(DIRECTORY, "nix-", ".h5");
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ByteBuffer data = image.duplicate();
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            return register(path, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String register(Path path, Path persist) {
+        String location = path.toString();
+        FILES.put(location, Optional.ofNullable(persist));
+        return location;
+    }
+
+    private static void deleteAll() {
+        for (String location : FILES.keySet()) {
+            try {
+                Files.deleteIfExists(Paths.get(location));
+            } catch (IOException ignored) {
+                // the JVM exits anyway
+            }
+        }
+    }
+
+    /**
+     * Removes a location that could not be opened.
+     *
+     * @param location The location.
+     */
+    public static void discard(String location) {
+        FILES.remove(location);
+        try {
+            Files.deleteIfExists(Paths.get(location));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks whether a location is the backing file of an in-memory file.
+     *
+     * @param location The location.
+     * @return True for in-memory files.
+     */
+    public static boolean isMemoryFile(String location) {
+        return FILES.containsKey(location);
+    }
+
+    /**
+     * Deletes or persists the backing file of a closed file. Other locations are ignored.
+     *
+     * @param location The location of the closed file.
+     */
+    public static void closed(String location) {
+        Optional<Path> persist = FILES.remove(location);
+        if (persist == null) {
+            return;
+        }
+        try {
+            Path path = Paths.get(location);
+            if (persist.isPresent()) {
+                Files.move(path, persist.get(), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.g_node.nix.internal;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.DataType;
+import org.g_node.nix.util.NixMetrics;
+import org.g_node.nix.valid.Result;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/**
+ * <h1>NativeEvents</h1>
+ * JDK Flight Recorder events and {@link NixMetrics} for calls into the native library.
+ * <p>
+ * Opening and closing files, reading and writing data, retrieving tagged data and validation
+ * emit events of the category <tt>NIX</tt> with their duration, so a recording shows how much
+ * time is spent in HDF5 and JNI. The same calls are reported to the installed metrics.
+ * Callers check {@link NativeEvents#isEnabled()} and only go through the instrumented methods
+ * while a recording has one of the events enabled or metrics are installed, otherwise the
+ * native method is called directly. The events are compiled only when the bindings are built
+ * with JDK 11 or newer, on other builds and on JVMs without JFR they are never enabled.
+ * <p>
+ * If the system property <tt>org.g_node.nix.metrics</tt> is <tt>true</tt>, the first
+ * {@link NixMetrics} found by the {@link ServiceLoader} is installed at startup.
+ * <pre><code>
+ *     $ java -XX:StartFlightRecording=filename=nix.jfr,settings=profile ...
+ * </code></pre>
+ */
+public final class NativeEvents {
+
+    /**
+     * Operation of data events that read data.
+     */
+    public static final String READ = "read";
+
+    /**
+     * Operation of data events that write data.
+     */
+    public static final String WRITE = "write";
+
+    // JfrEvents, null if JFR is not available or the bindings were built without it
+    private static final EventRecorder JFR = loadRecorder();
+    // true while a recording with at least one of the events enabled is running
+    private static volatile boolean recording;
+    private static volatile NixMetrics metrics;
+    // recording || metrics != null, the only field read when nothing is instrumented
+    private static volatile boolean enabled;
+
+    static {
+        if (Boolean.getBoolean("org.g_node.nix.metrics")) {
+            Iterator<NixMetrics> providers = ServiceLoader.load(NixMetrics.class).iterator();
+            if (providers.hasNext()) {
+                setMetrics(providers.next());
+            }
+        }
+    }
+
+    private NativeEvents() {
+    }
+
+    private static EventRecorder loadRecorder() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            Class<?> recorder = Class.forName("org.g_node.nix.internal.JfrEvents");
+            return (EventRecorder) recorder.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // JFR is not available, events stay disabled
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether any of the events is recorded or metrics are installed.
+     *
+     * @return True if the instrumented methods should be used.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    static synchronized void setRecording(boolean recording) {
+        NativeEvents.recording = recording;
+        enabled = recording || metrics != null;
+    }
+
+    /**
+     * Installs the metrics that receive all instrumented calls.
+     *
+     * @param metrics The metrics or <tt>null</tt> to disable metrics.
+     * @see NixMetrics#install(NixMetrics)
+     */
+    public static synchronized void setMetrics(NixMetrics metrics) {
+        NativeEvents.metrics = metrics;
+        enabled = recording || metrics != null;
+    }
+
+    /**
+     * Get the installed metrics.
+     *
+     * @return The metrics or <tt>null</tt> if none are installed.
+     */
+    public static NixMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Opens or closes a file and records the call.
+     *
+     * @param operation Either <tt>open</tt> or <tt>close</tt>.
+     * @param path      The path of the file.
+     * @param mode      The mode the file is opened with, -1 for close.
+     * @param call      The native call.
+     * @param <T>       The result of the call.
+     * @return The result of the call.
+     */
+    public static <T> T file(String operation, String path, int mode, Supplier<T> call) {
+        NixMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+        T result = recording ? JFR.file(operation, path, mode, call) : call.get();
+        if (m != null) {
+            long nanos = System.nanoTime() - start;
+            if (mode < 0) {
+                m.fileClosed(path, nanos);
+                m.nativeFreed("File", 1);
+            } else {
+                m.fileOpened(path, nanos);
+                m.nativeAllocated("File", 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads or writes data and records the call.
+     *
+     * @param operation Either {@link NativeEvents#READ} or {@link NativeEvents#WRITE}.
+     * @param array     The DataArray.
+     * @param dataType  The {@link org.g_node.nix.DataType} of the data in memory.
+     * @param count     The extent of the data.
+     * @param call      The native call.
+     */
+    public static void data(String operation, DataArray array, int dataType, NDSize count, Runnable call) {
+        NixMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+        if (recording) {
+            JFR.data(operation, array, dataType, count, call);
+        } else {
+            call.run();
+        }
+        if (m != null) {
+            long nanos = System.nanoTime() - start;
+            long bytes = count.getElementsProduct() * DataType.sizeOf(dataType);
+            if (READ.equals(operation)) {
+                m.dataRead(array, bytes, nanos);
+            } else {
+                m.dataWritten(array, bytes, nanos);
+            }
+        }
+    }
+
+    /**
+     * Retrieves tagged data and records the call.
+     *
+     * @param tagId          The id of the Tag or MultiTag.
+     * @param positionIndex  The index of the position, 0 for a Tag.
+     * @param referenceIndex The index of the reference.
+     * @param call           The native call.
+     * @param <T>            The result of the call.
+     * @return The result of the call.
+     */
+    public static <T> T retrieveData(String tagId, long positionIndex, long referenceIndex, Supplier<T> call) {
+        NixMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+        T result = recording ? JFR.retrieveData(tagId, positionIndex, referenceIndex, call) : call.get();
+        if (m != null) {
+            m.called("DataAccess", "retrieveData", System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Validates an entity and records the call.
+     *
+     * @param entity The kind of the validated entity.
+     * @param call   The native call.
+     * @return The result of the validation.
+     */
+    public static Result validate(String entity, Supplier<Result> call) {
+        NixMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+        Result result = recording ? JFR.validate(entity, call) : call.get();
+        if (m != null) {
+            m.called(entity, "validate", System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Reports native objects that were created by listing entities.
+     *
+     * @param type  The type of the objects.
+     * @param count The number of objects.
+     */
+    public static void allocated(String type, long count) {
+        NixMetrics m = metrics;
+        if (m != null) {
+            m.nativeAllocated(type, count);
+        }
+    }
+
+    /**
+     * Reports an access to one of the caches of the bindings.
+     *
+     * @param cache The name of the cache.
+     * @param hit   True if the access was served from the cache.
+     */
+    public static void cacheAccessed(String cache, boolean hit) {
+        NixMetrics m = metrics;
+        if (m != null) {
+            m.cacheAccessed(cache, hit);
+        }
+    }
+}
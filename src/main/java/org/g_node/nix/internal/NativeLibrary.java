@@ -0,0 +1,65 @@
+package org.g_node.nix.internal;
+
+import org.bytedeco.javacpp.Loader;
+import org.bytedeco.javacpp.annotation.Platform;
+import org.bytedeco.javacpp.annotation.Properties;
+
+/**
+ * <h1>NativeLibrary</h1>
+ * Loads the native library of the bindings.
+ * <p>
+ * All classes of the bindings are compiled into the single JNI library {@link BuildLibs#JNI_NIX}.
+ * The build writes it to <tt>org/g_node/nix/internal/&lt;platform&gt;/</tt> in the classes
+ * folder, where {@link org.bytedeco.javacpp.Loader} looks it up for this class; from a jar
+ * the loader extracts it to a temporary folder first. Once the library is loaded, the JVM
+ * binds the native methods of every class of the bindings to it, no matter which class
+ * loaded it.
+ * The library, NIX and HDF5 are loaded once by the first class that needs them, the JavaCPP
+ * properties are resolved only for this class. Later calls of {@link NativeLibrary#load()}
+ * are a single volatile read, so the static initializers of the bindings stay cheap.
+ * <p>
+ * Applications that want to pay the loading cost at a well defined point, e.g. at startup,
+ * can call {@link NativeLibrary#load()} eagerly.
+ */
+@Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
+        @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
+        @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
+        @Platform(value = "windows",
+                link = BuildLibs.NIX,
+                preload = {BuildLibs.HDF5, BuildLibs.MSVCP120, BuildLibs.MSVCR120, BuildLibs.SZIP, BuildLibs.ZLIB})})
+public final class NativeLibrary {
+
+    private static volatile String path;
+
+    private NativeLibrary() {
+    }
+
+    /**
+     * Loads the native library if it is not loaded yet.
+     *
+     * @return The path of the loaded library.
+     */
+    public static String load() {
+        String loaded = path;
+        if (loaded == null) {
+            synchronized (NativeLibrary.class) {
+                loaded = path;
+                if (loaded == null) {
+                    loaded = Loader.load(NativeLibrary.class);
+                    path = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Checks whether the native library is loaded.
+     *
+     * @return True if the library is loaded.
+     */
+    public static boolean isLoaded() {
+        return path != null;
+    }
+}
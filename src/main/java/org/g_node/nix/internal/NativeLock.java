@@ -0,0 +1,20 @@
+package org.g_node.nix.internal;
+
+/**
+ * <h1>NativeLock</h1>
+ * Global lock that serializes access to the native library.
+ * <p>
+ * HDF5 is not thread safe. Code that reads from several threads, e.g. parallel streams,
+ * must hold this lock while calling into native code. Computation on the data read
+ * does not need the lock.
+ */
+public final class NativeLock {
+
+    /**
+     * The lock object, use with <tt>synchronized</tt>.
+     */
+    public static final Object LOCK = new Object();
+
+    private NativeLock() {
+    }
+}
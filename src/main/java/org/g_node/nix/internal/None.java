@@ -1,6 +1,5 @@
 package org.g_node.nix.internal;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 
@@ -11,13 +10,13 @@ import org.bytedeco.javacpp.annotation.*;
 
 
 
-@Platform(include = {"<nix/None.hpp>", "nonehelper.hpp"})
+@Platform(include = {"<nix/None.hpp>", "nonehelper.hpp"}, library = BuildLibs.JNI_NIX)
 @Namespace("nix")
 @Name("none_t")
 public class None extends Pointer {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
 
@@ -1,6 +1,5 @@
 package org.g_node.nix.internal;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 
@@ -10,10 +9,11 @@ import org.bytedeco.javacpp.annotation.*;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<boost/optional.hpp>"})})
 public class OptionalUtils {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -28,7 +28,7 @@ public class OptionalUtils {
     public static class OptionalDouble extends Pointer {
 
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -64,7 +64,7 @@ public class OptionalUtils {
     public static class OptionalString extends Pointer {
 
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
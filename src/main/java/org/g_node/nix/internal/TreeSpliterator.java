@@ -0,0 +1,131 @@
+package org.g_node.nix.internal;
+
+import org.g_node.nix.base.NamedEntity;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <h1>TreeSpliterator</h1>
+ * Lazy, splittable breadth first traversal of a tree of entities.
+ * <p>
+ * Children of a node are only fetched when the node is visited, so short-circuiting
+ * operations like <tt>findFirst</tt> or <tt>anyMatch</tt> stop the traversal early. Splitting
+ * hands off half of the pending nodes, so subtrees are traversed in parallel.
+ * <p>
+ * Fetching the children is done while holding the {@link NativeLock}. At the same time the
+ * attribute cache of each child is filled (see {@link NamedEntity#cacheAttributes()}), so
+ * name, type and definition of the fetched entities are read without native calls and
+ * predicates on them can run in parallel. The roots are handed out while holding the lock.
+ * Other native calls in a parallel stream must hold the lock themselves.
+ * <p>
+ * Sequential traversal visits the nodes in breadth first order, for parallel traversal
+ * the order is not defined.
+ *
+ * @param <T> The type of the entities.
+ */
+public final class TreeSpliterator<T extends NamedEntity> implements Spliterator<T> {
+
+    private static final class Node<T> {
+        final T entity;
+        final int depth;
+        final boolean cached;
+        boolean expanded;
+
+        Node(T entity, int depth, boolean cached) {
+            this.entity = entity;
+            this.depth = depth;
+            this.cached = cached;
+        }
+    }
+
+    private final Deque<Node<T>> pending;
+    private final Function<T, List<T>> children;
+    private final int maxDepth;
+
+    /**
+     * Creates a traversal starting at the given roots.
+     *
+     * @param roots    The roots, they have depth 0.
+     * @param children Function returning the children of a node.
+     * @param maxDepth The maximum depth of traversal.
+     */
+    public TreeSpliterator(List<T> roots, Function<T, List<T>> children, int maxDepth) {
+        this.pending = new ArrayDeque<>();
+        this.children = children;
+        this.maxDepth = maxDepth;
+        for (T root : roots) {
+            pending.add(new Node<>(root, 0, false));
+        }
+    }
+
+    private TreeSpliterator(Deque<Node<T>> pending, Function<T, List<T>> children, int maxDepth) {
+        this.pending = pending;
+        this.children = children;
+        this.maxDepth = maxDepth;
+    }
+
+    private void expand(Node<T> node) {
+        if (node.expanded || node.depth >= maxDepth) {
+            return;
+        }
+        node.expanded = true;
+
+        synchronized (NativeLock.LOCK) {
+            for (T child : children.apply(node.entity)) {
+                child.cacheAttributes();
+                pending.add(new Node<>(child, node.depth + 1, true));
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        Node<T> node = pending.poll();
+        if (node == null) {
+            return false;
+        }
+        expand(node);
+        if (node.cached) {
+            action.accept(node.entity);
+        } else {
+            // the roots belong to the caller, their attribute cache is left alone
+            synchronized (NativeLock.LOCK) {
+                action.accept(node.entity);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (pending.size() == 1) {
+            // fetch the children of a single node so they can be handed off
+            expand(pending.peek());
+        }
+        int size = pending.size();
+        if (size < 2) {
+            return null;
+        }
+
+        Deque<Node<T>> prefix = new ArrayDeque<>(size / 2);
+        for (int i = 0; i < size / 2; i++) {
+            prefix.add(pending.poll());
+        }
+        return new TreeSpliterator<>(prefix, children, maxDepth);
+    }
+
+    @Override
+    public long estimateSize() {
+        return pending.isEmpty() ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.NONNULL;
+    }
+}
@@ -2,7 +2,6 @@ package org.g_node.nix.internal;
 
 import org.bytedeco.javacpp.DoublePointer;
 import org.bytedeco.javacpp.IntPointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.*;
@@ -17,6 +16,7 @@ import java.util.List;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {
                 "<vector>",
                 "<nix/Block.hpp>",
@@ -38,7 +38,7 @@ import java.util.List;
 public class VectorUtils {
 
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -52,7 +52,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Block>")
     public static class BlockVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -90,6 +90,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 blocks.add(get(i));
             }
+            NativeEvents.allocated("Block", blocks.size());
             return blocks;
         }
     }
@@ -105,7 +106,7 @@ public class VectorUtils {
     @Name("std::vector<nix::DataArray>")
     public static class DataArrayVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -143,6 +144,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 dataArrays.add(get(i));
             }
+            NativeEvents.allocated("DataArray", dataArrays.size());
             return dataArrays;
         }
     }
@@ -158,7 +160,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Dimension>")
     public static class DimensionVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -196,6 +198,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 dimensions.add(get(i));
             }
+            NativeEvents.allocated("Dimension", dimensions.size());
             return dimensions;
         }
     }
@@ -211,7 +214,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Feature>")
     public static class FeatureVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -249,6 +252,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 features.add(get(i));
             }
+            NativeEvents.allocated("Feature", features.size());
             return features;
         }
     }
@@ -264,7 +268,7 @@ public class VectorUtils {
     @Name("std::vector<nix::MultiTag>")
     public static class MultiTagVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -302,6 +306,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 multiTags.add(get(i));
             }
+            NativeEvents.allocated("MultiTag", multiTags.size());
             return multiTags;
         }
     }
@@ -317,7 +322,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Property>")
     public static class PropertyVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -355,6 +360,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 properties.add(get(i));
             }
+            NativeEvents.allocated("Property", properties.size());
             return properties;
         }
     }
@@ -370,7 +376,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Section>")
     public static class SectionVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -408,6 +414,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 sections.add(get(i));
             }
+            NativeEvents.allocated("Section", sections.size());
             return sections;
         }
     }
@@ -423,7 +430,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Source>")
     public static class SourceVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -461,6 +468,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 sources.add(get(i));
             }
+            NativeEvents.allocated("Source", sources.size());
             return sources;
         }
     }
@@ -476,7 +484,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Tag>")
     public static class TagVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -514,6 +522,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 tags.add(get(i));
             }
+            NativeEvents.allocated("Tag", tags.size());
             return tags;
         }
     }
@@ -529,7 +538,7 @@ public class VectorUtils {
     @Name("std::vector<nix::Value>")
     public static class ValueVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -546,6 +555,16 @@ public class VectorUtils {
             }
         }
 
+        /**
+         * Allocate a number of empty values at once.
+         *
+         * @param n number of values.
+         * @see ValueVector#at(long)
+         */
+        public ValueVector(long n) {
+            allocate(n);
+        }
+
         private native void allocate(@Cast("size_t") long n);
 
         private native long size();
@@ -556,6 +575,16 @@ public class VectorUtils {
 
         private native ValueVector put(@Cast("size_t") long i, Value value);
 
+        /**
+         * Get a value in place, setting it changes the vector.
+         *
+         * @param i index of the value.
+         * @return the value.
+         */
+        public Value at(long i) {
+            return get(i);
+        }
+
         /**
          * Get values.
          *
@@ -567,6 +596,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 values.add(get(i));
             }
+            NativeEvents.allocated("Value", values.size());
             return values;
         }
     }
@@ -582,7 +612,7 @@ public class VectorUtils {
     @Name("std::vector<nix::valid::Message>")
     public static class MessageVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -620,6 +650,7 @@ public class VectorUtils {
             for (int i = 0; i < size(); i++) {
                 messages.add(get(i));
             }
+            NativeEvents.allocated("Message", messages.size());
             return messages;
         }
     }
@@ -635,7 +666,7 @@ public class VectorUtils {
     @Name("std::vector<std::string>")
     public static class StringVector extends Pointer {
         static {
-            Loader.load();
+            NativeLibrary.load();
         }
 
         /**
@@ -691,9 +722,7 @@ public class VectorUtils {
         int[] arr = null;
         if (ip != null) {
             arr = new int[ip.capacity()];
-            for (int i = 0; i < ip.capacity(); i++) {
-                arr[i] = ip.get(i);
-            }
+            ip.get(arr);
         }
         return arr;
     }
@@ -712,9 +741,7 @@ public class VectorUtils {
         double[] arr = null;
         if (dp != null) {
             arr = new double[dp.capacity()];
-            for (int i = 0; i < dp.capacity(); i++) {
-                arr[i] = dp.get(i);
-            }
+            dp.get(arr);
         }
         return arr;
     }
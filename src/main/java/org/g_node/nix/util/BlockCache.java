@@ -0,0 +1,414 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.internal.DataChanges;
+import org.g_node.nix.internal.NativeEvents;
+import org.g_node.nix.internal.NativeLock;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>BlockCache</h1>
+ * Process-wide, off-heap cache of DataArray blocks.
+ * <p>
+ * A DataArray is divided along its first dimension into blocks of whole rows holding at most
+ * {@link BlockCache#BLOCK_ELEMENTS} elements. Blocks are stored as doubles in fixed-size slots of
+ * direct memory and are keyed by file, array id and block index. The number of slots follows
+ * from the byte budget, slots are reused with CLOCK eviction.
+ * <p>
+ * Reads through {@link BlockCache#getData(File, DataArray, double[], NDSize, NDSize)} are served
+ * from cached blocks, missing blocks are read with a single call directly into the slot.
+ * {@link DataArray#setData} and {@link DataArray#setDataExtent(NDSize)} invalidate the affected
+ * blocks. Arrays with rows larger than a block are read without caching.
+ * <pre><code>
+ *     BlockCache.getInstance().setBudget(256L &lt;&lt; 20);
+ *     double[] data = new double[100 * 64];
+ *     BlockCache.getData(file, array, data, new NDSize(new int[]{100, 64}), new NDSize(new int[]{1000, 0}));
+ * </code></pre>
+ *
+ * @see DataArray
+ */
+public final class BlockCache {
+
+    /**
+     * Maximum number of elements per block.
+     */
+    public static final int BLOCK_ELEMENTS = 1 << 16;
+
+    /**
+     * Size of a block in bytes.
+     */
+    public static final int BLOCK_BYTES = BLOCK_ELEMENTS * Double.BYTES;
+
+    private static final long DEFAULT_BUDGET = 64L << 20;
+    private static final BlockCache INSTANCE = new BlockCache(DEFAULT_BUDGET);
+
+    static {
+        DataChanges.register(BlockCache::invalidate);
+    }
+
+    private final Map<Key, Integer> index = new HashMap<>();
+    // ids of the arrays that have blocks in the cache, used for cheap invalidation checks
+    private final Set<String> cachedArrays = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private long budget;
+    private Slot[] slots;
+    private int used;
+    private int hand;
+
+    private static final class Key {
+        private final String file;
+        private final String arrayId;
+        private final long block;
+
+        Key(String file, String arrayId, long block) {
+            this.file = file;
+            this.arrayId = arrayId;
+            this.block = block;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return block == other.block && arrayId.equals(other.arrayId) && file.equals(other.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, arrayId, block);
+        }
+    }
+
+    private static final class Slot {
+        final ByteBuffer bytes;
+        final DoubleBuffer data;
+        Key key;
+        boolean referenced;
+        long firstRow;
+        int rows;
+
+        Slot() {
+            bytes = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.nativeOrder());
+            data = bytes.asDoubleBuffer();
+        }
+    }
+
+    private BlockCache(long budget) {
+        setBudget(budget);
+    }
+
+    /**
+     * Get the process-wide cache.
+     *
+     * @return The cache.
+     */
+    public static BlockCache getInstance() {
+        return INSTANCE;
+    }
+
+    //--------------------------------------------------
+    // Configuration and counters
+    //--------------------------------------------------
+
+    /**
+     * Sets the byte budget of the cache. All cached blocks are dropped.
+     *
+     * @param budget The budget in bytes, at least one block.
+     */
+    public synchronized void setBudget(long budget) {
+        if (budget < BLOCK_BYTES) {
+            throw new IllegalArgumentException("Budget must hold at least one block");
+        }
+        this.budget = budget;
+        this.slots = new Slot[(int) Math.min(Integer.MAX_VALUE, budget / BLOCK_BYTES)];
+        this.used = 0;
+        this.hand = 0;
+        index.clear();
+        cachedArrays.clear();
+    }
+
+    /**
+     * Get the byte budget of the cache.
+     *
+     * @return The budget in bytes.
+     */
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Get the number of blocks in the cache.
+     *
+     * @return The number of blocks.
+     */
+    public synchronized int getBlockCount() {
+        return index.size();
+    }
+
+    /**
+     * Get the number of block reads served from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of blocks that had to be read.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Get the number of blocks that were evicted to make room for others.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters.
+     */
+    public void resetCounters() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    /**
+     * Removes all blocks from the cache.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < used; i++) {
+            slots[i].key = null;
+        }
+        index.clear();
+        cachedArrays.clear();
+    }
+
+    //--------------------------------------------------
+    // Reading
+    //--------------------------------------------------
+
+    /**
+     * Reads data of a DataArray through the process-wide cache.
+     *
+     * @param file   The file of the DataArray.
+     * @param array  The DataArray.
+     * @param data   The array receiving the data.
+     * @param count  The extent of the data to read.
+     * @param offset The offset of the data to read.
+     */
+    public static void getData(File file, DataArray array, double[] data, NDSize count, NDSize offset) {
+        INSTANCE.read(file, array, data, count, offset);
+    }
+
+    private void read(File file, DataArray array, double[] data, NDSize count, NDSize offset) {
+        int[] extent = array.getDataExtent().getData();
+        int[] cnt = count.getData();
+        int[] off = offset.getData();
+        if (extent.length == 0 || cnt.length != extent.length || off.length != extent.length) {
+            array.getData(data, count, offset);
+            return;
+        }
+
+        long rowElements = 1;
+        for (int i = 1; i < extent.length; i++) {
+            rowElements *= extent[i];
+        }
+        if (rowElements == 0 || rowElements > BLOCK_ELEMENTS) {
+            array.getData(data, count, offset);
+            return;
+        }
+        int rowsPerBlock = (int) (BLOCK_ELEMENTS / rowElements);
+
+        String location = file.getLocation();
+        String arrayId = array.getId();
+        long firstBlock = off[0] / rowsPerBlock;
+        long lastBlock = (off[0] + (long) cnt[0] - 1) / rowsPerBlock;
+
+        for (long block = firstBlock; block <= lastBlock && cnt[0] > 0; block++) {
+            Key key = new Key(location, arrayId, block);
+            synchronized (this) {
+                Slot slot = lookup(key);
+                NativeEvents.cacheAccessed("BlockCache", slot != null);
+                if (slot == null) {
+                    slot = load(key, array, extent, rowsPerBlock, rowElements);
+                }
+                copy(slot, extent, rowElements, cnt, off, data);
+            }
+        }
+    }
+
+    private Slot lookup(Key key) {
+        Integer i = index.get(key);
+        if (i == null) {
+            return null;
+        }
+        hits.incrementAndGet();
+        Slot slot = slots[i];
+        slot.referenced = true;
+        return slot;
+    }
+
+    private Slot load(Key key, DataArray array, int[] extent, int rowsPerBlock, long rowElements) {
+        misses.incrementAndGet();
+        int i = victim();
+        Slot slot = slots[i];
+        if (slot.key != null) {
+            index.remove(slot.key);
+            evictions.incrementAndGet();
+        }
+
+        slot.firstRow = key.block * rowsPerBlock;
+        slot.rows = (int) Math.min(rowsPerBlock, extent[0] - slot.firstRow);
+
+        int[] count = extent.clone();
+        int[] offset = new int[extent.length];
+        count[0] = slot.rows;
+        offset[0] = (int) slot.firstRow;
+
+        slot.key = null;
+        synchronized (NativeLock.LOCK) {
+            array.getData(slot.bytes, DataType.Double, new NDSize(count), new NDSize(offset));
+        }
+
+        slot.key = key;
+        slot.referenced = true;
+        index.put(key, i);
+        cachedArrays.add(key.arrayId);
+        return slot;
+    }
+
+    private int victim() {
+        if (used < slots.length) {
+            slots[used] = new Slot();
+            return used++;
+        }
+        // CLOCK: skip and clear referenced slots until an unreferenced one is found
+        while (true) {
+            Slot slot = slots[hand];
+            int current = hand;
+            hand = (hand + 1) % slots.length;
+            if (slot.key == null || !slot.referenced) {
+                return current;
+            }
+            slot.referenced = false;
+        }
+    }
+
+    private static void copy(Slot slot, int[] extent, long rowElements, int[] cnt, int[] off, double[] data) {
+        long from = Math.max(off[0], slot.firstRow);
+        long to = Math.min((long) off[0] + cnt[0], slot.firstRow + slot.rows);
+
+        long rowCount = 1;
+        for (int i = 1; i < cnt.length; i++) {
+            rowCount *= cnt[i];
+        }
+        if (rowCount == 0) {
+            return;
+        }
+        int inner = cnt[cnt.length - 1];
+
+        DoubleBuffer src = slot.data.duplicate();
+        if (cnt.length == 1) {
+            src.position((int) (from - slot.firstRow));
+            src.get(data, (int) (from - off[0]), (int) (to - from));
+            return;
+        }
+
+        int[] pos = new int[cnt.length];
+        for (long row = from; row < to; row++) {
+            int dst = (int) ((row - off[0]) * rowCount);
+            int base = (int) ((row - slot.firstRow) * rowElements);
+
+            // copy all lines of the last dimension within the requested part of the row
+            Arrays.fill(pos, 0);
+            for (long line = 0; line < rowCount / inner; line++) {
+                int start = base;
+                long stride = 1;
+                for (int d = cnt.length - 1; d >= 1; d--) {
+                    start += (off[d] + pos[d]) * stride;
+                    stride *= extent[d];
+                }
+                src.position(start);
+                src.get(data, dst, inner);
+                dst += inner;
+
+                for (int d = cnt.length - 2; d >= 1; d--) {
+                    if (++pos[d] < cnt[d]) {
+                        break;
+                    }
+                    pos[d] = 0;
+                }
+            }
+        }
+    }
+
+    //--------------------------------------------------
+    // Invalidation
+    //--------------------------------------------------
+
+    /**
+     * Drops the cached blocks of a DataArray that overlap a range of rows.
+     *
+     * @param array    The DataArray.
+     * @param firstRow The first row that changed.
+     * @param rowCount The number of rows that changed, {@link Long#MAX_VALUE} for all following rows.
+     */
+    public static void invalidate(DataArray array, long firstRow, long rowCount) {
+        if (INSTANCE.cachedArrays.isEmpty()) {
+            return;
+        }
+        String arrayId = array.getId();
+        if (INSTANCE.cachedArrays.contains(arrayId)) {
+            INSTANCE.drop(arrayId, firstRow, rowCount);
+        }
+    }
+
+    private synchronized void drop(String arrayId, long firstRow, long rowCount) {
+        long lastRow = rowCount == Long.MAX_VALUE ? Long.MAX_VALUE : firstRow + rowCount;
+        boolean remaining = false;
+        for (int i = 0; i < used; i++) {
+            Slot slot = slots[i];
+            if (slot.key == null || !slot.key.arrayId.equals(arrayId)) {
+                continue;
+            }
+            if (slot.firstRow < lastRow && slot.firstRow + slot.rows > firstRow) {
+                index.remove(slot.key);
+                slot.key = null;
+                slot.referenced = false;
+            } else {
+                remaining = true;
+            }
+        }
+        if (!remaining) {
+            cachedArrays.remove(arrayId);
+        }
+    }
+}
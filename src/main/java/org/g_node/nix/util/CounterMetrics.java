@@ -0,0 +1,395 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.File;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>CounterMetrics</h1>
+ * {@link NixMetrics} that keep counters and latency histograms in memory for scraping.
+ * <p>
+ * Counters are striped {@link LongAdder}s and histograms have logarithmic buckets of
+ * {@link LongAdder}s, so recording from many threads does not contend. The following
+ * counters are kept:
+ * <ul>
+ * <li><tt>data.bytesRead</tt>, <tt>data.bytesWritten</tt> in total and per file with the suffix
+ * <tt>@&lt;location&gt;</tt></li>
+ * <li><tt>calls.&lt;entity&gt;</tt>, the number of instrumented calls per entity type</li>
+ * <li><tt>native.allocated.&lt;type&gt;</tt>, <tt>native.freed.&lt;type&gt;</tt></li>
+ * <li><tt>cache.&lt;name&gt;.hits</tt>, <tt>cache.&lt;name&gt;.misses</tt></li>
+ * </ul>
+ * Histograms are named <tt>&lt;entity&gt;.&lt;operation&gt;</tt>, e.g. <tt>DataArray.getData</tt>
+ * or <tt>File.open</tt>.
+ * <p>
+ * Entities do not know the file they belong to. Bytes of DataArrays are attributed to a file
+ * after {@link CounterMetrics#attribute(File)} was called for it, otherwise to
+ * {@link CounterMetrics#UNATTRIBUTED}.
+ * <pre><code>
+ *     CounterMetrics metrics = new CounterMetrics();
+ *     NixMetrics.install(metrics);
+ *     File file = File.open(path, FileMode.ReadOnly);
+ *     metrics.attribute(file);
+ *     ...
+ *     long read = metrics.getBytesRead(file.getLocation());
+ * </code></pre>
+ *
+ * @see NixMetrics
+ */
+public class CounterMetrics implements NixMetrics {
+
+    /**
+     * Counter of all bytes read.
+     */
+    public static final String BYTES_READ = "data.bytesRead";
+
+    /**
+     * Counter of all bytes written.
+     */
+    public static final String BYTES_WRITTEN = "data.bytesWritten";
+
+    /**
+     * Location for DataArrays whose file is not known.
+     */
+    public static final String UNATTRIBUTED = "<unattributed>";
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    // DataArray id to the counters of its file
+    private final ConcurrentHashMap<String, FileCounters> arrayFiles = new ConcurrentHashMap<>();
+    // counters updated on every data access, looked up once
+    private volatile DataCounters data;
+    private volatile FileCounters unattributed;
+
+    private static final class DataCounters {
+        final LongAdder bytesRead;
+        final LongAdder bytesWritten;
+        final LongAdder calls;
+        final Histogram getData;
+        final Histogram setData;
+
+        DataCounters(CounterMetrics metrics) {
+            bytesRead = metrics.counter(BYTES_READ);
+            bytesWritten = metrics.counter(BYTES_WRITTEN);
+            calls = metrics.counter("calls.DataArray");
+            getData = metrics.histogram("DataArray.getData");
+            setData = metrics.histogram("DataArray.setData");
+        }
+    }
+
+    private static final class FileCounters {
+        final String location;
+        final LongAdder bytesRead;
+        final LongAdder bytesWritten;
+
+        FileCounters(CounterMetrics metrics, String location) {
+            this.location = location;
+            bytesRead = metrics.counter(BYTES_READ + "@" + location);
+            bytesWritten = metrics.counter(BYTES_WRITTEN + "@" + location);
+        }
+    }
+
+    /**
+     * Latency histogram with power of two buckets.
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records a value.
+         *
+         * @param nanos The duration in nanoseconds.
+         */
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets[BUCKETS - 1 - Long.numberOfLeadingZeros(value | 1)].increment();
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * Get the number of recorded values.
+         *
+         * @return The count.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Get the sum of the recorded values.
+         *
+         * @return The sum in nanoseconds.
+         */
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * Get the largest recorded value.
+         *
+         * @return The maximum in nanoseconds.
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Get the mean of the recorded values.
+         *
+         * @return The mean in nanoseconds or NaN if nothing was recorded.
+         */
+        public double getMean() {
+            long n = getCount();
+            return n == 0 ? Double.NaN : (double) getSum() / n;
+        }
+
+        /**
+         * Get an upper bound of a percentile, accurate to a factor of two.
+         *
+         * @param percentile The percentile between 0 and 100.
+         * @return The upper bound of the bucket holding the percentile in nanoseconds.
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            long rank = (long) Math.ceil(percentile / 100 * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return Math.min(getMax(), i == BUCKETS - 1 ? Long.MAX_VALUE : (2L << i) - 1);
+                }
+            }
+            return 0;
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+
+    //--------------------------------------------------
+    // File attribution
+    //--------------------------------------------------
+
+    /**
+     * Attributes the bytes read from and written to the DataArrays of a file to the file.
+     * DataArrays created later are attributed after calling this again. The attribution ends
+     * when the file is closed, the counters of the file are kept.
+     *
+     * @param file The file.
+     */
+    public void attribute(File file) {
+        FileCounters counters = new FileCounters(this, file.getLocation());
+        for (Block block : file.getBlocks()) {
+            for (DataArray array : block.getDataArrays()) {
+                arrayFiles.put(array.getId(), counters);
+            }
+        }
+    }
+
+    private FileCounters fileCounters(DataArray array) {
+        if (!arrayFiles.isEmpty()) {
+            FileCounters counters = arrayFiles.get(array.getId());
+            if (counters != null) {
+                return counters;
+            }
+        }
+        FileCounters counters = unattributed;
+        if (counters == null) {
+            counters = new FileCounters(this, UNATTRIBUTED);
+            unattributed = counters;
+        }
+        return counters;
+    }
+
+    private DataCounters dataCounters() {
+        DataCounters counters = data;
+        if (counters == null) {
+            counters = new DataCounters(this);
+            data = counters;
+        }
+        return counters;
+    }
+
+    //--------------------------------------------------
+    // NixMetrics
+    //--------------------------------------------------
+
+    @Override
+    public void fileOpened(String location, long nanos) {
+        called("File", "open", nanos);
+    }
+
+    @Override
+    public void fileClosed(String location, long nanos) {
+        called("File", "close", nanos);
+        if (location != null && !arrayFiles.isEmpty()) {
+            arrayFiles.values().removeIf(counters -> counters.location.equals(location));
+        }
+    }
+
+    @Override
+    public void dataRead(DataArray array, long bytes, long nanos) {
+        DataCounters counters = dataCounters();
+        counters.bytesRead.add(bytes);
+        fileCounters(array).bytesRead.add(bytes);
+        counters.calls.increment();
+        counters.getData.record(nanos);
+    }
+
+    @Override
+    public void dataWritten(DataArray array, long bytes, long nanos) {
+        DataCounters counters = dataCounters();
+        counters.bytesWritten.add(bytes);
+        fileCounters(array).bytesWritten.add(bytes);
+        counters.calls.increment();
+        counters.setData.record(nanos);
+    }
+
+    @Override
+    public void called(String entity, String operation, long nanos) {
+        counter("calls." + entity).increment();
+        histogram(entity + "." + operation).record(nanos);
+    }
+
+    @Override
+    public void nativeAllocated(String type, long count) {
+        counter("native.allocated." + type).add(count);
+    }
+
+    @Override
+    public void nativeFreed(String type, long count) {
+        counter("native.freed." + type).add(count);
+    }
+
+    @Override
+    public void cacheAccessed(String cache, boolean hit) {
+        counter(hit ? "cache." + cache + ".hits" : "cache." + cache + ".misses").increment();
+    }
+
+    private LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, key -> new LongAdder());
+        }
+        return counter;
+    }
+
+    private Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new Histogram());
+        }
+        return histogram;
+    }
+
+    //--------------------------------------------------
+    // Scraping
+    //--------------------------------------------------
+
+    /**
+     * Get the value of a counter.
+     *
+     * @param name The name of the counter.
+     * @return The value, 0 if nothing was counted.
+     */
+    public long getCounter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Get the bytes read from a file.
+     *
+     * @param location The location of the file.
+     * @return The number of bytes.
+     */
+    public long getBytesRead(String location) {
+        return getCounter(BYTES_READ + "@" + location);
+    }
+
+    /**
+     * Get the bytes written to a file.
+     *
+     * @param location The location of the file.
+     * @return The number of bytes.
+     */
+    public long getBytesWritten(String location) {
+        return getCounter(BYTES_WRITTEN + "@" + location);
+    }
+
+    /**
+     * Get a snapshot of all counters.
+     *
+     * @return The counters sorted by name.
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get a latency histogram.
+     *
+     * @param name The name of the histogram, e.g. <tt>DataArray.getData</tt>.
+     * @return The histogram or <tt>null</tt> if it was never used.
+     */
+    public Histogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Get all latency histograms.
+     *
+     * @return The histograms sorted by name.
+     */
+    public Map<String, Histogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Resets all counters and histograms. File attributions are kept.
+     */
+    public void reset() {
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package org.g_node.nix.util;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.*;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeEvents;
+import org.g_node.nix.internal.NativeLibrary;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 
 /**
  * <h1>DataAccess</h1>
@@ -11,6 +15,7 @@ import org.g_node.nix.internal.BuildLibs;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/util/dataAccess.hpp>",
                 "<nix/Block.hpp>",
                 "<nix/DataArray.hpp>",
@@ -30,7 +35,7 @@ import org.g_node.nix.internal.BuildLibs;
 @Namespace("nix::util")
 public class DataAccess {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     /**
@@ -78,6 +83,126 @@ public class DataAccess {
      */
     public static native long positionToIndex(double position, @StdString String unit, @Const @ByRef RangeDimension dimension);
 
+    /**
+     * Converts positions given in a unit into indices according to the dimension descriptor.
+     * <p>
+     * Same as {@link DataAccess#positionToIndex(double, String, SetDimension)} but converts
+     * all positions in a single call.
+     *
+     * @param positions The positions.
+     * @param unit      The unit in which the positions are given, may be "none"
+     * @param dimension The dimension descriptor for the respective dimension.
+     * @return The calculated indices.
+     * @see SetDimension
+     */
+    public static long[] positionToIndex(double[] positions, String unit, SetDimension dimension) {
+        long[] indices = new long[positions.length];
+        positionToIndex(DoubleBuffer.wrap(positions), unit, dimension, LongBuffer.wrap(indices));
+        return indices;
+    }
+
+    /**
+     * Converts positions given in a unit into indices according to the dimension descriptor.
+     * <p>
+     * All remaining positions of the buffer are converted and the indices are written
+     * to the indices buffer. The position of both buffers is advanced.
+     *
+     * @param positions The positions.
+     * @param unit      The unit in which the positions are given, may be "none"
+     * @param dimension The dimension descriptor for the respective dimension.
+     * @param indices   The buffer receiving the calculated indices.
+     * @see SetDimension
+     */
+    public static void positionToIndex(DoubleBuffer positions, String unit, SetDimension dimension, LongBuffer indices) {
+        if (unit != null && unit.length() > 0 && !unit.equals("none")) {
+            throw new IllegalArgumentException("Cannot apply a position with unit to a SetDimension");
+        }
+
+        int labelCount = dimension.getLabels().size();
+        while (positions.hasRemaining()) {
+            double position = positions.get();
+            long index = (long) round(position);
+            if (labelCount > 0 && index > labelCount) {
+                throw new IndexOutOfBoundsException("Position is out of bounds in setDimension.");
+            }
+            indices.put(index);
+        }
+    }
+
+    /**
+     * Converts positions given in a unit into indices according to the dimension descriptor.
+     * <p>
+     * Same as {@link DataAccess#positionToIndex(double, String, SampledDimension)} but converts
+     * all positions in a single call. The scaling between the units is resolved only once.
+     *
+     * @param positions The positions.
+     * @param unit      The unit in which the positions are given, may be "none"
+     * @param dimension The dimension descriptor for the respective dimension.
+     * @return The calculated indices.
+     * @see SampledDimension
+     */
+    public static long[] positionToIndex(double[] positions, String unit, SampledDimension dimension) {
+        long[] indices = new long[positions.length];
+        positionToIndex(DoubleBuffer.wrap(positions), unit, dimension, LongBuffer.wrap(indices));
+        return indices;
+    }
+
+    /**
+     * Converts positions given in a unit into indices according to the dimension descriptor.
+     * <p>
+     * All remaining positions of the buffer are converted and the indices are written
+     * to the indices buffer. The position of both buffers is advanced.
+     *
+     * @param positions The positions.
+     * @param unit      The unit in which the positions are given, may be "none"
+     * @param dimension The dimension descriptor for the respective dimension.
+     * @param indices   The buffer receiving the calculated indices.
+     * @see SampledDimension
+     */
+    public static void positionToIndex(DoubleBuffer positions, String unit, SampledDimension dimension, LongBuffer indices) {
+        dimension.getDescriptor().positionToIndex(positions, unit, indices);
+    }
+
+    /**
+     * Converts positions given in a unit into indices according to the dimension descriptor.
+     * <p>
+     * Same as {@link DataAccess#positionToIndex(double, String, RangeDimension)} but converts
+     * all positions in a single call. The scaling between the units is resolved and the ticks
+     * are read only once.
+     *
+     * @param positions The positions.
+     * @param unit      The unit in which the positions are given, may be "none"
+     * @param dimension The dimension descriptor for the respective dimension.
+     * @return The calculated indices.
+     * @see RangeDimension
+     */
+    public static long[] positionToIndex(double[] positions, String unit, RangeDimension dimension) {
+        long[] indices = new long[positions.length];
+        positionToIndex(DoubleBuffer.wrap(positions), unit, dimension, LongBuffer.wrap(indices));
+        return indices;
+    }
+
+    /**
+     * Converts positions given in a unit into indices according to the dimension descriptor.
+     * <p>
+     * All remaining positions of the buffer are converted and the indices are written
+     * to the indices buffer. The position of both buffers is advanced.
+     *
+     * @param positions The positions.
+     * @param unit      The unit in which the positions are given, may be "none"
+     * @param dimension The dimension descriptor for the respective dimension.
+     * @param indices   The buffer receiving the calculated indices.
+     * @see RangeDimension
+     */
+    public static void positionToIndex(DoubleBuffer positions, String unit, RangeDimension dimension, LongBuffer indices) {
+        dimension.getDescriptor().positionToIndex(positions, unit, indices);
+    }
+
+    private static double round(double value) {
+        // same as C's round(), i.e. half way cases are rounded away from zero
+        return value < 0 ? -Math.floor(-value + 0.5) : Math.floor(value + 0.5);
+    }
+
 
     /**
      * Returns the offsets and element counts associated with position and extent of a Tag and
@@ -108,6 +233,16 @@ public class DataAccess {
      */
     public static native void getOffsetAndCount(@Const @ByRef MultiTag tag, @Const @ByRef DataArray array, @Cast("size_t") long index, @ByRef NDSize offsets, @ByRef NDSize counts);
 
+    private static native
+    @Name("retrieveData")
+    @ByVal
+    DataView retrieve(@Const @ByRef MultiTag tag, @Cast("size_t") long positionIndex, @Cast("size_t") long referenceIndex);
+
+    private static native
+    @Name("retrieveData")
+    @ByVal
+    DataView retrieve(@Const @ByRef Tag tag, @Cast("size_t") long referenceIndex);
+
     /**
      * Retrieve the data referenced by the given position and extent of the MultiTag.
      *
@@ -118,9 +253,13 @@ public class DataAccess {
      * @see DataView
      * @see MultiTag
      */
-    public static native
-    @ByVal
-    DataView retrieveData(@Const @ByRef MultiTag tag, @Cast("size_t") long positionIndex, @Cast("size_t") long referenceIndex);
+    public static DataView retrieveData(MultiTag tag, long positionIndex, long referenceIndex) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.retrieveData(tag.getId(), positionIndex, referenceIndex,
+                    () -> retrieve(tag, positionIndex, referenceIndex));
+        }
+        return retrieve(tag, positionIndex, referenceIndex);
+    }
 
     /**
      * Retrieve the data referenced by the given position and extent of the Tag.
@@ -131,9 +270,12 @@ public class DataAccess {
      * @see DataView
      * @see Tag
      */
-    public static native
-    @ByVal
-    DataView retrieveData(@Const @ByRef Tag tag, @Cast("size_t") long referenceIndex);
+    public static DataView retrieveData(Tag tag, long referenceIndex) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.retrieveData(tag.getId(), 0, referenceIndex, () -> retrieve(tag, referenceIndex));
+        }
+        return retrieve(tag, referenceIndex);
+    }
 
     /**
      * Checks whether a given position is in the extent of the given DataArray.
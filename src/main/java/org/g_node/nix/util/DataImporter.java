@@ -0,0 +1,738 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.SampledDimension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <h1>DataImporter</h1>
+ * Streaming import of interleaved multichannel binary data or CSV into DataArrays.
+ * <p>
+ * The input is parsed on a separate thread into batches of {@link DataImporter#setBatchFrames(int) frames},
+ * a frame holds one sample of every channel. The calling thread writes every batch with a single
+ * call and extends the arrays as needed, so memory use is bounded by the batch size independent of
+ * the length of the input. The channels are stored either in one two dimensional array
+ * <tt>{frames, channels}</tt> or in one array per channel. The first dimension is a
+ * {@link SampledDimension} if sampling information is given.
+ * <p>
+ * Input is read from an {@link InputStream}, a {@link ReadableByteChannel} such as a {@link FileChannel},
+ * a file or a directory, whose regular files are concatenated in the order of their names.
+ * <pre><code>
+ *     DataImporter importer = DataImporter.binary(32, DataType.Int16, ByteOrder.LITTLE_ENDIAN)
+ *             .setSampling(1.0 / 30000, "s")
+ *             .setUnit("uV");
+ *     DataArray raw = importer.importData(block, "raw", "nix.sampled", Paths.get("dump.bin")).get(0);
+ *
+ *     List&lt;DataArray&gt; channels = DataImporter.csv(',', true)
+ *             .setLayout(DataImporter.Layout.CHANNELS)
+ *             .importData(block, "behaviour", "nix.sampled", new FileInputStream("tracking.csv"));
+ * </code></pre>
+ *
+ * @see DataArray
+ */
+public class DataImporter {
+
+    private static final int DEFAULT_BATCH_FRAMES = 1 << 16;
+    // number of batches in flight between the parser and the writer
+    private static final int BATCHES = 3;
+
+    /**
+     * Layout of the imported channels.
+     */
+    public enum Layout {
+        /**
+         * One two dimensional array <tt>{frames, channels}</tt>.
+         */
+        MATRIX,
+        /**
+         * One one dimensional array per channel.
+         */
+        CHANNELS
+    }
+
+    private final boolean csv;
+    private final char delimiter;
+    private final boolean header;
+    private final ByteOrder order;
+    private final int channels;
+    private int dataType;
+    private Layout layout;
+    private int batchFrames;
+    private double samplingInterval;
+    private String samplingUnit;
+    private double offset;
+    private List<String> channelLabels;
+    private String label;
+    private String unit;
+
+    private DataImporter(boolean csv, int channels, int dataType, ByteOrder order, char delimiter, boolean header) {
+        this.csv = csv;
+        this.channels = channels;
+        this.dataType = dataType;
+        this.order = order;
+        this.delimiter = delimiter;
+        this.header = header;
+        this.layout = Layout.MATRIX;
+        this.batchFrames = DEFAULT_BATCH_FRAMES;
+    }
+
+    /**
+     * Creates an importer for interleaved binary data.
+     *
+     * @param channels The number of channels.
+     * @param dataType The numeric {@link DataType} of the elements, also used for the arrays.
+     * @param order    The byte order of the input.
+     * @return The importer.
+     */
+    public static DataImporter binary(int channels, int dataType, ByteOrder order) {
+        if (channels <= 0) {
+            throw new IllegalArgumentException("Number of channels must be positive");
+        }
+        DataType.sizeOf(dataType);
+        return new DataImporter(false, channels, dataType, order, ',', false);
+    }
+
+    /**
+     * Creates an importer for CSV with one column per channel. The number of channels is taken
+     * from the first line, the data is stored as {@link DataType#Double} unless changed with
+     * {@link DataImporter#setDataType(int)}.
+     *
+     * @param delimiter The delimiter of the columns.
+     * @param header    True if the first line of every file holds the names of the channels.
+     * @return The importer.
+     */
+    public static DataImporter csv(char delimiter, boolean header) {
+        return new DataImporter(true, 0, DataType.Double, ByteOrder.nativeOrder(), delimiter, header);
+    }
+
+    /**
+     * Sets the data type of the arrays. Only supported for CSV.
+     *
+     * @param dataType A numeric {@link DataType}.
+     * @return The importer.
+     */
+    public DataImporter setDataType(int dataType) {
+        if (!csv) {
+            throw new IllegalStateException("The data type of binary input is fixed");
+        }
+        DataType.sizeOf(dataType);
+        this.dataType = dataType;
+        return this;
+    }
+
+    /**
+     * Sets the layout of the arrays. Defaults to {@link Layout#MATRIX}.
+     *
+     * @param layout The layout.
+     * @return The importer.
+     */
+    public DataImporter setLayout(Layout layout) {
+        this.layout = layout;
+        return this;
+    }
+
+    /**
+     * Sets the number of frames parsed and written per batch.
+     *
+     * @param batchFrames The number of frames.
+     * @return The importer.
+     */
+    public DataImporter setBatchFrames(int batchFrames) {
+        if (batchFrames <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchFrames = batchFrames;
+        return this;
+    }
+
+    /**
+     * Sets the sampling of the frames. The first dimension of the arrays becomes a {@link SampledDimension},
+     * without sampling it is a set dimension.
+     *
+     * @param samplingInterval The sampling interval.
+     * @param unit             The unit of the sampling interval or <tt>null</tt>.
+     * @return The importer.
+     */
+    public DataImporter setSampling(double samplingInterval, String unit) {
+        if (!(samplingInterval > 0)) {
+            throw new IllegalArgumentException("Sampling interval must be positive");
+        }
+        this.samplingInterval = samplingInterval;
+        this.samplingUnit = unit;
+        return this;
+    }
+
+    /**
+     * Sets the position of the first frame, in the unit of the sampling interval.
+     *
+     * @param offset The offset.
+     * @return The importer.
+     */
+    public DataImporter setOffset(double offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Sets the labels of the channels. They are used as labels of the second dimension for
+     * {@link Layout#MATRIX} and as suffix of the array names for {@link Layout#CHANNELS}.
+     * Defaults to the header of CSV input.
+     *
+     * @param channelLabels The labels.
+     * @return The importer.
+     */
+    public DataImporter setChannelLabels(List<String> channelLabels) {
+        this.channelLabels = channelLabels == null ? null : new ArrayList<>(channelLabels);
+        return this;
+    }
+
+    /**
+     * Sets the label of the arrays.
+     *
+     * @param label The label.
+     * @return The importer.
+     */
+    public DataImporter setLabel(String label) {
+        this.label = label;
+        return this;
+    }
+
+    /**
+     * Sets the unit of the arrays.
+     *
+     * @param unit The unit.
+     * @return The importer.
+     */
+    public DataImporter setUnit(String unit) {
+        this.unit = unit;
+        return this;
+    }
+
+    //--------------------------------------------------
+    // Import
+    //--------------------------------------------------
+
+    /**
+     * Imports data from a stream. The stream is not closed.
+     *
+     * @param block The block in which the arrays are created.
+     * @param name  The name of the array, or the prefix of the names for {@link Layout#CHANNELS}.
+     * @param type  The type of the arrays.
+     * @param input The stream.
+     * @return The created arrays.
+     */
+    public List<DataArray> importData(Block block, String name, String type, InputStream input) {
+        return importData(block, name, type, Channels.newChannel(input));
+    }
+
+    /**
+     * Imports data from a channel, e.g. a {@link FileChannel}. The channel is not closed.
+     *
+     * @param block The block in which the arrays are created.
+     * @param name  The name of the array, or the prefix of the names for {@link Layout#CHANNELS}.
+     * @param type  The type of the arrays.
+     * @param input The channel.
+     * @return The created arrays.
+     */
+    public List<DataArray> importData(Block block, String name, String type, ReadableByteChannel input) {
+        return run(block, name, type, new Inputs(input, Collections.emptyIterator()));
+    }
+
+    /**
+     * Imports data from a file or from all regular files of a directory in the order of their names.
+     *
+     * @param block The block in which the arrays are created.
+     * @param name  The name of the array, or the prefix of the names for {@link Layout#CHANNELS}.
+     * @param type  The type of the arrays.
+     * @param path  The file or directory.
+     * @return The created arrays.
+     */
+    public List<DataArray> importData(Block block, String name, String type, Path path) {
+        List<Path> files;
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> list = Files.list(path)) {
+                files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            files = Collections.singletonList(path);
+        }
+        return run(block, name, type, new Inputs(null, files.iterator()));
+    }
+
+    private List<DataArray> run(Block block, String name, String type, Inputs inputs) {
+        Parser parser = csv ? new CsvParser(inputs) : new BinaryParser(inputs);
+        BlockingQueue<Batch> free = new ArrayBlockingQueue<>(BATCHES);
+        BlockingQueue<Batch> full = new ArrayBlockingQueue<>(BATCHES + 1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread thread = new Thread(() -> {
+            try {
+                parser.run(free, full);
+            } catch (Throwable t) {
+                failure.set(t);
+            } finally {
+                inputs.close();
+                full.offer(Batch.END);
+            }
+        }, "nix-import-parser");
+        thread.setDaemon(true);
+        thread.start();
+
+        Writer writer = new Writer(block, name, type);
+        try {
+            while (true) {
+                Batch batch = full.take();
+                if (batch == Batch.END) {
+                    break;
+                }
+                writer.write(batch);
+                free.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import was interrupted", e);
+        } finally {
+            thread.interrupt();
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t instanceof IOException) {
+            throw new UncheckedIOException((IOException) t);
+        } else if (t != null) {
+            throw new IllegalStateException(t);
+        }
+        if (writer.arrays.isEmpty()) {
+            throw new IllegalArgumentException("Input contains no data");
+        }
+        return writer.arrays;
+    }
+
+    /**
+     * Parsed frames, stored in native byte order with one buffer per array.
+     */
+    private static final class Batch {
+        static final Batch END = new Batch(new ByteBuffer[0]);
+
+        final ByteBuffer[] buffers;
+        int channels;
+        int frames;
+        List<String> names;
+
+        Batch(ByteBuffer[] buffers) {
+            this.buffers = buffers;
+        }
+    }
+
+    /**
+     * The channels to read from in order.
+     */
+    private static final class Inputs {
+        private ReadableByteChannel first;
+        private final Iterator<Path> files;
+        private ReadableByteChannel opened;
+
+        Inputs(ReadableByteChannel first, Iterator<Path> files) {
+            this.first = first;
+            this.files = files;
+        }
+
+        ReadableByteChannel next() throws IOException {
+            close();
+            if (first != null) {
+                ReadableByteChannel channel = first;
+                first = null;
+                return channel;
+            }
+            if (files.hasNext()) {
+                opened = FileChannel.open(files.next(), StandardOpenOption.READ);
+                return opened;
+            }
+            return null;
+        }
+
+        void close() {
+            if (opened != null) {
+                try {
+                    opened.close();
+                } catch (IOException ignored) {
+                    // the file was only read
+                }
+                opened = null;
+            }
+        }
+    }
+
+    //--------------------------------------------------
+    // Parsing
+    //--------------------------------------------------
+
+    private abstract class Parser {
+        int channels = DataImporter.this.channels;
+        private int allocated;
+
+        void run(BlockingQueue<Batch> free, BlockingQueue<Batch> full) throws IOException, InterruptedException {
+            while (true) {
+                Batch batch = allocated < BATCHES ? null : free.take();
+                if (batch == null) {
+                    if (!prepare()) {
+                        return;
+                    }
+                    batch = allocate();
+                    allocated++;
+                }
+                if (!fill(batch)) {
+                    return;
+                }
+                batch.channels = channels;
+                full.put(batch);
+            }
+        }
+
+        private Batch allocate() {
+            int arrays = layout == Layout.MATRIX ? 1 : channels;
+            int bytes = batchBytes(layout == Layout.MATRIX ? channels : 1);
+            ByteBuffer[] buffers = new ByteBuffer[arrays];
+            for (int i = 0; i < arrays; i++) {
+                buffers[i] = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+            }
+            return new Batch(buffers);
+        }
+
+        final int batchBytes(int elementsPerFrame) {
+            long bytes = (long) batchFrames * DataType.sizeOf(dataType) * elementsPerFrame;
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Batch size is too large");
+            }
+            return (int) bytes;
+        }
+
+        /**
+         * Prepares the parser before the first batch is allocated.
+         *
+         * @return False if the input is empty.
+         */
+        abstract boolean prepare() throws IOException;
+
+        /**
+         * Fills the batch with the next frames.
+         *
+         * @return False if there are no more frames.
+         */
+        abstract boolean fill(Batch batch) throws IOException;
+
+        final int elementIndex(int frame, int channel) {
+            return layout == Layout.MATRIX ? frame * channels + channel : frame;
+        }
+
+        final ByteBuffer target(Batch batch, int channel) {
+            return batch.buffers[layout == Layout.MATRIX ? 0 : channel];
+        }
+    }
+
+    private class BinaryParser extends Parser {
+        private final Inputs inputs;
+        private final int size;
+        private final int frameBytes;
+        private ByteBuffer raw;
+        private ReadableByteChannel channel;
+        private boolean started;
+
+        BinaryParser(Inputs inputs) {
+            this.inputs = inputs;
+            this.size = DataType.sizeOf(dataType);
+            this.frameBytes = size * channels;
+        }
+
+        @Override
+        boolean prepare() throws IOException {
+            if (!started) {
+                started = true;
+                raw = ByteBuffer.allocateDirect(batchBytes(channels)).order(order);
+                channel = inputs.next();
+            }
+            return true;
+        }
+
+        @Override
+        boolean fill(Batch batch) throws IOException {
+            raw.clear();
+            while (raw.hasRemaining() && channel != null) {
+                if (channel.read(raw) < 0) {
+                    channel = inputs.next();
+                }
+            }
+            if (raw.position() % frameBytes != 0) {
+                throw new IllegalArgumentException("Input ends within a frame");
+            }
+            int frames = raw.position() / frameBytes;
+            if (frames == 0) {
+                return false;
+            }
+
+            if (layout == Layout.MATRIX && order == ByteOrder.nativeOrder()) {
+                raw.flip();
+                ByteBuffer target = batch.buffers[0].duplicate();
+                target.put(raw);
+            } else {
+                for (int f = 0; f < frames; f++) {
+                    for (int c = 0; c < channels; c++) {
+                        copy((f * channels + c) * size, target(batch, c), elementIndex(f, c) * size);
+                    }
+                }
+            }
+            batch.frames = frames;
+            batch.names = channelLabels;
+            return true;
+        }
+
+        private void copy(int from, ByteBuffer target, int to) {
+            switch (size) {
+                case 1:
+                    target.put(to, raw.get(from));
+                    break;
+                case 2:
+                    target.putShort(to, raw.getShort(from));
+                    break;
+                case 4:
+                    target.putInt(to, raw.getInt(from));
+                    break;
+                default:
+                    target.putLong(to, raw.getLong(from));
+                    break;
+            }
+        }
+    }
+
+    private class CsvParser extends Parser {
+        private final Inputs inputs;
+        private BufferedReader reader;
+        private String pending;
+        private List<String> names;
+        private long line;
+
+        CsvParser(Inputs inputs) {
+            this.inputs = inputs;
+        }
+
+        @Override
+        boolean prepare() throws IOException {
+            if (channels > 0) {
+                return true;
+            }
+            pending = nextLine();
+            if (pending == null) {
+                return false;
+            }
+            channels = split(pending).size();
+            return true;
+        }
+
+        @Override
+        boolean fill(Batch batch) throws IOException {
+            int frames = 0;
+            while (frames < batchFrames) {
+                String text = pending != null ? pending : nextLine();
+                pending = null;
+                if (text == null) {
+                    break;
+                }
+                List<String> fields = split(text);
+                if (fields.size() != channels) {
+                    throw new IllegalArgumentException("Line " + line + " has " + fields.size()
+                            + " fields, expected " + channels);
+                }
+                for (int c = 0; c < channels; c++) {
+                    put(target(batch, c), elementIndex(frames, c), fields.get(c));
+                }
+                frames++;
+            }
+            batch.frames = frames;
+            batch.names = channelLabels != null ? channelLabels : names;
+            return frames > 0;
+        }
+
+        private String nextLine() throws IOException {
+            while (true) {
+                if (reader == null) {
+                    ReadableByteChannel channel = inputs.next();
+                    if (channel == null) {
+                        return null;
+                    }
+                    reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                            StandardCharsets.UTF_8));
+                    line = 0;
+                    if (header) {
+                        String first = reader.readLine();
+                        line++;
+                        if (first != null && names == null) {
+                            names = split(first);
+                        }
+                    }
+                }
+                String text = reader.readLine();
+                line++;
+                if (text == null) {
+                    // the channel is closed by the inputs or the caller
+                    reader = null;
+                } else if (!text.trim().isEmpty()) {
+                    return text;
+                }
+            }
+        }
+
+        private List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            int start = 0;
+            for (int i = 0; i <= text.length(); i++) {
+                if (i == text.length() || text.charAt(i) == delimiter) {
+                    fields.add(text.substring(start, i).trim());
+                    start = i + 1;
+                }
+            }
+            return fields;
+        }
+
+        private void put(ByteBuffer target, int index, String field) {
+            try {
+                switch (dataType) {
+                    case DataType.Double:
+                        target.putDouble(index * 8, field.isEmpty() ? Double.NaN : Double.parseDouble(field));
+                        break;
+                    case DataType.Float:
+                        target.putFloat(index * 4, field.isEmpty() ? Float.NaN : Float.parseFloat(field));
+                        break;
+                    case DataType.Int64:
+                    case DataType.UInt64:
+                        target.putLong(index * 8, Long.parseLong(field));
+                        break;
+                    case DataType.Int32:
+                    case DataType.UInt32:
+                        target.putInt(index * 4, (int) Long.parseLong(field));
+                        break;
+                    case DataType.Int16:
+                    case DataType.UInt16:
+                        target.putShort(index * 2, (short) Long.parseLong(field));
+                        break;
+                    default:
+                        target.put(index, (byte) Long.parseLong(field));
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + line + " has an invalid value '" + field + "'", e);
+            }
+        }
+    }
+
+    //--------------------------------------------------
+    // Writing
+    //--------------------------------------------------
+
+    private class Writer {
+        private final Block block;
+        private final String name;
+        private final String type;
+        private final List<DataArray> arrays = new ArrayList<>();
+        private int channels;
+        private int frames;
+
+        Writer(Block block, String name, String type) {
+            this.block = block;
+            this.name = name;
+            this.type = type;
+        }
+
+        void write(Batch batch) {
+            if (arrays.isEmpty()) {
+                channels = batch.channels;
+                create(batch);
+            } else {
+                for (DataArray array : arrays) {
+                    array.setDataExtent(new NDSize(shape(frames + batch.frames)));
+                }
+            }
+
+            NDSize count = new NDSize(shape(batch.frames));
+            NDSize offset = new NDSize(layout == Layout.MATRIX ? new int[]{frames, 0} : new int[]{frames});
+            for (int i = 0; i < arrays.size(); i++) {
+                arrays.get(i).setData(batch.buffers[i], dataType, count, offset);
+            }
+            frames += batch.frames;
+        }
+
+        private int[] shape(int frames) {
+            return layout == Layout.MATRIX ? new int[]{frames, channels} : new int[]{frames};
+        }
+
+        private void create(Batch batch) {
+            List<String> names = batch.names;
+            if (names != null && names.size() != channels) {
+                throw new IllegalArgumentException("Expected " + channels + " channel labels");
+            }
+            if (layout == Layout.MATRIX) {
+                DataArray array = createArray(name, batch.frames);
+                if (names != null) {
+                    array.appendSetDimension().setLabels(names);
+                } else {
+                    array.appendSetDimension();
+                }
+            } else {
+                for (int c = 0; c < channels; c++) {
+                    createArray(name + "_" + (names != null ? names.get(c) : Integer.toString(c)), batch.frames);
+                }
+            }
+        }
+
+        private DataArray createArray(String arrayName, int frames) {
+            DataArray array = block.createDataArray(arrayName, type, dataType, new NDSize(shape(frames)));
+            if (array == null) {
+                throw new IllegalArgumentException("Could not create DataArray " + arrayName);
+            }
+            array.setLabel(label);
+            array.setUnit(unit);
+            if (samplingInterval > 0) {
+                SampledDimension dim = array.appendSampledDimension(samplingInterval);
+                dim.setUnit(samplingUnit);
+                if (offset != 0.0) {
+                    dim.setOffset(offset);
+                }
+            } else {
+                array.appendSetDimension();
+            }
+            arrays.add(array);
+            return array;
+        }
+    }
+}
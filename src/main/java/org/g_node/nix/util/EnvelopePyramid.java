@@ -0,0 +1,515 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.Dimension;
+import org.g_node.nix.DimensionType;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.Property;
+import org.g_node.nix.SampledDescriptor;
+import org.g_node.nix.SampledDimension;
+import org.g_node.nix.Section;
+import org.g_node.nix.Value;
+import org.g_node.nix.internal.DataChanges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * <h1>EnvelopePyramid</h1>
+ * Persistent multi-resolution min/max/mean summary of a signal for fast plotting.
+ * <p>
+ * Every level of the pyramid is a DataArray of shape <tt>{bins, 3}</tt> in the same {@link Block}
+ * as the signal, holding minimum, maximum and mean of consecutive bins. The first level
+ * summarizes <tt>factor</tt> samples per bin, every following level <tt>factor</tt> bins of the
+ * level below. The signal is read only once, higher levels are computed from the level below.
+ * <p>
+ * The levels are linked to the signal through a metadata {@link Section} of type
+ * {@link EnvelopePyramid#SECTION_TYPE}, which allows to {@link EnvelopePyramid#open(Block, DataArray)}
+ * an existing pyramid later.
+ * <pre><code>
+ *     DataArray signal = ...;
+ *     EnvelopePyramid pyramid = EnvelopePyramid.build(file, block, signal, 8);
+ *     EnvelopePyramid.Envelope env = pyramid.envelope(0.0, 3600.0, 1920);
+ * </code></pre>
+ * Only complete bins are stored. Writes to the signal mark the pyramid stale, the next query
+ * extends the levels to appended data and recomputes the bins of overwritten samples and all
+ * bins after them. {@link EnvelopePyramid#update()} does the same eagerly.
+ *
+ * @see SampledDimension
+ */
+public class EnvelopePyramid {
+
+    /**
+     * Type of the DataArrays that hold the levels of a pyramid.
+     */
+    public static final String LEVEL_TYPE = "nix.envelope.level";
+
+    /**
+     * Type of the section that links the levels to the signal.
+     */
+    public static final String SECTION_TYPE = "nix.envelope.pyramid";
+
+    private static final List<String> LABELS = Arrays.asList("min", "max", "mean");
+    private static final int CHUNK_BINS = 1 << 16;
+
+    // all pyramids, for invalidation
+    private static final Set<EnvelopePyramid> PYRAMIDS = Collections.newSetFromMap(new WeakHashMap<>());
+
+    static {
+        DataChanges.register(EnvelopePyramid::dataChanged);
+    }
+
+    private final Block block;
+    private final DataArray source;
+    private final String sourceId;
+    private final SampledDescriptor dimension;
+    private final Section section;
+    private final int factor;
+    private final List<DataArray> levels;
+
+    // set by writes to the signal, staleFrom is the first overwritten sample
+    private boolean stale;
+    private long staleFrom = Long.MAX_VALUE;
+
+    /**
+     * Summary of a range of a signal, one entry per bin.
+     */
+    public static class Envelope {
+        private final double[] positions;
+        private final double[] min;
+        private final double[] max;
+        private final double[] mean;
+        private final long binSize;
+
+        Envelope(double[] positions, double[] min, double[] max, double[] mean, long binSize) {
+            this.positions = positions;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.binSize = binSize;
+        }
+
+        /**
+         * Get the start positions of the bins.
+         *
+         * @return The positions in the unit of the signal's dimension.
+         */
+        public double[] getPositions() {
+            return positions;
+        }
+
+        /**
+         * Get the minimum of each bin.
+         *
+         * @return The minima.
+         */
+        public double[] getMin() {
+            return min;
+        }
+
+        /**
+         * Get the maximum of each bin.
+         *
+         * @return The maxima.
+         */
+        public double[] getMax() {
+            return max;
+        }
+
+        /**
+         * Get the mean of each bin.
+         *
+         * @return The means.
+         */
+        public double[] getMean() {
+            return mean;
+        }
+
+        /**
+         * Get the number of signal samples per bin.
+         *
+         * @return The bin size, 1 if raw samples are returned.
+         */
+        public long getBinSize() {
+            return binSize;
+        }
+    }
+
+    private EnvelopePyramid(Block block, DataArray source, Section section, int factor, List<DataArray> levels) {
+        this.block = block;
+        this.source = source;
+        this.sourceId = source.getId();
+        this.dimension = sampledDimension(source).getDescriptor();
+        this.section = section;
+        this.factor = factor;
+        this.levels = levels;
+        synchronized (PYRAMIDS) {
+            PYRAMIDS.add(this);
+        }
+    }
+
+    //--------------------------------------------------
+    // Creation
+    //--------------------------------------------------
+
+    /**
+     * Builds a new pyramid for a signal.
+     *
+     * @param file   The file, used to create the metadata section.
+     * @param block  The block in which the levels are created.
+     * @param source The signal, a one dimensional DataArray with a sampled dimension.
+     * @param factor The reduction factor between the levels, between 2 and 16.
+     * @return The pyramid.
+     */
+    public static EnvelopePyramid build(File file, Block block, DataArray source, int factor) {
+        if (factor < 2 || factor > 16) {
+            throw new IllegalArgumentException("Factor must be between 2 and 16");
+        }
+        sampledDimension(source);
+
+        Section section = file.createSection("envelope." + source.getId(), SECTION_TYPE);
+        section.createProperty("source", new Value(source.getId()));
+        section.createProperty("factor", new Value(factor));
+
+        EnvelopePyramid pyramid = new EnvelopePyramid(block, source, section, factor, new ArrayList<>());
+        pyramid.update();
+        return pyramid;
+    }
+
+    /**
+     * Opens an existing pyramid of a signal.
+     *
+     * @param block  The block holding the levels.
+     * @param source The signal.
+     * @return The pyramid or <tt>null</tt> if no pyramid exists for the signal.
+     */
+    public static EnvelopePyramid open(Block block, DataArray source) {
+        for (DataArray array : block.getDataArrays(da -> LEVEL_TYPE.equals(da.getType()))) {
+            Section section = array.getMetadata();
+            if (section == null || !SECTION_TYPE.equals(section.getType())) {
+                continue;
+            }
+            Property property = section.getProperty("source");
+            if (property == null || !source.getId().equals(property.getValues().get(0).getString())) {
+                continue;
+            }
+
+            int factor = section.getProperty("factor").getValues().get(0).getInt();
+            List<DataArray> levels = new ArrayList<>();
+            for (int k = 0; ; k++) {
+                Property level = section.getProperty("level." + k);
+                if (level == null) {
+                    break;
+                }
+                DataArray levelArray = block.getDataArray(level.getValues().get(0).getString());
+                if (levelArray == null) {
+                    break;
+                }
+                levels.add(levelArray);
+            }
+            return new EnvelopePyramid(block, source, section, factor, levels);
+        }
+        return null;
+    }
+
+    //--------------------------------------------------
+    // Getters
+    //--------------------------------------------------
+
+    /**
+     * Get the reduction factor between the levels.
+     *
+     * @return The factor.
+     */
+    public int getFactor() {
+        return factor;
+    }
+
+    /**
+     * Get the number of levels.
+     *
+     * @return The number of levels.
+     */
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Get the DataArray of a level.
+     *
+     * @param level The level, 0 is the finest.
+     * @return The DataArray holding the level.
+     */
+    public DataArray getLevel(int level) {
+        return levels.get(level);
+    }
+
+    /**
+     * Get the number of signal samples per bin of a level.
+     *
+     * @param level The level, 0 is the finest.
+     * @return The bin size.
+     */
+    public long getBinSize(int level) {
+        long size = factor;
+        for (int k = 0; k < level; k++) {
+            size *= factor;
+        }
+        return size;
+    }
+
+    /**
+     * Get the metadata section linking the levels to the signal.
+     *
+     * @return The section.
+     */
+    public Section getSection() {
+        return section;
+    }
+
+    //--------------------------------------------------
+    // Building
+    //--------------------------------------------------
+
+    /**
+     * Extends the pyramid to the current extent of the signal.
+     * <p>
+     * Only the bins that are not yet stored or that cover overwritten samples are computed,
+     * levels are added as required.
+     */
+    public void update() {
+        long changed;
+        synchronized (this) {
+            changed = staleFrom;
+            stale = false;
+            staleFrom = Long.MAX_VALUE;
+        }
+
+        long below = sourceLength();
+        // drop the bins of overwritten samples and of samples the signal no longer has
+        long valid = Math.min(changed, below);
+        for (int k = 0; k < levels.size(); k++) {
+            long keep = valid / getBinSize(k);
+            if (rows(levels.get(k)) > keep) {
+                levels.get(k).setDataExtent(new NDSize(new int[]{(int) keep, 3}));
+            }
+        }
+
+        for (int k = 0; ; k++) {
+            long target = below / factor;
+            if (k >= levels.size()) {
+                if (k > 0 && target == 0) {
+                    break;
+                }
+                levels.add(createLevel(k));
+            }
+
+            DataArray level = levels.get(k);
+            long have = rows(level);
+            if (target > have) {
+                level.setDataExtent(new NDSize(new int[]{(int) target, 3}));
+                for (long row = have; row < target; row += CHUNK_BINS) {
+                    int bins = (int) Math.min(CHUNK_BINS, target - row);
+                    double[] out = k == 0 ? reduceSource(row, bins) : reduceLevel(levels.get(k - 1), row, bins);
+                    level.setData(out, new NDSize(new int[]{bins, 3}), new NDSize(new int[]{(int) row, 0}));
+                }
+            }
+
+            below = target;
+            if (below < factor && k + 1 >= levels.size()) {
+                break;
+            }
+        }
+    }
+
+    private synchronized boolean isStale() {
+        return stale;
+    }
+
+    private synchronized void markStale(long firstRow, long rowCount) {
+        stale = true;
+        // a signal is one dimensional, so only a new extent reports all rows, which keeps the
+        // samples below the new extent
+        if (firstRow > 0 || rowCount != Long.MAX_VALUE) {
+            staleFrom = Math.min(staleFrom, firstRow);
+        }
+    }
+
+    private static void dataChanged(DataArray array, long firstRow, long rowCount) {
+        List<EnvelopePyramid> pyramids;
+        synchronized (PYRAMIDS) {
+            // no native call unless some pyramid exists
+            if (PYRAMIDS.isEmpty()) {
+                return;
+            }
+            pyramids = new ArrayList<>(PYRAMIDS);
+        }
+        // the written file is not known, a signal with the same id in another file marks the
+        // pyramid stale as well, which only costs a check of the levels
+        String arrayId = array.getId();
+        for (EnvelopePyramid pyramid : pyramids) {
+            if (pyramid.sourceId.equals(arrayId)) {
+                pyramid.markStale(firstRow, rowCount);
+            }
+        }
+    }
+
+    private DataArray createLevel(int k) {
+        long binSize = getBinSize(k);
+        DataArray level = block.createDataArray(source.getName() + ".envelope." + binSize, LEVEL_TYPE,
+                DataType.Double, new NDSize(new int[]{0, 3}));
+
+        SampledDimension dim = level.appendSampledDimension(dimension.getSamplingInterval() * binSize);
+        dim.setOffset(dimension.getOffset());
+        dim.setUnit(dimension.getUnit());
+        dim.setLabel(dimension.getLabel());
+        level.appendSetDimension().setLabels(LABELS);
+
+        level.setMetadata(section);
+        section.createProperty("level." + k, new Value(level.getId()));
+        return level;
+    }
+
+    private double[] reduceSource(long row, int bins) {
+        double[] data = new double[bins * factor];
+        source.getData(data, new NDSize(new int[]{data.length}), new NDSize(new int[]{(int) (row * factor)}));
+
+        double[] out = new double[bins * 3];
+        for (int b = 0; b < bins; b++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0.0;
+            for (int i = b * factor; i < (b + 1) * factor; i++) {
+                min = Math.min(min, data[i]);
+                max = Math.max(max, data[i]);
+                sum += data[i];
+            }
+            out[3 * b] = min;
+            out[3 * b + 1] = max;
+            out[3 * b + 2] = sum / factor;
+        }
+        return out;
+    }
+
+    private double[] reduceLevel(DataArray below, long row, int bins) {
+        double[] data = new double[bins * factor * 3];
+        below.getData(data, new NDSize(new int[]{bins * factor, 3}), new NDSize(new int[]{(int) (row * factor), 0}));
+
+        double[] out = new double[bins * 3];
+        for (int b = 0; b < bins; b++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0.0;
+            for (int i = b * factor; i < (b + 1) * factor; i++) {
+                min = Math.min(min, data[3 * i]);
+                max = Math.max(max, data[3 * i + 1]);
+                sum += data[3 * i + 2];
+            }
+            out[3 * b] = min;
+            out[3 * b + 1] = max;
+            out[3 * b + 2] = sum / factor;
+        }
+        return out;
+    }
+
+    //--------------------------------------------------
+    // Queries
+    //--------------------------------------------------
+
+    /**
+     * Returns the envelope of a range of the signal.
+     * <p>
+     * The coarsest level that still has at least <tt>pixels</tt> bins within the range is used,
+     * hence between <tt>pixels</tt> and <tt>pixels * factor</tt> bins are returned. If no level is
+     * fine enough the raw samples are returned. Samples after the last complete bin of a level
+     * are not covered by that level. A stale pyramid is updated first.
+     *
+     * @param start  The start position in the unit of the signal's dimension.
+     * @param end    The end position in the unit of the signal's dimension.
+     * @param pixels The number of pixels that have to be filled.
+     * @return The envelope.
+     */
+    public Envelope envelope(double start, double end, int pixels) {
+        if (pixels <= 0) {
+            throw new IllegalArgumentException("Number of pixels must be positive");
+        }
+        if (isStale()) {
+            update();
+        }
+
+        long length = sourceLength();
+        double interval = dimension.getSamplingInterval();
+        long first = Math.max(0, (long) Math.floor((start - dimension.getOffset()) / interval));
+        long last = Math.min(length, (long) Math.ceil((end - dimension.getOffset()) / interval));
+        if (last <= first) {
+            return new Envelope(new double[0], new double[0], new double[0], new double[0], 1);
+        }
+
+        int level = -1;
+        for (int k = 0; k < levels.size(); k++) {
+            if (getBinSize(k) * pixels <= last - first && rows(levels.get(k)) > 0) {
+                level = k;
+            }
+        }
+
+        if (level < 0) {
+            int count = (int) (last - first);
+            double[] data = new double[count];
+            source.getData(data, new NDSize(new int[]{count}), new NDSize(new int[]{(int) first}));
+            return new Envelope(dimension.getAxis(count, first), data, data.clone(), data.clone(), 1);
+        }
+
+        DataArray array = levels.get(level);
+        long binSize = getBinSize(level);
+        long rowFirst = first / binSize;
+        long rowLast = Math.min(rows(array), (last + binSize - 1) / binSize);
+        int count = (int) Math.max(0, rowLast - rowFirst);
+
+        double[] data = new double[count * 3];
+        if (count > 0) {
+            array.getData(data, new NDSize(new int[]{count, 3}), new NDSize(new int[]{(int) rowFirst, 0}));
+        }
+
+        double[] positions = new double[count];
+        double[] min = new double[count];
+        double[] max = new double[count];
+        double[] mean = new double[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = dimension.getPositionAt((rowFirst + i) * binSize);
+            min[i] = data[3 * i];
+            max[i] = data[3 * i + 1];
+            mean[i] = data[3 * i + 2];
+        }
+        return new Envelope(positions, min, max, mean, binSize);
+    }
+
+    //--------------------------------------------------
+    // Helpers
+    //--------------------------------------------------
+
+    private long sourceLength() {
+        return source.getDataExtent().getData()[0];
+    }
+
+    private static long rows(DataArray level) {
+        return level.getDataExtent().getData()[0];
+    }
+
+    private static SampledDimension sampledDimension(DataArray source) {
+        if (source.getDataExtent().getData().length != 1) {
+            throw new IllegalArgumentException("Signal must be one dimensional");
+        }
+        Dimension dim = source.getDimension(1);
+        if (dim == null || dim.getDimensionType() != DimensionType.Sample) {
+            throw new IllegalArgumentException("Signal must be described by a SampledDimension");
+        }
+        return dim.asSampledDimension();
+    }
+}
@@ -0,0 +1,742 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.DataType;
+import org.g_node.nix.File;
+import org.g_node.nix.Property;
+import org.g_node.nix.Section;
+import org.g_node.nix.Value;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>MetadataTree</h1>
+ * Bulk import and streaming export of Section/Property trees as nested maps or JSON.
+ * <p>
+ * A tree maps section names to sections. Within a section, nested maps are subsections and
+ * all other entries are properties. A property value is a string, number, boolean or a list of
+ * one of these; integral numbers are stored as 64 bit integers. Keys starting with <tt>@</tt>
+ * are reserved: <tt>@type</tt> and <tt>@definition</tt> of a section, and the object form
+ * <tt>{"@value": ..., "@unit": ..., "@definition": ...}</tt> of a property. Sections without a
+ * type get {@link MetadataTree#DEFAULT_TYPE}.
+ * <pre><code>
+ *     {
+ *       "recording": {
+ *         "@type": "nix.recording",
+ *         "channels": [1, 2, 3],
+ *         "gain": {"@value": 2.5, "@unit": "dB"},
+ *         "amplifier": {"@type": "hardware", "model": "X-100"}
+ *       }
+ *     }
+ * </code></pre>
+ * JSON is parsed while it is read and every section and property is created as soon as it is
+ * complete, the values of a property are allocated in one native vector. The export writes
+ * the tree while it is traversed, one level of sections at a time.
+ * <pre><code>
+ *     List&lt;Section&gt; sections = MetadataTree.importJson(file, new FileReader("metadata.json"));
+ *     MetadataTree.exportJson(sections.get(0), new FileWriter("recording.json"));
+ * </code></pre>
+ *
+ * @see Section
+ * @see Property
+ */
+public final class MetadataTree {
+
+    /**
+     * Type of sections without an <tt>@type</tt> entry.
+     */
+    public static final String DEFAULT_TYPE = "nix.section";
+
+    private static final String TYPE = "@type";
+    private static final String DEFINITION = "@definition";
+    private static final String VALUE = "@value";
+    private static final String UNIT = "@unit";
+
+    private MetadataTree() {
+    }
+
+    //--------------------------------------------------
+    // Import
+    //--------------------------------------------------
+
+    /**
+     * Creates top-level sections of a file from a nested map.
+     *
+     * @param file The file.
+     * @param tree The map of section names to sections.
+     * @return The created sections.
+     */
+    public static List<Section> importMap(File file, Map<String, ?> tree) {
+        return importMap(new Builder(file, null), tree);
+    }
+
+    /**
+     * Creates subsections of a section from a nested map.
+     *
+     * @param parent The parent section.
+     * @param tree   The map of section names to sections.
+     * @return The created sections.
+     */
+    public static List<Section> importMap(Section parent, Map<String, ?> tree) {
+        return importMap(new Builder(null, parent), tree);
+    }
+
+    /**
+     * Creates top-level sections of a file from JSON. The reader is not closed.
+     *
+     * @param file The file.
+     * @param json The JSON object of section names to sections.
+     * @return The created sections.
+     */
+    public static List<Section> importJson(File file, Reader json) {
+        return importJson(new Builder(file, null), json);
+    }
+
+    /**
+     * Creates subsections of a section from JSON. The reader is not closed.
+     *
+     * @param parent The parent section.
+     * @param json   The JSON object of section names to sections.
+     * @return The created sections.
+     */
+    public static List<Section> importJson(Section parent, Reader json) {
+        return importJson(new Builder(null, parent), json);
+    }
+
+    private static List<Section> importMap(Builder builder, Map<String, ?> tree) {
+        for (Map.Entry<String, ?> entry : tree.entrySet()) {
+            if (!(entry.getValue() instanceof Map)) {
+                throw new IllegalArgumentException("Entry " + entry.getKey() + " is not a section");
+            }
+            builder.beginSection(entry.getKey());
+            importEntries(builder, (Map<?, ?>) entry.getValue());
+            builder.endSection();
+        }
+        return builder.created;
+    }
+
+    private static void importEntries(Builder builder, Map<?, ?> section) {
+        for (Map.Entry<?, ?> entry : section.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            Object value = entry.getValue();
+            if (key.equals(TYPE) || key.equals(DEFINITION)) {
+                builder.attribute(key, (String) value);
+            } else if (value instanceof Map && !((Map<?, ?>) value).containsKey(VALUE)) {
+                builder.beginSection(key);
+                importEntries(builder, (Map<?, ?>) value);
+                builder.endSection();
+            } else if (value instanceof Map) {
+                Map<?, ?> property = (Map<?, ?>) value;
+                builder.property(key, property.get(VALUE), (String) property.get(UNIT), (String) property.get(DEFINITION));
+            } else {
+                builder.property(key, value, null, null);
+            }
+        }
+    }
+
+    private static List<Section> importJson(Builder builder, Reader json) {
+        try {
+            JsonReader reader = new JsonReader(json);
+            reader.expect('{');
+            if (!reader.consume('}')) {
+                do {
+                    builder.beginSection(reader.readString());
+                    reader.expect(':');
+                    reader.expect('{');
+                    readSection(reader, builder);
+                    builder.endSection();
+                } while (reader.consume(','));
+                reader.expect('}');
+            }
+            reader.expectEnd();
+            return builder.created;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // reads the entries of a section after its opening brace
+    private static void readSection(JsonReader reader, Builder builder) throws IOException {
+        if (reader.consume('}')) {
+            return;
+        }
+        do {
+            String key = reader.readString();
+            reader.expect(':');
+            if (key.equals(TYPE) || key.equals(DEFINITION)) {
+                builder.attribute(key, reader.readString());
+            } else if (reader.consume('{')) {
+                readObject(reader, builder, key);
+            } else {
+                builder.property(key, reader.readValue(), null, null);
+            }
+        } while (reader.consume(','));
+        reader.expect('}');
+    }
+
+    // reads an object after its opening brace, which is either a subsection or a property in object form
+    private static void readObject(JsonReader reader, Builder builder, String name) throws IOException {
+        Object value = null;
+        String unit = null;
+        String definition = null;
+        boolean property = false;
+        if (!reader.consume('}')) {
+            do {
+                String key = reader.readString();
+                reader.expect(':');
+                if (key.equals(VALUE)) {
+                    value = reader.readValue();
+                    property = true;
+                } else if (key.equals(UNIT)) {
+                    unit = reader.readString();
+                    property = true;
+                } else if (key.equals(DEFINITION)) {
+                    definition = reader.readString();
+                } else if (property) {
+                    throw reader.error("Unexpected key " + key + " in property " + name);
+                } else {
+                    // the object is a section, stream the remaining entries into it
+                    builder.beginSection(name);
+                    if (definition != null) {
+                        builder.attribute(DEFINITION, definition);
+                    }
+                    if (key.equals(TYPE)) {
+                        builder.attribute(TYPE, reader.readString());
+                    } else if (reader.consume('{')) {
+                        readObject(reader, builder, key);
+                    } else {
+                        builder.property(key, reader.readValue(), null, null);
+                    }
+                    if (reader.consume(',')) {
+                        readSection(reader, builder);
+                    } else {
+                        reader.expect('}');
+                    }
+                    builder.endSection();
+                    return;
+                }
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+        if (property) {
+            builder.property(name, value, unit, definition);
+        } else {
+            // empty section or one with a definition only
+            builder.beginSection(name);
+            if (definition != null) {
+                builder.attribute(DEFINITION, definition);
+            }
+            builder.endSection();
+        }
+    }
+
+    /**
+     * Creates sections lazily, so that a leading <tt>@type</tt> is used on creation.
+     */
+    private static final class Builder {
+        private final File file;
+        private final List<Pending> stack = new ArrayList<>();
+        private final List<Section> created = new ArrayList<>();
+
+        private static final class Pending {
+            final String name;
+            String type;
+            String definition;
+            Section section;
+
+            Pending(String name, Section section) {
+                this.name = name;
+                this.section = section;
+            }
+        }
+
+        Builder(File file, Section parent) {
+            this.file = file;
+            if (parent != null) {
+                stack.add(new Pending(parent.getName(), parent));
+            }
+        }
+
+        void beginSection(String name) {
+            if (!stack.isEmpty()) {
+                ensureCreated();
+            }
+            stack.add(new Pending(name, null));
+        }
+
+        void attribute(String key, String value) {
+            Pending top = stack.get(stack.size() - 1);
+            if (top.section == null) {
+                if (key.equals(TYPE)) {
+                    top.type = value;
+                } else {
+                    top.definition = value;
+                }
+            } else if (key.equals(TYPE)) {
+                top.section.setType(value);
+            } else {
+                top.section.setDefinition(value);
+            }
+        }
+
+        void property(String name, Object value, String unit, String definition) {
+            Section section = ensureCreated();
+            Property property = createProperty(section, name, value);
+            if (property == null) {
+                throw new IllegalArgumentException("Could not create property " + name);
+            }
+            if (unit != null) {
+                property.setUnit(unit);
+            }
+            if (definition != null) {
+                property.setDefinition(definition);
+            }
+        }
+
+        void endSection() {
+            ensureCreated();
+            stack.remove(stack.size() - 1);
+        }
+
+        private Section ensureCreated() {
+            Pending top = stack.get(stack.size() - 1);
+            if (top.section == null) {
+                String type = top.type != null ? top.type : DEFAULT_TYPE;
+                if (stack.size() == 1) {
+                    top.section = file.createSection(top.name, type);
+                    created.add(top.section);
+                } else {
+                    top.section = stack.get(stack.size() - 2).section.createSection(top.name, type);
+                    if (stack.size() == 2 && file == null) {
+                        created.add(top.section);
+                    }
+                }
+                if (top.section == null) {
+                    throw new IllegalArgumentException("Could not create section " + top.name);
+                }
+                if (top.definition != null) {
+                    top.section.setDefinition(top.definition);
+                }
+            }
+            return top.section;
+        }
+    }
+
+    private static Property createProperty(Section section, String name, Object value) {
+        List<?> values = value instanceof List ? (List<?>) value : Collections.singletonList(value);
+        if (values.isEmpty()) {
+            return section.createProperty(name, DataType.Double);
+        }
+
+        Object first = values.get(0);
+        if (first instanceof String) {
+            String[] strings = new String[values.size()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = (String) check(values.get(i), String.class, name);
+            }
+            return section.createProperty(name, strings);
+        }
+        if (first instanceof Boolean) {
+            boolean[] booleans = new boolean[values.size()];
+            for (int i = 0; i < booleans.length; i++) {
+                booleans[i] = (Boolean) check(values.get(i), Boolean.class, name);
+            }
+            return section.createProperty(name, booleans);
+        }
+        boolean integral = true;
+        for (Object v : values) {
+            Number number = (Number) check(v, Number.class, name);
+            integral &= number instanceof Long || number instanceof Integer
+                    || number instanceof Short || number instanceof Byte;
+        }
+        if (integral) {
+            long[] longs = new long[values.size()];
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = ((Number) values.get(i)).longValue();
+            }
+            return section.createProperty(name, longs);
+        }
+        double[] doubles = new double[values.size()];
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = ((Number) values.get(i)).doubleValue();
+        }
+        return section.createProperty(name, doubles);
+    }
+
+    private static Object check(Object value, Class<?> type, String name) {
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException("Values of property " + name + " must all be of type "
+                    + type.getSimpleName());
+        }
+        return value;
+    }
+
+    //--------------------------------------------------
+    // Export
+    //--------------------------------------------------
+
+    /**
+     * Writes a section and its subtree as JSON. The writer is not closed.
+     *
+     * @param section The section.
+     * @param out     The writer.
+     */
+    public static void exportJson(Section section, Writer out) {
+        exportJson(Collections.singletonList(section), out);
+    }
+
+    /**
+     * Writes all top-level sections of a file and their subtrees as JSON. The writer is not closed.
+     * Internal sections, see {@link MetadataTree#isInternal(Section)}, are left out.
+     *
+     * @param file The file.
+     * @param out  The writer.
+     */
+    public static void exportJson(File file, Writer out) {
+        List<Section> sections = new ArrayList<>();
+        for (Section section : file.getSections()) {
+            if (!isInternal(section)) {
+                sections.add(section);
+            }
+        }
+        exportJson(sections, out);
+    }
+
+    /**
+     * Checks whether a section is used internally by the utilities rather than holding metadata,
+     * i.e. the sections of stored {@link Statistics} and of {@link EnvelopePyramid}s.
+     *
+     * @param section The section.
+     * @return True for internal sections.
+     */
+    public static boolean isInternal(Section section) {
+        String type = section.getType();
+        return Statistics.SECTION_TYPE.equals(type) || EnvelopePyramid.SECTION_TYPE.equals(type);
+    }
+
+    private static void exportJson(List<Section> sections, Writer out) {
+        try {
+            out.write('{');
+            for (int i = 0; i < sections.size(); i++) {
+                out.write(i == 0 ? "\n" : ",\n");
+                writeSection(sections.get(i), out, 1);
+            }
+            out.write(sections.isEmpty() ? "}\n" : "\n}\n");
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeSection(Section section, Writer out, int depth) throws IOException {
+        indent(out, depth);
+        writeString(section.getName(), out);
+        out.write(": {\n");
+        indent(out, depth + 1);
+        writeString(TYPE, out);
+        out.write(": ");
+        writeString(section.getType(), out);
+        if (section.getDefinition() != null) {
+            out.write(",\n");
+            indent(out, depth + 1);
+            writeString(DEFINITION, out);
+            out.write(": ");
+            writeString(section.getDefinition(), out);
+        }
+
+        for (Property property : section.getProperties()) {
+            out.write(",\n");
+            indent(out, depth + 1);
+            writeString(property.getName(), out);
+            out.write(": ");
+            String unit = property.getUnit();
+            String definition = property.getDefinition();
+            if (unit == null && definition == null) {
+                writeValues(property, out);
+            } else {
+                out.write('{');
+                writeString(VALUE, out);
+                out.write(": ");
+                writeValues(property, out);
+                if (unit != null) {
+                    out.write(", ");
+                    writeString(UNIT, out);
+                    out.write(": ");
+                    writeString(unit, out);
+                }
+                if (definition != null) {
+                    out.write(", ");
+                    writeString(DEFINITION, out);
+                    out.write(": ");
+                    writeString(definition, out);
+                }
+                out.write('}');
+            }
+        }
+
+        for (Section child : section.getSections()) {
+            out.write(",\n");
+            writeSection(child, out, depth + 1);
+        }
+        out.write('\n');
+        indent(out, depth);
+        out.write('}');
+    }
+
+    private static void writeValues(Property property, Writer out) throws IOException {
+        int dataType = property.getDataType();
+        List<Value> values = property.getValues();
+        if (values.size() != 1) {
+            out.write('[');
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(", ");
+            }
+            Value value = values.get(i);
+            switch (dataType) {
+                case DataType.Bool:
+                    out.write(Boolean.toString(value.getBoolean()));
+                    break;
+                case DataType.String:
+                    writeString(value.getString(), out);
+                    break;
+                case DataType.Float:
+                case DataType.Double:
+                    double d = value.getDouble();
+                    if (Double.isNaN(d) || Double.isInfinite(d)) {
+                        throw new IllegalArgumentException("Property " + property.getName() + " is not finite");
+                    }
+                    // always contains a '.' or an exponent, so the value is read back as double
+                    out.write(Double.toString(d));
+                    break;
+                case DataType.Int32:
+                case DataType.Int16:
+                case DataType.Int8:
+                case DataType.UInt8:
+                case DataType.UInt16:
+                    out.write(Integer.toString(value.getInt()));
+                    break;
+                default:
+                    out.write(Long.toString(value.getLong()));
+                    break;
+            }
+        }
+        if (values.size() != 1) {
+            out.write(']');
+        }
+    }
+
+    private static void indent(Writer out, int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            out.write("  ");
+        }
+    }
+
+    private static void writeString(String s, Writer out) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    //--------------------------------------------------
+    // JSON reader
+    //--------------------------------------------------
+
+    /**
+     * Minimal pull parser for the subset of JSON used by the trees.
+     */
+    private static final class JsonReader {
+        private final Reader in;
+        private int peeked = -2;
+        private long position;
+
+        JsonReader(Reader in) {
+            this.in = in;
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = in.read();
+            }
+            return peeked;
+        }
+
+        private int read() throws IOException {
+            int c = peek();
+            peeked = -2;
+            position++;
+            return c;
+        }
+
+        private int peekToken() throws IOException {
+            while (true) {
+                int c = peek();
+                if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    read();
+                } else {
+                    return c;
+                }
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at character " + position);
+        }
+
+        void expect(char c) throws IOException {
+            if (peekToken() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            read();
+        }
+
+        boolean consume(char c) throws IOException {
+            if (peekToken() == c) {
+                read();
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() throws IOException {
+            if (peekToken() != -1) {
+                throw error("Unexpected content after the end");
+            }
+        }
+
+        String readString() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    throw error("Unterminated string");
+                } else if (c == '"') {
+                    return sb.toString();
+                } else if (c == '\\') {
+                    int e = read();
+                    switch (e) {
+                        case 'b':
+                            sb.append('\b');
+                            break;
+                        case 'f':
+                            sb.append('\f');
+                            break;
+                        case 'n':
+                            sb.append('\n');
+                            break;
+                        case 'r':
+                            sb.append('\r');
+                            break;
+                        case 't':
+                            sb.append('\t');
+                            break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for (int i = 0; i < 4; i++) {
+                                hex[i] = (char) read();
+                            }
+                            try {
+                                sb.append((char) Integer.parseInt(new String(hex), 16));
+                            } catch (NumberFormatException ex) {
+                                throw error("Invalid escape");
+                            }
+                            break;
+                        case '"':
+                        case '\\':
+                        case '/':
+                            sb.append((char) e);
+                            break;
+                        default:
+                            throw error("Invalid escape");
+                    }
+                } else {
+                    sb.append((char) c);
+                }
+            }
+        }
+
+        /**
+         * Reads a scalar or an array of scalars.
+         */
+        Object readValue() throws IOException {
+            if (consume('[')) {
+                List<Object> values = new ArrayList<>();
+                if (!consume(']')) {
+                    do {
+                        values.add(readScalar());
+                    } while (consume(','));
+                    expect(']');
+                }
+                return values;
+            }
+            return readScalar();
+        }
+
+        private Object readScalar() throws IOException {
+            int c = peekToken();
+            if (c == '"') {
+                return readString();
+            }
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                c = peek();
+                if (c == -1 || c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    break;
+                }
+                sb.append((char) read());
+            }
+            String token = sb.toString();
+            switch (token) {
+                case "true":
+                    return Boolean.TRUE;
+                case "false":
+                    return Boolean.FALSE;
+                case "":
+                case "null":
+                    throw error("Expected a value");
+                default:
+                    try {
+                        if (token.indexOf('.') < 0 && token.indexOf('e') < 0 && token.indexOf('E') < 0) {
+                            return Long.parseLong(token);
+                        }
+                        return Double.parseDouble(token);
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid value " + token);
+                    }
+            }
+        }
+    }
+}
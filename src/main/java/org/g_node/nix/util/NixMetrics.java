@@ -0,0 +1,133 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.internal.NativeEvents;
+
+/**
+ * <h1>NixMetrics</h1>
+ * Service provider interface for metrics of the bindings.
+ * <p>
+ * Installed metrics receive the file, data and validation calls of the bindings with their
+ * latency, the native objects created when listing entities and the accesses to the caches.
+ * All methods have empty defaults, so an implementation only overrides what it needs.
+ * Methods are called from the threads that call into the bindings and must be thread safe
+ * and cheap. {@link CounterMetrics} is a ready-made implementation.
+ * <p>
+ * Metrics are disabled by default and cost a single volatile read per call. They are enabled
+ * with {@link NixMetrics#install(NixMetrics)} or, with the system property
+ * <tt>org.g_node.nix.metrics=true</tt>, by the first implementation registered in
+ * <tt>META-INF/services/org.g_node.nix.util.NixMetrics</tt>.
+ * <pre><code>
+ *     CounterMetrics metrics = new CounterMetrics();
+ *     NixMetrics.install(metrics);
+ *     ...
+ *     long read = metrics.getCounter(CounterMetrics.BYTES_READ);
+ * </code></pre>
+ *
+ * @see CounterMetrics
+ */
+public interface NixMetrics {
+
+    /**
+     * Installs metrics, replacing the currently installed ones.
+     *
+     * @param metrics The metrics.
+     */
+    static void install(NixMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics must not be null");
+        }
+        NativeEvents.setMetrics(metrics);
+    }
+
+    /**
+     * Removes the installed metrics.
+     */
+    static void uninstall() {
+        NativeEvents.setMetrics(null);
+    }
+
+    /**
+     * Get the installed metrics.
+     *
+     * @return The metrics or <tt>null</tt> if none are installed.
+     */
+    static NixMetrics installed() {
+        return NativeEvents.getMetrics();
+    }
+
+    /**
+     * Called after a file was opened.
+     *
+     * @param location The path of the file.
+     * @param nanos    The duration of the call in nanoseconds.
+     */
+    default void fileOpened(String location, long nanos) {
+    }
+
+    /**
+     * Called after a file was closed.
+     *
+     * @param location The path of the file.
+     * @param nanos    The duration of the call in nanoseconds.
+     */
+    default void fileClosed(String location, long nanos) {
+    }
+
+    /**
+     * Called after data was read from a DataArray.
+     *
+     * @param array The DataArray.
+     * @param bytes The number of bytes read.
+     * @param nanos The duration of the call in nanoseconds.
+     */
+    default void dataRead(DataArray array, long bytes, long nanos) {
+    }
+
+    /**
+     * Called after data was written to a DataArray.
+     *
+     * @param array The DataArray.
+     * @param bytes The number of bytes written.
+     * @param nanos The duration of the call in nanoseconds.
+     */
+    default void dataWritten(DataArray array, long bytes, long nanos) {
+    }
+
+    /**
+     * Called after other instrumented calls, e.g. retrieving tagged data or validation.
+     *
+     * @param entity    The type of the entity, e.g. <tt>DataAccess</tt> or <tt>File</tt>.
+     * @param operation The name of the call.
+     * @param nanos     The duration of the call in nanoseconds.
+     */
+    default void called(String entity, String operation, long nanos) {
+    }
+
+    /**
+     * Called when native objects were created, e.g. when listing entities.
+     *
+     * @param type  The type of the objects.
+     * @param count The number of objects.
+     */
+    default void nativeAllocated(String type, long count) {
+    }
+
+    /**
+     * Called when native objects were released explicitly, e.g. when closing a file.
+     *
+     * @param type  The type of the objects.
+     * @param count The number of objects.
+     */
+    default void nativeFreed(String type, long count) {
+    }
+
+    /**
+     * Called on every access to one of the caches of the bindings.
+     *
+     * @param cache The name of the cache.
+     * @param hit   True if the access was served from the cache.
+     */
+    default void cacheAccessed(String cache, boolean hit) {
+    }
+}
@@ -0,0 +1,378 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.NDSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>Npy</h1>
+ * Export and import of DataArrays in the NumPy <tt>.npy</tt> format.
+ * <p>
+ * The header is generated from the data type and extent of the array. The data is streamed
+ * along the first dimension in chunks of whole rows: on export every chunk is read into a direct
+ * buffer and written to a {@link FileChannel}, on import the file is memory-mapped and every chunk
+ * is passed to the DataArray as a slice of the mapping. Neither direction copies the data through
+ * a Java array. Only C order is supported, files in another byte order than the native one are
+ * swapped chunk by chunk on import.
+ * <pre><code>
+ *     Npy.write(array, Paths.get("array.npy"));
+ *     Npy.write(array, new NDSize(new int[]{1000, 32}), new NDSize(new int[]{5000, 0}), Paths.get("slab.npy"));
+ *     DataArray imported = Npy.read(Paths.get("array.npy"), block, "imported", "nix.sampled");
+ * </code></pre>
+ *
+ * @see DataArray
+ */
+public final class Npy {
+
+    private static final int CHUNK_BYTES = 4 << 20;
+    private static final byte[] MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y'};
+    private static final int HEADER_ALIGNMENT = 64;
+
+    private static final Pattern DESCR = Pattern.compile("'descr'\\s*:\\s*'([^']*)'");
+    private static final Pattern FORTRAN = Pattern.compile("'fortran_order'\\s*:\\s*(True|False)");
+    private static final Pattern SHAPE = Pattern.compile("'shape'\\s*:\\s*\\(([^)]*)\\)");
+
+    private Npy() {
+    }
+
+    //--------------------------------------------------
+    // Export
+    //--------------------------------------------------
+
+    /**
+     * Writes all data of a DataArray to a <tt>.npy</tt> file.
+     *
+     * @param array The DataArray.
+     * @param path  The file, replaced if it exists.
+     */
+    public static void write(DataArray array, Path path) {
+        int[] extent = array.getDataExtent().getData();
+        write(array, new NDSize(extent), new NDSize(new int[extent.length]), path);
+    }
+
+    /**
+     * Writes a hyperslab of a DataArray to a <tt>.npy</tt> file.
+     *
+     * @param array  The DataArray.
+     * @param count  The extent of the hyperslab.
+     * @param offset The offset of the hyperslab.
+     * @param path   The file, replaced if it exists.
+     */
+    public static void write(DataArray array, NDSize count, NDSize offset, Path path) {
+        int dataType = array.getDataType();
+        int size = DataType.sizeOf(dataType);
+        int[] cnt = count.getData();
+        int[] off = offset.getData();
+        if (cnt.length == 0 || cnt.length != off.length) {
+            throw new IllegalArgumentException("Count and offset must have the dimensionality of the array");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.wrap(header(descr(dataType), cnt));
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            long rowBytes = size;
+            for (int i = 1; i < cnt.length; i++) {
+                rowBytes *= cnt[i];
+            }
+            if (rowBytes == 0 || cnt[0] == 0) {
+                return;
+            }
+            if (rowBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Rows of the hyperslab are too large");
+            }
+            int chunkRows = (int) Math.max(1, Math.min(cnt[0], CHUNK_BYTES / rowBytes));
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) (chunkRows * rowBytes));
+
+            int[] chunkCount = cnt.clone();
+            int[] chunkOffset = off.clone();
+            for (int row = 0; row < cnt[0]; row += chunkRows) {
+                chunkCount[0] = Math.min(chunkRows, cnt[0] - row);
+                chunkOffset[0] = off[0] + row;
+                buffer.clear();
+                array.getData(buffer, dataType, new NDSize(chunkCount), new NDSize(chunkOffset));
+                buffer.limit((int) (chunkCount[0] * rowBytes));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] header(String descr, int[] shape) {
+        StringBuilder dict = new StringBuilder("{'descr': '").append(descr)
+                .append("', 'fortran_order': False, 'shape': (");
+        for (int i = 0; i < shape.length; i++) {
+            dict.append(i > 0 ? ", " : "").append(shape[i]);
+        }
+        // a tuple with one element needs a trailing comma
+        dict.append(shape.length == 1 ? ",), }" : "), }");
+
+        // magic, version and length are followed by the dict, padded with spaces and terminated by a newline
+        int prefix = MAGIC.length + 4;
+        int total = (prefix + dict.length() + 1 + HEADER_ALIGNMENT - 1) / HEADER_ALIGNMENT * HEADER_ALIGNMENT;
+        while (prefix + dict.length() + 1 < total) {
+            dict.append(' ');
+        }
+        dict.append('\n');
+
+        ByteBuffer header = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).put((byte) 1).put((byte) 0).putShort((short) dict.length());
+        header.put(dict.toString().getBytes(StandardCharsets.US_ASCII));
+        return header.array();
+    }
+
+    private static String descr(int dataType) {
+        String order = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? "<" : ">";
+        switch (dataType) {
+            case DataType.Bool:
+                return "|b1";
+            case DataType.Char:
+                return "|S1";
+            case DataType.Int8:
+                return "|i1";
+            case DataType.UInt8:
+                return "|u1";
+            case DataType.Int16:
+                return order + "i2";
+            case DataType.UInt16:
+                return order + "u2";
+            case DataType.Int32:
+                return order + "i4";
+            case DataType.UInt32:
+                return order + "u4";
+            case DataType.Int64:
+                return order + "i8";
+            case DataType.UInt64:
+                return order + "u8";
+            case DataType.Float:
+                return order + "f4";
+            case DataType.Double:
+                return order + "f8";
+            default:
+                throw new IllegalArgumentException("Data type can not be stored in .npy");
+        }
+    }
+
+    //--------------------------------------------------
+    // Import
+    //--------------------------------------------------
+
+    /**
+     * Reads a <tt>.npy</tt> file into a new DataArray. No dimensions are created.
+     *
+     * @param path  The file.
+     * @param block The block in which the DataArray is created.
+     * @param name  The name of the DataArray.
+     * @param type  The type of the DataArray.
+     * @return The created DataArray.
+     */
+    public static DataArray read(Path path, Block block, String name, String type) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            DataArray array = block.createDataArray(name, type, header.dataType, new NDSize(header.shape));
+            if (array == null) {
+                throw new IllegalArgumentException("Could not create DataArray " + name);
+            }
+            readData(channel, header, array);
+            return array;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Header {
+        int dataType;
+        ByteOrder order;
+        int[] shape;
+        long dataOffset;
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(MAGIC.length + 6).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, prefix, 0);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (prefix.get(i) != MAGIC[i]) {
+                throw new IllegalArgumentException("Not a .npy file");
+            }
+        }
+        int major = prefix.get(MAGIC.length);
+        long length;
+        long start;
+        if (major == 1) {
+            length = prefix.getShort(MAGIC.length + 2) & 0xffff;
+            start = MAGIC.length + 4;
+        } else if (major == 2 || major == 3) {
+            length = prefix.getInt(MAGIC.length + 2) & 0xffffffffL;
+            start = MAGIC.length + 6;
+        } else {
+            throw new IllegalArgumentException("Unsupported .npy version " + major);
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Header of the .npy file is too large");
+        }
+
+        ByteBuffer text = ByteBuffer.allocate((int) length);
+        readFully(channel, text, start);
+        String dict = new String(text.array(), major == 3 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+
+        Matcher descr = DESCR.matcher(dict);
+        Matcher fortran = FORTRAN.matcher(dict);
+        Matcher shape = SHAPE.matcher(dict);
+        if (!descr.find() || !fortran.find() || !shape.find()) {
+            throw new IllegalArgumentException("Invalid .npy header " + dict.trim());
+        }
+        if (fortran.group(1).equals("True")) {
+            throw new IllegalArgumentException("Fortran order is not supported");
+        }
+
+        Header header = new Header();
+        parseDescr(descr.group(1), header);
+        String[] dims = shape.group(1).split(",");
+        int n = 0;
+        int[] extent = new int[dims.length];
+        for (String dim : dims) {
+            if (!dim.trim().isEmpty()) {
+                extent[n++] = Integer.parseInt(dim.trim());
+            }
+        }
+        if (n == 0) {
+            throw new IllegalArgumentException("Arrays without dimensions are not supported");
+        }
+        header.shape = Arrays.copyOf(extent, n);
+        header.dataOffset = start + length;
+        return header;
+    }
+
+    private static void parseDescr(String descr, Header header) {
+        if (descr.length() < 3) {
+            throw new IllegalArgumentException("Unsupported data type " + descr);
+        }
+        char order = descr.charAt(0);
+        header.order = order == '>' ? ByteOrder.BIG_ENDIAN
+                : order == '<' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.nativeOrder();
+        switch (descr.substring(1)) {
+            case "b1":
+                header.dataType = DataType.Bool;
+                break;
+            case "S1":
+                header.dataType = DataType.Char;
+                break;
+            case "i1":
+                header.dataType = DataType.Int8;
+                break;
+            case "u1":
+                header.dataType = DataType.UInt8;
+                break;
+            case "i2":
+                header.dataType = DataType.Int16;
+                break;
+            case "u2":
+                header.dataType = DataType.UInt16;
+                break;
+            case "i4":
+                header.dataType = DataType.Int32;
+                break;
+            case "u4":
+                header.dataType = DataType.UInt32;
+                break;
+            case "i8":
+                header.dataType = DataType.Int64;
+                break;
+            case "u8":
+                header.dataType = DataType.UInt64;
+                break;
+            case "f4":
+                header.dataType = DataType.Float;
+                break;
+            case "f8":
+                header.dataType = DataType.Double;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported data type " + descr);
+        }
+    }
+
+    private static void readData(FileChannel channel, Header header, DataArray array) throws IOException {
+        int size = DataType.sizeOf(header.dataType);
+        int[] shape = header.shape;
+        long rowBytes = size;
+        for (int i = 1; i < shape.length; i++) {
+            rowBytes *= shape[i];
+        }
+        if (rowBytes == 0 || shape[0] == 0) {
+            return;
+        }
+        if (rowBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rows of the array are too large");
+        }
+        if (channel.size() < header.dataOffset + rowBytes * shape[0]) {
+            throw new IllegalArgumentException("The .npy file is truncated");
+        }
+
+        boolean swap = size > 1 && header.order != ByteOrder.nativeOrder();
+        int chunkRows = (int) Math.max(1, Math.min(shape[0], CHUNK_BYTES / rowBytes));
+        ByteBuffer swapped = swap ? ByteBuffer.allocateDirect((int) (chunkRows * rowBytes)).order(ByteOrder.nativeOrder()) : null;
+
+        int[] count = shape.clone();
+        int[] offset = new int[shape.length];
+        for (int row = 0; row < shape[0]; row += chunkRows) {
+            count[0] = Math.min(chunkRows, shape[0] - row);
+            offset[0] = row;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                    header.dataOffset + row * rowBytes, count[0] * rowBytes);
+            ByteBuffer data = mapped;
+            if (swap) {
+                swap(mapped.order(header.order), swapped, size);
+                data = swapped;
+            }
+            array.setData(data, header.dataType, new NDSize(count), new NDSize(offset));
+        }
+    }
+
+    private static void swap(ByteBuffer from, ByteBuffer to, int size) {
+        to.clear();
+        int n = from.remaining() / size;
+        for (int i = 0; i < n; i++) {
+            switch (size) {
+                case 2:
+                    to.putShort(from.getShort());
+                    break;
+                case 4:
+                    to.putInt(from.getInt());
+                    break;
+                default:
+                    to.putLong(from.getLong());
+                    break;
+            }
+        }
+        to.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalArgumentException("The .npy file is truncated");
+            }
+        }
+    }
+}
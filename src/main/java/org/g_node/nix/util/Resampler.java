@@ -0,0 +1,251 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.Block;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.Dimension;
+import org.g_node.nix.DimensionType;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.RangeDimension;
+import org.g_node.nix.SampledDimension;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Resampler</h1>
+ * Streaming resampler from an irregular {@link RangeDimension} onto a regular {@link SampledDimension} grid.
+ * <p>
+ * Values of the source are read in chunks and the output is written in chunks. NIX can only read
+ * all ticks of a RangeDimension at once, they are read once when the resampler is created and
+ * held on the heap, so memory use is 8 bytes per tick plus the chunks. The ticks of an alias
+ * dimension are the data, they are read in chunks together with the values. Values are
+ * interpolated linearly or by nearest neighbour. Grid positions outside the range of the ticks
+ * are set to NaN.
+ * <pre><code>
+ *     DataArray irregular = ...;
+ *     Resampler resampler = new Resampler(irregular, 0.001);
+ *     resampler.setInterpolation(Resampler.Interpolation.LINEAR);
+ *     DataArray regular = resampler.resample(block, "regular", "nix.sampled");
+ * </code></pre>
+ *
+ * @see RangeDimension
+ * @see SampledDimension
+ */
+public class Resampler {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Interpolation between the source samples.
+     */
+    public enum Interpolation {
+        NEAREST,
+        LINEAR
+    }
+
+    private final DataArray source;
+    private final RangeDimension dimension;
+    private final double samplingInterval;
+    private final long tickCount;
+    // null for alias dimensions
+    private final double[] allTicks;
+    private final double firstTick;
+    private final double lastTick;
+    private double offset;
+    private Interpolation interpolation;
+    private int chunkSize;
+
+    /**
+     * Creates a resampler for a source array.
+     *
+     * @param source           One dimensional DataArray described by a RangeDimension.
+     * @param samplingInterval The sampling interval of the result, in the unit of the dimension.
+     */
+    public Resampler(DataArray source, double samplingInterval) {
+        int[] extent = source.getDataExtent().getData();
+        if (extent.length != 1) {
+            throw new IllegalArgumentException("Source must be one dimensional");
+        }
+        Dimension dim = source.getDimension(1);
+        if (dim == null || dim.getDimensionType() != DimensionType.Range) {
+            throw new IllegalArgumentException("Source must be described by a RangeDimension");
+        }
+        if (!(samplingInterval > 0)) {
+            throw new IllegalArgumentException("Sampling interval must be positive");
+        }
+        if (extent[0] == 0) {
+            throw new IllegalArgumentException("Source is empty");
+        }
+
+        this.source = source;
+        this.dimension = dim.asRangeDimension();
+        this.samplingInterval = samplingInterval;
+        this.tickCount = extent[0];
+        if (dimension.isAlias()) {
+            this.allTicks = null;
+            double[] tick = new double[1];
+            source.getData(tick, new NDSize(new int[]{1}), new NDSize(new int[]{0}));
+            this.firstTick = tick[0];
+            source.getData(tick, new NDSize(new int[]{1}), new NDSize(new int[]{extent[0] - 1}));
+            this.lastTick = tick[0];
+        } else {
+            this.allTicks = dimension.getTicks();
+            if (allTicks.length != tickCount) {
+                throw new IllegalArgumentException("Number of ticks does not match the data");
+            }
+            this.firstTick = allTicks[0];
+            this.lastTick = allTicks[allTicks.length - 1];
+        }
+        this.offset = firstTick;
+        this.interpolation = Interpolation.LINEAR;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+    }
+
+    /**
+     * Sets the position of the first sample of the result. Defaults to the first tick.
+     *
+     * @param offset The offset.
+     * @return The resampler.
+     */
+    public Resampler setOffset(double offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Sets the interpolation. Defaults to {@link Interpolation#LINEAR}.
+     *
+     * @param interpolation The interpolation.
+     * @return The resampler.
+     */
+    public Resampler setInterpolation(Interpolation interpolation) {
+        this.interpolation = interpolation;
+        return this;
+    }
+
+    /**
+     * Sets the number of elements read and written per chunk.
+     *
+     * @param chunkSize The chunk size, at least 2.
+     * @return The resampler.
+     */
+    public Resampler setChunkSize(int chunkSize) {
+        if (chunkSize < 2) {
+            throw new IllegalArgumentException("Chunk size must be at least 2");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Get the number of samples of the result.
+     * <p>
+     * The result spans from the offset to the last tick.
+     *
+     * @return The number of samples.
+     */
+    public long getSampleCount() {
+        if (offset > lastTick) {
+            return 0;
+        }
+        return (long) Math.floor((lastTick - offset) / samplingInterval) + 1;
+    }
+
+    /**
+     * Resamples the source into a new DataArray.
+     *
+     * @param block The block in which the result is created.
+     * @param name  The name of the result.
+     * @param type  The type of the result.
+     * @return The resampled DataArray with a SampledDimension.
+     */
+    public DataArray resample(Block block, String name, String type) {
+        long samples = getSampleCount();
+        if (samples > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Result with " + samples + " samples is too large");
+        }
+        int count = (int) samples;
+        DataArray result = block.createDataArray(name, type, DataType.Double, new NDSize(new int[]{count}));
+        result.setUnit(source.getUnit());
+        result.setLabel(source.getLabel());
+
+        SampledDimension dim = result.appendSampledDimension(samplingInterval);
+        dim.setOffset(offset);
+        dim.setUnit(dimension.getUnit());
+        dim.setLabel(dimension.getLabel());
+
+        Cursor cursor = new Cursor();
+        double[] out = new double[Math.min(chunkSize, Math.max(count, 1))];
+        for (int start = 0; start < count; start += out.length) {
+            int n = Math.min(out.length, count - start);
+            for (int i = 0; i < n; i++) {
+                out[i] = cursor.valueAt(offset + (start + i) * samplingInterval);
+            }
+            result.setData(n == out.length ? out : Arrays.copyOf(out, n),
+                    new NDSize(new int[]{n}), new NDSize(new int[]{start}));
+        }
+        return result;
+    }
+
+    /**
+     * Forward-only window over ticks and values of the source.
+     */
+    private class Cursor {
+        private final double[] ticks = new double[chunkSize];
+        private final double[] values = new double[chunkSize];
+        private long base = -1;
+        private int length;
+        // index of the tick at or before the last requested position, relative to base
+        private int current;
+
+        private void load(long start) {
+            length = (int) Math.min(chunkSize, tickCount - start);
+            source.getData(values, new NDSize(new int[]{length}), new NDSize(new int[]{(int) start}));
+            if (allTicks == null) {
+                // the ticks are the data
+                System.arraycopy(values, 0, ticks, 0, length);
+            } else {
+                System.arraycopy(allTicks, (int) start, ticks, 0, length);
+            }
+            base = start;
+            current = 0;
+        }
+
+        double valueAt(double position) {
+            if (position < firstTick || position > lastTick) {
+                return Double.NaN;
+            }
+            if (base < 0) {
+                load(0);
+            }
+
+            // advance until ticks[current] <= position < ticks[current + 1]
+            while (base + current + 1 < tickCount) {
+                if (current + 1 >= length) {
+                    // keep the current tick as first element of the next chunk
+                    load(base + current);
+                }
+                if (ticks[current + 1] > position) {
+                    break;
+                }
+                current++;
+            }
+
+            if (base + current + 1 >= tickCount) {
+                return values[current];
+            }
+
+            double x0 = ticks[current];
+            double x1 = ticks[current + 1];
+            double v0 = values[current];
+            double v1 = values[current + 1];
+            if (interpolation == Interpolation.NEAREST) {
+                return position - x0 <= x1 - position ? v0 : v1;
+            }
+            if (x1 == x0) {
+                return v0;
+            }
+            return v0 + (v1 - v0) * (position - x0) / (x1 - x0);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.MultiTag;
+import org.g_node.nix.NDSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <h1>SegmentReader</h1>
+ * Bulk reader for many segments (windows) of a single DataArray.
+ * <p>
+ * Reading the segments of a {@link MultiTag} one by one means one hyperslab read per
+ * position. The SegmentReader takes all windows at once, sorts them and merges overlapping
+ * or adjacent windows into a few large hyperslab reads. The data of each merged read is then
+ * scattered into the per-segment buffers.
+ * <p>
+ * Windows are merged along a single axis, the merge axis, which is by default the dimension
+ * of the data with the largest extent (e.g. the time axis). Only windows that cover the same
+ * region in all other dimensions are merged.
+ * <p>
+ * Optionally a {@link Reduction} can be applied to every segment. Reductions are run on a
+ * {@link ForkJoinPool} while the next merged read is in flight. The reads themselves are
+ * always performed on the calling thread.
+ * <pre><code>
+ *     MultiTag mt = ...;
+ *     SegmentReader reader = SegmentReader.fromMultiTag(mt, 0);
+ *     double[][] segments = reader.read();
+ *     double[] peaks = reader.read(SegmentReader.MAX);
+ * </code></pre>
+ *
+ * @see DataAccess
+ * @see MultiTag
+ */
+public class SegmentReader {
+
+    /**
+     * A function that reduces the data of a single segment to a single value.
+     */
+    @FunctionalInterface
+    public interface Reduction {
+        /**
+         * Reduce the data of a segment.
+         *
+         * @param segment The data of the segment in row-major order.
+         * @return The reduced value.
+         */
+        double apply(double[] segment);
+    }
+
+    /**
+     * Reduction that computes the mean of a segment. Empty segments yield <tt>NaN</tt>.
+     */
+    public static final Reduction MEAN = segment -> {
+        double sum = 0.0;
+        for (double value : segment) {
+            sum += value;
+        }
+        return segment.length > 0 ? sum / segment.length : Double.NaN;
+    };
+
+    /**
+     * Reduction that computes the maximum of a segment. Empty segments yield <tt>NaN</tt>.
+     */
+    public static final Reduction MAX = segment -> {
+        double max = Double.NaN;
+        for (double value : segment) {
+            if (Double.isNaN(max) || value > max) {
+                max = value;
+            }
+        }
+        return max;
+    };
+
+    /**
+     * Reduction that returns the (flat) index of the maximum of a segment.
+     * Empty segments yield <tt>-1</tt>.
+     */
+    public static final Reduction PEAK_INDEX = segment -> {
+        int peak = -1;
+        for (int i = 0; i < segment.length; i++) {
+            if (peak < 0 || segment[i] > segment[peak]) {
+                peak = i;
+            }
+        }
+        return peak;
+    };
+
+    private static final long DEFAULT_MAX_READ_ELEMENTS = 1L << 24;
+
+    private final DataArray array;
+    private final int rank;
+    private final int segmentCount;
+    private final long[] offsets;
+    private final long[] counts;
+
+    private int mergeAxis;
+    private long maxGap;
+    private long maxReadElements;
+
+    private List<Run> plan;
+
+    //--------------------------------------------------
+    // Constructors
+    //--------------------------------------------------
+
+    /**
+     * Creates a segment reader for packed windows.
+     * <p>
+     * The windows are given as packed offset and count arrays, i.e. the offset of
+     * segment <tt>i</tt> in dimension <tt>d</tt> is stored at <tt>offsets[i * rank + d]</tt>.
+     *
+     * @param array   The DataArray to read from.
+     * @param offsets The packed offsets of all segments.
+     * @param counts  The packed counts of all segments.
+     */
+    public SegmentReader(DataArray array, long[] offsets, long[] counts) {
+        int[] extent = array.getDataExtent().getData();
+
+        if (extent.length == 0) {
+            throw new IllegalArgumentException("DataArray has no data extent");
+        }
+        if (offsets.length != counts.length || offsets.length % extent.length != 0) {
+            throw new IllegalArgumentException("Offsets and counts must be packed windows of rank " + extent.length);
+        }
+
+        this.array = array;
+        this.rank = extent.length;
+        this.segmentCount = offsets.length / rank;
+        this.offsets = offsets.clone();
+        this.counts = counts.clone();
+        this.maxGap = 0;
+        this.maxReadElements = DEFAULT_MAX_READ_ELEMENTS;
+
+        int axis = 0;
+        for (int d = 1; d < rank; d++) {
+            if (extent[d] > extent[axis]) {
+                axis = d;
+            }
+        }
+        this.mergeAxis = axis;
+    }
+
+    /**
+     * Creates a segment reader for all positions of a MultiTag in one of its references.
+     * <p>
+     * The windows are computed with {@link DataAccess#getOffsetAndCount(MultiTag, DataArray, long, NDSize, NDSize)}.
+     *
+     * @param tag            The multi tag.
+     * @param referenceIndex The index of the referenced DataArray.
+     * @return The segment reader.
+     */
+    public static SegmentReader fromMultiTag(MultiTag tag, long referenceIndex) {
+        DataArray array = tag.getReference(referenceIndex);
+        if (array == null) {
+            throw new IllegalArgumentException("MultiTag has no reference with index " + referenceIndex);
+        }
+
+        DataArray positions = tag.getPositions();
+        int[] positionsExtent = positions.getDataExtent().getData();
+        int n = positionsExtent.length > 0 ? positionsExtent[0] : 0;
+        int rank = (int) array.getDataExtent().getSize();
+
+        long[] offsets = new long[n * rank];
+        long[] counts = new long[n * rank];
+        NDSize offset = new NDSize();
+        NDSize count = new NDSize();
+
+        for (int i = 0; i < n; i++) {
+            DataAccess.getOffsetAndCount(tag, array, i, offset, count);
+            int[] o = offset.getData();
+            int[] c = count.getData();
+            for (int d = 0; d < rank; d++) {
+                offsets[i * rank + d] = o[d];
+                counts[i * rank + d] = c[d];
+            }
+        }
+
+        return new SegmentReader(array, offsets, counts);
+    }
+
+    //--------------------------------------------------
+    // Configuration
+    //--------------------------------------------------
+
+    /**
+     * Sets the axis along which windows are merged.
+     *
+     * @param axis The merge axis.
+     * @return The reader.
+     */
+    public SegmentReader setMergeAxis(int axis) {
+        if (axis < 0 || axis >= rank) {
+            throw new IllegalArgumentException("Merge axis out of range: " + axis);
+        }
+        this.mergeAxis = axis;
+        this.plan = null;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of elements between two windows that are still merged
+     * into one read. The default is 0, i.e. only overlapping or adjacent windows are merged.
+     *
+     * @param gap The maximum gap along the merge axis.
+     * @return The reader.
+     */
+    public SegmentReader setMaxGap(long gap) {
+        if (gap < 0) {
+            throw new IllegalArgumentException("Gap must not be negative");
+        }
+        this.maxGap = gap;
+        this.plan = null;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of elements of a single merged read. Windows that would
+     * make a read larger than this are read separately.
+     *
+     * @param elements The maximum number of elements per read.
+     * @return The reader.
+     */
+    public SegmentReader setMaxReadElements(long elements) {
+        if (elements <= 0) {
+            throw new IllegalArgumentException("Read size must be positive");
+        }
+        this.maxReadElements = elements;
+        this.plan = null;
+        return this;
+    }
+
+    //--------------------------------------------------
+    // Accessors
+    //--------------------------------------------------
+
+    /**
+     * Returns the number of segments.
+     *
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Returns the shape of a segment.
+     *
+     * @param segment The index of the segment.
+     * @return The number of elements per dimension.
+     */
+    public int[] getShape(int segment) {
+        int[] shape = new int[rank];
+        for (int d = 0; d < rank; d++) {
+            shape[d] = (int) counts[segment * rank + d];
+        }
+        return shape;
+    }
+
+    /**
+     * Returns the number of hyperslab reads needed to read all segments.
+     *
+     * @return The number of merged reads.
+     */
+    public int getReadCount() {
+        return plan().size();
+    }
+
+    //--------------------------------------------------
+    // Reading
+    //--------------------------------------------------
+
+    /**
+     * Reads the data of all segments.
+     *
+     * @return The data of each segment in row-major order, in the order the windows were given.
+     */
+    public double[][] read() {
+        double[][] segments = new double[segmentCount][];
+        for (Run run : plan()) {
+            double[] buffer = readRun(run);
+            for (int segment : run.segments) {
+                segments[segment] = scatter(run, buffer, segment);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Reads all segments and applies a reduction to each of them using the common pool.
+     *
+     * @param reduction The reduction to apply.
+     * @return The reduced value of each segment, in the order the windows were given.
+     */
+    public double[] read(Reduction reduction) {
+        return read(reduction, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads all segments and applies a reduction to each of them.
+     * <p>
+     * The reductions for the segments of a merged read are computed on the given pool
+     * while the next merged read is performed on the calling thread. The reductions of a
+     * merged read finish before the read after it starts, so at most two merged reads are
+     * held in memory.
+     *
+     * @param reduction The reduction to apply.
+     * @param pool      The pool that runs the reductions.
+     * @return The reduced value of each segment, in the order the windows were given.
+     */
+    public double[] read(Reduction reduction, ForkJoinPool pool) {
+        double[] results = new double[segmentCount];
+        ForkJoinTask<?> pending = null;
+
+        for (Run run : plan()) {
+            double[] buffer = readRun(run);
+            // the reductions of the previous read overlapped this read, they finish before the next one
+            if (pending != null) {
+                pending.join();
+            }
+            pending = pool.submit(() -> {
+                for (int segment : run.segments) {
+                    results[segment] = reduction.apply(scatter(run, buffer, segment));
+                }
+            });
+        }
+
+        if (pending != null) {
+            pending.join();
+        }
+        return results;
+    }
+
+    //--------------------------------------------------
+    // Internals
+    //--------------------------------------------------
+
+    private static class Run {
+        final long[] offset;
+        final long[] count;
+        final int[] segments;
+
+        Run(long[] offset, long[] count, int[] segments) {
+            this.offset = offset;
+            this.count = count;
+            this.segments = segments;
+        }
+    }
+
+    private List<Run> plan() {
+        if (plan == null) {
+            plan = buildPlan();
+        }
+        return plan;
+    }
+
+    private List<Run> buildPlan() {
+        // group windows that are identical in all dimensions except the merge axis
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < segmentCount; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int d = 0; d < rank; d++) {
+                if (d != mergeAxis) {
+                    key.append(offsets[i * rank + d]).append(':').append(counts[i * rank + d]).append(',');
+                }
+            }
+            groups.computeIfAbsent(key.toString(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<Run> runs = new ArrayList<>();
+        for (List<Integer> group : groups.values()) {
+            group.sort(Comparator.comparingLong(i -> offsets[i * rank + mergeAxis]));
+
+            int first = group.get(0);
+            long rowElements = 1;
+            for (int d = 0; d < rank; d++) {
+                if (d != mergeAxis) {
+                    rowElements *= counts[first * rank + d];
+                }
+            }
+
+            List<Integer> members = new ArrayList<>();
+            long start = 0, end = 0;
+            for (int i : group) {
+                long s = offsets[i * rank + mergeAxis];
+                long e = s + counts[i * rank + mergeAxis];
+                boolean fits = Math.max(end, e) - start <= Math.max(1, maxReadElements / Math.max(1, rowElements));
+
+                if (!members.isEmpty() && s <= end + maxGap && fits) {
+                    end = Math.max(end, e);
+                } else {
+                    if (!members.isEmpty()) {
+                        runs.add(makeRun(first, start, end, members));
+                    }
+                    members = new ArrayList<>();
+                    start = s;
+                    end = e;
+                }
+                members.add(i);
+            }
+            runs.add(makeRun(first, start, end, members));
+        }
+
+        // read in file order along the merge axis
+        runs.sort(Comparator.comparingLong(r -> r.offset[mergeAxis]));
+        return runs;
+    }
+
+    private Run makeRun(int template, long start, long end, List<Integer> members) {
+        long[] offset = Arrays.copyOfRange(offsets, template * rank, template * rank + rank);
+        long[] count = Arrays.copyOfRange(counts, template * rank, template * rank + rank);
+        offset[mergeAxis] = start;
+        count[mergeAxis] = end - start;
+
+        int[] segments = new int[members.size()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = members.get(i);
+        }
+        return new Run(offset, count, segments);
+    }
+
+    private double[] readRun(Run run) {
+        long elements = 1;
+        for (long c : run.count) {
+            elements *= c;
+        }
+        double[] buffer = new double[(int) elements];
+        if (elements > 0) {
+            array.getData(buffer, toNDSize(run.count), toNDSize(run.offset));
+        }
+        return buffer;
+    }
+
+    private double[] scatter(Run run, double[] buffer, int segment) {
+        long outer = 1, inner = 1;
+        for (int d = 0; d < mergeAxis; d++) {
+            outer *= run.count[d];
+        }
+        for (int d = mergeAxis + 1; d < rank; d++) {
+            inner *= run.count[d];
+        }
+
+        long runLength = run.count[mergeAxis];
+        long shift = offsets[segment * rank + mergeAxis] - run.offset[mergeAxis];
+        long length = counts[segment * rank + mergeAxis];
+
+        // windows share all other dimensions, so each outer row is one contiguous block
+        int block = (int) (length * inner);
+        double[] data = new double[(int) (outer * block)];
+        for (int o = 0; o < outer; o++) {
+            int src = (int) ((o * runLength + shift) * inner);
+            System.arraycopy(buffer, src, data, o * block, block);
+        }
+        return data;
+    }
+
+    private static NDSize toNDSize(long[] values) {
+        int[] data = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = (int) values[i];
+        }
+        return new NDSize(data);
+    }
+}
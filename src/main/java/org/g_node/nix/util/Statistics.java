@@ -0,0 +1,464 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.Property;
+import org.g_node.nix.Section;
+import org.g_node.nix.Value;
+import org.g_node.nix.internal.DataChanges;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <h1>Statistics</h1>
+ * Summary statistics (min, max, mean, standard deviation and NaN count) of a DataArray.
+ * <p>
+ * The statistics are computed in a single streaming pass. Chunks along the first dimension
+ * are read sequentially on the calling thread while the accumulation of already read chunks
+ * runs in parallel on a {@link ForkJoinPool}. The partial results are combined with a
+ * mergeable {@link Accumulator}.
+ * <p>
+ * Results can be stored in a top-level {@link Section} of the file of type
+ * {@link Statistics#SECTION_TYPE} named <tt>nix.statistics.&lt;id&gt;</tt>. The section is not
+ * linked to the DataArray, so the metadata of the array is left alone. Loading stored statistics
+ * needs no data access. Together with the statistics the extent and the update time of the
+ * DataArray are stored, writing data through the bindings changes the update time (see
+ * {@link DataArray#getUpdatedAt()}), so statistics of changed data are not loaded, also in later
+ * sessions. Statistics stored within the same second as the last update are only trusted while
+ * the file stays open. Writes by other programs that keep extent and update time must be followed
+ * by {@link Statistics#invalidate(File, DataArray)}.
+ * <pre><code>
+ *     DataArray array = ...;
+ *     Statistics stats = Statistics.of(file, array);
+ *     double mean = stats.getMean();
+ * </code></pre>
+ *
+ * @see DataArray
+ */
+public final class Statistics {
+
+    /**
+     * Type of the sections that store statistics.
+     */
+    public static final String SECTION_TYPE = "nix.statistics";
+
+    private static final int CHUNK_ELEMENTS = 1 << 20;
+    private static final String[] PROPERTIES = {"count", "nanCount", "min", "max", "mean", "std",
+            "extent", "updatedAt", "storedAt"};
+
+    // ids of the arrays whose statistics were stored or loaded and are unchanged since, by file location
+    private static final Map<String, Set<String>> STORED = new ConcurrentHashMap<>();
+
+    static {
+        DataChanges.register(new DataChanges.Listener() {
+            @Override
+            public void dataChanged(DataArray array, long firstRow, long rowCount) {
+                Statistics.dataChanged(array);
+            }
+
+            @Override
+            public void fileClosed(String location) {
+                STORED.remove(location);
+            }
+        });
+    }
+
+    private final long count;
+    private final long nanCount;
+    private final double min;
+    private final double max;
+    private final double mean;
+    private final double std;
+
+    private Statistics(long count, long nanCount, double min, double max, double mean, double std) {
+        this.count = count;
+        this.nanCount = nanCount;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.std = std;
+    }
+
+    /**
+     * Mergeable accumulator for the statistics of a stream of values.
+     * <p>
+     * Accumulators of disjoint parts of the data can be computed independently and
+     * combined with {@link Accumulator#merge(Accumulator)} (Chan et al.).
+     */
+    public static final class Accumulator {
+        private long count;
+        private long nanCount;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double mean;
+        private double m2;
+
+        /**
+         * Adds a value.
+         *
+         * @param value The value.
+         */
+        public void add(double value) {
+            if (Double.isNaN(value)) {
+                nanCount++;
+                return;
+            }
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        /**
+         * Adds a range of values.
+         *
+         * @param values The values.
+         * @param from   The first element to add.
+         * @param to     The element after the last element to add.
+         */
+        public void add(double[] values, int from, int to) {
+            for (int i = from; i < to; i++) {
+                add(values[i]);
+            }
+        }
+
+        /**
+         * Merges the values of another accumulator into this one.
+         *
+         * @param other The other accumulator.
+         * @return This accumulator.
+         */
+        public Accumulator merge(Accumulator other) {
+            nanCount += other.nanCount;
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                count = other.count;
+                min = other.min;
+                max = other.max;
+                mean = other.mean;
+                m2 = other.m2;
+                return this;
+            }
+
+            long n = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / n;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+            count = n;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+
+        /**
+         * Returns the statistics of all values added so far.
+         *
+         * @return The statistics.
+         */
+        public Statistics toStatistics() {
+            if (count == 0) {
+                return new Statistics(0, nanCount, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+            }
+            return new Statistics(count, nanCount, min, max, mean, Math.sqrt(m2 / count));
+        }
+    }
+
+    //--------------------------------------------------
+    // Getters
+    //--------------------------------------------------
+
+    /**
+     * Get the number of values that are not NaN.
+     *
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of NaN values.
+     *
+     * @return The number of NaNs.
+     */
+    public long getNanCount() {
+        return nanCount;
+    }
+
+    /**
+     * Get the minimum, NaN values are ignored.
+     *
+     * @return The minimum or NaN if there are no values.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Get the maximum, NaN values are ignored.
+     *
+     * @return The maximum or NaN if there are no values.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the mean, NaN values are ignored.
+     *
+     * @return The mean or NaN if there are no values.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Get the (population) standard deviation, NaN values are ignored.
+     *
+     * @return The standard deviation or NaN if there are no values.
+     */
+    public double getStandardDeviation() {
+        return std;
+    }
+
+    //--------------------------------------------------
+    // Computation
+    //--------------------------------------------------
+
+    /**
+     * Computes the statistics of a DataArray using the common pool.
+     *
+     * @param array The DataArray.
+     * @return The statistics.
+     */
+    public static Statistics compute(DataArray array) {
+        return compute(array, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the statistics of a DataArray.
+     * <p>
+     * Reads are done sequentially by the calling thread, only the accumulation runs on the pool.
+     *
+     * @param array The DataArray.
+     * @param pool  The pool on which chunks are accumulated.
+     * @return The statistics.
+     */
+    public static Statistics compute(DataArray array, ForkJoinPool pool) {
+        int[] extent = array.getDataExtent().getData();
+        Accumulator result = new Accumulator();
+        if (extent.length == 0 || extent[0] == 0) {
+            return result.toStatistics();
+        }
+
+        long rowElements = 1;
+        for (int i = 1; i < extent.length; i++) {
+            rowElements *= extent[i];
+        }
+        if (rowElements == 0) {
+            return result.toStatistics();
+        }
+        int rowsPerChunk = (int) Math.max(1, CHUNK_ELEMENTS / rowElements);
+
+        int[] count = extent.clone();
+        int[] offset = new int[extent.length];
+        int inFlight = Math.max(1, pool.getParallelism()) + 1;
+        Deque<ForkJoinTask<Accumulator>> tasks = new ArrayDeque<>();
+
+        for (int row = 0; row < extent[0]; row += rowsPerChunk) {
+            count[0] = Math.min(rowsPerChunk, extent[0] - row);
+            offset[0] = row;
+
+            double[] chunk = new double[(int) (count[0] * rowElements)];
+            array.getData(chunk, new NDSize(count), new NDSize(offset));
+
+            tasks.add(pool.submit(() -> {
+                Accumulator acc = new Accumulator();
+                acc.add(chunk, 0, chunk.length);
+                return acc;
+            }));
+
+            // bound the number of chunks held in memory
+            while (tasks.size() >= inFlight) {
+                result.merge(tasks.poll().join());
+            }
+        }
+        while (!tasks.isEmpty()) {
+            result.merge(tasks.poll().join());
+        }
+        return result.toStatistics();
+    }
+
+    //--------------------------------------------------
+    // Storage
+    //--------------------------------------------------
+
+    /**
+     * Returns the stored statistics of a DataArray or computes and stores them.
+     *
+     * @param file  The file of the DataArray.
+     * @param array The DataArray.
+     * @return The statistics.
+     */
+    public static Statistics of(File file, DataArray array) {
+        Statistics stats = load(file, array);
+        if (stats == null) {
+            stats = compute(array);
+            stats.store(file, array);
+        }
+        return stats;
+    }
+
+    /**
+     * Loads the stored statistics of a DataArray.
+     *
+     * @param file  The file of the DataArray.
+     * @param array The DataArray.
+     * @return The statistics or <tt>null</tt> if none are stored or they are out of date.
+     */
+    public static Statistics load(File file, DataArray array) {
+        String id = array.getId();
+        Section section = file.getSection(sectionName(id));
+        if (section == null || section.getProperty("count") == null) {
+            return null;
+        }
+        Set<String> known = STORED.get(file.getLocation());
+        if ((known == null || !known.contains(id)) && !isCurrent(section, array)) {
+            return null;
+        }
+        stored(file, id);
+        return new Statistics(section.getProperty("count").getValues().get(0).getLong(),
+                section.getProperty("nanCount").getValues().get(0).getLong(),
+                section.getProperty("min").getValues().get(0).getDouble(),
+                section.getProperty("max").getValues().get(0).getDouble(),
+                section.getProperty("mean").getValues().get(0).getDouble(),
+                section.getProperty("std").getValues().get(0).getDouble());
+    }
+
+    /**
+     * Stores the statistics for a DataArray, replacing previously stored ones.
+     *
+     * @param file  The file of the DataArray.
+     * @param array The DataArray.
+     */
+    public void store(File file, DataArray array) {
+        String id = array.getId();
+        String name = sectionName(id);
+        Section section = file.getSection(name);
+        if (section == null) {
+            section = file.createSection(name, SECTION_TYPE);
+        }
+
+        clear(section);
+        long updatedAt = array.getUpdatedAt().getTime() / 1000;
+        section.createProperty("extent", new Value(Arrays.toString(array.getDataExtent().getData())));
+        section.createProperty("updatedAt", new Value(updatedAt));
+        section.createProperty("storedAt", new Value(System.currentTimeMillis() / 1000));
+        // count is written last, it marks the statistics as complete
+        section.createProperty("nanCount", new Value(nanCount));
+        section.createProperty("min", new Value(min));
+        section.createProperty("max", new Value(max));
+        section.createProperty("mean", new Value(mean));
+        section.createProperty("std", new Value(std));
+        section.createProperty("count", new Value(count));
+        stored(file, id);
+    }
+
+    /**
+     * Invalidates the stored statistics of a DataArray.
+     * <p>
+     * Writes through the bindings invalidate the statistics by themselves. After the data was
+     * changed otherwise, e.g. by another program, the statistics must be invalidated explicitly.
+     *
+     * @param file  The file of the DataArray.
+     * @param array The DataArray.
+     */
+    public static void invalidate(File file, DataArray array) {
+        String id = array.getId();
+        Set<String> known = STORED.get(file.getLocation());
+        if (known != null) {
+            known.remove(id);
+        }
+        Section section = file.getSection(sectionName(id));
+        if (section != null) {
+            clear(section);
+        }
+    }
+
+    private static void dataChanged(DataArray array) {
+        // no native call unless statistics of some array are known
+        if (STORED.isEmpty()) {
+            return;
+        }
+        String id = array.getId();
+        boolean known = false;
+        // the written file is not known, forget the array in all files
+        for (Set<String> ids : STORED.values()) {
+            known |= ids.remove(id);
+        }
+        if (known) {
+            // the first write through the object may have happened before the statistics were
+            // stored, make sure the update time differs from the stored one
+            array.forceUpdatedAt();
+        }
+    }
+
+    private static boolean isCurrent(Section section, DataArray array) {
+        Property extent = section.getProperty("extent");
+        Property updatedAt = section.getProperty("updatedAt");
+        Property storedAt = section.getProperty("storedAt");
+        if (extent == null || updatedAt == null || storedAt == null) {
+            return false;
+        }
+        long updated = updatedAt.getValues().get(0).getLong();
+        // writes within the second of the store cannot be told apart by the update time
+        if (updated >= storedAt.getValues().get(0).getLong()
+                || updated != array.getUpdatedAt().getTime() / 1000) {
+            return false;
+        }
+        return extent.getValues().get(0).getString().equals(Arrays.toString(array.getDataExtent().getData()));
+    }
+
+    private static void stored(File file, String id) {
+        STORED.computeIfAbsent(file.getLocation(), location -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static void clear(Section section) {
+        for (String name : PROPERTIES) {
+            Property property = section.getProperty(name);
+            if (property != null) {
+                section.deleteProperty(property);
+            }
+        }
+    }
+
+    private static String sectionName(String id) {
+        return SECTION_TYPE + "." + id;
+    }
+
+    //--------------------------------------------------
+    // Overrides
+    //--------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "Statistics: {count = " + count
+                + ", nanCount = " + nanCount
+                + ", min = " + min
+                + ", max = " + max
+                + ", mean = " + mean
+                + ", std = " + std + "}";
+    }
+}
@@ -0,0 +1,437 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.File;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.internal.DataChanges;
+import org.g_node.nix.internal.NativeEvents;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+/**
+ * <h1>TileReader</h1>
+ * Tile access to images and image stacks stored in DataArrays.
+ * <p>
+ * The array is either two dimensional <tt>{height, width}</tt> or three dimensional
+ * <tt>{depth, height, width}</tt> and is divided into tiles of a fixed shape. Tiles at the
+ * right and bottom border may be smaller. Tiles are kept in a bounded LRU {@link TileCache}
+ * keyed by file, array and tile index, which can be shared between readers. On a cache miss the
+ * requested tile and its eight neighbours are read with a single hyperslab read, so panning
+ * across an image mostly hits the cache. Writing data to the array through the bindings drops
+ * the affected tiles, closing the file drops all its tiles.
+ * <p>
+ * Reads are most efficient when the HDF5 chunk shape of the array matches the tile shape.
+ * <pre><code>
+ *     DataArray stack = ...;
+ *     TileReader reader = new TileReader(file, stack, 256, 256);
+ *     TileReader.Tile tile = reader.readTile(0, 3, 2);
+ * </code></pre>
+ *
+ * @see DataArray
+ */
+public class TileReader {
+
+    private static final int DEFAULT_CACHE_TILES = 256;
+
+    private final DataArray array;
+    private final String location;
+    private final String arrayId;
+    private final TileCache cache;
+    private final int depth;
+    private final int height;
+    private final int width;
+    private final int tileHeight;
+    private final int tileWidth;
+    private final boolean stack;
+    private boolean prefetch;
+
+    /**
+     * A tile of an image.
+     */
+    public static class Tile {
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final double[] data;
+
+        Tile(int x, int y, int width, int height, double[] data) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.data = data;
+        }
+
+        /**
+         * Get the column of the first pixel of the tile.
+         *
+         * @return The x offset in pixels.
+         */
+        public int getX() {
+            return x;
+        }
+
+        /**
+         * Get the row of the first pixel of the tile.
+         *
+         * @return The y offset in pixels.
+         */
+        public int getY() {
+            return y;
+        }
+
+        /**
+         * Get the width of the tile.
+         *
+         * @return The width in pixels.
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Get the height of the tile.
+         *
+         * @return The height in pixels.
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Get the pixels of the tile in row-major order. The array must not be modified.
+         *
+         * @return The pixels.
+         */
+        public double[] getData() {
+            return data;
+        }
+
+        /**
+         * Get a single pixel of the tile.
+         *
+         * @param row The row within the tile.
+         * @param col The column within the tile.
+         * @return The pixel value.
+         */
+        public double get(int row, int col) {
+            return data[row * width + col];
+        }
+    }
+
+    /**
+     * Bounded LRU cache of tiles, keyed by file, array and tile index.
+     */
+    public static class TileCache {
+        // all caches, for invalidation
+        private static final Set<TileCache> CACHES = Collections.newSetFromMap(new WeakHashMap<>());
+
+        static {
+            DataChanges.register(new DataChanges.Listener() {
+                @Override
+                public void dataChanged(DataArray array, long firstRow, long rowCount) {
+                    TileCache.dataChanged(array, firstRow, rowCount);
+                }
+
+                @Override
+                public void fileClosed(String location) {
+                    for (TileCache cache : filled()) {
+                        cache.removeIf(key -> key.location.equals(location));
+                    }
+                }
+            });
+        }
+
+        private final Map<Key, Tile> tiles;
+
+        /**
+         * Creates a cache.
+         *
+         * @param capacity The maximum number of tiles.
+         */
+        public TileCache(final int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive");
+            }
+            this.tiles = new LinkedHashMap<Key, Tile>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Tile> eldest) {
+                    return size() > capacity;
+                }
+            };
+            synchronized (CACHES) {
+                CACHES.add(this);
+            }
+        }
+
+        private static List<TileCache> filled() {
+            List<TileCache> filled = new ArrayList<>();
+            synchronized (CACHES) {
+                for (TileCache cache : CACHES) {
+                    if (cache.size() > 0) {
+                        filled.add(cache);
+                    }
+                }
+            }
+            return filled;
+        }
+
+        private static void dataChanged(DataArray array, long firstRow, long rowCount) {
+            List<TileCache> caches = filled();
+            // no native call unless some tiles are cached
+            if (caches.isEmpty()) {
+                return;
+            }
+            String arrayId = array.getId();
+            long lastRow = rowCount == Long.MAX_VALUE ? Long.MAX_VALUE : firstRow + rowCount;
+            // the written file is not known, drop the tiles of the array in all files
+            for (TileCache cache : caches) {
+                cache.removeIf(key -> key.arrayId.equals(arrayId) && key.overlaps(firstRow, lastRow));
+            }
+        }
+
+        private synchronized void removeIf(Predicate<Key> filter) {
+            tiles.keySet().removeIf(filter);
+        }
+
+        synchronized Tile get(Key key) {
+            return tiles.get(key);
+        }
+
+        synchronized void put(Key key, Tile tile) {
+            tiles.put(key, tile);
+        }
+
+        synchronized boolean contains(Key key) {
+            return tiles.containsKey(key);
+        }
+
+        /**
+         * Get the number of cached tiles.
+         *
+         * @return The number of tiles.
+         */
+        public synchronized int size() {
+            return tiles.size();
+        }
+
+        /**
+         * Removes all tiles from the cache.
+         */
+        public synchronized void clear() {
+            tiles.clear();
+        }
+    }
+
+    private static final class Key {
+        private final String location;
+        private final String arrayId;
+        private final boolean stack;
+        private final int tileHeight;
+        private final int tileWidth;
+        private final int z;
+        private final int tileX;
+        private final int tileY;
+
+        Key(String location, String arrayId, boolean stack, int tileHeight, int tileWidth, int z, int tileX, int tileY) {
+            this.location = location;
+            this.arrayId = arrayId;
+            this.stack = stack;
+            this.tileHeight = tileHeight;
+            this.tileWidth = tileWidth;
+            this.z = z;
+            this.tileX = tileX;
+            this.tileY = tileY;
+        }
+
+        // checks whether the tile overlaps a range along the first dimension of the array
+        boolean overlaps(long firstRow, long lastRow) {
+            if (stack) {
+                return z >= firstRow && z < lastRow;
+            }
+            long y = (long) tileY * tileHeight;
+            return y < lastRow && y + tileHeight > firstRow;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return z == other.z && tileX == other.tileX && tileY == other.tileY
+                    && tileHeight == other.tileHeight && tileWidth == other.tileWidth
+                    && arrayId.equals(other.arrayId) && location.equals(other.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(location, arrayId, tileHeight, tileWidth, z, tileX, tileY);
+        }
+    }
+
+    /**
+     * Creates a reader with its own cache.
+     *
+     * @param file       The file of the array.
+     * @param array      The image or image stack.
+     * @param tileHeight The height of the tiles.
+     * @param tileWidth  The width of the tiles.
+     */
+    public TileReader(File file, DataArray array, int tileHeight, int tileWidth) {
+        this(file, array, tileHeight, tileWidth, new TileCache(DEFAULT_CACHE_TILES));
+    }
+
+    /**
+     * Creates a reader using a given cache.
+     *
+     * @param file       The file of the array.
+     * @param array      The image or image stack.
+     * @param tileHeight The height of the tiles.
+     * @param tileWidth  The width of the tiles.
+     * @param cache      The tile cache, may be shared between readers.
+     */
+    public TileReader(File file, DataArray array, int tileHeight, int tileWidth, TileCache cache) {
+        int[] extent = array.getDataExtent().getData();
+        if (extent.length != 2 && extent.length != 3) {
+            throw new IllegalArgumentException("DataArray must be two or three dimensional");
+        }
+        if (tileHeight <= 0 || tileWidth <= 0) {
+            throw new IllegalArgumentException("Tile shape must be positive");
+        }
+
+        this.array = array;
+        this.location = file.getLocation();
+        this.arrayId = array.getId();
+        this.cache = cache;
+        this.stack = extent.length == 3;
+        this.depth = stack ? extent[0] : 1;
+        this.height = extent[extent.length - 2];
+        this.width = extent[extent.length - 1];
+        this.tileHeight = tileHeight;
+        this.tileWidth = tileWidth;
+        this.prefetch = true;
+    }
+
+    /**
+     * Enables or disables reading the neighbours of a tile on a cache miss. Enabled by default.
+     *
+     * @param prefetch True to prefetch neighbours.
+     * @return The reader.
+     */
+    public TileReader setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * Get the cache used by this reader.
+     *
+     * @return The cache.
+     */
+    public TileCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Get the number of tiles along the x axis (width).
+     *
+     * @return The number of tiles.
+     */
+    public int getTileCountX() {
+        return (width + tileWidth - 1) / tileWidth;
+    }
+
+    /**
+     * Get the number of tiles along the y axis (height).
+     *
+     * @return The number of tiles.
+     */
+    public int getTileCountY() {
+        return (height + tileHeight - 1) / tileHeight;
+    }
+
+    /**
+     * Reads a tile.
+     *
+     * @param z     The index of the image in the stack, 0 for two dimensional arrays.
+     * @param tileX The tile index along the x axis (width).
+     * @param tileY The tile index along the y axis (height).
+     * @return The tile.
+     */
+    public Tile readTile(int z, int tileX, int tileY) {
+        if (z < 0 || z >= depth || tileX < 0 || tileX >= getTileCountX() || tileY < 0 || tileY >= getTileCountY()) {
+            throw new IndexOutOfBoundsException("Tile is out of bounds of the DataArray!");
+        }
+
+        Key key = key(z, tileX, tileY);
+        Tile tile = cache.get(key);
+        NativeEvents.cacheAccessed("TileCache", tile != null);
+        if (tile != null) {
+            return tile;
+        }
+
+        int x0 = prefetch ? Math.max(0, tileX - 1) : tileX;
+        int x1 = prefetch ? Math.min(getTileCountX() - 1, tileX + 1) : tileX;
+        int y0 = prefetch ? Math.max(0, tileY - 1) : tileY;
+        int y1 = prefetch ? Math.min(getTileCountY() - 1, tileY + 1) : tileY;
+        return readRegion(z, x0, x1, y0, y1, key);
+    }
+
+    private Tile readRegion(int z, int tileX0, int tileX1, int tileY0, int tileY1, Key requested) {
+        int px = tileX0 * tileWidth;
+        int py = tileY0 * tileHeight;
+        int regionWidth = Math.min(width, (tileX1 + 1) * tileWidth) - px;
+        int regionHeight = Math.min(height, (tileY1 + 1) * tileHeight) - py;
+
+        double[] region = new double[regionWidth * regionHeight];
+        if (stack) {
+            array.getData(region, new NDSize(new int[]{1, regionHeight, regionWidth}), new NDSize(new int[]{z, py, px}));
+        } else {
+            array.getData(region, new NDSize(new int[]{regionHeight, regionWidth}), new NDSize(new int[]{py, px}));
+        }
+
+        Tile requestedTile = null;
+        for (int ty = tileY0; ty <= tileY1; ty++) {
+            for (int tx = tileX0; tx <= tileX1; tx++) {
+                Key key = key(z, tx, ty);
+                boolean isRequested = key.equals(requested);
+                if (!isRequested && cache.contains(key)) {
+                    continue;
+                }
+
+                int x = tx * tileWidth;
+                int y = ty * tileHeight;
+                int w = Math.min(tileWidth, width - x);
+                int h = Math.min(tileHeight, height - y);
+                double[] data = new double[w * h];
+                for (int row = 0; row < h; row++) {
+                    System.arraycopy(region, (y - py + row) * regionWidth + (x - px), data, row * w, w);
+                }
+
+                Tile tile = new Tile(x, y, w, h, data);
+                if (isRequested) {
+                    requestedTile = tile;
+                } else {
+                    cache.put(key, tile);
+                }
+            }
+        }
+        // the requested tile is put last, so it is the most recently used one
+        cache.put(requested, requestedTile);
+        return requestedTile;
+    }
+
+    private Key key(int z, int tileX, int tileY) {
+        return new Key(location, arrayId, stack, tileHeight, tileWidth, z, tileX, tileY);
+    }
+}
@@ -0,0 +1,279 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.DataArray;
+import org.g_node.nix.Dimension;
+import org.g_node.nix.DimensionType;
+import org.g_node.nix.MultiTag;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.SampledDescriptor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>TriggeredAverage</h1>
+ * Streaming event-triggered (e.g. spike- or stimulus-triggered) average.
+ * <p>
+ * The signal is read in large sequential chunks. Every event window that overlaps a chunk
+ * is accumulated into running mean and squared deviation buffers (Welford's method), so mean
+ * and standard deviation of all windows are obtained with a single pass over the data, without
+ * the cancellation of a sum of squares for signals with a large offset. Regions of the signal
+ * that are not covered by any window are skipped.
+ * <p>
+ * The signal must be a one dimensional DataArray described by a {@link org.g_node.nix.SampledDimension}.
+ * The window is given relative to each event in the unit of that dimension and spans
+ * <tt>[position - before, position + after)</tt>. Windows that do not lie completely within
+ * the signal are ignored.
+ * <pre><code>
+ *     DataArray voltage = ...;
+ *     MultiTag spikes = ...;
+ *     TriggeredAverage.Average sta = new TriggeredAverage(voltage, 0.005, 0.010).compute(spikes);
+ *     double[] mean = sta.getMean();
+ * </code></pre>
+ *
+ * @see MultiTag
+ * @see SampledDescriptor
+ */
+public class TriggeredAverage {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final DataArray signal;
+    private final SampledDescriptor dimension;
+    private final long length;
+    private final int pre;
+    private final int windowSize;
+    private int chunkSize;
+
+    /**
+     * The result of a triggered average.
+     */
+    public static class Average {
+        private final double[] mean;
+        private final double[] sd;
+        private final double[] axis;
+        private final int count;
+
+        Average(double[] mean, double[] sd, double[] axis, int count) {
+            this.mean = mean;
+            this.sd = sd;
+            this.axis = axis;
+            this.count = count;
+        }
+
+        /**
+         * Get the mean over all event windows.
+         *
+         * @return The mean, one value per sample of the window.
+         */
+        public double[] getMean() {
+            return mean;
+        }
+
+        /**
+         * Get the (sample) standard deviation over all event windows.
+         *
+         * @return The standard deviation, one value per sample of the window.
+         */
+        public double[] getStandardDeviation() {
+            return sd;
+        }
+
+        /**
+         * Get the time axis of the window relative to the events.
+         *
+         * @return The relative positions in the unit of the signal's dimension.
+         */
+        public double[] getAxis() {
+            return axis;
+        }
+
+        /**
+         * Get the number of events that contributed to the average.
+         *
+         * @return The number of event windows.
+         */
+        public int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Creates a triggered average for a signal.
+     *
+     * @param signal The signal, a one dimensional DataArray with a sampled dimension.
+     * @param before The part of the window before each event.
+     * @param after  The part of the window after each event.
+     */
+    public TriggeredAverage(DataArray signal, double before, double after) {
+        int[] extent = signal.getDataExtent().getData();
+        if (extent.length != 1) {
+            throw new IllegalArgumentException("Signal must be one dimensional");
+        }
+
+        Dimension dim = signal.getDimension(1);
+        if (dim == null || dim.getDimensionType() != DimensionType.Sample) {
+            throw new IllegalArgumentException("Signal must be described by a SampledDimension");
+        }
+        if (before < 0 || after < 0 || before + after <= 0) {
+            throw new IllegalArgumentException("Invalid window");
+        }
+
+        this.signal = signal;
+        this.dimension = dim.asSampledDimension().getDescriptor();
+        this.length = extent[0];
+        this.pre = (int) Math.round(before / dimension.getSamplingInterval());
+        this.windowSize = (int) Math.round((before + after) / dimension.getSamplingInterval());
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+    }
+
+    /**
+     * Sets the number of samples read per chunk.
+     *
+     * @param chunkSize The number of samples per read.
+     * @return The triggered average.
+     */
+    public TriggeredAverage setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Get the number of samples of the window.
+     *
+     * @return The window size in samples.
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    //--------------------------------------------------
+    // Computation
+    //--------------------------------------------------
+
+    /**
+     * Computes the average for events given by the positions of a MultiTag.
+     * <p>
+     * The first column of the positions is used, the unit is taken from the
+     * first unit of the tag.
+     *
+     * @param tag The multi tag.
+     * @return The triggered average.
+     */
+    public Average compute(MultiTag tag) {
+        List<String> units = tag.getUnits();
+        String unit = units.isEmpty() ? "none" : units.get(0);
+        return compute(tag.getPositions(), unit);
+    }
+
+    /**
+     * Computes the average for events stored in a DataArray.
+     * <p>
+     * For two dimensional arrays the first column is used.
+     *
+     * @param positions The event positions.
+     * @param unit      The unit of the positions, may be "none".
+     * @return The triggered average.
+     */
+    public Average compute(DataArray positions, String unit) {
+        int[] extent = positions.getDataExtent().getData();
+        if (extent.length < 1 || extent.length > 2) {
+            throw new IllegalArgumentException("Positions must be one or two dimensional");
+        }
+
+        double[] data = new double[extent[0]];
+        if (extent[0] > 0) {
+            if (extent.length == 1) {
+                positions.getData(data, new NDSize(new int[]{extent[0]}), new NDSize(new int[]{0}));
+            } else {
+                positions.getData(data, new NDSize(new int[]{extent[0], 1}), new NDSize(new int[]{0, 0}));
+            }
+        }
+        return compute(data, unit);
+    }
+
+    /**
+     * Computes the average for the given event positions.
+     *
+     * @param positions The event positions.
+     * @param unit      The unit of the positions, may be "none".
+     * @return The triggered average.
+     */
+    public Average compute(double[] positions, String unit) {
+        double scaling = dimension.getScaling(unit);
+        double origin = dimension.getOffset();
+        double interval = dimension.getSamplingInterval();
+
+        // window starts of all events that lie completely within the signal, in file order
+        long[] starts = new long[positions.length];
+        int n = 0;
+        for (double position : positions) {
+            double scaled = position * scaling;
+            // events that round to an index before the first sample have no index, getIndexOf
+            // rounds half way cases away from zero
+            if ((scaled - origin) / interval <= -0.5) {
+                continue;
+            }
+            long start = dimension.getIndexOf(scaled) - pre;
+            if (start >= 0 && start + windowSize <= length) {
+                starts[n++] = start;
+            }
+        }
+        starts = Arrays.copyOf(starts, n);
+        Arrays.sort(starts);
+
+        // running mean and sum of squared deviations per sample of the window, a window that
+        // spans chunks reaches its samples in different chunks, so each sample has its own count
+        int[] counts = new int[windowSize];
+        double[] mean = new double[windowSize];
+        double[] m2 = new double[windowSize];
+        double[] chunk = new double[(int) Math.min(chunkSize, Math.max(length, 1))];
+
+        int first = 0;
+        long next = 0;
+        while (first < n) {
+            // continue a partially read window or skip the parts of the signal not covered by any window
+            long chunkStart = Math.max(next, starts[first]);
+            int count = (int) Math.min(chunk.length, length - chunkStart);
+            long chunkEnd = chunkStart + count;
+
+            signal.getData(chunk, new NDSize(new int[]{count}), new NDSize(new int[]{(int) chunkStart}));
+
+            for (int e = first; e < n && starts[e] < chunkEnd; e++) {
+                long start = starts[e];
+                long from = Math.max(start, chunkStart);
+                long to = Math.min(start + windowSize, chunkEnd);
+                int offset = (int) (from - start);
+                int src = (int) (from - chunkStart);
+
+                for (int k = 0; k < to - from; k++) {
+                    int i = offset + k;
+                    double value = chunk[src + k];
+                    double delta = value - mean[i];
+                    mean[i] += delta / ++counts[i];
+                    m2[i] += delta * (value - mean[i]);
+                }
+            }
+
+            // windows that end within this chunk are complete
+            while (first < n && starts[first] + windowSize <= chunkEnd) {
+                first++;
+            }
+            next = chunkEnd;
+        }
+
+        double[] sd = new double[windowSize];
+        double[] axis = new double[windowSize];
+        for (int k = 0; k < windowSize; k++) {
+            if (n == 0) {
+                mean[k] = Double.NaN;
+            }
+            sd[k] = n > 1 ? Math.sqrt(m2[k] / (n - 1)) : Double.NaN;
+            axis[k] = (k - pre) * interval;
+        }
+        return new Average(mean, sd, axis, n);
+    }
+}
@@ -0,0 +1,201 @@
+package org.g_node.nix.util;
+
+import org.g_node.nix.internal.NativeEvents;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>UnitCache</h1>
+ * Memoized versions of the unit functions of {@link Util}.
+ * <p>
+ * Every call to the unit functions of {@link Util} passes the strings to native code where the
+ * units are parsed again. The cache remembers the scaling between pairs of units (or that they
+ * are not scalable) and the parse results of single units, so repeated conversions, e.g. once
+ * per tag, do not cross into native code.
+ * <p>
+ * The cache is safe for concurrent use. It holds at most {@link UnitCache#MAX_ENTRIES} entries
+ * per kind and is cleared when this limit is reached.
+ * <pre><code>
+ *     double scaling = UnitCache.getSIScaling("ms", "s");
+ * </code></pre>
+ *
+ * @see Util
+ */
+public final class UnitCache {
+
+    /**
+     * Maximum number of cached entries per kind.
+     */
+    public static final int MAX_ENTRIES = 4096;
+
+    // marker for units that are not scalable
+    private static final double INCOMPATIBLE = Double.NaN;
+
+    private static final ConcurrentHashMap<Pair, Double> scalings = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Parsed> units = new ConcurrentHashMap<>();
+
+    private UnitCache() {
+    }
+
+    private static final class Pair {
+        private final String a;
+        private final String b;
+
+        Pair(String a, String b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Pair)) {
+                return false;
+            }
+            Pair other = (Pair) o;
+            return a.equals(other.a) && b.equals(other.b);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * a.hashCode() + b.hashCode();
+        }
+    }
+
+    private static final class Parsed {
+        private final String sanitized;
+        private final boolean si;
+        private final String[] parts;
+
+        Parsed(String unit) {
+            sanitized = Util.unitSanitizer(unit);
+            // the unit as given, so that the results are the same as those of Util
+            si = Util.isSIUnit(unit);
+            parts = si && Util.isAtomicSIUnit(unit) ? Util.splitUnit(unit) : null;
+        }
+    }
+
+    //--------------------------------------------------
+    // Unit pairs
+    //--------------------------------------------------
+
+    /**
+     * Get the scaling between two SI units.
+     *
+     * @param originUnit      The original unit.
+     * @param destinationUnit The one into which a scaling should be done.
+     * @return The scaling factor.
+     * @throws IllegalArgumentException if the units are not scalable.
+     * @see Util#getSIScaling(String, String)
+     */
+    public static double getSIScaling(String originUnit, String destinationUnit) {
+        double scaling = scaling(originUnit, destinationUnit);
+        if (Double.isNaN(scaling)) {
+            throw new IllegalArgumentException("Units " + originUnit + " and " + destinationUnit + " are not scalable!");
+        }
+        return scaling;
+    }
+
+    /**
+     * Checks whether two units can be scaled into each other.
+     *
+     * @param unitA The first unit.
+     * @param unitB The second unit.
+     * @return True if the units are scalable, false otherwise.
+     * @see Util#isScalable(String, String)
+     */
+    public static boolean isScalable(String unitA, String unitB) {
+        return !Double.isNaN(scaling(unitA, unitB));
+    }
+
+    private static double scaling(String originUnit, String destinationUnit) {
+        Pair key = new Pair(originUnit, destinationUnit);
+        Double scaling = scalings.get(key);
+        NativeEvents.cacheAccessed("UnitCache", scaling != null);
+        if (scaling == null) {
+            scaling = Util.isScalable(originUnit, destinationUnit)
+                    ? Util.getSIScaling(originUnit, destinationUnit)
+                    : INCOMPATIBLE;
+            if (scalings.size() >= MAX_ENTRIES) {
+                scalings.clear();
+            }
+            scalings.put(key, scaling);
+        }
+        return scaling;
+    }
+
+    //--------------------------------------------------
+    // Single units
+    //--------------------------------------------------
+
+    /**
+     * Deblanks a unit and replaces mu and µ with "u".
+     *
+     * @param unit The unit.
+     * @return The sanitized unit.
+     * @see Util#unitSanitizer(String)
+     */
+    public static String unitSanitizer(String unit) {
+        return parse(unit).sanitized;
+    }
+
+    /**
+     * Checks if the passed string represents a valid SI unit.
+     *
+     * @param unit The unit.
+     * @return True if a valid SI unit, false otherwise.
+     * @see Util#isSIUnit(String)
+     */
+    public static boolean isSIUnit(String unit) {
+        return parse(unit).si;
+    }
+
+    /**
+     * Splits an atomic SI unit into prefix, unit and power.
+     *
+     * @param unit The unit.
+     * @return Array with prefix, unit and power.
+     * @throws IllegalArgumentException if the unit is not an atomic SI unit.
+     * @see Util#splitUnit(String)
+     */
+    public static String[] splitUnit(String unit) {
+        String[] parts = parse(unit).parts;
+        if (parts == null) {
+            throw new IllegalArgumentException("Unit " + unit + " is not an atomic SI unit!");
+        }
+        return parts.clone();
+    }
+
+    private static Parsed parse(String unit) {
+        Parsed parsed = units.get(unit);
+        NativeEvents.cacheAccessed("UnitCache", parsed != null);
+        if (parsed == null) {
+            parsed = new Parsed(unit);
+            if (units.size() >= MAX_ENTRIES) {
+                units.clear();
+            }
+            units.put(unit, parsed);
+        }
+        return parsed;
+    }
+
+    //--------------------------------------------------
+    // Cache management
+    //--------------------------------------------------
+
+    /**
+     * Get the number of cached entries.
+     *
+     * @return The number of unit pairs and single units in the cache.
+     */
+    public static int size() {
+        return scalings.size() + units.size();
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public static void clear() {
+        scalings.clear();
+        units.clear();
+    }
+}
@@ -1,12 +1,12 @@
 package org.g_node.nix.util;
 
 import org.bytedeco.javacpp.BytePointer;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.base.Entity;
 import org.g_node.nix.base.NamedEntity;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeLibrary;
 import org.g_node.nix.internal.VectorUtils;
 
 import java.util.ArrayList;
@@ -18,6 +18,7 @@ import java.util.List;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/util/util.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -27,7 +28,7 @@ import java.util.List;
 @Namespace("nix::util")
 public class Util {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     private static native void deblankString(@StdString BytePointer str);
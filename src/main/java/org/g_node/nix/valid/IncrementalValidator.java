@@ -0,0 +1,248 @@
+package org.g_node.nix.valid;
+
+import org.g_node.nix.*;
+import org.g_node.nix.internal.ChangeTracker;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * <h1>IncrementalValidator</h1>
+ * Validates a file repeatedly, checking only what was changed since the last validation.
+ * <p>
+ * The validator caches the {@link Result} of every block and every top-level section of the file.
+ * Entities report changes made through their setters and create, delete, add and remove methods,
+ * and a call of {@link IncrementalValidator#validate()} validates again only the blocks and
+ * top-level sections that contain a changed entity, new ones, and reuses the cached results of
+ * all others. Entities only depend on entities of the same block or section tree, e.g. a tag is
+ * validated against the data arrays it references, which are in its block, so validating the
+ * whole block covers the dependents of a change.
+ * <p>
+ * The granularity is a whole block or top-level section: a single changed data array validates
+ * its entire block again. Files with a single block therefore gain nothing over a complete
+ * validation, the validator pays off for files with many blocks.
+ * <pre><code>
+ *     IncrementalValidator validator = new IncrementalValidator(file);
+ *     Result result = validator.validate();    // validates everything
+ *     block.getDataArray("signal").setUnit("mV");
+ *     result = validator.validate();           // validates the block of the data array only
+ * </code></pre>
+ * Changes are seen from the creation of the validator on. Changes that are not made through the
+ * bindings, e.g. by another process, are not seen, {@link IncrementalValidator#invalidate()}
+ * forces a complete validation. Changes of dimensions that were not obtained from their data
+ * array while a validator existed, e.g. through {@link org.g_node.nix.util.DataAccess},
+ * invalidate all cached results.
+ *
+ * @see Validator
+ * @see Result
+ */
+public class IncrementalValidator implements AutoCloseable {
+
+    private final File file;
+
+    // cached results of blocks and top-level sections in file order
+    private Map<String, Unit> units = new LinkedHashMap<>();
+    // entity id -> id of the block or top-level section containing it
+    private final Map<String, String> index = new HashMap<>();
+
+    private final Object lock = new Object();
+    private Set<String> changed = new HashSet<>();
+    private boolean unknown;
+
+    // held here only, the tracker references it weakly
+    private final ChangeTracker.Listener listener = new ChangeTracker.Listener() {
+        @Override
+        public void changed(String id) {
+            synchronized (lock) {
+                changed.add(id);
+            }
+        }
+
+        @Override
+        public void changedUnknown() {
+            invalidate();
+        }
+    };
+
+    private int validated;
+    private int reused;
+
+    private static final class Unit {
+        final Result result;
+        final List<String> members;
+
+        Unit(Result result, List<String> members) {
+            this.result = result;
+            this.members = members;
+        }
+    }
+
+    /**
+     * Creates a validator for a file and starts tracking changes.
+     *
+     * @param file The file.
+     */
+    public IncrementalValidator(File file) {
+        this.file = file;
+        ChangeTracker.register(listener);
+    }
+
+    /**
+     * Drops all cached results, so that the next validation checks the whole file.
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            unknown = true;
+        }
+    }
+
+    /**
+     * Validates the changed parts of the file.
+     *
+     * @return The validation results of the whole file.
+     */
+    public Result validate() {
+        Set<String> ids;
+        boolean all;
+        synchronized (lock) {
+            ids = changed;
+            changed = new HashSet<>();
+            all = unknown;
+            unknown = false;
+        }
+
+        Set<String> dirty = new HashSet<>();
+        for (String id : ids) {
+            String unit = index.get(id);
+            if (unit != null) {
+                dirty.add(unit);
+            }
+        }
+
+        validated = 0;
+        reused = 0;
+        Map<String, Unit> current = new LinkedHashMap<>();
+        Result result = new Result();
+        for (Block block : file.getBlocks()) {
+            Unit unit = unit(block.getId(), all, dirty, () -> validate(block));
+            current.put(block.getId(), unit);
+            result = result.concat(unit.result);
+        }
+        for (Section section : file.getSections()) {
+            Unit unit = unit(section.getId(), all, dirty, () -> validate(section));
+            current.put(section.getId(), unit);
+            result = result.concat(unit.result);
+        }
+
+        // forget entities of deleted blocks and sections
+        for (Map.Entry<String, Unit> entry : units.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                unindex(entry.getValue());
+            }
+        }
+        units = current;
+        return result;
+    }
+
+    private Unit unit(String id, boolean all, Set<String> dirty, Supplier<Unit> check) {
+        Unit unit = units.get(id);
+        if (unit != null && !all && !dirty.contains(id)) {
+            reused++;
+            return unit;
+        }
+        if (unit != null) {
+            unindex(unit);
+        }
+        unit = check.get();
+        for (String member : unit.members) {
+            index.put(member, id);
+        }
+        validated++;
+        return unit;
+    }
+
+    private void unindex(Unit unit) {
+        for (String member : unit.members) {
+            index.remove(member);
+        }
+    }
+
+    private static Unit validate(Block block) {
+        Result result = Validator.validate(block);
+        List<String> members = new ArrayList<>();
+        members.add(block.getId());
+        for (DataArray array : block.getDataArrays()) {
+            members.add(array.getId());
+        }
+        for (Tag tag : block.getTags()) {
+            members.add(tag.getId());
+            for (Feature feature : tag.getFeatures()) {
+                members.add(feature.getId());
+            }
+        }
+        for (MultiTag tag : block.getMultiTags()) {
+            members.add(tag.getId());
+            for (Feature feature : tag.getFeatures()) {
+                members.add(feature.getId());
+            }
+        }
+        for (Group group : block.getGroups()) {
+            members.add(group.getId());
+        }
+        addSources(block.getSources(), members);
+        return new Unit(result, members);
+    }
+
+    private static void addSources(List<Source> sources, List<String> members) {
+        for (Source source : sources) {
+            members.add(source.getId());
+            addSources(source.getSources(), members);
+        }
+    }
+
+    private static Unit validate(Section section) {
+        Result result = Validator.validate(section);
+        List<String> members = new ArrayList<>();
+        addSection(section, members);
+        return new Unit(result, members);
+    }
+
+    private static void addSection(Section section, List<String> members) {
+        members.add(section.getId());
+        for (Property property : section.getProperties()) {
+            members.add(property.getId());
+        }
+        for (Section child : section.getSections()) {
+            addSection(child, members);
+        }
+    }
+
+    /**
+     * Get the number of blocks and top-level sections checked by the last validation.
+     *
+     * @return The number of validated blocks and sections.
+     */
+    public int getValidatedCount() {
+        return validated;
+    }
+
+    /**
+     * Get the number of blocks and top-level sections whose cached results were reused by the
+     * last validation.
+     *
+     * @return The number of unchanged blocks and sections.
+     */
+    public int getReusedCount() {
+        return reused;
+    }
+
+    /**
+     * Stops tracking changes. The validator must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        ChangeTracker.unregister(listener);
+        units.clear();
+        index.clear();
+    }
+}
@@ -1,9 +1,9 @@
 package org.g_node.nix.valid;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeLibrary;
 
 /**
  * <h1>Message</h1>
@@ -14,6 +14,7 @@ import org.g_node.nix.internal.BuildLibs;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/valid/helper.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -23,7 +24,7 @@ import org.g_node.nix.internal.BuildLibs;
 @Namespace("nix::valid")
 public class Message extends Pointer {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     /**
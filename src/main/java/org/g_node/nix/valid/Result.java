@@ -1,9 +1,9 @@
 package org.g_node.nix.valid;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeLibrary;
 import org.g_node.nix.internal.None;
 import org.g_node.nix.internal.VectorUtils;
 
@@ -15,6 +15,7 @@ import java.util.List;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/valid/result.hpp>"}),
         @Platform(value = "linux", link = BuildLibs.NIX_1, preload = BuildLibs.HDF5_7),
         @Platform(value = "macosx", link = BuildLibs.NIX, preload = BuildLibs.HDF5),
@@ -25,7 +26,7 @@ import java.util.List;
 @NoOffset
 public class Result extends Pointer {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
     //--------------------------------------------------
@@ -1,9 +1,10 @@
 package org.g_node.nix.valid;
 
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.annotation.*;
 import org.g_node.nix.*;
 import org.g_node.nix.internal.BuildLibs;
+import org.g_node.nix.internal.NativeEvents;
+import org.g_node.nix.internal.NativeLibrary;
 
 /**
  * <h1>Validator</h1>
@@ -11,6 +12,7 @@ import org.g_node.nix.internal.BuildLibs;
  */
 
 @Properties(value = {
+        @Platform(library = BuildLibs.JNI_NIX),
         @Platform(include = {"<nix/valid/validate.hpp>",
                 "<nix/Block.hpp>",
                 "<nix/DataArray.hpp>",
@@ -30,9 +32,14 @@ import org.g_node.nix.internal.BuildLibs;
 @Namespace("nix::valid")
 public class Validator {
     static {
-        Loader.load();
+        NativeLibrary.load();
     }
 
+    private static native
+    @Name("validate")
+    @ByVal
+    Result check(@Const @ByRef Block block);
+
     /**
      * Block entity validator
      * <p>
@@ -42,10 +49,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(Block block) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("Block", () -> check(block));
+        }
+        return check(block);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef Block block);
+    Result check(@Const @ByRef DataArray dataArray);
 
     /**
      * DataArray entity validator
@@ -57,10 +71,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(DataArray dataArray) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("DataArray", () -> check(dataArray));
+        }
+        return check(dataArray);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef DataArray dataArray);
+    Result check(@Const @ByRef Tag tag);
 
     /**
      * Tag entity validator
@@ -72,10 +93,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(Tag tag) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("Tag", () -> check(tag));
+        }
+        return check(tag);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef Tag tag);
+    Result check(@Const @ByRef Property property);
 
     /**
      * Property entity validator
@@ -87,10 +115,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(Property property) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("Property", () -> check(property));
+        }
+        return check(property);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef Property property);
+    Result check(@Const @ByRef MultiTag multiTag);
 
     /**
      * MultiTag entity validator
@@ -101,10 +136,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(MultiTag multiTag) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("MultiTag", () -> check(multiTag));
+        }
+        return check(multiTag);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef MultiTag multiTag);
+    Result check(@Const @ByRef Dimension dimension);
 
     /**
      * Dimension entity validator
@@ -116,10 +158,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(Dimension dimension) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("Dimension", () -> check(dimension));
+        }
+        return check(dimension);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef Dimension dimension);
+    Result check(@Const @ByRef RangeDimension rangeDimension);
 
     /**
      * RangeDimension entity validator
@@ -131,10 +180,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(RangeDimension rangeDimension) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("RangeDimension", () -> check(rangeDimension));
+        }
+        return check(rangeDimension);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef RangeDimension rangeDimension);
+    Result check(@Const @ByRef SampledDimension sampledDimension);
 
     /**
      * SampledDimension entity validator
@@ -146,10 +202,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(SampledDimension sampledDimension) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("SampledDimension", () -> check(sampledDimension));
+        }
+        return check(sampledDimension);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef SampledDimension sampledDimension);
+    Result check(@Const @ByRef SetDimension setDimension);
 
     /**
      * SetDimension entity validator
@@ -161,10 +224,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(SetDimension setDimension) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("SetDimension", () -> check(setDimension));
+        }
+        return check(setDimension);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef SetDimension setDimension);
+    Result check(@Const @ByRef Feature feature);
 
     /**
      * Feature entity validator
@@ -175,10 +245,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(Feature feature) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("Feature", () -> check(feature));
+        }
+        return check(feature);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef Feature feature);
+    Result check(@Const @ByRef Section section);
 
     /**
      * Section entity validator
@@ -189,10 +266,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(Section section) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("Section", () -> check(section));
+        }
+        return check(section);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef Section section);
+    Result check(@Const @ByRef Source source);
 
     /**
      * Source entity validator
@@ -203,10 +287,17 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
+    public static Result validate(Source source) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("Source", () -> check(source));
+        }
+        return check(source);
+    }
+
+    private static native
+    @Name("validate")
     @ByVal
-    Result
-    validate(@Const @ByRef Source source);
+    Result check(@Const @ByRef File file);
 
     /**
      * File entity validator
@@ -217,8 +308,10 @@ public class Validator {
      * @return The validation results as {@link Result} object
      * @see Result
      */
-    public static native
-    @ByVal
-    Result
-    validate(@Const @ByRef File file);
+    public static Result validate(File file) {
+        if (NativeEvents.isEnabled()) {
+            return NativeEvents.validate("File", () -> check(file));
+        }
+        return check(file);
+    }
 }
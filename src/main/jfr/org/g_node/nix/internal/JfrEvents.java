@@ -0,0 +1,187 @@
+package org.g_node.nix.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import org.g_node.nix.DataArray;
+import org.g_node.nix.DataType;
+import org.g_node.nix.NDSize;
+import org.g_node.nix.valid.Result;
+
+import java.util.function.Supplier;
+
+/**
+ * <h1>JfrEvents</h1>
+ * The event types behind {@link NativeEvents}.
+ * <p>
+ * This is the only class that refers to <tt>jdk.jfr</tt>. It is compiled only with JDK 11 or
+ * newer and {@link NativeEvents} loads it reflectively, so it is not loaded on JVMs without JFR.
+ */
+final class JfrEvents implements EventRecorder {
+
+    private static final Class<?>[] EVENTS = {FileEvent.class, DataEvent.class, RetrieveDataEvent.class, ValidateEvent.class};
+
+    JfrEvents() {
+        install();
+    }
+
+    @Name("org.g_node.nix.File")
+    @Label("File")
+    @Category("NIX")
+    static final class FileEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Path")
+        String path;
+
+        @Label("Mode")
+        int mode;
+    }
+
+    @Name("org.g_node.nix.Data")
+    @Label("Data I/O")
+    @Category("NIX")
+    static final class DataEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("DataArray")
+        String arrayId;
+
+        @Label("Data Type")
+        int dataType;
+
+        @Label("Elements")
+        long elements;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("org.g_node.nix.RetrieveData")
+    @Label("Retrieve Data")
+    @Category("NIX")
+    static final class RetrieveDataEvent extends Event {
+        @Label("Tag")
+        String tagId;
+
+        @Label("Position Index")
+        long positionIndex;
+
+        @Label("Reference Index")
+        long referenceIndex;
+    }
+
+    @Name("org.g_node.nix.Validate")
+    @Label("Validate")
+    @Category("NIX")
+    static final class ValidateEvent extends Event {
+        @Label("Entity")
+        String entity;
+
+        @Label("Errors")
+        int errors;
+
+        @Label("Warnings")
+        int warnings;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void install() {
+        for (Class<?> event : EVENTS) {
+            FlightRecorder.register((Class<? extends Event>) event);
+        }
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                update();
+            }
+
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                update();
+            }
+        });
+        if (FlightRecorder.isInitialized()) {
+            update();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void update() {
+        boolean enabled = false;
+        for (Class<?> event : EVENTS) {
+            enabled |= EventType.getEventType((Class<? extends Event>) event).isEnabled();
+        }
+        NativeEvents.setRecording(enabled);
+    }
+
+    @Override
+    public <T> T file(String operation, String path, int mode, Supplier<T> call) {
+        FileEvent event = new FileEvent();
+        event.begin();
+        T result = call.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = path;
+            event.mode = mode;
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public void data(String operation, DataArray array, int dataType, NDSize count, Runnable call) {
+        DataEvent event = new DataEvent();
+        event.begin();
+        call.run();
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.arrayId = array.getId();
+            event.dataType = dataType;
+            event.elements = count.getElementsProduct();
+            event.bytes = event.elements * DataType.sizeOf(dataType);
+            event.commit();
+        }
+    }
+
+    @Override
+    public <T> T retrieveData(String tagId, long positionIndex, long referenceIndex, Supplier<T> call) {
+        RetrieveDataEvent event = new RetrieveDataEvent();
+        event.begin();
+        T result = call.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.tagId = tagId;
+            event.positionIndex = positionIndex;
+            event.referenceIndex = referenceIndex;
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public Result validate(String entity, Supplier<Result> call) {
+        ValidateEvent event = new ValidateEvent();
+        event.begin();
+        Result result = call.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.entity = entity;
+            event.errors = result.getErrors().size();
+            event.warnings = result.getWarnings().size();
+            event.commit();
+        }
+        return result;
+    }
+}
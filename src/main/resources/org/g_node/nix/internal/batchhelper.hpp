@@ -0,0 +1,93 @@
+// Copyright © 2016 German Neuroinformatics Node (G-Node)
+//
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted under the terms of the BSD License. See
+// LICENSE file in the root of the Project.
+
+#ifndef NIX_JAVA_BATCH_H
+#define NIX_JAVA_BATCH_H
+
+#include <nix/Block.hpp>
+
+#include <string>
+#include <vector>
+
+namespace nix_java {
+
+// All functions create the entities in one pass. If a creation fails, the
+// entities created before are deleted again and the error is rethrown.
+
+static inline std::vector<nix::Source> create_sources(nix::Block &block,
+                                                      const std::vector<std::string> &names,
+                                                      const std::vector<std::string> &types) {
+    std::vector<nix::Source> created;
+    created.reserve(names.size());
+    try {
+        for (size_t i = 0; i < names.size(); i++) {
+            created.push_back(block.createSource(names[i], types[i]));
+        }
+    } catch (...) {
+        for (const nix::Source &source : created) {
+            block.deleteSource(source.id());
+        }
+        throw;
+    }
+    return created;
+}
+
+static inline std::vector<nix::DataArray> create_data_arrays(nix::Block &block,
+                                                             const std::vector<std::string> &names,
+                                                             const std::vector<std::string> &types,
+                                                             const std::vector<int> &dtypes,
+                                                             const std::vector<int> &ranks,
+                                                             const std::vector<int> &extents) {
+    std::vector<nix::DataArray> created;
+    created.reserve(names.size());
+    try {
+        size_t next = 0;
+        for (size_t i = 0; i < names.size(); i++) {
+            nix::NDSize shape(static_cast<size_t>(ranks[i]));
+            for (size_t d = 0; d < shape.size(); d++) {
+                shape[d] = static_cast<nix::ndsize_t>(extents[next++]);
+            }
+            created.push_back(block.createDataArray(names[i], types[i],
+                                                    static_cast<nix::DataType>(dtypes[i]), shape));
+        }
+    } catch (...) {
+        for (const nix::DataArray &array : created) {
+            block.deleteDataArray(array.id());
+        }
+        throw;
+    }
+    return created;
+}
+
+static inline std::vector<nix::Tag> create_tags(nix::Block &block,
+                                                const std::vector<std::string> &names,
+                                                const std::vector<std::string> &types,
+                                                const std::vector<int> &ranks,
+                                                const std::vector<double> &positions) {
+    std::vector<nix::Tag> created;
+    created.reserve(names.size());
+    try {
+        size_t next = 0;
+        for (size_t i = 0; i < names.size(); i++) {
+            std::vector<double> position(positions.begin() + next, positions.begin() + next + ranks[i]);
+            next += ranks[i];
+            created.push_back(block.createTag(names[i], types[i], position));
+        }
+    } catch (...) {
+        for (const nix::Tag &tag : created) {
+            block.deleteTag(tag.id());
+        }
+        throw;
+    }
+    return created;
+}
+
+}
+
+
+#endif // NIX_JAVA_BATCH_H
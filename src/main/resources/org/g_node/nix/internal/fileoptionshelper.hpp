@@ -0,0 +1,207 @@
+// Copyright © 2016 German Neuroinformatics Node (G-Node)
+//
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted under the terms of the BSD License. See
+// LICENSE file in the root of the Project.
+
+#ifndef NIX_JAVA_FILE_OPTIONS_H
+#define NIX_JAVA_FILE_OPTIONS_H
+
+#include <nix/File.hpp>
+
+#include <hdf5.h>
+
+#include <stdexcept>
+#include <string>
+
+namespace nix_java {
+
+// NIX opens the HDF5 file with its own file access property list. HDF5 shares
+// the low level file between all opens of the same file and the first open
+// configures its caches, so the file is opened here with the requested
+// settings first, then by NIX, and the handle from here is closed again.
+// If the file is open already, its caches keep their settings, which is
+// detected by reading them back.
+
+// Reads the cache settings of an open file into values: chunk cache bytes,
+// slots and w0, metadata cache initial, min and max size, page buffer bytes.
+static inline void read_options(hid_t fid, double *values) {
+    hid_t fapl = H5Fget_access_plist(fid);
+    if (fapl < 0) {
+        throw std::runtime_error("Could not get file access properties");
+    }
+
+    int mdc_nelmts = 0;
+    size_t nslots = 0;
+    size_t nbytes = 0;
+    double w0 = 0;
+    herr_t status = H5Pget_cache(fapl, &mdc_nelmts, &nslots, &nbytes, &w0);
+
+    size_t page_buffer_bytes = 0;
+#if H5_VERSION_GE(1, 10, 1)
+    unsigned min_meta = 0;
+    unsigned min_raw = 0;
+    if (status >= 0) {
+        status = H5Pget_page_buffer_size(fapl, &page_buffer_bytes, &min_meta, &min_raw);
+    }
+#endif
+    H5Pclose(fapl);
+
+    H5AC_cache_config_t config;
+    config.version = H5AC__CURR_CACHE_CONFIG_VERSION;
+    if (status >= 0) {
+        status = H5Fget_mdc_config(fid, &config);
+    }
+    if (status < 0) {
+        throw std::runtime_error("Could not get the cache settings");
+    }
+
+    values[0] = static_cast<double>(nbytes);
+    values[1] = static_cast<double>(nslots);
+    values[2] = w0;
+    values[3] = static_cast<double>(config.initial_size);
+    values[4] = static_cast<double>(config.min_size);
+    values[5] = static_cast<double>(config.max_size);
+    values[6] = static_cast<double>(page_buffer_bytes);
+}
+
+static inline hid_t open_with_options(const std::string &name, bool read_only,
+                                      long long chunk_cache_bytes, long long chunk_cache_slots,
+                                      double chunk_cache_w0,
+                                      long long mdc_initial, long long mdc_min, long long mdc_max,
+                                      long long page_buffer_bytes) {
+    hid_t fapl = H5Pcreate(H5P_FILE_ACCESS);
+    if (fapl < 0) {
+        throw std::runtime_error("Could not create file access properties");
+    }
+
+    herr_t status = 0;
+    if (chunk_cache_bytes >= 0 || chunk_cache_slots > 0 || chunk_cache_w0 >= 0) {
+        int mdc_nelmts = 0;
+        size_t nslots = 0;
+        size_t nbytes = 0;
+        double w0 = 0;
+        status = H5Pget_cache(fapl, &mdc_nelmts, &nslots, &nbytes, &w0);
+        if (status >= 0) {
+            status = H5Pset_cache(fapl, mdc_nelmts,
+                                  chunk_cache_slots > 0 ? static_cast<size_t>(chunk_cache_slots) : nslots,
+                                  chunk_cache_bytes >= 0 ? static_cast<size_t>(chunk_cache_bytes) : nbytes,
+                                  chunk_cache_w0 >= 0 ? chunk_cache_w0 : w0);
+        }
+    }
+
+    if (status >= 0 && mdc_max > 0) {
+        H5AC_cache_config_t config;
+        config.version = H5AC__CURR_CACHE_CONFIG_VERSION;
+        status = H5Pget_mdc_config(fapl, &config);
+        if (status >= 0) {
+            config.set_initial_size = true;
+            config.initial_size = static_cast<size_t>(mdc_initial);
+            config.min_size = static_cast<size_t>(mdc_min);
+            config.max_size = static_cast<size_t>(mdc_max);
+            status = H5Pset_mdc_config(fapl, &config);
+        }
+    }
+
+    if (status >= 0 && page_buffer_bytes > 0) {
+#if H5_VERSION_GE(1, 10, 1)
+        status = H5Pset_page_buffer_size(fapl, static_cast<size_t>(page_buffer_bytes), 0, 0);
+#else
+        H5Pclose(fapl);
+        throw std::runtime_error("Page buffering requires HDF5 1.10.1 or newer");
+#endif
+    }
+
+    if (status < 0) {
+        H5Pclose(fapl);
+        throw std::runtime_error("Invalid file access properties");
+    }
+
+    hid_t fid = H5Fopen(name.c_str(), read_only ? H5F_ACC_RDONLY : H5F_ACC_RDWR, fapl);
+    H5Pclose(fapl);
+    if (fid < 0) {
+        throw std::runtime_error("Could not open file " + name);
+    }
+
+    double values[7];
+    try {
+        read_options(fid, values);
+    } catch (...) {
+        H5Fclose(fid);
+        throw;
+    }
+    bool applied = (chunk_cache_bytes < 0 || values[0] == static_cast<double>(chunk_cache_bytes))
+                   && (chunk_cache_slots <= 0 || values[1] == static_cast<double>(chunk_cache_slots))
+                   && (chunk_cache_w0 < 0 || values[2] == chunk_cache_w0)
+                   && (mdc_max <= 0 || (values[4] == static_cast<double>(mdc_min)
+                                        && values[5] == static_cast<double>(mdc_max)))
+                   && (page_buffer_bytes <= 0 || values[6] == static_cast<double>(page_buffer_bytes));
+    if (!applied) {
+        H5Fclose(fid);
+        throw std::runtime_error("File " + name + " is already open, its cache settings cannot be changed");
+    }
+    return fid;
+}
+
+static inline nix::File open_file(const std::string &name, int mode, const std::string &impl,
+                                  long long chunk_cache_bytes, long long chunk_cache_slots,
+                                  double chunk_cache_w0,
+                                  long long mdc_initial, long long mdc_min, long long mdc_max,
+                                  long long page_buffer_bytes) {
+    nix::FileMode file_mode = static_cast<nix::FileMode>(mode);
+    if (file_mode == nix::FileMode::Overwrite) {
+        // let NIX create the file layout, then reopen it with the options
+        nix::File created = nix::File::open(name, nix::FileMode::Overwrite, impl);
+        created.close();
+        file_mode = nix::FileMode::ReadWrite;
+    }
+
+    hid_t fid = open_with_options(name, file_mode == nix::FileMode::ReadOnly,
+                                  chunk_cache_bytes, chunk_cache_slots, chunk_cache_w0,
+                                  mdc_initial, mdc_min, mdc_max, page_buffer_bytes);
+    try {
+        nix::File file = nix::File::open(name, file_mode, impl);
+        H5Fclose(fid);
+        return file;
+    } catch (...) {
+        H5Fclose(fid);
+        throw;
+    }
+}
+
+// Reads the cache settings of an open file, see read_options. The file is
+// opened again to get an HDF5 handle of the shared low level file.
+static inline void get_options(const std::string &name, double *values) {
+    hid_t fid = H5Fopen(name.c_str(), H5F_ACC_RDONLY, H5P_DEFAULT);
+    if (fid < 0) {
+        throw std::runtime_error("Could not open file " + name);
+    }
+    try {
+        read_options(fid, values);
+    } catch (...) {
+        H5Fclose(fid);
+        throw;
+    }
+    H5Fclose(fid);
+}
+
+// Writes all buffered data of an open file to the disk. The file is opened
+// again to get an HDF5 handle of the shared low level file.
+static inline void flush_file(const std::string &name) {
+    hid_t fid = H5Fopen(name.c_str(), H5F_ACC_RDONLY, H5P_DEFAULT);
+    if (fid < 0) {
+        throw std::runtime_error("Could not open file " + name);
+    }
+    herr_t status = H5Fflush(fid, H5F_SCOPE_GLOBAL);
+    H5Fclose(fid);
+    if (status < 0) {
+        throw std::runtime_error("Could not flush file " + name);
+    }
+}
+
+}
+
+
+#endif // NIX_JAVA_FILE_OPTIONS_H
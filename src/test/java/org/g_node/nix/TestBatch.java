@@ -0,0 +1,91 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestBatch {
+
+    private File file;
+    private Block block;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_Batch_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("batch", "test");
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testCommit() {
+        Batch batch = block.batch();
+        for (int i = 0; i < 50; i++) {
+            batch.dataArray("array_" + i, "test", DataType.Int32, new NDSize(new int[]{i + 1, 2}));
+            batch.tag("tag_" + i, "test", new double[]{i, 2 * i});
+        }
+        batch.source("source", "test");
+        assertEquals(101, batch.size());
+
+        Batch.Entities created = batch.commit();
+        assertEquals(50, created.getDataArrays().size());
+        assertEquals(50, created.getTags().size());
+        assertEquals(1, created.getSources().size());
+        assertEquals(50, block.getDataArrayCount());
+        assertEquals(50, block.getTagCount());
+        assertEquals(1, block.getSourceCount());
+
+        DataArray array = created.getDataArrays().get(9);
+        assertEquals("array_9", array.getName());
+        assertEquals(DataType.Int32, array.getDataType());
+        assertArrayEquals(new int[]{10, 2}, array.getDataExtent().getData());
+        assertArrayEquals(new double[]{9, 18}, created.getTags().get(9).getPosition(), 0.0);
+        assertEquals(block.getDataArray("array_9").getId(), array.getId());
+
+        try {
+            batch.source("another", "test");
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testRollback() {
+        block.createTag("taken", "test", new double[]{0});
+
+        Batch batch = block.batch()
+                .source("source", "test")
+                .dataArray("array", "test", DataType.Double, new NDSize(new int[]{10}))
+                .tag("free", "test", new double[]{1})
+                .tag("taken", "test", new double[]{2});
+        try {
+            batch.commit();
+            fail();
+        } catch (RuntimeException e) {
+        }
+        assertEquals(0, block.getSourceCount());
+        assertEquals(0, block.getDataArrayCount());
+        assertEquals(1, block.getTagCount());
+
+        try {
+            block.batch().source("twice", "test").source("twice", "test");
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.BlockCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestBlockCache {
+
+    private File file;
+    private Block block;
+    private DataArray array;
+    private BlockCache cache;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_BlockCache_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("cache", "test");
+
+        // 4096 rows of 32 elements, i.e. 2048 rows per block
+        double[] data = new double[4096 * 32];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        array = block.createDataArray("array", "test", DataType.Double, new NDSize(new int[]{4096, 32}));
+        array.setData(data, new NDSize(new int[]{4096, 32}), new NDSize(new int[]{0, 0}));
+
+        cache = BlockCache.getInstance();
+        cache.setBudget(4L * BlockCache.BLOCK_BYTES);
+        cache.resetCounters();
+    }
+
+    @After
+    public void tearDown() {
+        cache.clear();
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testRead() {
+        double[] data = new double[3 * 4];
+        BlockCache.getData(file, array, data, new NDSize(new int[]{3, 4}), new NDSize(new int[]{2047, 10}));
+
+        // the read spans two blocks
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getBlockCount());
+        assertEquals(2047 * 32 + 10, data[0], 0.0);
+        assertEquals(2047 * 32 + 13, data[3], 0.0);
+        assertEquals(2049 * 32 + 13, data[11], 0.0);
+
+        double[] again = new double[3 * 4];
+        BlockCache.getData(file, array, again, new NDSize(new int[]{3, 4}), new NDSize(new int[]{2047, 10}));
+        assertArrayEquals(data, again, 0.0);
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void testInvalidate() {
+        double[] data = new double[1];
+        BlockCache.getData(file, array, data, new NDSize(new int[]{1, 1}), new NDSize(new int[]{0, 0}));
+        BlockCache.getData(file, array, data, new NDSize(new int[]{1, 1}), new NDSize(new int[]{3000, 0}));
+        assertEquals(2, cache.getBlockCount());
+
+        array.setData(new double[]{-1.0}, new NDSize(new int[]{1, 1}), new NDSize(new int[]{3000, 0}));
+        assertEquals(1, cache.getBlockCount());
+
+        BlockCache.getData(file, array, data, new NDSize(new int[]{1, 1}), new NDSize(new int[]{3000, 0}));
+        assertEquals(-1.0, data[0], 0.0);
+    }
+
+    @Test
+    public void testEviction() {
+        cache.setBudget(BlockCache.BLOCK_BYTES);
+        double[] data = new double[1];
+        BlockCache.getData(file, array, data, new NDSize(new int[]{1, 1}), new NDSize(new int[]{0, 0}));
+        BlockCache.getData(file, array, data, new NDSize(new int[]{1, 1}), new NDSize(new int[]{3000, 0}));
+
+        assertEquals(1, cache.getBlockCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3000 * 32, data[0], 0.0);
+    }
+
+    @Test
+    public void testDirectBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * Double.BYTES).order(ByteOrder.nativeOrder());
+        array.getData(buffer, DataType.Double, new NDSize(new int[]{1, 4}), new NDSize(new int[]{1, 0}));
+        assertEquals(32.0, buffer.getDouble(0), 0.0);
+        assertEquals(35.0, buffer.getDouble(3 * Double.BYTES), 0.0);
+
+        buffer.putDouble(0, 7.0);
+        array.setData(buffer, DataType.Double, new NDSize(new int[]{1, 1}), new NDSize(new int[]{0, 0}));
+        double[] data = new double[1];
+        array.getData(data, new NDSize(new int[]{1, 1}), new NDSize(new int[]{0, 0}));
+        assertEquals(7.0, data[0], 0.0);
+
+        try {
+            array.getData(ByteBuffer.allocate(8), DataType.Double, new NDSize(new int[]{1, 1}), new NDSize(new int[]{0, 0}));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
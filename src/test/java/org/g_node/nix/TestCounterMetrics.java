@@ -0,0 +1,116 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.CounterMetrics;
+import org.g_node.nix.util.NixMetrics;
+import org.g_node.nix.util.UnitCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestCounterMetrics {
+
+    private File file;
+    private Block block;
+    private DataArray array;
+    private CounterMetrics metrics;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_CounterMetrics_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("metrics", "test");
+        array = block.createDataArray("array", "test", DataType.Double, new NDSize(new int[]{100}));
+
+        metrics = new CounterMetrics();
+        NixMetrics.install(metrics);
+    }
+
+    @After
+    public void tearDown() {
+        NixMetrics.uninstall();
+
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testInstall() {
+        assertSame(NixMetrics.installed(), metrics);
+        NixMetrics.uninstall();
+        assertNull(NixMetrics.installed());
+
+        array.getData(new double[10], new NDSize(new int[]{10}), new NDSize(new int[]{0}));
+        assertEquals(metrics.getCounter(CounterMetrics.BYTES_READ), 0);
+    }
+
+    @Test
+    public void testDataCounters() {
+        array.setData(new double[100], new NDSize(new int[]{100}), new NDSize(new int[]{0}));
+        assertEquals(metrics.getCounter(CounterMetrics.BYTES_WRITTEN), 800);
+        assertEquals(metrics.getBytesWritten(CounterMetrics.UNATTRIBUTED), 800);
+
+        metrics.attribute(file);
+        array.getData(new float[10], new NDSize(new int[]{10}), new NDSize(new int[]{5}));
+        assertEquals(metrics.getCounter(CounterMetrics.BYTES_READ), 40);
+        assertEquals(metrics.getBytesRead(file.getLocation()), 40);
+        assertEquals(metrics.getCounter("calls.DataArray"), 2);
+
+        CounterMetrics.Histogram histogram = metrics.getHistogram("DataArray.getData");
+        assertEquals(histogram.getCount(), 1);
+        assertTrue(histogram.getPercentile(50) >= 0);
+        assertTrue(histogram.getPercentile(100) <= histogram.getMax());
+
+        metrics.reset();
+        assertEquals(metrics.getCounter(CounterMetrics.BYTES_READ), 0);
+        assertEquals(histogram.getCount(), 0);
+    }
+
+    @Test
+    public void testAttributionEndsOnClose() {
+        metrics.attribute(file);
+        String location = file.getLocation();
+        String id = array.getId();
+        file.close();
+
+        file = File.open(location, FileMode.ReadWrite);
+        array = file.getBlock("metrics").getDataArray(id);
+        array.getData(new double[10], new NDSize(new int[]{10}), new NDSize(new int[]{0}));
+        assertEquals(metrics.getBytesRead(location), 0);
+        assertEquals(metrics.getBytesRead(CounterMetrics.UNATTRIBUTED), 80);
+    }
+
+    @Test
+    public void testFileAndEntityCounters() {
+        String location = "test_CounterMetrics_other_" + UUID.randomUUID().toString() + ".h5";
+        File other = File.open(location, FileMode.Overwrite);
+        other.close();
+        new java.io.File(location).delete();
+
+        assertEquals(metrics.getCounter("native.allocated.File"), 1);
+        assertEquals(metrics.getCounter("native.freed.File"), 1);
+        assertEquals(metrics.getHistogram("File.open").getCount(), 1);
+
+        block.createDataArray("second", "test", DataType.Double, new NDSize(new int[]{1}));
+        assertEquals(block.getDataArrays().size(), 2);
+        assertEquals(metrics.getCounter("native.allocated.DataArray"), 2);
+    }
+
+    @Test
+    public void testCacheCounters() {
+        UnitCache.clear();
+        UnitCache.getSIScaling("ms", "s");
+        UnitCache.getSIScaling("ms", "s");
+        assertEquals(metrics.getCounter("cache.UnitCache.misses"), 1);
+        assertEquals(metrics.getCounter("cache.UnitCache.hits"), 1);
+    }
+}
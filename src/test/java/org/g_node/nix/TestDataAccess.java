@@ -7,6 +7,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -187,6 +189,43 @@ public class TestDataAccess {
         assertTrue(DataAccess.positionToIndex(0.45, "none", setDim) == 0);
     }
 
+    @Test
+    public void testPositionToIndexArrays() {
+        double[] rangePositions = {1.0, 8.0, 3.4, 3.6, 4.0};
+        assertArrayEquals(new long[]{0, 4, 2, 3, 3}, DataAccess.positionToIndex(rangePositions, "ms", rangeDim));
+        assertArrayEquals(new long[]{0, 4, 3}, DataAccess.positionToIndex(new double[]{0.001, 0.008, 0.0036}, "s", rangeDim));
+
+        assertArrayEquals(new long[]{5, 0, 9}, DataAccess.positionToIndex(new double[]{5.0, 0.0, 9.2}, "ms", sampledDim));
+        assertArrayEquals(new long[]{5}, DataAccess.positionToIndex(new double[]{0.005}, "s", sampledDim));
+
+        assertArrayEquals(new long[]{1, 0}, DataAccess.positionToIndex(new double[]{0.5, 0.45}, "none", setDim));
+
+        try {
+            DataAccess.positionToIndex(new double[]{5.0}, "kV", rangeDim);
+            fail();
+        } catch (RuntimeException re) {
+        }
+
+        try {
+            DataAccess.positionToIndex(new double[]{1.0, -1.0}, "ms", sampledDim);
+            fail();
+        } catch (RuntimeException re) {
+        }
+
+        try {
+            DataAccess.positionToIndex(new double[]{0.5}, "ms", setDim);
+            fail();
+        } catch (RuntimeException re) {
+        }
+
+        DoubleBuffer positions = DoubleBuffer.wrap(new double[]{0.0, 1.0, 2.0, 3.0});
+        positions.position(1);
+        LongBuffer indices = LongBuffer.allocate(3);
+        DataAccess.positionToIndex(positions, "ms", sampledDim, indices);
+        assertFalse(positions.hasRemaining());
+        assertArrayEquals(new long[]{1, 2, 3}, indices.array());
+    }
+
     @Test
     public void testOffsetAndCount() {
         NDSize offsets = new NDSize(), counts = new NDSize();
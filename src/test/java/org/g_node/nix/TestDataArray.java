@@ -7,6 +7,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.UUID;
 
@@ -128,6 +129,40 @@ public class TestDataArray {
         assertNull(array1.getUnit());
     }
 
+    @Test
+    public void testAttributeCache() {
+        assertFalse(array3.isAttributeCaching());
+        array3.cacheAttributes();
+        assertTrue(array3.isAttributeCaching());
+        assertEquals(array3.getName(), "one_d");
+        assertEquals(array3.getLabel(), "label");
+
+        // setters write through
+        array3.setUnit("mV");
+        assertEquals(array3.getUnit(), "mV");
+        // units are read back as sanitized by NIX
+        array3.setUnit("µV");
+        assertEquals(array3.getUnit(), "uV");
+        assertEquals(array3.getUnit(), block.getDataArray(array3.getId()).getUnit());
+        array3.setDefinition(null);
+        assertNull(array3.getDefinition());
+
+        // changes through another object are seen after the cache is dropped
+        DataArray other = block.getDataArray(array3.getId());
+        other.setType("changed");
+        assertEquals(array3.getType(), "double");
+        array3.dropAttributeCache();
+        assertEquals(array3.getType(), "changed");
+
+        other.setLabel("other");
+        array3.forceUpdatedAt();
+        assertEquals(array3.getLabel(), "other");
+
+        array3.setAttributeCaching(false);
+        other.setUnit("Hz");
+        assertEquals(array3.getUnit(), "Hz");
+    }
+
     @Test
     public void testData() {
 
@@ -192,6 +227,28 @@ public class TestDataArray {
         }
     }
 
+    @Test
+    public void testStreams() {
+        assertEquals(20, array3.doubleStream().count());
+        assertEquals(1.3 * 190, array3.doubleStream().sum(), 1e-9);
+        assertArrayEquals(new long[]{0, 1, 2}, array3.longStream().limit(3).toArray());
+
+        int rows = 3000;
+        int cols = 50;
+        int[] data = new int[rows * cols];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        DataArray large = block.createDataArray("large", "int", DataType.Int32, new NDSize(new int[]{rows, cols}));
+        large.setData(data, new NDSize(new int[]{rows, cols}), new NDSize(new int[]{0, 0}));
+
+        long n = data.length;
+        assertEquals(n * (n - 1) / 2, large.longStream().parallel().sum());
+        assertEquals(n - 1, large.intStream().parallel().max().getAsInt());
+        assertArrayEquals(data, large.intStream().parallel().toArray());
+        assertEquals(n, large.doubleStream().parallel().filter(v -> v >= 0).count());
+    }
+
     @Test
     public void testDimension() {
         double[] ticks = new double[5];
@@ -296,6 +353,84 @@ public class TestDataArray {
         assertTrue(t.length == ticks_2.length);
     }
 
+    @Test
+    public void testCopyTo() {
+        DataArray matrix = block.createDataArray("matrix", "nix.sampled", DataType.Int32,
+                new NDSize(new int[]{100, 7}));
+        int[] data = new int[100 * 7];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        matrix.setData(data, new NDSize(new int[]{100, 7}), new NDSize(new int[]{0, 0}));
+        matrix.setLabel("voltage");
+        matrix.setUnit("mV");
+        matrix.setPolynomCoefficients(new double[]{0.5, 2.0});
+        matrix.setExpansionOrigin(1.5);
+        SampledDimension time = matrix.appendSampledDimension(0.1);
+        time.setUnit("s");
+        time.setOffset(2.0);
+        matrix.appendSetDimension().setLabels(Arrays.asList("a", "b", "c", "d", "e", "f", "g"));
+
+        Section section = file.createSection("recording", "nix.recording");
+        Source source = block.createSource("cell", "nix.cell");
+        matrix.setMetadata(section);
+        matrix.addSource(source);
+
+        // copy within the file, in chunks of 3 rows
+        DataArray local = matrix.copyTo(block, new CopyOptions().setName("matrix copy").setChunkBytes(3 * 7 * 4));
+        assertEquals(section.getId(), local.getMetadata().getId());
+        assertEquals(source.getId(), local.getSource(0).getId());
+
+        // copy into another file, converting the data
+        File other = File.open("test_DataArray_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        try {
+            Block archive = other.createBlock("archive", "dataset");
+            Section archived = other.createSection("recording", "nix.recording");
+            DataArray copy = matrix.copyTo(archive, new CopyOptions()
+                    .setDataType(DataType.Double)
+                    .setMetadata(archived)
+                    .setChunkBytes(1000));
+
+            for (DataArray c : Arrays.asList(local, copy)) {
+                assertArrayEquals(new int[]{100, 7}, c.getDataExtent().getData());
+                assertEquals("voltage", c.getLabel());
+                assertEquals("mV", c.getUnit());
+                assertArrayEquals(new double[]{0.5, 2.0}, c.getPolynomCoefficients(), 0.0);
+                assertEquals(1.5, c.getExpansionOrigin(), 0.0);
+                assertEquals(2, c.getDimensionCount());
+                SampledDimension dim = c.getDimension(1).asSampledDimension();
+                assertEquals(0.1, dim.getSamplingInterval(), 0.0);
+                assertEquals(2.0, dim.getOffset(), 0.0);
+                assertEquals("s", dim.getUnit());
+                assertEquals(7, c.getDimension(2).asSetDimension().getLabels().size());
+            }
+            assertEquals(DataType.Int32, local.getDataType());
+            assertEquals(DataType.Double, copy.getDataType());
+            assertEquals(archived.getId(), copy.getMetadata().getId());
+            assertEquals("cell", copy.getSource(0).getName());
+            assertEquals(1, archive.getSourceCount());
+
+            // with the default options the section of the original is not linked across files
+            DataArray unlinked = matrix.copyTo(archive, new CopyOptions().setName("unlinked"));
+            assertNull(unlinked.getMetadata());
+            assertEquals(source.getName(), unlinked.getSource(0).getName());
+
+            int[] localData = new int[data.length];
+            local.getData(localData, new NDSize(new int[]{100, 7}), new NDSize(new int[]{0, 0}));
+            assertArrayEquals(data, localData);
+
+            double[] copyData = new double[data.length];
+            copy.getData(copyData, new NDSize(new int[]{100, 7}), new NDSize(new int[]{0, 0}));
+            for (int i = 0; i < data.length; i++) {
+                assertEquals(data[i], copyData[i], 0.0);
+            }
+        } finally {
+            String location = other.getLocation();
+            other.close();
+            new java.io.File(location).delete();
+        }
+    }
+
     @Test
     public void testCreatedAt() {
         assertTrue(array1.getCreatedAt().compareTo(statup_time) >= 0);
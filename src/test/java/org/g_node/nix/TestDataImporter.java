@@ -0,0 +1,167 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.DataImporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestDataImporter {
+
+    private File file;
+    private Block block;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_DataImporter_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("import", "test");
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    private static byte[] interleaved(int frames, int channels, ByteOrder order) {
+        ByteBuffer buffer = ByteBuffer.allocate(frames * channels * 2).order(order);
+        for (int f = 0; f < frames; f++) {
+            for (int c = 0; c < channels; c++) {
+                buffer.putShort((short) (f * 10 + c));
+            }
+        }
+        return buffer.array();
+    }
+
+    @Test
+    public void testBinaryMatrix() {
+        byte[] input = interleaved(1000, 3, ByteOrder.BIG_ENDIAN);
+        List<DataArray> arrays = DataImporter.binary(3, DataType.Int16, ByteOrder.BIG_ENDIAN)
+                .setBatchFrames(64)
+                .setSampling(0.001, "s")
+                .setOffset(1.0)
+                .setUnit("mV")
+                .importData(block, "raw", "nix.sampled", new ByteArrayInputStream(input));
+
+        assertEquals(1, arrays.size());
+        DataArray raw = arrays.get(0);
+        assertArrayEquals(new int[]{1000, 3}, raw.getDataExtent().getData());
+        assertEquals(DataType.Int16, raw.getDataType());
+        assertEquals("mV", raw.getUnit());
+
+        SampledDimension dim = raw.getDimension(1).asSampledDimension();
+        assertEquals(0.001, dim.getSamplingInterval(), 0.0);
+        assertEquals(1.0, dim.getOffset(), 0.0);
+        assertEquals("s", dim.getUnit());
+        assertEquals(DimensionType.Set, raw.getDimension(2).getDimensionType());
+
+        short[] data = new short[1000 * 3];
+        raw.getData(data, new NDSize(new int[]{1000, 3}), new NDSize(new int[]{0, 0}));
+        for (int f = 0; f < 1000; f++) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals((short) (f * 10 + c), data[f * 3 + c]);
+            }
+        }
+    }
+
+    @Test
+    public void testBinaryDirectory() throws IOException {
+        Path dir = Files.createTempDirectory("test_DataImporter");
+        byte[] input = interleaved(500, 2, ByteOrder.LITTLE_ENDIAN);
+        // the split falls within a frame
+        Files.write(dir.resolve("part_1.bin"), Arrays.copyOfRange(input, 0, 1001));
+        Files.write(dir.resolve("part_2.bin"), Arrays.copyOfRange(input, 1001, input.length));
+        try {
+            List<DataArray> arrays = DataImporter.binary(2, DataType.Int16, ByteOrder.LITTLE_ENDIAN)
+                    .setLayout(DataImporter.Layout.CHANNELS)
+                    .setChannelLabels(Arrays.asList("left", "right"))
+                    .setBatchFrames(100)
+                    .importData(block, "raw", "nix.set", dir);
+
+            assertEquals(2, arrays.size());
+            assertEquals("raw_left", arrays.get(0).getName());
+            assertEquals("raw_right", arrays.get(1).getName());
+            for (int c = 0; c < 2; c++) {
+                DataArray array = arrays.get(c);
+                assertArrayEquals(new int[]{500}, array.getDataExtent().getData());
+                short[] data = new short[500];
+                array.getData(data, new NDSize(new int[]{500}), new NDSize(new int[]{0}));
+                for (int f = 0; f < 500; f++) {
+                    assertEquals((short) (f * 10 + c), data[f]);
+                }
+            }
+        } finally {
+            Files.delete(dir.resolve("part_1.bin"));
+            Files.delete(dir.resolve("part_2.bin"));
+            Files.delete(dir);
+        }
+
+        try {
+            DataImporter.binary(2, DataType.Int16, ByteOrder.LITTLE_ENDIAN)
+                    .importData(block, "broken", "nix.set", new ByteArrayInputStream(new byte[]{1, 2, 3}));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testCsv() {
+        StringBuilder csv = new StringBuilder("x, y\n");
+        for (int i = 0; i < 250; i++) {
+            csv.append(i * 0.5).append(", ").append(-i).append('\n');
+        }
+        byte[] input = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        List<DataArray> arrays = DataImporter.csv(',', true)
+                .setBatchFrames(32)
+                .setSampling(0.01, "s")
+                .importData(block, "position", "nix.sampled", new ByteArrayInputStream(input));
+        DataArray position = arrays.get(0);
+        assertArrayEquals(new int[]{250, 2}, position.getDataExtent().getData());
+        assertEquals(Arrays.asList("x", "y"), position.getDimension(2).asSetDimension().getLabels());
+
+        double[] data = new double[500];
+        position.getData(data, new NDSize(new int[]{250, 2}), new NDSize(new int[]{0, 0}));
+        for (int i = 0; i < 250; i++) {
+            assertEquals(i * 0.5, data[2 * i], 0.0);
+            assertEquals(-i, data[2 * i + 1], 0.0);
+        }
+
+        List<DataArray> channels = DataImporter.csv(';', true)
+                .setDataType(DataType.Int32)
+                .setLayout(DataImporter.Layout.CHANNELS)
+                .importData(block, "counts", "nix.set", new ByteArrayInputStream("a;b\n1;2\n\n3;4\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, channels.size());
+        assertEquals("counts_b", channels.get(1).getName());
+        assertEquals(DataType.Int32, channels.get(1).getDataType());
+        int[] counts = new int[2];
+        channels.get(1).getData(counts, new NDSize(new int[]{2}), new NDSize(new int[]{0}));
+        assertArrayEquals(new int[]{2, 4}, counts);
+
+        try {
+            DataImporter.csv(',', false)
+                    .importData(block, "ragged", "nix.set", new ByteArrayInputStream("1,2\n3\n".getBytes(StandardCharsets.UTF_8)));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
@@ -50,6 +51,37 @@ public class TestDimension {
         assertTrue(result.getWarnings().size() == 0);
     }
 
+    @Test
+    public void testAttributeCache() {
+        SampledDimension sampled = data_array.appendSampledDimension(0.1);
+        sampled.setLabel("time");
+        sampled.cacheAttributes();
+        assertTrue(sampled.isAttributeCaching());
+        assertEquals("time", sampled.getLabel());
+        assertNull(sampled.getUnit());
+
+        // setters write through, units are read back as stored
+        sampled.setLabel("t");
+        assertEquals("t", sampled.getLabel());
+        sampled.setUnit("ms");
+        assertEquals("ms", sampled.getUnit());
+
+        // changes through another object are seen after the cache is dropped
+        SampledDimension other = data_array.getDimension(1).asSampledDimension();
+        other.setLabel("other");
+        assertEquals("t", sampled.getLabel());
+        sampled.dropAttributeCache();
+        assertEquals("other", sampled.getLabel());
+
+        RangeDimension range = data_array.appendRangeDimension(new double[]{1.0, 2.0});
+        range.setUnit("s");
+        range.cacheAttributes();
+        data_array.getDimension(2).asRangeDimension().setUnit("ms");
+        assertEquals("s", range.getUnit());
+        range.setAttributeCaching(false);
+        assertEquals("ms", range.getUnit());
+    }
+
     @Test
     public void testSetValidate() {
         SetDimension d = data_array.appendSetDimension();
@@ -251,6 +283,14 @@ public class TestDimension {
         assertTrue(sd.getIndexOf(4.28) == 1);
         assertTrue(sd.getIndexOf(7.28) == 2);
 
+        assertArrayEquals(new long[]{0, 2, 1, 2}, sd.getIndexOf(new double[]{2.14, 6.28, 4.28, 7.28}));
+
+        try {
+            sd.getIndexOf(new double[]{2.14, -3.14});
+            fail();
+        } catch (RuntimeException re) {
+        }
+
         data_array.deleteDimensions();
     }
 
@@ -439,6 +479,9 @@ public class TestDimension {
         assertTrue(rd.getIndexOf(257.28) == 4);
         assertTrue(rd.getIndexOf(-257.28) == 0);
 
+        assertArrayEquals(new long[]{0, 1, 1, 3, 4, 0},
+                rd.getIndexOf(new double[]{-100., -50., -70., 5.0, 257.28, -257.28}));
+
         data_array.deleteDimensions();
     }
 
@@ -499,4 +542,78 @@ public class TestDimension {
 
         data_array.deleteDimensions();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSampledDescriptor() {
+        double offset = 1.0;
+        double samplingInterval = Math.PI;
+
+        SampledDimension sd = data_array.appendSampledDimension(samplingInterval);
+        sd.setOffset(offset);
+        sd.setUnit("ms");
+        sd.setLabel("time");
+
+        SampledDescriptor desc = sd.getDescriptor();
+        assertEquals(samplingInterval, desc.getSamplingInterval(), 0.0);
+        assertEquals(offset, desc.getOffset(), 0.0);
+        assertEquals("ms", desc.getUnit());
+        assertEquals("time", desc.getLabel());
+
+        assertEquals(sd.getPositionAt(200), desc.getPositionAt(200), 1e-9);
+        assertEquals(sd.getIndexOf(6.28), desc.getIndexOf(6.28));
+        assertEquals(2, desc.positionToIndex(0.00628, "s"));
+
+        try {
+            desc.getIndexOf(-3.14);
+            fail();
+        } catch (RuntimeException re) {
+        }
+
+        double[] axis = new double[12];
+        desc.getAxis(5, axis, 2, 10);
+        assertArrayEquals(sd.getAxis(10, 5), Arrays.copyOfRange(axis, 2, 12), 1e-9);
+
+        DoubleBuffer buffer = DoubleBuffer.allocate(10);
+        desc.getAxis(5, buffer);
+        assertArrayEquals(sd.getAxis(10, 5), buffer.array(), 1e-9);
+
+        data_array.deleteDimensions();
+    }
+
+    @Test
+    public void testRangeDescriptor() {
+        double[] ticks = {-100.0, -10.0, 0.0, 10.0, 100.0};
+        RangeDimension rd = data_array.appendRangeDimension(ticks);
+        rd.setUnit("ms");
+
+        RangeDescriptor desc = rd.getDescriptor();
+        assertEquals(5, desc.getTickCount());
+        assertArrayEquals(ticks, desc.getTicks(), 0.0);
+        assertEquals("ms", desc.getUnit());
+
+        double[] positions = {-100., -50., -70., 5.0, 257.28, -257.28};
+        for (double position : positions) {
+            assertEquals(rd.getIndexOf(position), desc.getIndexOf(position));
+        }
+        assertEquals(3, desc.positionToIndex(0.005, "s"));
+
+        assertArrayEquals(rd.getAxis(2, 2), desc.getAxis(2, 2), 0.0);
+        double[] axis = new double[3];
+        desc.getAxis(2, axis, 0, 3);
+        assertArrayEquals(new double[]{0.0, 10.0, 100.0}, axis, 0.0);
+
+        try {
+            desc.getAxis(2, 10);
+            fail();
+        } catch (RuntimeException re) {
+        }
+
+        try {
+            desc.getTickAt(10);
+            fail();
+        } catch (RuntimeException re) {
+        }
+
+        data_array.deleteDimensions();
+    }
+}
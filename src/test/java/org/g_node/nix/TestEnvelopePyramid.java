@@ -0,0 +1,159 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.EnvelopePyramid;
+import org.g_node.nix.util.MetadataTree;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestEnvelopePyramid {
+
+    private File file;
+    private Block block;
+    private DataArray signal;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_EnvelopePyramid_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("envelopes", "test");
+
+        double[] data = new double[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        signal = block.createDataArray("signal", "test", DataType.Double, new NDSize(new int[]{256}));
+        signal.setData(data, new NDSize(new int[]{256}), new NDSize(new int[]{0}));
+        SampledDimension dim = signal.appendSampledDimension(0.5);
+        dim.setUnit("s");
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testBuild() {
+        EnvelopePyramid pyramid = EnvelopePyramid.build(file, block, signal, 4);
+
+        // 64, 16, 4 and 1 bins
+        assertEquals(4, pyramid.getLevelCount());
+        assertEquals(64, pyramid.getLevel(0).getDataExtent().getData()[0]);
+        assertEquals(1, pyramid.getLevel(3).getDataExtent().getData()[0]);
+        assertEquals(16, pyramid.getBinSize(1));
+
+        double[] row = new double[3];
+        pyramid.getLevel(1).getData(row, new NDSize(new int[]{1, 3}), new NDSize(new int[]{2, 0}));
+        assertEquals(32.0, row[0], 1e-9);
+        assertEquals(47.0, row[1], 1e-9);
+        assertEquals(39.5, row[2], 1e-9);
+
+        EnvelopePyramid opened = EnvelopePyramid.open(block, signal);
+        assertNotNull(opened);
+        assertEquals(4, opened.getLevelCount());
+        assertEquals(4, opened.getFactor());
+
+        // the section linking the levels is not exported as metadata
+        assertTrue(MetadataTree.isInternal(pyramid.getSection()));
+        StringWriter json = new StringWriter();
+        MetadataTree.exportJson(file, json);
+        assertFalse(json.toString().contains(EnvelopePyramid.SECTION_TYPE));
+
+        try {
+            EnvelopePyramid.build(file, block, signal, 17);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEnvelope() {
+        EnvelopePyramid pyramid = EnvelopePyramid.build(file, block, signal, 4);
+
+        // 256 samples on 16 pixels use the 16 sample bins
+        EnvelopePyramid.Envelope env = pyramid.envelope(0.0, 128.0, 16);
+        assertEquals(16, env.getBinSize());
+        assertEquals(16, env.getMin().length);
+        assertEquals(0.0, env.getMin()[0], 1e-9);
+        assertEquals(15.0, env.getMax()[0], 1e-9);
+        assertEquals(8.0, env.getPositions()[1], 1e-9);
+
+        // a small range falls back to raw samples
+        env = pyramid.envelope(10.0, 12.0, 100);
+        assertEquals(1, env.getBinSize());
+        assertEquals(4, env.getMean().length);
+        assertEquals(20.0, env.getMean()[0], 1e-9);
+    }
+
+    @Test
+    public void testUpdate() {
+        EnvelopePyramid pyramid = EnvelopePyramid.build(file, block, signal, 4);
+
+        double[] data = new double[768];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = 256 + i;
+        }
+        signal.setDataExtent(new NDSize(new int[]{1024}));
+        signal.setData(data, new NDSize(new int[]{768}), new NDSize(new int[]{256}));
+
+        pyramid.update();
+        assertEquals(5, pyramid.getLevelCount());
+        assertEquals(256, pyramid.getLevel(0).getDataExtent().getData()[0]);
+
+        double[] row = new double[3];
+        pyramid.getLevel(4).getData(row, new NDSize(new int[]{1, 3}), new NDSize(new int[]{0, 0}));
+        assertEquals(0.0, row[0], 1e-9);
+        assertEquals(1023.0, row[1], 1e-9);
+        assertEquals(511.5, row[2], 1e-9);
+    }
+
+    @Test
+    public void testStale() {
+        EnvelopePyramid pyramid = EnvelopePyramid.build(file, block, signal, 4);
+
+        // appended samples are summarized by the next query
+        double[] data = new double[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = 256 + i;
+        }
+        signal.setDataExtent(new NDSize(new int[]{512}));
+        signal.setData(data, new NDSize(new int[]{256}), new NDSize(new int[]{256}));
+
+        EnvelopePyramid.Envelope env = pyramid.envelope(0.0, 256.0, 8);
+        assertEquals(128, pyramid.getLevel(0).getDataExtent().getData()[0]);
+        assertEquals(64, env.getBinSize());
+        assertEquals(8, env.getMax().length);
+        assertEquals(511.0, env.getMax()[7], 1e-9);
+
+        // an overwritten sample is seen in all levels
+        signal.setData(new double[]{-1.0}, new NDSize(new int[]{1}), new NDSize(new int[]{300}));
+        env = pyramid.envelope(0.0, 256.0, 8);
+        assertEquals(-1.0, env.getMin()[4], 1e-9);
+        assertEquals(0.0, env.getMin()[0], 1e-9);
+
+        double[] row = new double[3];
+        pyramid.getLevel(0).getData(row, new NDSize(new int[]{1, 3}), new NDSize(new int[]{75, 0}));
+        assertEquals(-1.0, row[0], 1e-9);
+        assertEquals(303.0, row[1], 1e-9);
+
+        // a shorter signal drops the bins after its end
+        signal.setDataExtent(new NDSize(new int[]{100}));
+        pyramid.envelope(0.0, 50.0, 1);
+        assertEquals(25, pyramid.getLevel(0).getDataExtent().getData()[0]);
+        assertEquals(6, pyramid.getLevel(1).getDataExtent().getData()[0]);
+    }
+}
@@ -0,0 +1,100 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestFileOptions {
+
+    private String location;
+
+    @Before
+    public void setUp() {
+        location = "test_FileOptions_" + UUID.randomUUID().toString() + ".h5";
+    }
+
+    @After
+    public void tearDown() {
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testOptions() {
+        FileOptions options = new FileOptions();
+        assertTrue(options.isDefault());
+        assertEquals(-1, options.getChunkCacheSize());
+
+        options.setChunkCacheSize(32 << 20).setChunkCacheSlots(12421).setChunkCacheW0(0.5);
+        assertFalse(options.isDefault());
+        assertEquals(32 << 20, options.getChunkCacheSize());
+        assertEquals(12421, options.getChunkCacheSlots());
+        assertEquals(0.5, options.getChunkCacheW0(), 0.0);
+
+        try {
+            options.setChunkCacheW0(1.5);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        try {
+            options.setMetadataCache(1 << 20, 2 << 20, 4 << 20);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testOpen() {
+        FileOptions options = new FileOptions()
+                .setChunkCacheSize(16 << 20)
+                .setChunkCacheSlots(2003)
+                .setMetadataCache(2 << 20, 1 << 20, 8 << 20);
+
+        File file = File.open(location, FileMode.Overwrite, options);
+        assertTrue(file.isOpen());
+
+        FileOptions applied = file.getOptions();
+        assertEquals(16 << 20, applied.getChunkCacheSize());
+        assertEquals(2003, applied.getChunkCacheSlots());
+        assertEquals(1 << 20, applied.getMetadataCacheMin());
+        assertEquals(8 << 20, applied.getMetadataCacheMax());
+
+        // the settings of an open file cannot be changed
+        try {
+            File.open(location, FileMode.ReadOnly, new FileOptions().setChunkCacheSize(4 << 20));
+            fail();
+        } catch (RuntimeException e) {
+        }
+        assertEquals(16 << 20, file.getOptions().getChunkCacheSize());
+
+        DataArray array = file.createBlock("block", "test")
+                .createDataArray("array", "test", DataType.Int32, new NDSize(new int[]{100}));
+        int[] data = new int[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        array.setData(data, new NDSize(new int[]{100}), new NDSize(new int[]{0}));
+        file.close();
+
+        file = File.open(location, FileMode.ReadOnly, options);
+        assertEquals(2003, file.getOptions().getChunkCacheSlots());
+        int[] read = new int[100];
+        file.getBlock("block").getDataArray("array").getData(read, new NDSize(new int[]{100}), new NDSize(new int[]{0}));
+        assertArrayEquals(data, read);
+        file.close();
+
+        // without settings the HDF5 defaults are used
+        file = File.open(location, FileMode.ReadOnly);
+        assertEquals(521, file.getOptions().getChunkCacheSlots());
+        assertEquals(1 << 20, file.getOptions().getChunkCacheSize());
+        file.close();
+    }
+}
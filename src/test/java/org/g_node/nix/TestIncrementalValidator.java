@@ -0,0 +1,103 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.valid.IncrementalValidator;
+import org.g_node.nix.valid.Message;
+import org.g_node.nix.valid.Result;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestIncrementalValidator {
+
+    private File file;
+    private Block first;
+    private Block second;
+    private DataArray array;
+    private IncrementalValidator validator;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_IncrementalValidator_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        first = file.createBlock("first", "test");
+        second = file.createBlock("second", "test");
+        file.createSection("metadata", "test").createProperty("prop", new Value("value"));
+
+        // two dimensional data without dimensions is an error
+        array = first.createDataArray("array", "test", DataType.Double, new NDSize(new int[]{10, 5}));
+        second.createDataArray("other", "test", DataType.Double, new NDSize(new int[]{10}))
+                .appendSampledDimension(0.1);
+
+        validator = new IncrementalValidator(file);
+    }
+
+    @After
+    public void tearDown() {
+        validator.close();
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    private boolean hasErrorFor(Result result, String id) {
+        for (Message message : result.getErrors()) {
+            if (message.getId().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testIncremental() {
+        Result result = validator.validate();
+        assertEquals(3, validator.getValidatedCount());
+        assertEquals(0, validator.getReusedCount());
+        assertTrue(hasErrorFor(result, array.getId()));
+
+        // nothing changed, all results are reused
+        result = validator.validate();
+        assertEquals(0, validator.getValidatedCount());
+        assertEquals(3, validator.getReusedCount());
+        assertTrue(hasErrorFor(result, array.getId()));
+
+        // fixing the data array validates its block only
+        array.appendSampledDimension(1.0);
+        array.appendSetDimension();
+        result = validator.validate();
+        assertEquals(1, validator.getValidatedCount());
+        assertEquals(2, validator.getReusedCount());
+        assertFalse(hasErrorFor(result, array.getId()));
+
+        // dimensions report changes to their data array
+        SampledDimension dimension = array.getDimension(1).asSampledDimension();
+        dimension.setUnit("s");
+        validator.validate();
+        assertEquals(1, validator.getValidatedCount());
+
+        // changes of properties are attributed to their top-level section
+        file.getSection("metadata").getProperty("prop").setUnit("mV");
+        validator.validate();
+        assertEquals(1, validator.getValidatedCount());
+
+        // new and deleted blocks
+        file.createBlock("third", "test");
+        file.deleteBlock(second);
+        validator.validate();
+        assertEquals(1, validator.getValidatedCount());
+        assertEquals(2, validator.getReusedCount());
+
+        validator.invalidate();
+        validator.validate();
+        assertEquals(3, validator.getValidatedCount());
+    }
+}
@@ -0,0 +1,89 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestMemoryFile {
+
+    private static int[] fill(File file) {
+        DataArray array = file.createBlock("block", "test")
+                .createDataArray("array", "test", DataType.Int32, new NDSize(new int[]{64}));
+        int[] data = new int[64];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i * i;
+        }
+        array.setData(data, new NDSize(new int[]{64}), new NDSize(new int[]{0}));
+        return data;
+    }
+
+    private static int[] read(File file) {
+        int[] data = new int[64];
+        file.getBlock("block").getDataArray("array").getData(data, new NDSize(new int[]{64}), new NDSize(new int[]{0}));
+        return data;
+    }
+
+    @Test
+    public void testInMemory() {
+        File file = File.openInMemory();
+        assertTrue(file.isOpen());
+        assertTrue(file.isInMemory());
+        fill(file);
+        String location = file.getLocation();
+        file.close();
+
+        assertFalse(Files.exists(Paths.get(location)));
+    }
+
+    @Test
+    public void testPersist() throws IOException {
+        Path persist = Files.createTempFile("test_MemoryFile_", ".h5");
+        try {
+            File file = File.openInMemory(persist);
+            int[] data = fill(file);
+            file.close();
+
+            file = File.open(persist.toString(), FileMode.ReadOnly);
+            assertFalse(file.isInMemory());
+            assertArrayEquals(data, read(file));
+            file.close();
+        } finally {
+            Files.deleteIfExists(persist);
+        }
+    }
+
+    @Test
+    public void testImage() {
+        File file = File.openInMemory();
+        int[] data = fill(file);
+        byte[] image = file.toImage();
+        file.close();
+
+        File copy = File.openImage(image, FileMode.ReadWrite);
+        assertTrue(copy.isInMemory());
+        assertArrayEquals(data, read(copy));
+        copy.createBlock("other", "test");
+        copy.close();
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(image.length);
+        direct.put(image).flip();
+        copy = File.openImage(direct, FileMode.ReadOnly);
+        assertEquals(1, copy.getBlockCount());
+        copy.close();
+        assertEquals(image.length, direct.remaining());
+
+        try {
+            File.openImage(image, FileMode.Overwrite);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
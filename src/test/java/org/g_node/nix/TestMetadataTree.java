@@ -0,0 +1,144 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.MetadataTree;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestMetadataTree {
+
+    private File file;
+
+    private static final String JSON = "{\n" +
+            "  \"recording\": {\n" +
+            "    \"@type\": \"nix.recording\",\n" +
+            "    \"@definition\": \"A recording session\",\n" +
+            "    \"channels\": [1, 2, 3],\n" +
+            "    \"gain\": {\"@value\": 2.5, \"@unit\": \"dB\"},\n" +
+            "    \"valid\": true,\n" +
+            "    \"amplifier\": {\n" +
+            "      \"model\": \"X-100\",\n" +
+            "      \"@type\": \"hardware\",\n" +
+            "      \"labels\": [\"a\", \"b \\\"quoted\\\"\"]\n" +
+            "    },\n" +
+            "    \"empty\": {}\n" +
+            "  }\n" +
+            "}";
+
+    @Before
+    public void setUp() {
+        file = File.open("test_MetadataTree_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testImportJson() {
+        List<Section> created = MetadataTree.importJson(file, new StringReader(JSON));
+        assertEquals(1, created.size());
+
+        Section recording = file.getSection("recording");
+        assertNotNull(recording);
+        assertEquals("nix.recording", recording.getType());
+        assertEquals("A recording session", recording.getDefinition());
+
+        Property channels = recording.getProperty("channels");
+        assertEquals(DataType.Int64, channels.getDataType());
+        assertEquals(3, channels.getValues().size());
+        assertEquals(3, channels.getValues().get(2).getLong());
+
+        Property gain = recording.getProperty("gain");
+        assertEquals(DataType.Double, gain.getDataType());
+        assertEquals(2.5, gain.getValues().get(0).getDouble(), 0.0);
+        assertEquals("dB", gain.getUnit());
+
+        assertTrue(recording.getProperty("valid").getValues().get(0).getBoolean());
+
+        Section amplifier = recording.getSection("amplifier");
+        assertEquals("hardware", amplifier.getType());
+        assertEquals("X-100", amplifier.getProperty("model").getValues().get(0).getString());
+        assertEquals("b \"quoted\"", amplifier.getProperty("labels").getValues().get(1).getString());
+
+        Section empty = recording.getSection("empty");
+        assertEquals(MetadataTree.DEFAULT_TYPE, empty.getType());
+        assertEquals(0, empty.getPropertyCount());
+    }
+
+    @Test
+    public void testImportMap() {
+        Map<String, Object> amplifier = new LinkedHashMap<>();
+        amplifier.put("@type", "hardware");
+        amplifier.put("rates", Arrays.asList(1.0, 2.5));
+
+        Map<String, Object> recording = new LinkedHashMap<>();
+        recording.put("count", 7);
+        recording.put("amplifier", amplifier);
+
+        Section parent = file.createSection("parent", "test");
+        List<Section> created = MetadataTree.importMap(parent, Collections.singletonMap("recording", recording));
+        assertEquals(1, created.size());
+        assertEquals("recording", created.get(0).getName());
+
+        Section section = parent.getSection("recording");
+        assertEquals(7, section.getProperty("count").getValues().get(0).getLong());
+        Property rates = section.getSection("amplifier").getProperty("rates");
+        assertEquals(2, rates.getValues().size());
+        assertEquals(2.5, rates.getValues().get(1).getDouble(), 0.0);
+
+        try {
+            MetadataTree.importMap(parent, Collections.singletonMap("mixed",
+                    Collections.singletonMap("values", Arrays.asList(1, "a"))));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        MetadataTree.importJson(file, new StringReader(JSON));
+
+        StringWriter out = new StringWriter();
+        MetadataTree.exportJson(file, out);
+        String exported = out.toString();
+        assertTrue(exported.contains("\"channels\": [1, 2, 3]"));
+        assertTrue(exported.contains("\"gain\": {\"@value\": 2.5, \"@unit\": \"dB\"}"));
+
+        File other = File.open("test_MetadataTree_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        try {
+            MetadataTree.importJson(other, new StringReader(exported));
+            StringWriter again = new StringWriter();
+            MetadataTree.exportJson(other, again);
+            assertEquals(exported, again.toString());
+        } finally {
+            String location = other.getLocation();
+            other.close();
+            new java.io.File(location).delete();
+        }
+    }
+
+    @Test
+    public void testInvalidJson() {
+        try {
+            MetadataTree.importJson(file, new StringReader("{\"a\": {\"x\": [1, 2}}"));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.Npy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestNpy {
+
+    private File file;
+    private Block block;
+    private DataArray matrix;
+    private Path npy;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.open("test_Npy_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("npy", "test");
+        npy = Files.createTempFile("test_Npy_", ".npy");
+
+        matrix = block.createDataArray("matrix", "test", DataType.Int32, new NDSize(new int[]{50, 4}));
+        int[] data = new int[50 * 4];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i * 3;
+        }
+        matrix.setData(data, new NDSize(new int[]{50, 4}), new NDSize(new int[]{0, 0}));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+        Files.deleteIfExists(npy);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Npy.write(matrix, npy);
+
+        byte[] bytes = Files.readAllBytes(npy);
+        assertEquals((byte) 0x93, bytes[0]);
+        assertEquals("NUMPY", new String(bytes, 1, 5, StandardCharsets.US_ASCII));
+        int headerLength = 10 + ((bytes[8] & 0xff) | (bytes[9] & 0xff) << 8);
+        assertEquals(0, headerLength % 64);
+        assertEquals(headerLength + 50 * 4 * 4, bytes.length);
+        String header = new String(bytes, 10, headerLength - 10, StandardCharsets.US_ASCII);
+        assertTrue(header.contains("'shape': (50, 4)"));
+        assertTrue(header.contains("i4'"));
+
+        DataArray imported = Npy.read(npy, block, "imported", "test");
+        assertEquals(DataType.Int32, imported.getDataType());
+        assertArrayEquals(new int[]{50, 4}, imported.getDataExtent().getData());
+
+        int[] expected = new int[200];
+        int[] actual = new int[200];
+        matrix.getData(expected, new NDSize(new int[]{50, 4}), new NDSize(new int[]{0, 0}));
+        imported.getData(actual, new NDSize(new int[]{50, 4}), new NDSize(new int[]{0, 0}));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testHyperslab() {
+        Npy.write(matrix, new NDSize(new int[]{10, 2}), new NDSize(new int[]{5, 1}), npy);
+
+        DataArray imported = Npy.read(npy, block, "slab", "test");
+        assertArrayEquals(new int[]{10, 2}, imported.getDataExtent().getData());
+        int[] data = new int[20];
+        imported.getData(data, new NDSize(new int[]{10, 2}), new NDSize(new int[]{0, 0}));
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 2; c++) {
+                assertEquals(((5 + r) * 4 + 1 + c) * 3, data[r * 2 + c]);
+            }
+        }
+
+        try {
+            Npy.write(matrix, new NDSize(new int[]{10}), new NDSize(new int[]{5, 0}), npy);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testBigEndian() throws IOException {
+        String dict = "{'descr': '>f8', 'fortran_order': False, 'shape': (3,), }";
+        StringBuilder padded = new StringBuilder(dict);
+        while ((10 + padded.length() + 1) % 64 != 0) {
+            padded.append(' ');
+        }
+        padded.append('\n');
+
+        ByteBuffer buffer = ByteBuffer.allocate(10 + padded.length() + 3 * 8);
+        buffer.put((byte) 0x93).put("NUMPY".getBytes(StandardCharsets.US_ASCII)).put((byte) 1).put((byte) 0);
+        buffer.order(ByteOrder.LITTLE_ENDIAN).putShort((short) padded.length());
+        buffer.put(padded.toString().getBytes(StandardCharsets.US_ASCII));
+        buffer.order(ByteOrder.BIG_ENDIAN).putDouble(1.5).putDouble(-2.0).putDouble(1e10);
+        Files.write(npy, buffer.array());
+
+        DataArray imported = Npy.read(npy, block, "big endian", "test");
+        assertArrayEquals(new int[]{3}, imported.getDataExtent().getData());
+        double[] data = new double[3];
+        imported.getData(data, new NDSize(new int[]{3}), new NDSize(new int[]{0}));
+        assertArrayEquals(new double[]{1.5, -2.0, 1e10}, data, 0.0);
+    }
+}
@@ -58,6 +58,40 @@ public class TestProperty {
         assertTrue(result.getWarnings().size() == 1);
     }
 
+    @Test
+    public void testAttributeCache() {
+        assertFalse(property.isAttributeCaching());
+        property.setMapping("mapping");
+        property.cacheAttributes();
+        assertTrue(property.isAttributeCaching());
+        assertEquals("prop", property.getName());
+        assertEquals("mapping", property.getMapping());
+
+        // setters write through
+        property.setDefinition("definition");
+        assertEquals("definition", property.getDefinition());
+        property.setMapping(null);
+        assertNull(property.getMapping());
+        // units are read back as sanitized by NIX
+        property.setUnit("µV");
+        assertEquals(section.getProperty("prop").getUnit(), property.getUnit());
+
+        // changes through another object are seen after the cache is dropped
+        Property other = section.getProperty("prop");
+        other.setDefinition("other");
+        assertEquals("definition", property.getDefinition());
+        property.dropAttributeCache();
+        assertEquals("other", property.getDefinition());
+
+        other.setUnit("Hz");
+        property.forceUpdatedAt();
+        assertEquals("Hz", property.getUnit());
+
+        property.setAttributeCaching(false);
+        other.setDefinition(null);
+        assertNull(property.getDefinition());
+    }
+
     @Test
     public void testId() {
         assertEquals(property.getId().length(), 36);
@@ -0,0 +1,107 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.Resampler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestResampler {
+
+    private File file;
+    private Block block;
+    private DataArray source;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_Resampler_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("resampling", "test");
+
+        double[] ticks = {0.0, 1.0, 3.0, 4.0, 10.0};
+        double[] values = {0.0, 10.0, 30.0, 40.0, 100.0};
+        source = block.createDataArray("irregular", "test", DataType.Double, new NDSize(new int[]{5}));
+        source.setData(values, new NDSize(new int[]{5}), new NDSize(new int[]{0}));
+        source.setUnit("mV");
+        RangeDimension dim = source.appendRangeDimension(ticks);
+        dim.setUnit("s");
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testLinear() {
+        Resampler resampler = new Resampler(source, 0.5).setChunkSize(2);
+        assertEquals(21, resampler.getSampleCount());
+
+        DataArray result = resampler.resample(block, "regular", "test");
+        assertEquals(21, result.getDataExtent().getData()[0]);
+        assertEquals("mV", result.getUnit());
+
+        SampledDimension dim = result.getDimension(1).asSampledDimension();
+        assertEquals(0.5, dim.getSamplingInterval(), 0.0);
+        assertEquals(0.0, dim.getOffset(), 0.0);
+        assertEquals("s", dim.getUnit());
+
+        double[] data = new double[21];
+        result.getData(data, new NDSize(new int[]{21}), new NDSize(new int[]{0}));
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(5.0 * i, data[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void testNearest() {
+        Resampler resampler = new Resampler(source, 0.5)
+                .setInterpolation(Resampler.Interpolation.NEAREST)
+                .setOffset(-0.5)
+                .setChunkSize(3);
+
+        DataArray result = resampler.resample(block, "nearest", "test");
+        double[] data = new double[22];
+        result.getData(data, new NDSize(new int[]{22}), new NDSize(new int[]{0}));
+
+        assertTrue(Double.isNaN(data[0]));
+        assertEquals(0.0, data[1], 0.0);
+        // 2.0 lies half way between 1.0 and 3.0
+        assertEquals(10.0, data[5], 0.0);
+        assertEquals(30.0, data[6], 0.0);
+        assertEquals(100.0, data[21], 0.0);
+    }
+
+    @Test
+    public void testAlias() {
+        // the ticks of an alias dimension are the data
+        DataArray alias = block.createDataArray("alias", "test", DataType.Double, new NDSize(new int[]{5}));
+        alias.setData(new double[]{0.0, 0.5, 1.0, 2.0, 4.0}, new NDSize(new int[]{5}), new NDSize(new int[]{0}));
+        alias.appendAliasRangeDimension();
+
+        Resampler resampler = new Resampler(alias, 0.5).setChunkSize(2);
+        assertEquals(9, resampler.getSampleCount());
+
+        double[] data = new double[9];
+        resampler.resample(block, "resampled_alias", "test")
+                .getData(data, new NDSize(new int[]{9}), new NDSize(new int[]{0}));
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(i * 0.5, data[i], 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManySamples() {
+        new Resampler(source, 1e-12).resample(block, "huge", "test");
+    }
+}
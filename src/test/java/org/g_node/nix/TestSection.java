@@ -196,6 +196,41 @@ public class TestSection {
 
         assertTrue(section.findSections(filter_typ1).size() == 3);
         assertTrue(section.findSections(filter_typ2).size() == 8);
+
+        // test streams
+        assertEquals(14, section.streamSections().count());
+        assertEquals(4, section.streamSections(1).count());
+        assertEquals(14, section.streamSections().parallel().count());
+        assertEquals(3, section.streamSections().filter(filter_typ1).count());
+        assertTrue(section.streamSections().anyMatch((Section s) -> s.getName().equals("l3n4")));
+        assertEquals(file.getSectionCount(), file.streamSections(0).count());
+        assertTrue(file.streamSections().anyMatch((Section s) -> s.getName().equals("l3n4")));
+
+        // predicates calling into the library in parallel
+        assertEquals(8, section.streamSections().parallel().filter(filter_typ2).count());
+        assertTrue(section.streamSections().skip(1).allMatch(Section::isAttributeCaching));
+        assertFalse(section.isAttributeCaching());
+    }
+
+    @Test
+    public void testParallelStream() {
+        for (int i = 0; i < 20; i++) {
+            Section child = section.createSection("child" + i, i % 2 == 0 ? "even" : "odd");
+            for (int j = 0; j < 10; j++) {
+                child.createSection("grandchild" + i + "_" + j, "leaf");
+            }
+        }
+
+        for (int k = 0; k < 10; k++) {
+            assertEquals(10, section.streamSections()
+                    .parallel()
+                    .filter((Section s) -> s.getType().equals("even"))
+                    .count());
+            assertEquals(200, section.streamSections()
+                    .parallel()
+                    .filter((Section s) -> s.getName().startsWith("grandchild") && s.getDefinition() == null)
+                    .count());
+        }
     }
 
     @Test
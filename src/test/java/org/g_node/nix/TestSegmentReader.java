@@ -0,0 +1,142 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.SegmentReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestSegmentReader {
+
+    private File file;
+    private Block block;
+    private DataArray signal;
+    private MultiTag multiTag;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_SegmentReader_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("segments", "test");
+
+        double[] data = new double[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        signal = block.createDataArray("signal", "test", DataType.Double, new NDSize(new int[]{100}));
+        signal.setData(data, new NDSize(new int[]{100}), new NDSize(new int[]{0}));
+        SampledDimension dim = signal.appendSampledDimension(1.0);
+        dim.setUnit("ms");
+
+        double[] positions = {40.0, 10.0, 12.0, 80.0};
+        double[] extents = {5.0, 4.0, 4.0, 10.0};
+
+        DataArray positionArray = block.createDataArray("positions", "test", DataType.Double, new NDSize(new int[]{4, 1}));
+        positionArray.setData(positions, new NDSize(new int[]{4, 1}), new NDSize(new int[]{0, 0}));
+        DataArray extentArray = block.createDataArray("extents", "test", DataType.Double, new NDSize(new int[]{4, 1}));
+        extentArray.setData(extents, new NDSize(new int[]{4, 1}), new NDSize(new int[]{0, 0}));
+
+        multiTag = block.createMultiTag("events", "test", positionArray);
+        multiTag.setExtents(extentArray);
+        multiTag.addReference(signal);
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testMerging() {
+        long[] offsets = {40, 10, 12, 80};
+        long[] counts = {5, 4, 4, 10};
+        SegmentReader reader = new SegmentReader(signal, offsets, counts);
+
+        assertEquals(4, reader.getSegmentCount());
+        assertEquals(3, reader.getReadCount());
+
+        reader.setMaxGap(30);
+        assertEquals(2, reader.getReadCount());
+
+        reader.setMaxReadElements(4);
+        assertEquals(4, reader.getReadCount());
+    }
+
+    @Test
+    public void testRead() {
+        long[] offsets = {40, 10, 12, 80};
+        long[] counts = {5, 4, 4, 10};
+        double[][] segments = new SegmentReader(signal, offsets, counts).read();
+
+        assertEquals(4, segments.length);
+        assertArrayEquals(new double[]{40, 41, 42, 43, 44}, segments[0], 0.0);
+        assertArrayEquals(new double[]{10, 11, 12, 13}, segments[1], 0.0);
+        assertArrayEquals(new double[]{12, 13, 14, 15}, segments[2], 0.0);
+        assertEquals(10, segments[3].length);
+        assertEquals(89.0, segments[3][9], 0.0);
+    }
+
+    @Test
+    public void testReduction() {
+        long[] offsets = {40, 10, 12, 80};
+        long[] counts = {5, 4, 4, 10};
+        SegmentReader reader = new SegmentReader(signal, offsets, counts);
+
+        assertArrayEquals(new double[]{42.0, 11.5, 13.5, 84.5}, reader.read(SegmentReader.MEAN), 1e-12);
+        assertArrayEquals(new double[]{44.0, 13.0, 15.0, 89.0}, reader.read(SegmentReader.MAX), 0.0);
+        assertArrayEquals(new double[]{4.0, 3.0, 3.0, 9.0}, reader.read(SegmentReader.PEAK_INDEX), 0.0);
+    }
+
+    @Test
+    public void testReductionInFlight() {
+        long[] offsets = {40, 10, 12, 80};
+        long[] counts = {5, 4, 4, 10};
+        SegmentReader reader = new SegmentReader(signal, offsets, counts).setMaxReadElements(4);
+        assertEquals(4, reader.getReadCount());
+
+        // the reductions of one read run at a time, the next read overlaps them
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            double[] max = reader.read(segment -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return SegmentReader.MAX.apply(segment);
+            }, pool);
+            assertArrayEquals(new double[]{44.0, 13.0, 15.0, 89.0}, max, 0.0);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testFromMultiTag() {
+        SegmentReader reader = SegmentReader.fromMultiTag(multiTag, 0);
+        assertEquals(4, reader.getSegmentCount());
+
+        double[][] segments = reader.read();
+        assertEquals(40.0, segments[0][0], 0.0);
+        assertEquals(10.0, segments[1][0], 0.0);
+        assertEquals(12.0, segments[2][0], 0.0);
+        assertEquals(80.0, segments[3][0], 0.0);
+    }
+}
@@ -229,6 +229,16 @@ public class TestSource {
         assertTrue(source.findSources(filter_typ1).size() == 3);
         assertTrue(source.findSources(filter_typ2).size() == 9);
 
+        // test streams
+        assertEquals(15, source.streamSources().count());
+        assertEquals(10, source.streamSources(2).count());
+        assertEquals(15, source.streamSources().parallel().count());
+        assertEquals(9, source.streamSources().parallel().filter(filter_typ2).count());
+        assertEquals(9, source.streamSources().filter(filter_typ2).count());
+        assertEquals("source_one", source.streamSources().findFirst().get().getName());
+        assertTrue(source.streamSources().anyMatch((Source s) -> s.getName().equals("l3n5")));
+        assertFalse(source.streamSources(1).anyMatch((Source s) -> s.getName().equals("l3n5")));
+
         // test deleter
         /* chop the tree down to:
          *
@@ -0,0 +1,146 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.MetadataTree;
+import org.g_node.nix.util.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestStatistics {
+
+    private File file;
+    private Block block;
+    private DataArray array;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_Statistics_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("statistics", "test");
+
+        double[] data = new double[20];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        data[7] = Double.NaN;
+        array = block.createDataArray("array", "test", DataType.Double, new NDSize(new int[]{10, 2}));
+        array.setData(data, new NDSize(new int[]{10, 2}), new NDSize(new int[]{0, 0}));
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testAccumulator() {
+        Statistics.Accumulator all = new Statistics.Accumulator();
+        Statistics.Accumulator first = new Statistics.Accumulator();
+        Statistics.Accumulator second = new Statistics.Accumulator();
+        for (int i = 0; i < 100; i++) {
+            double value = Math.sin(i);
+            all.add(value);
+            (i < 30 ? first : second).add(value);
+        }
+
+        Statistics expected = all.toStatistics();
+        Statistics merged = first.merge(second).toStatistics();
+        assertEquals(expected.getCount(), merged.getCount());
+        assertEquals(expected.getMean(), merged.getMean(), 1e-12);
+        assertEquals(expected.getStandardDeviation(), merged.getStandardDeviation(), 1e-12);
+        assertEquals(expected.getMin(), merged.getMin(), 0.0);
+        assertEquals(expected.getMax(), merged.getMax(), 0.0);
+    }
+
+    @Test
+    public void testCompute() {
+        Statistics stats = Statistics.compute(array);
+
+        assertEquals(19, stats.getCount());
+        assertEquals(1, stats.getNanCount());
+        assertEquals(0.0, stats.getMin(), 0.0);
+        assertEquals(19.0, stats.getMax(), 0.0);
+        assertEquals((190.0 - 7.0) / 19, stats.getMean(), 1e-12);
+    }
+
+    @Test
+    public void testStorage() {
+        assertNull(Statistics.load(file, array));
+
+        Statistics stats = Statistics.of(file, array);
+        Statistics loaded = Statistics.load(file, array);
+        assertNotNull(loaded);
+        assertEquals(stats.getCount(), loaded.getCount());
+        assertEquals(stats.getMean(), loaded.getMean(), 0.0);
+
+        // the statistics are not metadata of the array
+        assertNull(array.getMetadata());
+        Section section = file.getSection(Statistics.SECTION_TYPE + "." + array.getId());
+        assertEquals(Statistics.SECTION_TYPE, section.getType());
+        StringWriter json = new StringWriter();
+        MetadataTree.exportJson(file, json);
+        assertFalse(json.toString().contains(Statistics.SECTION_TYPE));
+
+        // writing data invalidates the statistics
+        array.setData(new double[]{100.0}, new NDSize(new int[]{1, 1}), new NDSize(new int[]{0, 0}));
+        assertNull(Statistics.load(file, array));
+
+        stats = Statistics.of(file, array);
+        assertEquals(100.0, stats.getMax(), 0.0);
+
+        // existing metadata is kept
+        DataArray other = block.createDataArray("other", "test", DataType.Double, new NDSize(new int[]{2}));
+        other.setData(new double[]{1.0, 3.0}, new NDSize(new int[]{2}), new NDSize(new int[]{0}));
+        Section metadata = file.createSection("recording", "test");
+        other.setMetadata(metadata);
+
+        Statistics.of(file, other);
+        assertEquals("recording", other.getMetadata().getName());
+        assertEquals(0, other.getMetadata().getSections().size());
+        assertEquals(2.0, Statistics.load(file, other).getMean(), 0.0);
+
+        Statistics.invalidate(file, other);
+        assertNull(Statistics.load(file, other));
+    }
+
+    @Test
+    public void testReopen() throws InterruptedException {
+        // statistics stored within the second of the last update are not trusted after reopening
+        Thread.sleep(1000);
+        Statistics stats = Statistics.of(file, array);
+
+        String location = file.getLocation();
+        String id = array.getId();
+        file.close();
+        file = File.open(location, FileMode.ReadWrite);
+        array = file.getBlock("statistics").getDataArray(id);
+
+        Statistics loaded = Statistics.load(file, array);
+        assertNotNull(loaded);
+        assertEquals(stats.getMean(), loaded.getMean(), 0.0);
+
+        // a write in a later session is seen without loading the statistics first
+        file.close();
+        file = File.open(location, FileMode.ReadWrite);
+        array = file.getBlock("statistics").getDataArray(id);
+        array.setData(new double[]{100.0}, new NDSize(new int[]{1, 1}), new NDSize(new int[]{0, 0}));
+
+        file.close();
+        file = File.open(location, FileMode.ReadWrite);
+        array = file.getBlock("statistics").getDataArray(id);
+        assertNull(Statistics.load(file, array));
+        assertEquals(100.0, Statistics.of(file, array).getMax(), 0.0);
+    }
+}
@@ -0,0 +1,137 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.TileReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestTileReader {
+
+    private File file;
+    private Block block;
+    private DataArray stack;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_TileReader_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("images", "test");
+
+        // 2 frames of 10 x 12 pixels, value = z * 1000 + y * 100 + x
+        double[] data = new double[2 * 10 * 12];
+        for (int z = 0; z < 2; z++) {
+            for (int y = 0; y < 10; y++) {
+                for (int x = 0; x < 12; x++) {
+                    data[(z * 10 + y) * 12 + x] = z * 1000 + y * 100 + x;
+                }
+            }
+        }
+        stack = block.createDataArray("stack", "nix.image.stack", DataType.Double, new NDSize(new int[]{2, 10, 12}));
+        stack.setData(data, new NDSize(new int[]{2, 10, 12}), new NDSize(new int[]{0, 0, 0}));
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testReadTile() {
+        TileReader reader = new TileReader(file, stack, 4, 5);
+        assertEquals(3, reader.getTileCountX());
+        assertEquals(3, reader.getTileCountY());
+
+        TileReader.Tile tile = reader.readTile(1, 1, 1);
+        assertEquals(5, tile.getX());
+        assertEquals(4, tile.getY());
+        assertEquals(5, tile.getWidth());
+        assertEquals(4, tile.getHeight());
+        assertEquals(1405.0, tile.get(0, 0), 0.0);
+        assertEquals(1709.0, tile.get(3, 4), 0.0);
+
+        // the neighbours were prefetched
+        assertEquals(9, reader.getCache().size());
+        assertSame(tile, reader.readTile(1, 1, 1));
+
+        // border tile
+        tile = reader.readTile(0, 2, 2);
+        assertEquals(2, tile.getWidth());
+        assertEquals(2, tile.getHeight());
+        assertEquals(811.0, tile.get(0, 1), 0.0);
+
+        try {
+            reader.readTile(2, 0, 0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCache() {
+        TileReader.TileCache cache = new TileReader.TileCache(2);
+        TileReader reader = new TileReader(file, stack, 4, 5, cache).setPrefetch(false);
+
+        TileReader.Tile first = reader.readTile(0, 0, 0);
+        reader.readTile(0, 1, 0);
+        assertSame(first, reader.readTile(0, 0, 0));
+        reader.readTile(0, 2, 0);
+
+        // (0, 1, 0) was least recently used
+        assertEquals(2, cache.size());
+        assertSame(first, reader.readTile(0, 0, 0));
+    }
+
+    @Test
+    public void testInvalidation() throws IOException {
+        TileReader reader = new TileReader(file, stack, 4, 5);
+        TileReader.TileCache cache = reader.getCache();
+        TileReader.Tile tile = reader.readTile(1, 0, 0);
+        reader.readTile(0, 0, 0);
+        assertEquals(8, cache.size());
+
+        // writing the second frame drops its tiles only
+        stack.setData(new double[]{-1.0}, new NDSize(new int[]{1, 1, 1}), new NDSize(new int[]{1, 0, 0}));
+        assertEquals(4, cache.size());
+        TileReader.Tile written = reader.readTile(1, 0, 0);
+        assertNotSame(tile, written);
+        assertEquals(-1.0, written.get(0, 0), 0.0);
+
+        // closing the file drops its tiles
+        String location = file.getLocation();
+        file.close();
+        assertEquals(0, cache.size());
+
+        // tiles of the same array in a copy of the file are kept apart
+        java.io.File copy = new java.io.File("test_TileReader_" + UUID.randomUUID().toString() + ".h5");
+        Files.copy(Paths.get(location), copy.toPath());
+        file = File.open(location, FileMode.ReadWrite);
+        File other = File.open(copy.getPath(), FileMode.ReadWrite);
+        try {
+            DataArray original = file.getBlock("images").getDataArray("stack");
+            DataArray copied = other.getBlock("images").getDataArray("stack");
+            assertEquals(original.getId(), copied.getId());
+            copied.setData(new double[]{-2.0}, new NDSize(new int[]{1, 1, 1}), new NDSize(new int[]{0, 0, 0}));
+
+            assertEquals(-2.0, new TileReader(other, copied, 4, 5, cache).readTile(0, 0, 0).get(0, 0), 0.0);
+            assertEquals(0.0, new TileReader(file, original, 4, 5, cache).readTile(0, 0, 0).get(0, 0), 0.0);
+        } finally {
+            other.close();
+            copy.delete();
+        }
+    }
+}
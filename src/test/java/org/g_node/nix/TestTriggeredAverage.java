@@ -0,0 +1,130 @@
+package org.g_node.nix;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.TriggeredAverage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestTriggeredAverage {
+
+    private File file;
+    private Block block;
+    private DataArray signal;
+    private MultiTag multiTag;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_TriggeredAverage_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+        block = file.createBlock("averages", "test");
+
+        double[] data = new double[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        signal = block.createDataArray("signal", "test", DataType.Double, new NDSize(new int[]{100}));
+        signal.setData(data, new NDSize(new int[]{100}), new NDSize(new int[]{0}));
+        SampledDimension dim = signal.appendSampledDimension(1.0);
+        dim.setUnit("ms");
+
+        // the first and the last event do not have a complete window
+        double[] positions = {2.0, 40.0, 20.0, 98.0};
+        DataArray positionArray = block.createDataArray("positions", "test", DataType.Double, new NDSize(new int[]{4, 1}));
+        positionArray.setData(positions, new NDSize(new int[]{4, 1}), new NDSize(new int[]{0, 0}));
+
+        multiTag = block.createMultiTag("events", "test", positionArray);
+        multiTag.addReference(signal);
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testCompute() {
+        TriggeredAverage ta = new TriggeredAverage(signal, 5.0, 5.0);
+        assertEquals(10, ta.getWindowSize());
+
+        TriggeredAverage.Average avg = ta.compute(new double[]{20.0, 40.0}, "ms");
+        assertEquals(2, avg.getCount());
+        for (int k = 0; k < 10; k++) {
+            assertEquals(25.0 + k, avg.getMean()[k], 1e-9);
+            assertEquals(Math.sqrt(200.0), avg.getStandardDeviation()[k], 1e-9);
+            assertEquals(k - 5.0, avg.getAxis()[k], 1e-9);
+        }
+
+        // positions given in seconds
+        avg = ta.compute(new double[]{0.02, 0.04}, "s");
+        assertEquals(2, avg.getCount());
+        assertEquals(25.0, avg.getMean()[0], 1e-9);
+    }
+
+    @Test
+    public void testChunks() {
+        double[] positions = {20.0, 22.0, 40.0, 75.0};
+        TriggeredAverage.Average expected = new TriggeredAverage(signal, 5.0, 5.0).compute(positions, "ms");
+        TriggeredAverage.Average chunked = new TriggeredAverage(signal, 5.0, 5.0).setChunkSize(7).compute(positions, "ms");
+
+        assertEquals(4, chunked.getCount());
+        assertArrayEquals(expected.getMean(), chunked.getMean(), 1e-9);
+        assertArrayEquals(expected.getStandardDeviation(), chunked.getStandardDeviation(), 1e-9);
+        assertEquals((15.0 + 17.0 + 35.0 + 70.0) / 4, chunked.getMean()[0], 1e-9);
+    }
+
+    @Test
+    public void testEventBeforeOffset() {
+        signal.getDimension(1).asSampledDimension().setOffset(10.0);
+
+        // the first event lies before the first sample
+        TriggeredAverage.Average avg = new TriggeredAverage(signal, 0.0, 5.0).compute(new double[]{5.0, 30.0}, "ms");
+        assertEquals(1, avg.getCount());
+        assertEquals(20.0, avg.getMean()[0], 1e-9);
+
+        // an event less than half a sample before the first sample belongs to it
+        avg = new TriggeredAverage(signal, 0.0, 5.0).compute(new double[]{9.6, 30.0}, "ms");
+        assertEquals(2, avg.getCount());
+        assertEquals(10.0, avg.getMean()[0], 1e-9);
+    }
+
+    @Test
+    public void testLargeOffset() {
+        // small differences on top of a large value
+        double[] data = new double[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = 1e9 + (i % 2);
+        }
+        signal.setData(data, new NDSize(new int[]{100}), new NDSize(new int[]{0}));
+
+        double[] positions = {10.0, 11.0, 20.0, 21.0};
+        TriggeredAverage.Average avg = new TriggeredAverage(signal, 0.0, 2.0).setChunkSize(5).compute(positions, "ms");
+        assertEquals(4, avg.getCount());
+        assertEquals(1e9 + 0.5, avg.getMean()[0], 1e-6);
+        assertEquals(Math.sqrt(1.0 / 3.0), avg.getStandardDeviation()[0], 1e-9);
+        assertEquals(Math.sqrt(1.0 / 3.0), avg.getStandardDeviation()[1], 1e-9);
+    }
+
+    @Test
+    public void testMultiTag() {
+        TriggeredAverage.Average avg = new TriggeredAverage(signal, 5.0, 5.0).setChunkSize(16).compute(multiTag);
+
+        assertEquals(2, avg.getCount());
+        assertEquals(25.0, avg.getMean()[0], 1e-9);
+        assertEquals(34.0, avg.getMean()[9], 1e-9);
+
+        avg = new TriggeredAverage(signal, 5.0, 5.0).compute(new double[]{2.0}, "ms");
+        assertEquals(0, avg.getCount());
+        assertTrue(Double.isNaN(avg.getMean()[0]));
+    }
+}
@@ -1,6 +1,7 @@
 package org.g_node.nix;
 
 import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.util.UnitCache;
 import org.g_node.nix.util.Util;
 import org.junit.After;
 import org.junit.Before;
@@ -191,4 +192,34 @@ public class TestUtil {
         String unit = " mul/µs ";
         assertEquals(Util.unitSanitizer(unit), "ul/us");
     }
+
+    @Test
+    public void testUnitCache() {
+        UnitCache.clear();
+
+        assertTrue(UnitCache.getSIScaling("mV", "kV") == Util.getSIScaling("mV", "kV"));
+        assertTrue(UnitCache.getSIScaling("mV", "kV") == 1e-6);
+        assertTrue(UnitCache.isScalable("ms", "s"));
+        assertFalse(UnitCache.isScalable("mOhm", "ms"));
+
+        try {
+            UnitCache.getSIScaling("mOhm", "ms");
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        assertEquals("ul/us", UnitCache.unitSanitizer(" mul/µs "));
+        assertTrue(UnitCache.isSIUnit("mV"));
+        assertFalse(UnitCache.isSIUnit("foo"));
+        assertArrayEquals(Util.splitUnit("mV^2"), UnitCache.splitUnit("mV^2"));
+
+        // units are checked as given, not sanitized
+        for (String unit : new String[]{"µV", "mu V", " mV ", "m V"}) {
+            assertEquals(unit, Util.isSIUnit(unit), UnitCache.isSIUnit(unit));
+        }
+
+        assertTrue(UnitCache.size() > 0);
+        UnitCache.clear();
+        assertEquals(0, UnitCache.size());
+    }
 }
@@ -0,0 +1,78 @@
+package org.g_node.nix;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.jcip.annotations.NotThreadSafe;
+import org.g_node.nix.internal.NativeEvents;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@NotThreadSafe
+public class TestFlightRecorder {
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = File.open("test_FlightRecorder_" + UUID.randomUUID().toString() + ".h5", FileMode.Overwrite);
+    }
+
+    @After
+    public void tearDown() {
+        String location = file.getLocation();
+
+        file.close();
+
+        // delete file
+        java.io.File f = new java.io.File(location);
+        f.delete();
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        assertFalse(NativeEvents.isEnabled());
+
+        Block block = file.createBlock("block", "test");
+        DataArray array = block.createDataArray("array", "test", DataType.Double, new NDSize(new int[]{10}));
+        Path dump = Files.createTempFile("test_File_", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.g_node.nix.File");
+            recording.enable("org.g_node.nix.Data");
+            recording.enable("org.g_node.nix.Validate");
+            recording.start();
+            assertTrue(NativeEvents.isEnabled());
+
+            array.setData(new double[10], new NDSize(new int[]{10}), new NDSize(new int[]{0}));
+            array.getData(new double[5], new NDSize(new int[]{5}), new NDSize(new int[]{2}));
+            file.validate();
+
+            recording.stop();
+            assertFalse(NativeEvents.isEnabled());
+            recording.dump(dump);
+        }
+
+        List<String> operations = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            String name = event.getEventType().getName();
+            if (name.equals("org.g_node.nix.Data")) {
+                assertEquals(event.getString("arrayId"), array.getId());
+                operations.add(event.getString("operation") + " " + event.getLong("bytes"));
+            } else if (name.equals("org.g_node.nix.Validate")) {
+                operations.add("validate " + event.getInt("errors"));
+            }
+        }
+        Files.delete(dump);
+        Collections.sort(operations);
+        assertEquals(operations, Arrays.asList("read 40", "validate 0", "write 80"));
+    }
+}